@@ -89,6 +89,43 @@ app.post('/v1/connaissance-clients', (req, res) => {
   res.status(201).json(newClient);
 });
 
+// Recherche approchée (trigrammes nom, prénom, ville), comme l'index en mémoire du backend
+function normaliser(texte) {
+  return (texte || '').toLowerCase().normalize('NFD').replace(/\p{M}+/gu, '')
+    .replace(/œ/g, 'oe').replace(/æ/g, 'ae').replace(/[^a-z0-9]+/g, ' ').trim();
+}
+
+function trigrammes(texte, saisie) {
+  const mots = normaliser(texte).split(' ').filter(Boolean);
+  const resultat = new Set();
+  mots.forEach((mot, i) => {
+    const complet = '  ' + mot + (saisie && i === mots.length - 1 ? '' : ' ');
+    for (let j = 0; j + 3 <= complet.length; j++) resultat.add(complet.substring(j, j + 3));
+  });
+  return resultat;
+}
+
+// Route pour la recherche approchée (saisie progressive) : identifiants, du plus proche au moins proche
+app.get('/v1/connaissance-clients/recherche', (req, res) => {
+  const recherche = trigrammes(req.query.q, true);
+  const limite = Math.min(Math.max(parseInt(req.query.limit, 10) || 10, 1), 50);
+  if (recherche.size === 0) {
+    return res.json([]);
+  }
+  const clients = readDB()['connaissance-clients'] || [];
+  const resultats = clients
+    .map(client => {
+      const fiche = trigrammes(`${client.nom} ${client.prenom} ${client.ville}`, false);
+      const communs = [...recherche].filter(t => fiche.has(t)).length;
+      return { id: client.id, score: communs / recherche.size, longueur: fiche.size };
+    })
+    .filter(r => r.score >= 0.5)
+    .sort((a, b) => b.score - a.score || a.longueur - b.longueur)
+    .slice(0, limite)
+    .map(r => r.id);
+  res.json(resultats);
+});
+
 // Route pour récupérer un client par ID
 app.get('/v1/connaissance-clients/:id', (req, res) => {
   const db = readDB();
@@ -225,6 +262,7 @@ app.listen(8080, () => {
   console.log('📋 API Endpoints disponibles:');
   console.log('   GET    /v1/connaissance-clients       - Liste des clients');
   console.log('   POST   /v1/connaissance-clients       - Créer/modifier un client');
+  console.log('   GET    /v1/connaissance-clients/recherche?q= - Recherche approchée (identifiants)');
   console.log('   GET    /v1/connaissance-clients/:id   - Détails d\'un client');
   console.log('   DELETE /v1/connaissance-clients/:id   - Supprimer un client');
   console.log('   PUT    /v1/connaissance-clients/:id/adresse - Modifier l\'adresse');
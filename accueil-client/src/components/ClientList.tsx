@@ -4,6 +4,10 @@ import { ConnaissanceClientAPI } from '../services/api';
 import { formatDisplayName, formatAddress, formatSituationFamiliale } from '../utils/validation';
 import './ClientList.css';
 
+const SEARCH_DEBOUNCE_MS = 250;
+const SEARCH_LIMIT = 20;
+const MAX_SEARCH_LENGTH = 100;
+
 interface ClientListProps {
   onClientSelect: (client: ConnaissanceClient) => void;
   onNewClient: () => void;
@@ -17,19 +21,54 @@ export const ClientList: React.FC<ClientListProps> = ({
 }) => {
   const [clients, setClients] = useState<ConnaissanceClient[]>([]);
   const [loading, setLoading] = useState(true);
+  // Cursor of the next page (X-Next-Cursor), null once the last page is loaded
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [searchTerm, setSearchTerm] = useState('');
+  // Server-side fuzzy search results; null falls back to the local filter
+  const [searchResults, setSearchResults] = useState<ConnaissanceClient[] | null>(null);
 
   useEffect(() => {
     fetchClients();
   }, [refreshTrigger]);
 
+  useEffect(() => {
+    const term = searchTerm.trim();
+    if (!term) {
+      setSearchResults(null);
+      return;
+    }
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const ids = await ConnaissanceClientAPI.rechercherClients(term.substring(0, MAX_SEARCH_LENGTH), SEARCH_LIMIT);
+        const loaded = new Map(clients.map(client => [client.id, client] as [string, ConnaissanceClient]));
+        const found = await Promise.all(ids.map(id =>
+          loaded.get(id) ?? ConnaissanceClientAPI.getConnaissanceClient(id).catch(() => undefined)
+        ));
+        if (!cancelled) {
+          setSearchResults(found.filter((client): client is ConnaissanceClient => client !== undefined));
+        }
+      } catch {
+        if (!cancelled) {
+          setSearchResults(null);
+        }
+      }
+    }, SEARCH_DEBOUNCE_MS);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [searchTerm, clients]);
+
   const fetchClients = async () => {
     try {
       setLoading(true);
       setError(null);
-      const clientsData = await ConnaissanceClientAPI.getConnaissanceClients();
-      setClients(clientsData);
+      const page = await ConnaissanceClientAPI.getConnaissanceClients();
+      setClients(page.clients);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Erreur lors du chargement des clients');
     } finally {
@@ -37,6 +76,23 @@ export const ClientList: React.FC<ClientListProps> = ({
     }
   };
 
+  const fetchMoreClients = async () => {
+    if (!nextCursor || loadingMore) {
+      return;
+    }
+    try {
+      setLoadingMore(true);
+      setError(null);
+      const page = await ConnaissanceClientAPI.getConnaissanceClients(nextCursor);
+      setClients(loaded => [...loaded, ...page.clients]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError(err instanceof Error ? err.message : 'Erreur lors du chargement des clients');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleDelete = async (id: string, event: React.MouseEvent) => {
     event.stopPropagation();
     
@@ -47,12 +103,13 @@ export const ClientList: React.FC<ClientListProps> = ({
     try {
       await ConnaissanceClientAPI.deleteConnaissanceClient(id);
       setClients(clients.filter(client => client.id !== id));
+      setSearchResults(results => results && results.filter(client => client.id !== id));
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Erreur lors de la suppression');
     }
   };
 
-  const filteredClients = clients.filter(client => {
+  const filteredClients = searchResults ?? clients.filter(client => {
     const searchLower = searchTerm.toLowerCase();
     return (
       client.nom.toLowerCase().includes(searchLower) ||
@@ -134,6 +191,13 @@ export const ClientList: React.FC<ClientListProps> = ({
             ))}
           </div>
         )}
+        {searchResults === null && nextCursor && (
+          <div className="load-more">
+            <button onClick={fetchMoreClients} className="load-more-btn" disabled={loadingMore}>
+              {loadingMore ? 'Chargement...' : 'Charger plus de clients'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
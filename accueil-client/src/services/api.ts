@@ -3,6 +3,7 @@ import {
   ConnaissanceClient,
   ConnaissanceClientIn,
   ConnaissanceClients,
+  PageConnaissanceClients,
   Adresse,
   Situation,
   ApiErrorResponse
@@ -10,6 +11,8 @@ import {
 
 // API Configuration
 const API_BASE_URL = process.env.REACT_APP_API_BASE_URL || 'http://localhost:8080';
+// Clients per page of GET /v1/connaissance-clients (API default 50, maximum 500)
+export const PAGE_SIZE = 50;
 
 const apiClient = axios.create({
   baseURL: API_BASE_URL,
@@ -28,13 +31,20 @@ apiClient.interceptors.response.use(
 );
 
 export class ConnaissanceClientAPI {
-  // Get all clients
-  static async getConnaissanceClients(): Promise<ConnaissanceClients> {
+  // Get a page of clients (keyset pagination: pass the previous page's nextCursor as after)
+  static async getConnaissanceClients(
+    after?: string,
+    limit: number = PAGE_SIZE
+  ): Promise<PageConnaissanceClients> {
     try {
       const response: AxiosResponse<ConnaissanceClients> = await apiClient.get(
-        '/v1/connaissance-clients'
+        '/v1/connaissance-clients',
+        { params: { after, limit } }
       );
-      return response.data;
+      return {
+        clients: response.data,
+        nextCursor: response.headers['x-next-cursor'] ?? null,
+      };
     } catch (error) {
       throw this.handleApiError(error);
     }
@@ -52,6 +62,19 @@ export class ConnaissanceClientAPI {
     }
   }
 
+  // Fuzzy type-ahead search on nom, prenom and ville (client ids, best match first)
+  static async rechercherClients(q: string, limit: number = 10): Promise<string[]> {
+    try {
+      const response: AxiosResponse<string[]> = await apiClient.get(
+        '/v1/connaissance-clients/recherche',
+        { params: { q, limit } }
+      );
+      return response.data;
+    } catch (error) {
+      throw this.handleApiError(error);
+    }
+  }
+
   // Create client
   static async saveConnaissanceClient(
     client: ConnaissanceClientIn
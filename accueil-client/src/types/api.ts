@@ -57,6 +57,12 @@ export enum SituationFamiliale {
 
 export type ConnaissanceClients = ConnaissanceClient[];
 
+// Page of clients; nextCursor (X-Next-Cursor header) is null on the last page
+export interface PageConnaissanceClients {
+  clients: ConnaissanceClients;
+  nextCursor: string | null;
+}
+
 // Form validation types
 export interface ValidationError {
   field: string;
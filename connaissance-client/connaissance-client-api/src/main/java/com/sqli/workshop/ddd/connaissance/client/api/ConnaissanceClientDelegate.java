@@ -4,55 +4,167 @@ import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientServic
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.AdresseInvalideException;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ClientInconnuException;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
 import com.sqli.workshop.ddd.connaissance.client.generated.api.model.*;
 import com.sqli.workshop.ddd.connaissance.client.generated.api.server.ConnaissanceClientApiDelegate;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.context.request.NativeWebRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Implémentation de l'API ConnaissanceClient.
+ * <p>
+ * <strong>Concurrence optimiste :</strong> la version de la fiche est exposée dans le header
+ * {@code ETag} ({@code "<version>"}). Les PUT acceptent un header {@code If-Match} : la fiche
+ * n'est modifiée que si elle est encore à cette version, sinon 412 Precondition Failed. Sans
+ * {@code If-Match}, la modification s'applique quelle que soit la version.
+ * <p>
+ * <strong>Lectures conditionnelles :</strong> les GET acceptent un header {@code If-None-Match} et
+ * répondent 304 Not Modified, sans corps, si la ressource n'a pas changé. Pour une fiche, seule sa
+ * version est lue ; pour une page, l'ETag est une empreinte des identifiants et versions des fiches
+ * et du curseur suivant, calculée sans construire ni sérialiser les DTO.
+ * <p>
+ * <strong>Fiches pré-sérialisées :</strong> avec {@link FichesClientJson}, la consultation d'une
+ * fiche écrit directement dans la réponse le JSON mis en cache pour sa version courante.
+ * <p>
+ * <strong>Lecture directe :</strong> avec {@link LectureJsonDirecte}, la liste est écrite dans la
+ * réponse à partir des champs lus en base, sans construire les fiches ni les DTO.
+ */
 @Component
 @Slf4j
 public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate {
 
+    static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
     private final ConnaissanceClientService service;
     private final NativeWebRequest request;
+    private final FichesClientJson fichesJson;
+    private final LectureJsonDirecte lectureDirecte;
 
-    public ConnaissanceClientDelegate(ConnaissanceClientService service, Optional<NativeWebRequest> request) {
+    public ConnaissanceClientDelegate(ConnaissanceClientService service, Optional<NativeWebRequest> request,
+                                      Optional<FichesClientJson> fichesJson, Optional<LectureJsonDirecte> lectureDirecte) {
         this.service = service;
         this.request = request.orElse(null);
+        this.fichesJson = fichesJson.orElse(null);
+        this.lectureDirecte = lectureDirecte.orElse(null);
     }
 
+    /**
+     * Liste paginée par curseur : le curseur de la page suivante est retourné dans le
+     * header {@code X-Next-Cursor}, absent sur la dernière page. 304 Not Modified si la page
+     * correspond au header {@code If-None-Match}.
+     * <p>
+     * En lecture directe, la page sérialisée est écrite dans la réponse et la méthode retourne
+     * {@code null} (la réponse est déjà produite).
+     */
     @Override
-    public ResponseEntity<List<ConnaissanceClientDto>> getConnaissanceClients() {
-        return ResponseEntity.ok(
-                service.listerClients().stream()
-                        .map(this::mapToDto).collect(Collectors.toList()));
+    public ResponseEntity<List<ConnaissanceClientDto>> getConnaissanceClients(Integer limit, UUID after, String codePostal, String nom, SituationFamilialeDto situationFamiliale,
+                                                                              String departement, String debutNom, String debutPrenom) {
+        CriteresClient criteres = new CriteresClient(
+                Optional.ofNullable(codePostal).map(CodePostal::new),
+                Optional.ofNullable(nom).map(Nom::new),
+                Optional.ofNullable(situationFamiliale).map(sf -> SituationFamiliale.valueOf(sf.getValue())),
+                Optional.ofNullable(departement).map(Departement::new),
+                Optional.ofNullable(debutNom),
+                Optional.ofNullable(debutPrenom)
+        );
+        Pagination pagination = new Pagination(limit != null ? limit : Pagination.TAILLE_PAR_DEFAUT, Optional.ofNullable(after));
+        HttpServletResponse reponse = lectureDirecte != null && request != null
+                ? request.getNativeResponse(HttpServletResponse.class) : null;
+        if (reponse != null) {
+            var pageJson = lectureDirecte.page(criteres, pagination);
+            if (nonModifie(pageJson.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(pageJson.etag()).build();
+            }
+            pageJson.suivant().ifPresent(suivant -> reponse.setHeader(HEADER_NEXT_CURSOR, suivant.toString()));
+            return ecrire(reponse, pageJson.etag(), pageJson.json());
+        }
+        PageClients page = service.listerClients(criteres, pagination);
+        String etag = etagPage(page);
+        if (nonModifie(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        var response = ResponseEntity.ok().eTag(etag);
+        page.suivant().ifPresent(suivant -> response.header(HEADER_NEXT_CURSOR, suivant.toString()));
+        return response.body(page.clients().stream()
+                .map(ConnaissanceClientDelegate::mapToDto).collect(Collectors.toList()));
     }
 
+    /**
+     * Recherche approchée pour la saisie progressive : identifiants seuls, les fiches sont lues
+     * par le client ou déjà affichées.
+     */
+    @Override
+    public ResponseEntity<List<UUID>> rechercherConnaissanceClients(String q, Integer limit) {
+        return ResponseEntity.ok(service.rechercherClients(q, limit != null ? limit : 10));
+    }
+
+    /**
+     * Consultation d'une fiche. Avec un header {@code If-None-Match} ou le cache des fiches
+     * sérialisées, la version de la fiche est lue d'abord :
+     * <ul>
+     *   <li>304 Not Modified si elle correspond au header {@code If-None-Match}, sans lire la fiche</li>
+     *   <li>JSON en cache pour cette version écrit directement dans la réponse, sans lire la fiche ni
+     *   la sérialiser (la méthode retourne alors {@code null} : la réponse est déjà produite)</li>
+     * </ul>
+     */
     @Override
     public ResponseEntity<ConnaissanceClientDto> getConnaissanceClient(UUID id) {
+        HttpServletResponse reponse = fichesJson != null && request != null
+                ? request.getNativeResponse(HttpServletResponse.class) : null;
+        if (reponse != null || (request != null && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null)) {
+            var version = service.versionClient(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = etag(version.get());
+            if (nonModifie(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            if (reponse != null) {
+                var json = fichesJson.lire(id, version.get());
+                if (json.isPresent()) {
+                    return ecrire(reponse, etag, json.get());
+                }
+            }
+        }
         var connaissanceClient = service.informationsClient(id);
         if (connaissanceClient.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(mapToDto(connaissanceClient.get()));
+        if (reponse != null) {
+            Client client = connaissanceClient.get();
+            return ecrire(reponse, client.getVersion() != null ? etag(client.getVersion()) : null, fichesJson.enregistrer(client));
+        }
+        return avecVersion(ResponseEntity.ok(), connaissanceClient.get()).body(mapToDto(connaissanceClient.get()));
     }
 
     @Override
@@ -63,18 +175,21 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
         } catch (AdresseInvalideException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(mapToDto(connaissanceClient));
+        return avecVersion(ResponseEntity.status(HttpStatus.CREATED), connaissanceClient).body(mapToDto(connaissanceClient));
     }
 
     @Override
     public ResponseEntity<ConnaissanceClientDto> changerSituation(UUID id, SituationDto situationDto) {
         Client connaissanceClient;
+        invalider(id);
         try {
-            connaissanceClient = service.changementSituation(id, SituationFamiliale.valueOf(situationDto.getSituationFamiliale().getValue()), situationDto.getNombreEnfants());
+            connaissanceClient = service.changementSituation(id, SituationFamiliale.valueOf(situationDto.getSituationFamiliale().getValue()), situationDto.getNombreEnfants(), versionAttendue());
         } catch (ClientInconnuException e) {
             return ResponseEntity.notFound().build();
+        } catch (ConflitVersionException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         }
-        return ResponseEntity.ok(mapToDto(connaissanceClient));
+        return avecVersion(ResponseEntity.ok(), connaissanceClient).body(mapToDto(connaissanceClient));
     }
 
     @Override
@@ -85,16 +200,20 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
     @Override
     public ResponseEntity<ConnaissanceClientDto> changerAdresse(UUID id, AdresseDto adresseDto) {
         Client connaissanceClient = null;
+        invalider(id);
         try {
-          connaissanceClient = service.changementAdresse(id, mapToDomain(adresseDto));
+          connaissanceClient = service.changementAdresse(id, mapToDomain(adresseDto), versionAttendue());
         }
         catch (AdresseInvalideException | ClientInconnuException e) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(mapToDto(connaissanceClient));
+        catch (ConflitVersionException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return avecVersion(ResponseEntity.ok(), connaissanceClient).body(mapToDto(connaissanceClient));
     }
 
-    private ConnaissanceClientDto mapToDto(Client connaissanceClient) {
+    static ConnaissanceClientDto mapToDto(Client connaissanceClient) {
         ConnaissanceClientDto connaissanceClientDto = new ConnaissanceClientDto();
         connaissanceClientDto.setId(connaissanceClient.getId());
         connaissanceClientDto.setNom(connaissanceClient.getNom().value());
@@ -112,6 +231,7 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
 
     @Override
     public ResponseEntity<Void> deleteConnaissanceClient(UUID id) {
+        invalider(id);
         service.supprimerClient(id);
         return ResponseEntity.ok().build();
     }
@@ -126,6 +246,7 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
      * <ul>
      *   <li>200 OK : Modification réussie, retourne la fiche complète</li>
      *   <li>404 Not Found : Client inexistant</li>
+     *   <li>412 Precondition Failed : Fiche modifiée depuis la version du header If-Match</li>
      *   <li>422 Unprocessable Entity : Adresse invalide (validation API IGN échouée)</li>
      *   <li>500 Internal Server Error : Erreur serveur inattendue</li>
      * </ul>
@@ -141,7 +262,7 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
      * 
      * @param id l'identifiant UUID du client à modifier
      * @param connaissanceClientInDto les nouvelles données complètes du client (DTO OpenAPI)
-     * @return ResponseEntity avec le client modifié (200), ou erreur (404/422/500)
+     * @return ResponseEntity avec le client modifié (200), ou erreur (404/412/422/500)
      * 
      * @see ConnaissanceClientService#modifierClient(UUID, Client)
      */
@@ -155,12 +276,13 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
             log.info("Processing modifierClient request for client: {}", id);
             
             // Call domain service
-            Client updatedClient = service.modifierClient(id, mapToDomain(connaissanceClientInDto));
+            invalider(id);
+            Client updatedClient = service.modifierClient(id, mapToDomain(connaissanceClientInDto), versionAttendue());
             
             log.debug("Client {} modified successfully", id);
             
-            // Build response with correlation-id header
-            return ResponseEntity.ok()
+            // Build response with correlation-id and version headers
+            return avecVersion(ResponseEntity.ok(), updatedClient)
                     .header("X-Correlation-ID", correlationId)
                     .body(mapToDto(updatedClient));
                     
@@ -172,6 +294,10 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
             log.warn("Invalid address for client: {}", id);
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
             
+        } catch (ConflitVersionException e) {
+            log.warn("Client {} modified since the expected version", id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            
         } catch (Exception e) {
             log.error("Unexpected error modifying client {}: {}", id, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -216,6 +342,99 @@ public class ConnaissanceClientDelegate implements ConnaissanceClientApiDelegate
         return UUID.randomUUID().toString();
     }
 
+    /**
+     * Version attendue d'après le header {@code If-Match} ({@code "<version>"}).
+     *
+     * @return vide sans header ou avec {@code *} (toute version)
+     * @throws ConflitVersionException si le header ne désigne pas une version de fiche : il ne
+     *                                 peut correspondre à aucune version enregistrée
+     */
+    private Optional<Long> versionAttendue() throws ConflitVersionException {
+        String ifMatch = request != null ? request.getHeader(HttpHeaders.IF_MATCH) : null;
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) return Optional.empty();
+        String etag = ifMatch.trim();
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            try {
+                return Optional.of(Long.parseLong(etag.substring(1, etag.length() - 1)));
+            } catch (NumberFormatException e) {
+                // ETag inconnu : traité ci-dessous
+            }
+        }
+        log.warn("Unsupported If-Match header: {}", ifMatch);
+        throw new ConflitVersionException();
+    }
+
+    /** ETag fort portant la version de la fiche */
+    private static ResponseEntity.BodyBuilder avecVersion(ResponseEntity.BodyBuilder response, Client client) {
+        if (client.getVersion() != null) response.eTag(etag(client.getVersion()));
+        return response;
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Écrit le JSON d'une fiche ou d'une page directement dans la réponse HTTP.
+     *
+     * @return {@code null} : la réponse est produite, Spring MVC n'a plus rien à écrire
+     */
+    private static <T> ResponseEntity<T> ecrire(HttpServletResponse reponse, String etag, byte[] json) {
+        reponse.setStatus(HttpStatus.OK.value());
+        reponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        reponse.setContentLength(json.length);
+        if (etag != null) reponse.setHeader(HttpHeaders.ETAG, etag);
+        try {
+            reponse.getOutputStream().write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /** La fiche en cache sous forme sérialisée n'est plus à jour */
+    private void invalider(UUID id) {
+        if (fichesJson != null) fichesJson.invalider(id);
+    }
+
+    /**
+     * ETag fort d'une page : empreinte des identifiants et versions des fiches, qui changent à
+     * chaque écriture, et du curseur de la page suivante.
+     */
+    static String etagPage(PageClients page) {
+        StringBuilder empreinte = new StringBuilder();
+        for (Client client : page.clients()) {
+            empreinte(empreinte, client.getId(), client.getVersion());
+        }
+        return etagPage(empreinte, page.suivant());
+    }
+
+    /** Ajoute une fiche à l'empreinte d'une page */
+    static void empreinte(StringBuilder empreinte, Object id, Long version) {
+        empreinte.append(id).append(':').append(version).append(';');
+    }
+
+    /** ETag d'une page à partir de l'empreinte de ses fiches */
+    static String etagPage(StringBuilder empreinte, Optional<UUID> suivant) {
+        suivant.ifPresent(empreinte::append);
+        return "\"" + DigestUtils.md5DigestAsHex(empreinte.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * La ressource correspond-elle au header {@code If-None-Match} ? Comparaison faible
+     * (RFC 9110) : le préfixe {@code W/} des ETags transmis est ignoré.
+     */
+    private boolean nonModifie(String etag) {
+        String ifNoneMatch = request != null ? request.getHeader(HttpHeaders.IF_NONE_MATCH) : null;
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidat : ifNoneMatch.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.startsWith("W/")) valeur = valeur.substring(2);
+            if ("*".equals(valeur) || etag.equals(valeur)) return true;
+        }
+        return false;
+    }
+
     private Client mapToDomain(ConnaissanceClientInDto connaissanceClientDto) {
         return Client.of(
                 new Nom(connaissanceClientDto.getNom()),
@@ -0,0 +1,147 @@
+package com.sqli.workshop.ddd.connaissance.client.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.generated.api.model.ConnaissanceClientDto;
+import com.sqli.workshop.ddd.connaissance.client.generated.api.model.SituationFamilialeDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Export en flux de toutes les fiches de connaissance client au format NDJSON
+ * (une fiche JSON par ligne).
+ * <p>
+ * Les fiches sont lues au travers d'un curseur MongoDB et écrites directement sur le flux
+ * de la réponse : la mémoire consommée ne dépend pas de la taille de la collection. Les
+ * écritures sur le flux HTTP étant bloquantes, un client lent ralentit la lecture du
+ * curseur (contre-pression naturelle).
+ * <p>
+ * Avec {@link LectureJsonDirecte}, les champs lus en base sont écrits tels quels, sans construire
+ * les fiches ni les DTO ; le NDJSON produit est identique.
+ * <p>
+ * <strong>Métriques :</strong>
+ * <ul>
+ *   <li>{@code connaissance.client.export.records} : fiches exportées (débit = rate)</li>
+ *   <li>{@code connaissance.client.export.ttfb} : délai avant l'envoi de la première fiche</li>
+ *   <li>{@code connaissance.client.export.duration} : durée totale d'un export</li>
+ * </ul>
+ */
+@RestController
+@Slf4j
+public class ConnaissanceClientExportController {
+
+    static final String EXPORT_PATH = "/v1/connaissance-clients:export";
+
+    private final ConnaissanceClientService service;
+    private final ObjectWriter writer;
+    private final boolean lectureDirecte;
+    private final Counter records;
+    private final Timer ttfb;
+    private final Timer duration;
+
+    public ConnaissanceClientExportController(ConnaissanceClientService service, ObjectMapper objectMapper, MeterRegistry registry,
+                                              Optional<LectureJsonDirecte> lectureDirecte) {
+        this.service = service;
+        this.lectureDirecte = lectureDirecte.isPresent();
+        // Pas de flush après chaque fiche : le tampon du générateur est vidé lorsqu'il est plein.
+        // Le séparateur de valeurs racines est remplacé par la fin de ligne écrite après chaque fiche.
+        this.writer = objectMapper.writerFor(ConnaissanceClientDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        this.records = Counter.builder("connaissance.client.export.records")
+                .description("Nombre de fiches client exportées")
+                .register(registry);
+        this.ttfb = Timer.builder("connaissance.client.export.ttfb")
+                .description("Délai avant l'envoi de la première fiche exportée")
+                .register(registry);
+        this.duration = Timer.builder("connaissance.client.export.duration")
+                .description("Durée totale d'un export de fiches client")
+                .register(registry);
+    }
+
+    @GetMapping(value = EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportConnaissanceClients(
+            @RequestParam(value = "codePostal", required = false) String codePostal,
+            @RequestParam(value = "nom", required = false) String nom,
+            @RequestParam(value = "situationFamiliale", required = false) SituationFamilialeDto situationFamiliale,
+            @RequestParam(value = "departement", required = false) String departement,
+            @RequestParam(value = "debutNom", required = false) String debutNom,
+            @RequestParam(value = "debutPrenom", required = false) String debutPrenom) {
+        CriteresClient criteres = new CriteresClient(
+                Optional.ofNullable(codePostal).map(CodePostal::new),
+                Optional.ofNullable(nom).map(Nom::new),
+                Optional.ofNullable(situationFamiliale).map(sf -> SituationFamiliale.valueOf(sf.getValue())),
+                Optional.ofNullable(departement).map(Departement::new),
+                Optional.ofNullable(debutNom),
+                Optional.ofNullable(debutPrenom)
+        );
+        long debut = System.nanoTime();
+        StreamingResponseBody body = out -> exporter(criteres, out, debut);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void exporter(CriteresClient criteres, OutputStream out, long debut) throws IOException {
+        long[] nombre = {0};
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            // Le flux de la réponse reste géré par le conteneur de servlets
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (lectureDirecte) {
+                service.exporterClients(criteres,
+                        LectureJsonDirecte.ecrivain(generator, (id, version) -> exportee(generator, nombre, debut)));
+            } else {
+                try (Stream<Client> clients = service.exporterClients(criteres)) {
+                    Iterator<Client> iterator = clients.iterator();
+                    while (iterator.hasNext()) {
+                        writer.writeValue(generator, ConnaissanceClientDelegate.mapToDto(iterator.next()));
+                        exportee(generator, nombre, debut);
+                    }
+                }
+            }
+            generator.flush();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Export interrupted after {} records: {}", nombre[0], e.getMessage());
+            throw e instanceof UncheckedIOException u ? u.getCause() : (IOException) e;
+        } finally {
+            duration.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        }
+        log.info("Export completed: {} records", nombre[0]);
+    }
+
+    /** Fin de ligne après la fiche écrite ; la première fiche est envoyée sans attendre */
+    private void exportee(JsonGenerator generator, long[] nombre, long debut) throws IOException {
+        generator.writeRaw('\n');
+        if (nombre[0]++ == 0) {
+            generator.flush();
+            ttfb.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        }
+        records.increment();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.sqli.workshop.ddd.connaissance.client.api;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.generated.api.model.ConnaissanceClientDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache des fiches client sérialisées en JSON (octets de la réponse de
+ * {@code GET /v1/connaissance-clients/{id}}), par identifiant.
+ * <p>
+ * Chaque entrée porte la version de la fiche sérialisée : elle n'est servie que pour cette
+ * version, une fiche modifiée par n'importe quel chemin d'écriture (autre instance comprise)
+ * n'est donc jamais servie périmée. Les modifications passant par l'API invalident en plus
+ * l'entrée pour libérer la mémoire.
+ * <p>
+ * Activé par défaut, désactivable via {@code connaissance-client.api.json-cache.enabled=false}.
+ * Les métriques du cache sont publiées sous le nom {@code cache.*} avec le tag
+ * {@code cache=fiches-json}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "connaissance-client.api.json-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FichesClientJson {
+
+    static final String CACHE_NAME = "fiches-json";
+
+    /** Fiche sérialisée et version correspondante */
+    private record FicheJson(long version, byte[] json) {
+    }
+
+    private final Cache<UUID, FicheJson> cache;
+    private final ObjectWriter writer;
+
+    public FichesClientJson(
+            ObjectMapper objectMapper,
+            @Value("${connaissance-client.api.json-cache.maximum-size:10000}") long maximumSize,
+            MeterRegistry registry) {
+        this.cache = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .<UUID, FicheJson>build(), CACHE_NAME);
+        this.writer = objectMapper.writerFor(ConnaissanceClientDto.class);
+    }
+
+    /**
+     * @param id l'identifiant du client
+     * @param version la version courante de la fiche
+     * @return le JSON de la fiche s'il est en cache pour cette version
+     */
+    public Optional<byte[]> lire(UUID id, long version) {
+        FicheJson fiche = cache.getIfPresent(id);
+        return fiche != null && fiche.version() == version ? Optional.of(fiche.json()) : Optional.empty();
+    }
+
+    /**
+     * Sérialise la fiche et la met en cache (si elle est versionnée).
+     *
+     * @return le JSON de la fiche
+     */
+    public byte[] enregistrer(Client client) {
+        byte[] json = serialiser(client);
+        if (client.getVersion() != null) cache.put(client.getId(), new FicheJson(client.getVersion(), json));
+        return json;
+    }
+
+    /**
+     * Sérialisation de la fiche, sans mise en cache : celle de la réponse non mise en cache.
+     */
+    public byte[] serialiser(Client client) {
+        try {
+            return writer.writeValueAsBytes(ConnaissanceClientDelegate.mapToDto(client));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de la fiche client impossible", e);
+        }
+    }
+
+    public void invalider(UUID id) {
+        cache.invalidate(id);
+    }
+
+}
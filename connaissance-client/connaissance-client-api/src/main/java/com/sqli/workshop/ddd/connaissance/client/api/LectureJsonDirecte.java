@@ -0,0 +1,115 @@
+package com.sqli.workshop.ddd.connaissance.client.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.generated.api.model.ConnaissanceClientDto;
+
+/**
+ * Lecture directe en JSON des listes de fiches client ({@code GET /v1/connaissance-clients} et
+ * export) : les champs lus en base sont écrits par le générateur Jackson de l'application, sans
+ * construire de {@link com.sqli.workshop.ddd.connaissance.client.domain.models.Client}, de
+ * {@link ConnaissanceClientDto} ni de liste intermédiaire.
+ * <p>
+ * Le JSON produit est celui de la sérialisation des {@link ConnaissanceClientDto} : mêmes champs
+ * dans le même ordre, {@code ligne2} à {@code null} si l'adresse n'en a pas, mêmes échappements
+ * et même mise en forme. Le contrat de l'API est inchangé.
+ * <p>
+ * Désactivé par défaut, activé via {@code connaissance-client.api.lecture-directe.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "connaissance-client.api.lecture-directe", name = "enabled", havingValue = "true")
+public class LectureJsonDirecte {
+
+    /** Taille usuelle d'une fiche sérialisée, pour dimensionner le tampon d'une page */
+    private static final int TAILLE_FICHE = 256;
+
+    /** Page de fiches sérialisée, curseur de la page suivante et ETag de la page */
+    public record PageJson(byte[] json, Optional<UUID> suivant, String etag) {
+    }
+
+    /** Suite donnée à l'écriture d'une fiche */
+    @FunctionalInterface
+    interface FicheEcrite {
+        void ecrite(String id, long version) throws IOException;
+    }
+
+    private final ConnaissanceClientService service;
+    private final ObjectWriter writer;
+
+    public LectureJsonDirecte(ConnaissanceClientService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.writer = objectMapper.writerFor(ConnaissanceClientDto.class);
+    }
+
+    /**
+     * Page de fiches sérialisée en tableau JSON. La page est mise en tampon (elle est bornée par
+     * {@link Pagination#TAILLE_MAX}) : le curseur suivant et l'ETag doivent être connus avant
+     * l'écriture du corps de la réponse.
+     *
+     * @param criteres les filtres optionnels
+     * @param pagination la taille de page et le curseur de départ
+     * @return la page sérialisée ; son ETag est celui de
+     *         {@link ConnaissanceClientDelegate#etagPage(com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients)}
+     */
+    public PageJson page(CriteresClient criteres, Pagination pagination) {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream(TAILLE_FICHE * pagination.taille());
+        StringBuilder empreinte = new StringBuilder();
+        Optional<UUID> suivant;
+        try (JsonGenerator json = writer.createGenerator(sortie)) {
+            json.writeStartArray();
+            suivant = service.listerClients(criteres, pagination,
+                    ecrivain(json, (id, version) -> ConnaissanceClientDelegate.empreinte(empreinte, id, version)));
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PageJson(sortie.toByteArray(), suivant, ConnaissanceClientDelegate.etagPage(empreinte, suivant));
+    }
+
+    /**
+     * Lecteur écrivant chaque fiche reçue en objet JSON sur le générateur. Les erreurs d'écriture
+     * sont levées en {@link UncheckedIOException}.
+     *
+     * @param json le générateur de la réponse
+     * @param suite appelée après l'écriture de chaque fiche
+     */
+    static LecteurFiche ecrivain(JsonGenerator json, FicheEcrite suite) {
+        return (id, nom, prenom, ligne1, ligne2, codePostal, ville, situationFamiliale, nombreEnfants, version) -> {
+            try {
+                json.writeStartObject();
+                json.writeStringField("id", id);
+                json.writeStringField("nom", nom);
+                json.writeStringField("prenom", prenom);
+                json.writeStringField("ligne1", ligne1);
+                if (ligne2 != null) {
+                    json.writeStringField("ligne2", ligne2);
+                } else {
+                    json.writeNullField("ligne2");
+                }
+                json.writeStringField("codePostal", codePostal);
+                json.writeStringField("ville", ville);
+                json.writeStringField("situationFamiliale", situationFamiliale);
+                json.writeNumberField("nombreEnfants", nombreEnfants);
+                json.writeEndObject();
+                suite.ecrite(id, version);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+}
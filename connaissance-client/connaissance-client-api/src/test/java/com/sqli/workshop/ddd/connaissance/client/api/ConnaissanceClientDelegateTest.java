@@ -3,9 +3,15 @@ package com.sqli.workshop.ddd.connaissance.client.api;
 import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.AdresseInvalideException;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
@@ -16,8 +22,17 @@ import com.sqli.workshop.ddd.connaissance.client.generated.api.server.Connaissan
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.invocation.InvocationOnMock;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -74,7 +89,7 @@ public class ConnaissanceClientDelegateTest {
     @BeforeEach
     public void init() {
         service = mock(ConnaissanceClientService.class);
-        controller = new ConnaissanceClientDelegate(service, Optional.empty());
+        controller = new ConnaissanceClientDelegate(service, Optional.empty(), Optional.empty(), Optional.empty());
     }
 
     @Test
@@ -93,13 +108,14 @@ public class ConnaissanceClientDelegateTest {
         );
         List<Client> ccList = new ArrayList<>();
         ccList.add(cc);
-        when(service.listerClients()).thenReturn(ccList);
+        when(service.listerClients(any(), any())).thenReturn(new PageClients(ccList, Optional.empty()));
         // WHEN
-        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients();
+        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients(null, null, null, null, null, null, null, null);
         // THEN
         assertEquals(HttpStatus.OK, result.getStatusCode());
         List<ConnaissanceClientDto> ccDtoList = result.getBody();
         assertNotNull(ccDtoList);
+        assertNull(result.getHeaders().getFirst("X-Next-Cursor"));
         assertEquals(1, ccDtoList.size());
         ConnaissanceClientDto ccDto = ccDtoList.getFirst();
         assertNotNull(ccDto.getId());
@@ -111,7 +127,7 @@ public class ConnaissanceClientDelegateTest {
         assertEquals("Bordeaux", ccDto.getVille());
         assertEquals(SituationFamilialeDto.CELIBATAIRE, ccDto.getSituationFamiliale());
         assertEquals(0, ccDto.getNombreEnfants().intValue());
-        verify(service).listerClients();
+        verify(service).listerClients(CriteresClient.aucun(), Pagination.premiere());
         verifyNoMoreInteractions(service);
     }
 
@@ -119,15 +135,54 @@ public class ConnaissanceClientDelegateTest {
     public void given_listerClients_return_nodata_should_return_nodata() {
         // GIVEN
         List<Client> ccList = new ArrayList<>();
-        when(service.listerClients()).thenReturn(ccList);
+        when(service.listerClients(any(), any())).thenReturn(new PageClients(ccList, Optional.empty()));
         // WHEN
-        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients();
+        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients(null, null, null, null, null, null, null, null);
         // THEN
         assertEquals(HttpStatus.OK, result.getStatusCode());
         List<ConnaissanceClientDto> ccDtoList = result.getBody();
         assertNotNull(ccDtoList);
         assertEquals(0, ccDtoList.size());
-        verify(service).listerClients();
+        verify(service).listerClients(CriteresClient.aucun(), Pagination.premiere());
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    public void given_listerClients_return_next_page_should_return_cursor_header() {
+        // GIVEN
+        UUID after = UUID.randomUUID();
+        UUID suivant = UUID.randomUUID();
+        when(service.listerClients(any(), any())).thenReturn(new PageClients(new ArrayList<>(), Optional.of(suivant)));
+        // WHEN
+        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients(10, after, "33800", "Bousquet", SituationFamilialeDto.MARIE, "33", "Bous", "Phil");
+        // THEN
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(suivant.toString(), result.getHeaders().getFirst("X-Next-Cursor"));
+        verify(service).listerClients(
+          new CriteresClient(
+            Optional.of(new CodePostal("33800")),
+            Optional.of(new Nom("Bousquet")),
+            Optional.of(SituationFamiliale.MARIE),
+            Optional.of(new Departement("33")),
+            Optional.of("Bous"),
+            Optional.of("Phil")
+          ),
+          new Pagination(10, Optional.of(after))
+        );
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    public void given_rechercherClients_return_ids_should_return_ids() {
+        // GIVEN
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(service.rechercherClients("bousqet bord", 5)).thenReturn(ids);
+        // WHEN
+        ResponseEntity<List<UUID>> result = controller.rechercherConnaissanceClients("bousqet bord", 5);
+        // THEN
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(ids, result.getBody());
+        verify(service).rechercherClients("bousqet bord", 5);
         verifyNoMoreInteractions(service);
     }
 
@@ -219,7 +274,7 @@ public class ConnaissanceClientDelegateTest {
       adr.setLigne2("Ligne 2");
       adr.setCodePostal("33800");
       adr.setVille("Bordeaux");
-      when(service.changementAdresse(any(), any())).thenAnswer(ConnaissanceClientDelegateTest::answerChangerAdresse);
+      when(service.changementAdresse(any(), any(), any())).thenAnswer(ConnaissanceClientDelegateTest::answerChangerAdresse);
         // WHEN
         ResponseEntity<ConnaissanceClientDto> result = controller.changerAdresse(UUID.randomUUID(), adr);
         // THEN
@@ -227,7 +282,7 @@ public class ConnaissanceClientDelegateTest {
         var ccDto = result.getBody();
         assertNotNull(ccDto);
         assertEquals("Ligne 2", ccDto.getLigne2());
-        verify(service).changementAdresse(any(), any());
+        verify(service).changementAdresse(any(), any(), any());
         verifyNoMoreInteractions(service);
     }
 
@@ -236,7 +291,7 @@ public class ConnaissanceClientDelegateTest {
       SituationDto sit = new SituationDto();
       sit.setSituationFamiliale(SituationFamilialeDto.MARIE);
       sit.setNombreEnfants(1);
-      when(service.changementSituation(any(), any(), anyInt())).thenAnswer(ConnaissanceClientDelegateTest::answerChangerSituation);
+      when(service.changementSituation(any(), any(), anyInt(), any())).thenAnswer(ConnaissanceClientDelegateTest::answerChangerSituation);
         // WHEN
         ResponseEntity<ConnaissanceClientDto> result = controller.changerSituation(UUID.randomUUID(), sit);
         // THEN
@@ -245,7 +300,7 @@ public class ConnaissanceClientDelegateTest {
         assertNotNull(ccDto);
         assertEquals(SituationFamilialeDto.MARIE, ccDto.getSituationFamiliale());
         assertEquals(1, ccDto.getNombreEnfants().intValue());
-        verify(service).changementSituation(any(), any(), anyInt());
+        verify(service).changementSituation(any(), any(), anyInt(), any());
         verifyNoMoreInteractions(service);
     }
 
@@ -279,7 +334,7 @@ public class ConnaissanceClientDelegateTest {
             2
         );
 
-        when(service.modifierClient(any(UUID.class), any(Client.class))).thenReturn(updatedClient);
+        when(service.modifierClient(any(UUID.class), any(Client.class), any())).thenReturn(updatedClient);
 
         // WHEN
         ResponseEntity<ConnaissanceClientDto> result = controller.modifierClient(clientId, dto);
@@ -296,7 +351,7 @@ public class ConnaissanceClientDelegateTest {
         assertEquals(SituationFamilialeDto.MARIE, responseDto.getSituationFamiliale());
         assertEquals(2, responseDto.getNombreEnfants().intValue());
 
-        verify(service).modifierClient(any(UUID.class), any(Client.class));
+        verify(service).modifierClient(any(UUID.class), any(Client.class), any());
         verifyNoMoreInteractions(service);
     }
 
@@ -313,7 +368,7 @@ public class ConnaissanceClientDelegateTest {
         dto.setSituationFamiliale(SituationFamilialeDto.MARIE);
         dto.setNombreEnfants(2);
 
-        when(service.modifierClient(any(UUID.class), any(Client.class)))
+        when(service.modifierClient(any(UUID.class), any(Client.class), any()))
             .thenThrow(new com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ClientInconnuException());
 
         // WHEN
@@ -323,7 +378,7 @@ public class ConnaissanceClientDelegateTest {
         assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
         assertNull(result.getBody());
 
-        verify(service).modifierClient(any(UUID.class), any(Client.class));
+        verify(service).modifierClient(any(UUID.class), any(Client.class), any());
         verifyNoMoreInteractions(service);
     }
 
@@ -340,7 +395,7 @@ public class ConnaissanceClientDelegateTest {
         dto.setSituationFamiliale(SituationFamilialeDto.MARIE);
         dto.setNombreEnfants(2);
 
-        when(service.modifierClient(any(UUID.class), any(Client.class)))
+        when(service.modifierClient(any(UUID.class), any(Client.class), any()))
             .thenThrow(new AdresseInvalideException());
 
         // WHEN
@@ -350,7 +405,7 @@ public class ConnaissanceClientDelegateTest {
         assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, result.getStatusCode());
         assertNull(result.getBody());
 
-        verify(service).modifierClient(any(UUID.class), any(Client.class));
+        verify(service).modifierClient(any(UUID.class), any(Client.class), any());
         verifyNoMoreInteractions(service);
     }
 
@@ -405,7 +460,7 @@ public class ConnaissanceClientDelegateTest {
             2
         );
 
-        when(service.modifierClient(any(UUID.class), any(Client.class))).thenReturn(updatedClient);
+        when(service.modifierClient(any(UUID.class), any(Client.class), any())).thenReturn(updatedClient);
 
         // WHEN
         ResponseEntity<ConnaissanceClientDto> result = controller.modifierClient(clientId, dto);
@@ -418,8 +473,309 @@ public class ConnaissanceClientDelegateTest {
         // and added to response headers. This unit test validates the core logic.
         assertNotNull(result.getBody());
         
-        verify(service).modifierClient(any(UUID.class), any(Client.class));
+        verify(service).modifierClient(any(UUID.class), any(Client.class), any());
         verifyNoMoreInteractions(service);
     }
-}
 
+    @Test
+    void given_if_match_modifierClient_should_pass_expected_version_and_return_etag() throws Exception {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_MATCH)).thenReturn("\"3\"");
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+        Client updatedClient = Client.of(clientId, new Nom("Dupont"), new Prenom("Marie"),
+            new Adresse(new LigneAdresse("25 avenue de la Republique"), new CodePostal("75011"), new Ville("Paris")),
+            SituationFamiliale.MARIE, 2, 4L);
+        when(service.modifierClient(any(UUID.class), any(Client.class), any())).thenReturn(updatedClient);
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.modifierClient(clientId, inDto());
+
+        // THEN
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"4\"", result.getHeaders().getETag());
+        verify(service).modifierClient(any(UUID.class), any(Client.class), eq(Optional.of(3L)));
+    }
+
+    @Test
+    void given_stale_if_match_modifierClient_should_return_HTTP_412() throws Exception {
+        // GIVEN
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_MATCH)).thenReturn("\"3\"");
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+        when(service.modifierClient(any(UUID.class), any(Client.class), any())).thenThrow(new ConflitVersionException());
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.modifierClient(UUID.randomUUID(), inDto());
+
+        // THEN
+        assertEquals(HttpStatus.PRECONDITION_FAILED, result.getStatusCode());
+        assertNull(result.getBody());
+    }
+
+    @Test
+    void given_unknown_if_match_changerSituation_should_return_HTTP_412_without_update() {
+        // GIVEN
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_MATCH)).thenReturn("W/\"abc\"");
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+        SituationDto sit = new SituationDto();
+        sit.setSituationFamiliale(SituationFamilialeDto.MARIE);
+        sit.setNombreEnfants(1);
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.changerSituation(UUID.randomUUID(), sit);
+
+        // THEN
+        assertEquals(HttpStatus.PRECONDITION_FAILED, result.getStatusCode());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void given_versioned_client_getConnaissanceClient_should_return_etag() {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        Client client = Client.of(clientId, new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, 7L);
+        when(service.informationsClient(clientId)).thenReturn(Optional.of(client));
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.getConnaissanceClient(clientId);
+
+        // THEN
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"7\"", result.getHeaders().getETag());
+    }
+
+    @Test
+    void given_matching_if_none_match_getConnaissanceClient_should_return_HTTP_304_without_reading_client() {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/\"7\"");
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+        when(service.versionClient(clientId)).thenReturn(Optional.of(7L));
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.getConnaissanceClient(clientId);
+
+        // THEN
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertEquals("\"7\"", result.getHeaders().getETag());
+        assertNull(result.getBody());
+        verify(service, never()).informationsClient(any());
+    }
+
+    @Test
+    void given_stale_if_none_match_getConnaissanceClient_should_return_HTTP_200() {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"6\"");
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+        when(service.versionClient(clientId)).thenReturn(Optional.of(7L));
+        when(service.informationsClient(clientId)).thenReturn(Optional.of(Client.of(clientId, new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, 7L)));
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.getConnaissanceClient(clientId);
+
+        // THEN
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"7\"", result.getHeaders().getETag());
+        assertNotNull(result.getBody());
+    }
+
+    @Test
+    void given_if_none_match_unknown_client_getConnaissanceClient_should_return_HTTP_404() {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"7\"");
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+        when(service.versionClient(clientId)).thenReturn(Optional.empty());
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.getConnaissanceClient(clientId);
+
+        // THEN
+        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+        verify(service, never()).informationsClient(any());
+    }
+
+    @Test
+    void given_unchanged_page_getConnaissanceClients_should_return_HTTP_304() {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        PageClients page = new PageClients(List.of(Client.of(clientId, new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, 3L)), Optional.empty());
+        when(service.listerClients(any(), any())).thenReturn(page);
+        String etag = controller.getConnaissanceClients(10, null, null, null, null, null, null, null).getHeaders().getETag();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(etag);
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.empty());
+
+        // WHEN
+        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients(10, null, null, null, null, null, null, null);
+
+        // THEN
+        assertNotNull(etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertEquals(etag, result.getHeaders().getETag());
+        assertNull(result.getBody());
+    }
+
+    @Test
+    void given_client_version_change_etagPage_should_change() {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        Client client = Client.of(clientId, new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, 3L);
+        String avant = ConnaissanceClientDelegate.etagPage(new PageClients(List.of(client), Optional.empty()));
+
+        // WHEN
+        client.setVersion(4L);
+        String apres = ConnaissanceClientDelegate.etagPage(new PageClients(List.of(client), Optional.empty()));
+
+        // THEN
+        assertNotEquals(avant, apres);
+    }
+
+    @Test
+    void given_cached_json_getConnaissanceClient_should_write_cached_bytes_without_reading_client() throws Exception {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        FichesClientJson fichesJson = new FichesClientJson(new ObjectMapper(), 100, new SimpleMeterRegistry());
+        byte[] json = fichesJson.enregistrer(clientVersionne(clientId, 7L));
+        MockHttpServletResponse reponse = new MockHttpServletResponse();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getNativeResponse(HttpServletResponse.class)).thenReturn(reponse);
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.of(fichesJson), Optional.empty());
+        when(service.versionClient(clientId)).thenReturn(Optional.of(7L));
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.getConnaissanceClient(clientId);
+
+        // THEN
+        assertNull(result);
+        assertEquals(HttpStatus.OK.value(), reponse.getStatus());
+        assertEquals("\"7\"", reponse.getHeader(HttpHeaders.ETAG));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, reponse.getContentType());
+        assertArrayEquals(json, reponse.getContentAsByteArray());
+        verify(service, never()).informationsClient(any());
+    }
+
+    @Test
+    void given_outdated_cached_json_getConnaissanceClient_should_serialize_current_version_and_cache_it() throws Exception {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        FichesClientJson fichesJson = new FichesClientJson(new ObjectMapper(), 100, new SimpleMeterRegistry());
+        fichesJson.enregistrer(clientVersionne(clientId, 7L));
+        MockHttpServletResponse reponse = new MockHttpServletResponse();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getNativeResponse(HttpServletResponse.class)).thenReturn(reponse);
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.of(fichesJson), Optional.empty());
+        when(service.versionClient(clientId)).thenReturn(Optional.of(8L));
+        when(service.informationsClient(clientId)).thenReturn(Optional.of(clientVersionne(clientId, 8L)));
+
+        // WHEN
+        ResponseEntity<ConnaissanceClientDto> result = controller.getConnaissanceClient(clientId);
+
+        // THEN
+        assertNull(result);
+        assertEquals("\"8\"", reponse.getHeader(HttpHeaders.ETAG));
+        assertTrue(reponse.getContentAsString().contains("\"nom\":\"Bousquet\""));
+        assertArrayEquals(reponse.getContentAsByteArray(), fichesJson.lire(clientId, 8L).orElseThrow());
+    }
+
+    @Test
+    void given_cached_json_changerSituation_should_invalidate_it() throws Exception {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        FichesClientJson fichesJson = new FichesClientJson(new ObjectMapper(), 100, new SimpleMeterRegistry());
+        fichesJson.enregistrer(clientVersionne(clientId, 7L));
+        controller = new ConnaissanceClientDelegate(service, Optional.empty(), Optional.of(fichesJson), Optional.empty());
+        when(service.changementSituation(any(), any(), anyInt(), any())).thenAnswer(ConnaissanceClientDelegateTest::answerChangerSituation);
+        SituationDto sit = new SituationDto();
+        sit.setSituationFamiliale(SituationFamilialeDto.MARIE);
+        sit.setNombreEnfants(1);
+
+        // WHEN
+        controller.changerSituation(clientId, sit);
+
+        // THEN
+        assertTrue(fichesJson.lire(clientId, 7L).isEmpty());
+    }
+
+    @Test
+    void given_lecture_directe_getConnaissanceClients_should_write_page_json_with_cursor_and_etag() throws Exception {
+        // GIVEN
+        UUID clientId = UUID.randomUUID();
+        UUID suivant = UUID.randomUUID();
+        LectureJsonDirecte lectureDirecte = new LectureJsonDirecte(service, new ObjectMapper());
+        MockHttpServletResponse reponse = new MockHttpServletResponse();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getNativeResponse(HttpServletResponse.class)).thenReturn(reponse);
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.of(lectureDirecte));
+        when(service.listerClients(any(), any(), any(LecteurFiche.class))).thenAnswer(invocation -> {
+            LecteurFiche lecteur = invocation.getArgument(2);
+            lecteur.fiche(clientId.toString(), "Bousquet", "Philippe", "48 rue bauducheu", null, "33800", "Bordeaux", "CELIBATAIRE", 0, 7L);
+            return Optional.of(suivant);
+        });
+
+        // WHEN
+        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients(1, null, null, null, null, null, null, null);
+
+        // THEN
+        assertNull(result);
+        assertEquals(HttpStatus.OK.value(), reponse.getStatus());
+        assertEquals(suivant.toString(), reponse.getHeader("X-Next-Cursor"));
+        assertEquals(ConnaissanceClientDelegate.etagPage(new PageClients(List.of(clientVersionne(clientId, 7L)), Optional.of(suivant))),
+            reponse.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(List.of(ConnaissanceClientDelegate.mapToDto(clientVersionne(clientId, 7L)))),
+            reponse.getContentAsByteArray());
+        verify(service, never()).listerClients(any(), any());
+    }
+
+    @Test
+    void given_lecture_directe_and_matching_if_none_match_getConnaissanceClients_should_return_304() {
+        // GIVEN
+        LectureJsonDirecte lectureDirecte = new LectureJsonDirecte(service, new ObjectMapper());
+        MockHttpServletResponse reponse = new MockHttpServletResponse();
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getNativeResponse(HttpServletResponse.class)).thenReturn(reponse);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(ConnaissanceClientDelegate.etagPage(PageClients.vide()));
+        controller = new ConnaissanceClientDelegate(service, Optional.of(request), Optional.empty(), Optional.of(lectureDirecte));
+        when(service.listerClients(any(), any(), any(LecteurFiche.class))).thenReturn(Optional.empty());
+
+        // WHEN
+        ResponseEntity<List<ConnaissanceClientDto>> result = controller.getConnaissanceClients(null, null, null, null, null, null, null, null);
+
+        // THEN
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertEquals(0, reponse.getContentAsByteArray().length);
+    }
+
+    private static Client clientVersionne(UUID id, long version) {
+        return Client.of(id, new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, version);
+    }
+
+    private static ConnaissanceClientInDto inDto() {
+        ConnaissanceClientInDto dto = new ConnaissanceClientInDto();
+        dto.setNom("Dupont");
+        dto.setPrenom("Marie");
+        dto.setLigne1("25 avenue de la Republique");
+        dto.setCodePostal("75011");
+        dto.setVille("Paris");
+        dto.setSituationFamiliale(SituationFamilialeDto.MARIE);
+        dto.setNombreEnfants(2);
+        return dto;
+    }
+}
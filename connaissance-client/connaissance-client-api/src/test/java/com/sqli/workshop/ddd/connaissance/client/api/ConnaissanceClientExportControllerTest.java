@@ -0,0 +1,147 @@
+package com.sqli.workshop.ddd.connaissance.client.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+import com.sqli.workshop.ddd.connaissance.client.generated.api.model.ConnaissanceClientDto;
+import com.sqli.workshop.ddd.connaissance.client.generated.api.model.SituationFamilialeDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ConnaissanceClientExportControllerTest {
+
+    private ConnaissanceClientService service;
+    private SimpleMeterRegistry registry;
+    private ObjectMapper objectMapper;
+    private ConnaissanceClientExportController controller;
+
+    @BeforeEach
+    public void init() {
+        service = mock(ConnaissanceClientService.class);
+        registry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper();
+        controller = new ConnaissanceClientExportController(service, objectMapper, registry, Optional.empty());
+    }
+
+    @Test
+    public void given_clients_export_should_write_one_json_per_line() throws Exception {
+        // GIVEN
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Client premier = client(UUID.randomUUID());
+        Client second = client(UUID.randomUUID());
+        when(service.exporterClients(CriteresClient.aucun()))
+            .thenReturn(Stream.of(premier, second).onClose(() -> closed.set(true)));
+        // WHEN
+        ResponseEntity<StreamingResponseBody> response = controller.exportConnaissanceClients(null, null, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        // THEN
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(premier.getId(), objectMapper.readValue(lines[0], ConnaissanceClientDto.class).getId());
+        assertEquals(second.getId(), objectMapper.readValue(lines[1], ConnaissanceClientDto.class).getId());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+        assertTrue(closed.get());
+        assertEquals(2.0, registry.get("connaissance.client.export.records").counter().count());
+        assertEquals(1, registry.get("connaissance.client.export.ttfb").timer().count());
+        assertEquals(1, registry.get("connaissance.client.export.duration").timer().count());
+    }
+
+    @Test
+    public void given_criteres_export_should_filter() throws Exception {
+        // GIVEN
+        CriteresClient criteres = new CriteresClient(
+            Optional.of(new CodePostal("33800")),
+            Optional.of(new Nom("Bousquet")),
+            Optional.of(SituationFamiliale.CELIBATAIRE),
+            Optional.of(new Departement("33")),
+            Optional.empty(),
+            Optional.of("Phil")
+        );
+        when(service.exporterClients(criteres)).thenReturn(Stream.empty());
+        // WHEN
+        ResponseEntity<StreamingResponseBody> response = controller.exportConnaissanceClients("33800", "Bousquet", SituationFamilialeDto.CELIBATAIRE, "33", null, "Phil");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        // THEN
+        assertEquals(0, out.size());
+        verify(service).exporterClients(criteres);
+        assertEquals(0, registry.get("connaissance.client.export.ttfb").timer().count());
+        assertEquals(1, registry.get("connaissance.client.export.duration").timer().count());
+    }
+
+    @Test
+    public void given_lecture_directe_export_should_write_same_ndjson_as_dto_serialization() throws Exception {
+        // GIVEN
+        controller = new ConnaissanceClientExportController(service, objectMapper, registry,
+            Optional.of(new LectureJsonDirecte(service, objectMapper)));
+        Client premier = client(UUID.randomUUID());
+        Client second = client(UUID.randomUUID());
+        when(service.exporterClients(eq(CriteresClient.aucun()), any(LecteurFiche.class))).thenAnswer(invocation -> {
+            LecteurFiche lecteur = invocation.getArgument(1);
+            for (Client fiche : new Client[] {premier, second}) {
+                lecteur.fiche(fiche.getId().toString(), "Bousquet", "Philippe", "48 rue bauducheu", null,
+                    "33800", "Bordeaux", "CELIBATAIRE", 0, 0L);
+            }
+            return 2L;
+        });
+        // WHEN
+        ResponseEntity<StreamingResponseBody> response = controller.exportConnaissanceClients(null, null, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        // THEN
+        assertEquals(objectMapper.writeValueAsString(ConnaissanceClientDelegate.mapToDto(premier)) + "\n"
+            + objectMapper.writeValueAsString(ConnaissanceClientDelegate.mapToDto(second)) + "\n",
+            out.toString(StandardCharsets.UTF_8));
+        verify(service, never()).exporterClients(any());
+        assertEquals(2.0, registry.get("connaissance.client.export.records").counter().count());
+        assertEquals(1, registry.get("connaissance.client.export.ttfb").timer().count());
+    }
+
+    private static Client client(UUID id) {
+        return Client.of(
+            id,
+            new Nom("Bousquet"),
+            new Prenom("Philippe"),
+            new Adresse(
+                new LigneAdresse("48 rue bauducheu"),
+                new CodePostal("33800"),
+                new Ville("Bordeaux")
+            ),
+            SituationFamiliale.CELIBATAIRE,
+            0
+        );
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.sqli.workshop.ddd.connaissance.client.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FichesClientJsonTest {
+
+    private ObjectMapper objectMapper;
+    private FichesClientJson fichesJson;
+
+    @BeforeEach
+    public void init() {
+        objectMapper = new ObjectMapper();
+        fichesJson = new FichesClientJson(objectMapper, 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void given_enregistrer_lire_should_return_same_json_as_dto_serialization() throws Exception {
+        // GIVEN
+        Client client = client(UUID.randomUUID(), 3L);
+        // WHEN
+        fichesJson.enregistrer(client);
+        var json = fichesJson.lire(client.getId(), 3L);
+        // THEN
+        assertTrue(json.isPresent());
+        assertArrayEquals(objectMapper.writeValueAsBytes(ConnaissanceClientDelegate.mapToDto(client)), json.get());
+    }
+
+    @Test
+    public void given_other_version_lire_should_return_empty() {
+        // GIVEN
+        Client client = client(UUID.randomUUID(), 3L);
+        fichesJson.enregistrer(client);
+        // WHEN
+        var json = fichesJson.lire(client.getId(), 4L);
+        // THEN
+        assertTrue(json.isEmpty());
+    }
+
+    @Test
+    public void given_unversioned_client_enregistrer_should_not_cache() {
+        // GIVEN
+        Client client = client(UUID.randomUUID(), null);
+        // WHEN
+        var json = fichesJson.enregistrer(client);
+        // THEN
+        assertTrue(json.length > 0);
+        assertTrue(fichesJson.lire(client.getId(), 0L).isEmpty());
+    }
+
+    private static Client client(UUID id, Long version) {
+        return Client.of(id, new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, version);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.sqli.workshop.ddd.connaissance.client.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LectureJsonDirecteTest {
+
+    private ConnaissanceClientService service;
+    private ObjectMapper objectMapper;
+    private LectureJsonDirecte lectureDirecte;
+
+    @BeforeEach
+    public void init() {
+        service = mock(ConnaissanceClientService.class);
+        objectMapper = new ObjectMapper();
+        lectureDirecte = new LectureJsonDirecte(service, objectMapper);
+    }
+
+    @Test
+    public void given_fiches_page_should_return_same_json_and_etag_as_dto_serialization() throws Exception {
+        // GIVEN
+        Client premier = Client.of(UUID.randomUUID(), new Nom("D'Arc \"Jeanne\""), new Prenom("Hélène"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new LigneAdresse("appartement 3"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.MARIE, 2, 4L);
+        Client second = Client.of(UUID.randomUUID(), new Nom("Bousquet"), new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE, 0, 0L);
+        UUID suivant = UUID.randomUUID();
+        Pagination pagination = new Pagination(2, Optional.empty());
+        when(service.listerClients(eq(CriteresClient.aucun()), eq(pagination), any(LecteurFiche.class))).thenAnswer(invocation -> {
+            LecteurFiche lecteur = invocation.getArgument(2);
+            lire(premier, lecteur);
+            lire(second, lecteur);
+            return Optional.of(suivant);
+        });
+        // WHEN
+        LectureJsonDirecte.PageJson page = lectureDirecte.page(CriteresClient.aucun(), pagination);
+        // THEN
+        assertArrayEquals(objectMapper.writeValueAsBytes(List.of(
+            ConnaissanceClientDelegate.mapToDto(premier), ConnaissanceClientDelegate.mapToDto(second))), page.json());
+        assertEquals(Optional.of(suivant), page.suivant());
+        assertEquals(ConnaissanceClientDelegate.etagPage(new PageClients(List.of(premier, second), Optional.of(suivant))), page.etag());
+    }
+
+    @Test
+    public void given_no_fiche_page_should_return_empty_array() throws Exception {
+        // GIVEN
+        when(service.listerClients(any(), any(), any(LecteurFiche.class))).thenReturn(Optional.empty());
+        // WHEN
+        LectureJsonDirecte.PageJson page = lectureDirecte.page(CriteresClient.aucun(), Pagination.premiere());
+        // THEN
+        assertEquals("[]", new String(page.json()));
+        assertTrue(page.suivant().isEmpty());
+        assertEquals(ConnaissanceClientDelegate.etagPage(PageClients.vide()), page.etag());
+    }
+
+    private static void lire(Client client, LecteurFiche lecteur) {
+        lecteur.fiche(client.getId().toString(), client.getNom().value(), client.getPrenom().value(),
+            client.getAdresse().ligne1().value(), client.getAdresse().ligne2().map(LigneAdresse::value).orElse(null),
+            client.getAdresse().codePostal().value(), client.getAdresse().ville().value(),
+            client.getSituationFamiliale().name(), client.getNombreEnfants(), client.getVersion());
+    }
+
+}
@@ -11,13 +11,13 @@ import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientServic
 import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientServiceImpl;
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
-import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
 import com.sqli.workshop.ddd.connaissance.client.generated.api.model.ConnaissanceClientDto;
@@ -61,7 +61,6 @@ public class ConnaissanceClientApiIT {
     private ConnaissanceClientService service;
     private ClientRepository repository;
     private CodePostauxService cpService;
-    private AdresseEventService adresseEventService;
 
     private MockMvc mockMvc;
 
@@ -98,9 +97,8 @@ public class ConnaissanceClientApiIT {
         JacksonTester.initFields(this, objectMapper);
         repository = mock(ClientRepository.class);
         cpService = mock(CodePostauxService.class);
-        adresseEventService = mock(AdresseEventService.class);
-        service = new ConnaissanceClientServiceImpl(repository, cpService, adresseEventService);
-        delegate = new ConnaissanceClientDelegate(service, Optional.empty());
+        service = new ConnaissanceClientServiceImpl(repository, cpService);
+        delegate = new ConnaissanceClientDelegate(service, Optional.empty(), Optional.empty(), Optional.empty());
         controller = new ConnaissanceClientApiController(delegate);
         this.mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
     }
@@ -120,7 +118,7 @@ public class ConnaissanceClientApiIT {
                 SituationFamiliale.CELIBATAIRE,
                 0
         );
-        Mockito.when(repository.lister()).thenReturn(List.of(cc));
+        Mockito.when(repository.lister(any(), any())).thenReturn(new PageClients(List.of(cc), Optional.empty()));
         // WHEN
         MockHttpServletResponse response = mockMvc
                 .perform(get("/v1/connaissance-clients")
@@ -147,7 +145,7 @@ public class ConnaissanceClientApiIT {
         cc.setNombreEnfants(0);
         ResponseEntity<ConnaissanceClientDto> responseDelegate = ResponseEntity.ok(cc);
         Mockito.when(cpService.validateCodePostal(any(), any())).thenReturn(Boolean.TRUE);
-        Mockito.when(repository.enregistrer(any())).thenAnswer(ConnaissanceClientApiIT::answerNouveauClient);
+        Mockito.when(repository.enregistrerAvecChangementAdresse(any())).thenAnswer(ConnaissanceClientApiIT::answerNouveauClient);
         // WHEN
         MockHttpServletResponse response = mockMvc
                 .perform(post("/v1/connaissance-clients")
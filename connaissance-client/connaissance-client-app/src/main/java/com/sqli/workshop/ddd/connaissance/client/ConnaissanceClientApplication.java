@@ -2,10 +2,9 @@ package com.sqli.workshop.ddd.connaissance.client;
 
 import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientServiceImpl;
-import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
-import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.client.CodesPostauxApi;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.IndexRechercheClients;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeIn;
@@ -20,6 +19,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 
+import java.util.Optional;
+
 @SpringBootApplication(exclude = {SecurityAutoConfiguration.class })
 @EnableWebSecurity
 @EnableMongoRepositories
@@ -42,26 +43,11 @@ public class ConnaissanceClientApplication {
     }
 
     @Bean
-    CodesPostauxApi getCodesPostauxApi() {
-         return new CodesPostauxApi();
-    }
-
-    /*
-    @Bean
-/**
- * getAdresseEventService() - TODO: description
- *
- * @todo Add detailed Javadoc
- */
-    public AdresseEventService getAdresseEventService() {
-        return new AdresseEventService() {
-            
-        };
-    } */
-
-    @Bean
-    ConnaissanceClientService getService(ClientRepository repositoryImpl, CodePostauxService codePostauxService, AdresseEventService adresseEventService) {
-        return new ConnaissanceClientServiceImpl(repositoryImpl, codePostauxService, adresseEventService);
+    ConnaissanceClientService getService(ClientRepository repositoryImpl, CodePostauxService codePostauxService,
+                                         Optional<IndexRechercheClients> indexRecherche) {
+        return indexRecherche
+                .map(index -> new ConnaissanceClientServiceImpl(repositoryImpl, codePostauxService, index))
+                .orElseGet(() -> new ConnaissanceClientServiceImpl(repositoryImpl, codePostauxService));
     }
 
 }
\ No newline at end of file
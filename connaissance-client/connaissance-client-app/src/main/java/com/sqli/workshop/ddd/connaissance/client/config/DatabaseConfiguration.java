@@ -5,9 +5,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 
+import org.bson.UuidRepresentation;
+import org.bson.codecs.configuration.CodecRegistries;
+
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientCodec;
+import com.sqli.workshop.ddd.connaissance.client.db.FormatIdentifiant;
 
 @Configuration
 @PropertySource(value = "application.yml") 
@@ -21,15 +26,30 @@ public class DatabaseConfiguration {
     @Value("${spring.data.mongodb.uri}")
     String uri;
 
+    @Value("${connaissance-client.db.format-identifiant:TEXTE}")
+    FormatIdentifiant formatIdentifiant;
+
  	@Bean
 	MongoClient mongoClient(MongoClientSettings settings) {
 		return new MongoClientWrapper(settings);
 	}
 
 
+	/**
+	 * Le {@link ClientCodec} est enregistré devant les codecs par défaut : les fiches client sont
+	 * lues et écrites directement en objets métier, avec un identifiant au {@link FormatIdentifiant}
+	 * configuré. Les {@link java.util.UUID} sont encodés en binaire de sous-type 4 (représentation
+	 * standard) dans les filtres.
+	 */
 	@Bean
 	MongoClientSettings settings() {
-		return MongoClientSettings.builder().applyConnectionString(new ConnectionString(uri)).build();
+		return MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString(uri))
+				.uuidRepresentation(UuidRepresentation.STANDARD)
+				.codecRegistry(CodecRegistries.fromRegistries(
+						CodecRegistries.fromCodecs(new ClientCodec(formatIdentifiant)),
+						MongoClientSettings.getDefaultCodecRegistry()))
+				.build();
 	}
 
 }
\ No newline at end of file
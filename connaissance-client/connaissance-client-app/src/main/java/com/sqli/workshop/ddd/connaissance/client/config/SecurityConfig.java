@@ -65,8 +65,9 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type"));
-        configuration.setExposedHeaders(Arrays.asList("authorization", "content-type"));
+        // If-Match / If-None-Match et ETag : mises à jour conditionnelles et GET conditionnels
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "if-match", "if-none-match"));
+        configuration.setExposedHeaders(Arrays.asList("authorization", "content-type", "ETag", "X-Next-Cursor"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
 
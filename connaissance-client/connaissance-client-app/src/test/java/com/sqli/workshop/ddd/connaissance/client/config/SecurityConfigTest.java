@@ -0,0 +1,27 @@
+package com.sqli.workshop.ddd.connaissance.client.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecurityConfigTest {
+
+    @Test
+    public void given_cross_origin_conditional_request_cors_should_allow_precondition_headers_and_expose_etag() {
+        // GIVEN
+        SecurityConfig securityConfig = new SecurityConfig();
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/v1/connaissance-clients/8a9204f5-aa42-47bc-9f04-17caab5deeee");
+        // WHEN
+        CorsConfiguration cors = securityConfig.corsConfigurationSource().getCorsConfiguration(request);
+        // THEN
+        assertNotNull(cors);
+        assertEquals(List.of("If-Match", "If-None-Match"), cors.checkHeaders(List.of("If-Match", "If-None-Match")));
+        assertTrue(cors.getExposedHeaders().contains("ETag"));
+        assertTrue(cors.getExposedHeaders().contains("X-Next-Cursor"));
+    }
+
+}
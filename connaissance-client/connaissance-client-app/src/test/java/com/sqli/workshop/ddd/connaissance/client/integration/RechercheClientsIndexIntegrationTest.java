@@ -0,0 +1,174 @@
+package com.sqli.workshop.ddd.connaissance.client.integration;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientDb;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientDbIndexes;
+import com.sqli.workshop.ddd.connaissance.client.db.FiltreClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.*;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for client search indexes
+ * Checks with explain() against a real MongoDB that the indexes are created at startup and that
+ * every supported search criterion is served by an index, never by a collection scan
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.data.mongodb.database=test_connaissance_client_index"
+})
+class RechercheClientsIndexIntegrationTest {
+
+    private static final int NOMBRE_FICHES = 2000;
+
+    private static final String[] NOMS = {"Bousquet", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard",
+        "Petit", "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand",
+        "Roux", "Vincent"};
+    private static final String[] PRENOMS = {"Philippe", "Marie", "Jean", "Nathalie", "Pierre", "Isabelle", "Alain",
+        "Sylvie", "Patrick", "Catherine", "Nicolas", "Christine", "Christophe", "Sandrine", "Daniel", "Valerie",
+        "Olivier", "Sophie", "Thierry", "Celine"};
+    private static final String[] DEPARTEMENTS = {"33", "75", "69", "13", "31", "44", "59", "67", "06", "35"};
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @BeforeEach
+    void setUp() {
+        Random aleatoire = new Random(42);
+        List<Client> fiches = new ArrayList<>(NOMBRE_FICHES);
+        for (int i = 0; i < NOMBRE_FICHES; i++) {
+            fiches.add(Client.of(
+                new Nom(NOMS[aleatoire.nextInt(NOMS.length)]),
+                new Prenom(PRENOMS[aleatoire.nextInt(PRENOMS.length)]),
+                new Adresse(
+                    new LigneAdresse("48 rue Bauducheu"),
+                    new CodePostal(DEPARTEMENTS[aleatoire.nextInt(DEPARTEMENTS.length)] + "0" + aleatoire.nextInt(10) + "0"),
+                    new Ville("Bordeaux")
+                ),
+                SituationFamiliale.values()[aleatoire.nextInt(SituationFamiliale.values().length)],
+                0
+            ));
+        }
+        mongoOperations.execute(ClientDb.class, collection -> {
+            collection.deleteMany(new Document());
+            return collection.withDocumentClass(Client.class).insertMany(fiches);
+        });
+    }
+
+    @Test
+    void given_started_application_collection_should_have_search_indexes() {
+        // WHEN
+        List<String> index = mongoOperations.execute(ClientDb.class, collection ->
+            collection.listIndexes().map(document -> document.getString("name")).into(new ArrayList<>()));
+        // THEN
+        assertTrue(index.containsAll(List.of(ClientDbIndexes.CODE_POSTAL, ClientDbIndexes.NOM,
+            ClientDbIndexes.PRENOM, ClientDbIndexes.SITUATION_FAMILIALE)), index.toString());
+    }
+
+    @Test
+    void given_each_criterion_first_page_should_use_its_index() {
+        for (Map.Entry<CriteresClient, Set<String>> recherche : recherches().entrySet()) {
+            // WHEN
+            Document plan = plan(recherche.getKey(), null, true);
+            // THEN
+            List<String> etapes = valeurs(plan, "stage");
+            List<String> index = valeurs(plan, "indexName");
+            assertFalse(etapes.contains("COLLSCAN"), recherche.getKey() + " : " + plan.toJson());
+            assertTrue(index.stream().anyMatch(recherche.getValue()::contains), recherche.getKey() + " : " + plan.toJson());
+        }
+    }
+
+    @Test
+    void given_each_criterion_next_page_and_export_should_not_scan_collection() {
+        String apres = mongoOperations.execute(ClientDb.class, collection ->
+            collection.find().sort(Sorts.ascending("_id")).skip(NOMBRE_FICHES / 2).first()).getString("_id");
+        for (CriteresClient criteres : recherches().keySet()) {
+            // WHEN
+            Document pageSuivante = plan(criteres, apres, true);
+            Document export = plan(criteres, null, false);
+            // THEN
+            for (Document plan : List.of(pageSuivante, export)) {
+                assertFalse(valeurs(plan, "stage").contains("COLLSCAN"), criteres + " : " + plan.toJson());
+                assertFalse(valeurs(plan, "indexName").isEmpty(), criteres + " : " + plan.toJson());
+            }
+        }
+    }
+
+    /** Critères supportés et index attendus pour la première page */
+    private static Map<CriteresClient, Set<String>> recherches() {
+        Map<CriteresClient, Set<String>> recherches = new LinkedHashMap<>();
+        recherches.put(CriteresClient.aucun(), Set.of("_id_"));
+        recherches.put(criteres(Optional.of(new CodePostal("33050")), Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.empty(), Optional.empty()), Set.of(ClientDbIndexes.CODE_POSTAL));
+        recherches.put(criteres(Optional.empty(), Optional.empty(), Optional.empty(),
+            Optional.of(new Departement("33")), Optional.empty(), Optional.empty()), Set.of(ClientDbIndexes.CODE_POSTAL));
+        recherches.put(criteres(Optional.empty(), Optional.of(new Nom("Bousquet")), Optional.empty(),
+            Optional.empty(), Optional.empty(), Optional.empty()), Set.of(ClientDbIndexes.NOM));
+        recherches.put(criteres(Optional.empty(), Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.of("Bous"), Optional.empty()), Set.of(ClientDbIndexes.NOM));
+        recherches.put(criteres(Optional.empty(), Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.empty(), Optional.of("Phil")), Set.of(ClientDbIndexes.PRENOM));
+        recherches.put(criteres(Optional.empty(), Optional.empty(), Optional.of(SituationFamiliale.VEUF),
+            Optional.empty(), Optional.empty(), Optional.empty()), Set.of(ClientDbIndexes.SITUATION_FAMILIALE));
+        recherches.put(criteres(Optional.empty(), Optional.of(new Nom("Bousquet")), Optional.empty(),
+            Optional.empty(), Optional.empty(), Optional.of("Phil")), Set.of(ClientDbIndexes.NOM, ClientDbIndexes.PRENOM));
+        recherches.put(criteres(Optional.empty(), Optional.empty(), Optional.of(SituationFamiliale.MARIE),
+            Optional.of(new Departement("75")), Optional.empty(), Optional.empty()),
+            Set.of(ClientDbIndexes.CODE_POSTAL, ClientDbIndexes.SITUATION_FAMILIALE));
+        return recherches;
+    }
+
+    private static CriteresClient criteres(Optional<CodePostal> codePostal, Optional<Nom> nom,
+                                           Optional<SituationFamiliale> situationFamiliale, Optional<Departement> departement,
+                                           Optional<String> debutNom, Optional<String> debutPrenom) {
+        return new CriteresClient(codePostal, nom, situationFamiliale, departement, debutNom, debutPrenom);
+    }
+
+    /** Plan retenu pour la requête d'une page (triée par identifiant, une fiche de plus) ou d'un export */
+    private Document plan(CriteresClient criteres, String apres, boolean page) {
+        Bson filtre = apres == null ? FiltreClient.de(criteres) : Filters.and(FiltreClient.de(criteres), Filters.gt("_id", apres));
+        return mongoOperations.execute(ClientDb.class, collection -> {
+            FindIterable<Document> requete = collection.find(filtre).sort(Sorts.ascending("_id"));
+            if (page) requete = requete.limit(Pagination.TAILLE_PAR_DEFAUT + 1);
+            return requete.explain(ExplainVerbosity.QUERY_PLANNER).get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        });
+    }
+
+    /** Valeurs d'un champ dans tout le plan (étapes imbriquées, y compris sous queryPlan) */
+    private static List<String> valeurs(Object plan, String champ) {
+        List<String> valeurs = new ArrayList<>();
+        if (plan instanceof Document document) {
+            document.forEach((cle, valeur) -> {
+                if (cle.equals(champ) && valeur instanceof String texte) valeurs.add(texte);
+                else valeurs.addAll(valeurs(valeur, champ));
+            });
+        } else if (plan instanceof List<?> liste) {
+            liste.forEach(element -> valeurs.addAll(valeurs(element, champ)));
+        }
+        return valeurs;
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.ApiClient;
+import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.client.CodesPostauxApi;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * Transport HTTP du client généré de l'API IGN : pool de connexions Apache HttpClient 5
+ * réutilisées (keep-alive) au lieu d'une connexion, et d'une négociation TLS, par validation.
+ * <p>
+ * <ul>
+ *   <li>Pool borné ({@code max-total}, {@code max-per-route}), connexions inactives évincées
+ *   après {@code idle-eviction} et recyclées après {@code time-to-live}</li>
+ *   <li>Un seul contexte TLS pour le pool : les nouvelles connexions reprennent les sessions
+ *   TLS existantes</li>
+ *   <li>Délais d'obtention d'une connexion du pool, de connexion et de réponse inférieurs en
+ *   cumul au seuil d'appel lent du circuit breaker apiIgn (3s) : seule borne de durée des
+ *   appels</li>
+ * </ul>
+ * Les métriques du pool ({@code httpcomponents.httpclient.pool.*} : connexions louées,
+ * disponibles, requêtes en attente) sont publiées avec le tag {@code httpclient=apiIgn}.
+ */
+@Configuration
+public class ApiIgnHttpClientConfiguration {
+
+    static final String POOL_NAME = "apiIgn";
+
+    @Bean
+    ConnectionConfig apiIgnConnectionConfig(
+            @Value("${connaissance-client.code-postaux.http.connect-timeout:750ms}") Duration connectTimeout,
+            @Value("${connaissance-client.code-postaux.http.response-timeout:1500ms}") Duration responseTimeout,
+            @Value("${connaissance-client.code-postaux.http.time-to-live:5m}") Duration timeToLive) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(responseTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager apiIgnConnectionManager(
+            @Value("${connaissance-client.code-postaux.http.max-total:50}") int maxTotal,
+            @Value("${connaissance-client.code-postaux.http.max-per-route:20}") int maxPerRoute,
+            ConnectionConfig apiIgnConnectionConfig,
+            MeterRegistry registry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(apiIgnConnectionConfig)
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(registry);
+        return connectionManager;
+    }
+
+    /**
+     * Fermeture des connexions du pool à l'arrêt des composants, notamment avant un
+     * checkpoint CRaC qui ne peut pas contenir de socket ouverte.
+     */
+    @Bean
+    SmartLifecycle apiIgnConnectionPoolLifecycle(PoolingHttpClientConnectionManager apiIgnConnectionManager) {
+        return new SmartLifecycle() {
+            private volatile boolean running;
+
+            @Override
+            public void start() {
+                running = true;
+            }
+
+            @Override
+            public void stop() {
+                apiIgnConnectionManager.closeIdle(TimeValue.ZERO_MILLISECONDS);
+                running = false;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return running;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient apiIgnHttpClient(
+            PoolingHttpClientConnectionManager apiIgnConnectionManager,
+            @Value("${connaissance-client.code-postaux.http.pool-timeout:250ms}") Duration poolTimeout,
+            @Value("${connaissance-client.code-postaux.http.response-timeout:1500ms}") Duration responseTimeout,
+            @Value("${connaissance-client.code-postaux.http.idle-eviction:30s}") Duration idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(apiIgnConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    CodesPostauxApi codesPostauxApi(CloseableHttpClient apiIgnHttpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(apiIgnHttpClient));
+        // Même encodage d'URL que le RestTemplate par défaut du client généré
+        DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+        uriBuilderFactory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.VALUES_ONLY);
+        restTemplate.setUriTemplateHandler(uriBuilderFactory);
+        return new CodesPostauxApi(new ApiClient(restTemplate));
+    }
+
+}
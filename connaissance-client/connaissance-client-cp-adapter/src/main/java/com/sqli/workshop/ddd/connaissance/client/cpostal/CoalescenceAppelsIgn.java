@@ -0,0 +1,73 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Regroupement (single-flight) des appels concurrents à l'API IGN pour un même code postal.
+ * <p>
+ * Le premier appelant exécute l'appel HTTP ; les appelants suivants, arrivés pendant qu'il est
+ * en cours, attendent et partagent son résultat (ou son exception) au lieu d'émettre leur
+ * propre requête. L'entrée est retirée dès la fin de l'appel : aucun résultat n'est conservé
+ * ici, la mise en cache relève de {@link CodePostauxCache}.
+ * <p>
+ * <strong>Métrique :</strong> {@code connaissance.client.ign.calls.coalesced} (appels évités
+ * par regroupement).
+ */
+@Component
+public class CoalescenceAppelsIgn {
+
+    private final ConcurrentMap<String, CompletableFuture<List<String>>> appelsEnCours = new ConcurrentHashMap<>();
+    private final Counter regroupes;
+
+    public CoalescenceAppelsIgn(MeterRegistry registry) {
+        this.regroupes = Counter.builder("connaissance.client.ign.calls.coalesced")
+                .description("Appels à l'API IGN regroupés avec un appel en cours pour le même code postal")
+                .register(registry);
+    }
+
+    /**
+     * Exécute l'appel, ou attend celui déjà en cours pour le même code postal.
+     *
+     * @param codePostal le code postal
+     * @param appel l'appel à l'API IGN, exécuté au plus une fois par groupe d'appelants concurrents
+     * @return les communes retournées par l'appel
+     */
+    public List<String> executer(String codePostal, Supplier<List<String>> appel) {
+        CompletableFuture<List<String>> nouveau = new CompletableFuture<>();
+        CompletableFuture<List<String>> enCours = appelsEnCours.putIfAbsent(codePostal, nouveau);
+        if (enCours != null) {
+            regroupes.increment();
+            return attendre(enCours);
+        }
+        try {
+            List<String> communes = appel.get();
+            nouveau.complete(communes);
+            return communes;
+        } catch (RuntimeException e) {
+            nouveau.completeExceptionally(e);
+            throw e;
+        } finally {
+            appelsEnCours.remove(codePostal, nouveau);
+        }
+    }
+
+    private static List<String> attendre(CompletableFuture<List<String>> enCours) {
+        try {
+            return enCours.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache local des communes par code postal, alimenté par les réponses de l'API IGN.
+ * <p>
+ * <ul>
+ *   <li>Code postal connu : la liste des communes est conservée {@code ttl} (24h par défaut)</li>
+ *   <li>Code postal inconnu (liste vide ou réponse 4xx) : cache négatif de {@code negative-ttl}
+ *   (1h par défaut)</li>
+ *   <li>Taille bornée par {@code maximum-size} (la France compte environ 6 000 codes postaux)</li>
+ * </ul>
+ * Les erreurs serveur et de transport ne sont jamais mises en cache.
+ * <p>
+ * <strong>Métriques :</strong> statistiques du cache ({@code cache.*}, tag {@code cache=codesPostaux},
+ * taux de hit = hits / gets) et {@code connaissance.client.ign.calls.avoided} (appels IGN évités).
+ */
+@Component
+public class CodePostauxCache {
+
+    static final String CACHE_NAME = "codesPostaux";
+
+    private final Cache<String, List<String>> cache;
+    private final Counter appelsEvites;
+
+    public CodePostauxCache(
+            @Value("${connaissance-client.code-postaux.cache.ttl:24h}") Duration ttl,
+            @Value("${connaissance-client.code-postaux.cache.negative-ttl:1h}") Duration negativeTtl,
+            @Value("${connaissance-client.code-postaux.cache.maximum-size:10000}") long maximumSize,
+            MeterRegistry registry) {
+        this.cache = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, List<String>>() {
+                    @Override
+                    public long expireAfterCreate(String codePostal, List<String> communes, long currentTime) {
+                        return (communes.isEmpty() ? negativeTtl : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String codePostal, List<String> communes, long currentTime, long currentDuration) {
+                        return expireAfterCreate(codePostal, communes, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String codePostal, List<String> communes, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(), CACHE_NAME);
+        this.appelsEvites = Counter.builder("connaissance.client.ign.calls.avoided")
+                .description("Appels à l'API IGN évités grâce au cache des codes postaux")
+                .register(registry);
+    }
+
+    /**
+     * @param codePostal le code postal recherché
+     * @return les noms des communes du code postal s'il est en cache (liste vide pour un code
+     *         inconnu), {@link Optional#empty()} s'il faut interroger l'API IGN
+     */
+    public Optional<List<String>> communes(String codePostal) {
+        List<String> communes = cache.getIfPresent(codePostal);
+        if (communes != null) appelsEvites.increment();
+        return Optional.ofNullable(communes);
+    }
+
+    /**
+     * Enregistre la réponse de l'API IGN pour un code postal (cache négatif si la liste est vide).
+     */
+    public void enregistrer(String codePostal, List<String> communes) {
+        cache.put(codePostal, List.copyOf(communes));
+    }
+
+    /**
+     * Enregistre un code postal rejeté par l'API IGN (réponse 4xx).
+     */
+    public void inconnu(String codePostal) {
+        cache.put(codePostal, List.of());
+    }
+
+    /**
+     * @return {@code true} si la ville fait partie des communes (comparaison insensible à la casse)
+     */
+    static boolean contient(List<String> communes, String ville) {
+        for (String commune : communes) {
+            if (ville.equalsIgnoreCase(commune)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
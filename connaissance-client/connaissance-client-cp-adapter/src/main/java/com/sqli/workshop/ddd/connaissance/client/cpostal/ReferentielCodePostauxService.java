@@ -0,0 +1,113 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Validation des codes postaux à partir d'un référentiel local (jeu de données BAN codes-postaux),
+ * l'API IGN ({@link CodePostauxServiceImpl}) n'étant consultée que pour les codes absents du
+ * référentiel.
+ * <p>
+ * Activée lorsque {@code connaissance-client.code-postaux.referentiel.path} est renseigné.
+ * Le fichier est surveillé toutes les {@code reload-interval} : une nouvelle version est chargée
+ * en arrière-plan puis substituée atomiquement à l'ancienne, sans redémarrage. En cas d'échec de
+ * chargement, le référentiel courant est conservé.
+ * <p>
+ * <strong>Métriques :</strong> {@code connaissance.client.code-postaux.referentiel.size} (codes postaux
+ * chargés) et {@code connaissance.client.code-postaux.referentiel.fallbacks} (validations déléguées
+ * à l'API IGN).
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "connaissance-client.code-postaux.referentiel", name = "path")
+@Slf4j
+public class ReferentielCodePostauxService implements CodePostauxService, DisposableBean {
+
+    private final CodePostauxService ign;
+    private final Path fichier;
+    private final AtomicReference<ReferentielCodesPostaux> referentiel = new AtomicReference<>(ReferentielCodesPostaux.vide());
+    private final Counter fallbacks;
+    private final ScheduledExecutorService rechargement;
+    private volatile FileTime versionChargee;
+
+    public ReferentielCodePostauxService(
+            CodePostauxServiceImpl ign,
+            @Value("${connaissance-client.code-postaux.referentiel.path}") Path fichier,
+            @Value("${connaissance-client.code-postaux.referentiel.reload-interval:1m}") Duration intervalleRechargement,
+            MeterRegistry registry) {
+        this.ign = ign;
+        this.fichier = fichier;
+        this.fallbacks = Counter.builder("connaissance.client.code-postaux.referentiel.fallbacks")
+                .description("Validations de code postal déléguées à l'API IGN (code absent du référentiel)")
+                .register(registry);
+        Gauge.builder("connaissance.client.code-postaux.referentiel.size", referentiel, r -> r.get().taille())
+                .description("Nombre de codes postaux du référentiel local")
+                .register(registry);
+        recharger();
+        this.rechargement = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("cclient-referentiel-cp").factory());
+        long intervalle = intervalleRechargement.toMillis();
+        rechargement.scheduleWithFixedDelay(this::recharger, intervalle, intervalle, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean validateCodePostal(CodePostal codePostal, Ville ville) {
+        Optional<List<String>> communes = referentiel.get().communes(codePostal.value());
+        if (communes.isPresent()) {
+            return CodePostauxCache.contient(communes.get(), ville.value());
+        }
+        fallbacks.increment();
+        return ign.validateCodePostal(codePostal, ville);
+    }
+
+    /**
+     * Charge le fichier du référentiel s'il a été modifié depuis le dernier chargement.
+     */
+    void recharger() {
+        try {
+            FileTime version = Files.getLastModifiedTime(fichier);
+            if (version.equals(versionChargee)) return;
+            ReferentielCodesPostaux nouveau;
+            try (InputStream json = Files.newInputStream(fichier)) {
+                nouveau = ReferentielCodesPostaux.charger(json);
+            }
+            referentiel.set(nouveau);
+            versionChargee = version;
+            log.info("Postal code referential loaded from {}: {} postal codes", fichier, nouveau.taille());
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to load postal code referential from {}, keeping current one ({} postal codes): {}",
+                    fichier, referentiel.get().taille(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        rechargement.shutdownNow();
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Référentiel local et immuable des communes par code postal.
+ * <p>
+ * Chargé depuis un fichier au format du jeu de données BAN codes-postaux
+ * (https://github.com/BaseAdresseNationale/codes-postaux) : tableau JSON d'objets
+ * {@code {codePostal, codeCommune, nomCommune, libelleAcheminement}}.
+ * <p>
+ * Structure compacte : les codes postaux (5 chiffres) sont stockés triés dans un {@code int[]}
+ * parcouru par recherche dichotomique ; les noms de communes de chaque code sont contigus
+ * dans un {@code String[]} délimité par un tableau d'offsets. Environ 40 000 communes
+ * tiennent en quelques Mo, sans objet intermédiaire par entrée.
+ */
+public final class ReferentielCodesPostaux {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int[] codes;
+    private final int[] debuts;
+    private final String[] communes;
+
+    private ReferentielCodesPostaux(int[] codes, int[] debuts, String[] communes) {
+        this.codes = codes;
+        this.debuts = debuts;
+        this.communes = communes;
+    }
+
+    public static ReferentielCodesPostaux vide() {
+        return new ReferentielCodesPostaux(new int[0], new int[] {0}, new String[0]);
+    }
+
+    /**
+     * Charge le référentiel depuis un flux JSON au format BAN codes-postaux.
+     * Les entrées dont le code postal n'est pas composé de 5 chiffres sont ignorées.
+     *
+     * @param json le flux JSON (non fermé par cette méthode)
+     * @return le référentiel chargé
+     * @throws IOException si le flux est illisible ou n'est pas un tableau JSON
+     */
+    public static ReferentielCodesPostaux charger(InputStream json) throws IOException {
+        Map<Integer, Set<String>> parCode = new TreeMap<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Referentiel codes postaux : tableau JSON attendu");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String codePostal = null;
+                String nomCommune = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String champ = parser.currentName();
+                    parser.nextToken();
+                    switch (champ) {
+                        case "codePostal" -> codePostal = parser.getValueAsString();
+                        case "nomCommune" -> nomCommune = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+                int code = versEntier(codePostal);
+                if (code >= 0 && nomCommune != null) {
+                    parCode.computeIfAbsent(code, c -> new LinkedHashSet<>()).add(nomCommune.intern());
+                }
+            }
+        }
+        int[] codes = new int[parCode.size()];
+        int[] debuts = new int[parCode.size() + 1];
+        List<String> communes = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<Integer, Set<String>> entree : parCode.entrySet()) {
+            codes[i] = entree.getKey();
+            debuts[i] = communes.size();
+            communes.addAll(entree.getValue());
+            i++;
+        }
+        debuts[i] = communes.size();
+        return new ReferentielCodesPostaux(codes, debuts, communes.toArray(String[]::new));
+    }
+
+    /**
+     * @param codePostal le code postal recherché
+     * @return les noms des communes du code postal (vue non modifiable du référentiel),
+     *         {@link Optional#empty()} si le code est absent du référentiel
+     */
+    public Optional<List<String>> communes(String codePostal) {
+        int code = versEntier(codePostal);
+        if (code < 0) return Optional.empty();
+        int index = Arrays.binarySearch(codes, code);
+        if (index < 0) return Optional.empty();
+        return Optional.of(Collections.unmodifiableList(Arrays.asList(communes).subList(debuts[index], debuts[index + 1])));
+    }
+
+    /**
+     * @return le nombre de codes postaux du référentiel
+     */
+    public int taille() {
+        return codes.length;
+    }
+
+    /**
+     * Un code postal français est composé de 5 chiffres : il est stocké sous forme d'entier.
+     *
+     * @return la valeur entière du code postal, -1 s'il n'est pas composé de 5 chiffres
+     */
+    private static int versEntier(String codePostal) {
+        if (codePostal == null || codePostal.length() != 5) return -1;
+        int valeur = 0;
+        for (int i = 0; i < 5; i++) {
+            char c = codePostal.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            valeur = valeur * 10 + (c - '0');
+        }
+        return valeur;
+    }
+
+}
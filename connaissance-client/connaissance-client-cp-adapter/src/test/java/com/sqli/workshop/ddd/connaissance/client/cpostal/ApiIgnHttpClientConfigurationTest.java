@@ -0,0 +1,103 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.client.CodesPostauxApi;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.Configurable;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.client.ResourceAccessException;
+
+public class ApiIgnHttpClientConfigurationTest {
+
+    /** {@code resilience4j.circuitbreaker.instances.apiIgn.slowCallDurationThreshold} */
+    private static final Duration APPEL_LENT = Duration.ofSeconds(3);
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(new ApplicationConversionService()))
+            .withUserConfiguration(ApiIgnHttpClientConfiguration.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    public void given_default_properties_pool_should_be_bounded() {
+        contextRunner.run(context -> {
+            // WHEN
+            PoolingHttpClientConnectionManager connectionManager = context.getBean(PoolingHttpClientConnectionManager.class);
+            // THEN
+            assertEquals(50, connectionManager.getMaxTotal());
+            assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+        });
+    }
+
+    @Test
+    public void given_default_properties_timeouts_should_stay_under_slow_call_threshold() {
+        contextRunner.run(context -> {
+            // WHEN
+            ConnectionConfig connectionConfig = context.getBean(ConnectionConfig.class);
+            RequestConfig requestConfig = ((Configurable) context.getBean(CloseableHttpClient.class)).getConfig();
+            // THEN
+            long cumul = requestConfig.getConnectionRequestTimeout().toMilliseconds()
+                    + connectionConfig.getConnectTimeout().toMilliseconds()
+                    + requestConfig.getResponseTimeout().toMilliseconds();
+            assertTrue(cumul < APPEL_LENT.toMillis(), "délais cumulés " + cumul + "ms");
+            assertEquals(requestConfig.getResponseTimeout(), connectionConfig.getSocketTimeout());
+        });
+    }
+
+    @Test
+    public void given_pool_metrics_binder_meters_should_be_tagged_apiIgn() {
+        contextRunner.run(context -> {
+            // WHEN
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            // THEN
+            assertEquals(50.0, registry.get("httpcomponents.httpclient.pool.total.max")
+                    .tag("httpclient", "apiIgn").gauge().value());
+            assertEquals(0.0, registry.get("httpcomponents.httpclient.pool.total.pending")
+                    .tag("httpclient", "apiIgn").gauge().value());
+        });
+    }
+
+    @Test
+    public void given_silent_server_codesPostauxApi_should_fail_after_response_timeout() throws IOException {
+        try (ServerSocket serveur = new ServerSocket(0)) {
+            Thread.ofVirtual().start(() -> {
+                // Accepte les connexions sans jamais répondre
+                try (Socket socket = serveur.accept()) {
+                    Thread.sleep(APPEL_LENT.toMillis());
+                } catch (IOException | InterruptedException e) {
+                    // fin du test
+                }
+            });
+            contextRunner
+                    .withPropertyValues("connaissance-client.code-postaux.http.response-timeout=200ms")
+                    .run(context -> {
+                        // GIVEN
+                        CodesPostauxApi codesPostauxApi = context.getBean(CodesPostauxApi.class);
+                        codesPostauxApi.getApiClient().setBasePath("http://localhost:" + serveur.getLocalPort());
+                        long debut = System.nanoTime();
+                        // WHEN
+                        assertThrows(ResourceAccessException.class,
+                                () -> codesPostauxApi.codesPostauxCommunesCodePostalGet("33800"));
+                        // THEN
+                        assertTrue(Duration.ofNanos(System.nanoTime() - debut).compareTo(APPEL_LENT) < 0);
+                    });
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CoalescenceAppelsIgnTest {
+
+    SimpleMeterRegistry registry;
+    CoalescenceAppelsIgn coalescence;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        coalescence = new CoalescenceAppelsIgn(registry);
+    }
+
+    @Test
+    public void concurrent_calls_same_code_postal_should_share_one_call() throws Exception {
+        // GIVEN
+        AtomicInteger appels = new AtomicInteger();
+        CountDownLatch appelEnCours = new CountDownLatch(1);
+        CountDownLatch reponse = new CountDownLatch(1);
+        var premier = CompletableFuture.supplyAsync(() -> coalescence.executer("33800", () -> {
+            appels.incrementAndGet();
+            appelEnCours.countDown();
+            await(reponse);
+            return List.of("BORDEAUX");
+        }));
+        assertTrue(appelEnCours.await(5, TimeUnit.SECONDS));
+        // WHEN
+        var second = CompletableFuture.supplyAsync(() -> coalescence.executer("33800", () -> {
+            appels.incrementAndGet();
+            return List.of("AUTRE");
+        }));
+        while (registry.get("connaissance.client.ign.calls.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        reponse.countDown();
+        // THEN
+        assertEquals(List.of("BORDEAUX"), premier.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("BORDEAUX"), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, appels.get());
+    }
+
+    @Test
+    public void sequential_calls_should_not_be_coalesced() {
+        // WHEN
+        coalescence.executer("33800", () -> List.of("BORDEAUX"));
+        var result = coalescence.executer("33800", () -> List.of("AUTRE"));
+        // THEN
+        assertEquals(List.of("AUTRE"), result);
+        assertEquals(0.0, registry.get("connaissance.client.ign.calls.coalesced").counter().count());
+    }
+
+    @Test
+    public void failing_call_should_propagate_exception_to_waiting_callers() throws Exception {
+        // GIVEN
+        RuntimeException erreur = new IllegalStateException("IGN down");
+        CountDownLatch appelEnCours = new CountDownLatch(1);
+        CountDownLatch reponse = new CountDownLatch(1);
+        var premier = CompletableFuture.supplyAsync(() -> coalescence.executer("33800", () -> {
+            appelEnCours.countDown();
+            await(reponse);
+            throw erreur;
+        }));
+        assertTrue(appelEnCours.await(5, TimeUnit.SECONDS));
+        var second = CompletableFuture.supplyAsync(() -> coalescence.executer("33800", List::<String>of));
+        while (registry.get("connaissance.client.ign.calls.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        // WHEN
+        reponse.countDown();
+        // THEN
+        assertSame(erreur, assertThrows(ExecutionException.class, () -> premier.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(erreur, assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package com.sqli.workshop.ddd.connaissance.client.cpostal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -10,13 +12,16 @@ import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService;
 import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.client.CodesPostauxApi;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 public class CodePostauxServiceImplIT {
 
     private CodePostauxService cpService;
 
     @BeforeEach
     public void setup() throws Exception {
-        cpService = new CodePostauxServiceImpl(new CodesPostauxApi());
+        CodePostauxCache cache = new CodePostauxCache(Duration.ofHours(24), Duration.ofHours(1), 100, new SimpleMeterRegistry());
+        cpService = new CodePostauxServiceImpl(cache, new AppelsIgn(new CodesPostauxApi(), cache, new CoalescenceAppelsIgn(new SimpleMeterRegistry())));
     }
 
     @Test
@@ -1,11 +1,15 @@
 package com.sqli.workshop.ddd.connaissance.client.cpostal;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -16,6 +20,8 @@ import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService
 import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.client.CodesPostauxApi;
 import com.sqli.workshop.ddd.connaissance.client.generated.codepostal.model.Commune;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatusCode;
@@ -25,12 +31,14 @@ import org.springframework.web.client.HttpClientErrorException;
 public class CodePostauxServiceImplTest implements CodePostauxService {
     
     CodesPostauxApi codesPostauxApi;
+    CodePostauxCache cache;
     CodePostauxService service;
 
     @BeforeEach
     public void init() {
         codesPostauxApi = mock(CodesPostauxApi.class);
-        service = new CodePostauxServiceImpl(codesPostauxApi);
+        cache = new CodePostauxCache(Duration.ofHours(24), Duration.ofHours(1), 100, new SimpleMeterRegistry());
+        service = new CodePostauxServiceImpl(cache, new AppelsIgn(codesPostauxApi, cache, new CoalescenceAppelsIgn(new SimpleMeterRegistry())));
     }
 
 
@@ -164,5 +172,91 @@ public class CodePostauxServiceImplTest implements CodePostauxService {
         assertFalse(result);
         verify(codesPostauxApi).codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal);
     }
-}
 
+    @Test
+    public void code_postal_in_cache_validateCodePostal_should_not_call_api() {
+        // GIVEN
+        String codePostal = "33800";
+        Commune communeResult = new Commune();
+        communeResult.setCodeCommune("33800");
+        communeResult.setCodePostal("33800");
+        communeResult.setNomCommune("BORDEAUX");
+        ResponseEntity<List<Commune>> httpResult = ResponseEntity.ok().body(Arrays.asList(communeResult));
+        when(codesPostauxApi.codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal)).thenReturn(httpResult);
+        service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // WHEN
+        boolean valid = service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        boolean invalid = service.validateCodePostal(new CodePostal(codePostal), new Ville("Pessac"));
+        // THEN
+        assertTrue(valid);
+        assertFalse(invalid);
+        verify(codesPostauxApi, times(1)).codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal);
+    }
+
+    @Test
+    public void api_returns_404_validateCodePostal_should_cache_unknown_code() {
+        // GIVEN
+        String codePostal = "33XXX";
+        when(codesPostauxApi.codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal)).thenThrow(new HttpClientErrorException(HttpStatusCode.valueOf(404)));
+        service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // WHEN
+        boolean result = service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // THEN
+        assertFalse(result);
+        verify(codesPostauxApi, times(1)).codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal);
+    }
+
+    @Test
+    public void api_returns_500_validateCodePostal_should_not_cache() {
+        // GIVEN
+        String codePostal = "33800";
+        ResponseEntity<List<Commune>> httpResult = ResponseEntity.internalServerError().build();
+        when(codesPostauxApi.codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal)).thenReturn(httpResult);
+        service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // WHEN
+        service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // THEN
+        verify(codesPostauxApi, times(2)).codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal);
+    }
+
+    @Test
+    public void api_returns_429_validateCodePostal_should_not_cache() {
+        // GIVEN
+        String codePostal = "33800";
+        when(codesPostauxApi.codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal)).thenThrow(new HttpClientErrorException(HttpStatusCode.valueOf(429)));
+        service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // WHEN
+        service.validateCodePostal(new CodePostal(codePostal), new Ville("Bordeaux"));
+        // THEN
+        verify(codesPostauxApi, times(2)).codesPostauxCommunesCodePostalGetWithHttpInfo(codePostal);
+    }
+
+    @Test
+    public void code_postal_in_cache_validateCodePostal_should_not_go_through_circuit_breaker() {
+        // GIVEN
+        AppelsIgn appelsIgn = mock(AppelsIgn.class);
+        CodePostauxService facade = new CodePostauxServiceImpl(cache, appelsIgn);
+        cache.enregistrer("33800", List.of("BORDEAUX"));
+        cache.inconnu("33XXX");
+        // WHEN
+        boolean valid = facade.validateCodePostal(new CodePostal("33800"), new Ville("Bordeaux"));
+        boolean unknown = facade.validateCodePostal(new CodePostal("33XXX"), new Ville("Bordeaux"));
+        // THEN
+        assertTrue(valid);
+        assertFalse(unknown);
+        verifyNoInteractions(appelsIgn);
+    }
+
+    @Test
+    public void code_postal_not_in_cache_validateCodePostal_should_call_guarded_api() {
+        // GIVEN
+        AppelsIgn appelsIgn = mock(AppelsIgn.class);
+        CodePostauxService facade = new CodePostauxServiceImpl(cache, appelsIgn);
+        when(appelsIgn.validerCodePostal(new CodePostal("33800"), new Ville("Bordeaux"))).thenReturn(true);
+        // WHEN
+        boolean result = facade.validateCodePostal(new CodePostal("33800"), new Ville("Bordeaux"));
+        // THEN
+        assertTrue(result);
+        verify(appelsIgn).validerCodePostal(new CodePostal("33800"), new Ville("Bordeaux"));
+    }
+}
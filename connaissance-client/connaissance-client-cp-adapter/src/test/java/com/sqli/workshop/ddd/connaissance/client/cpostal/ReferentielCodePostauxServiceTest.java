@@ -0,0 +1,105 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReferentielCodePostauxServiceTest {
+
+    @TempDir
+    Path dossier;
+
+    CodePostauxServiceImpl ign;
+    SimpleMeterRegistry registry;
+    Path fichier;
+    ReferentielCodePostauxService service;
+
+    @BeforeEach
+    public void init() throws IOException {
+        ign = mock(CodePostauxServiceImpl.class);
+        registry = new SimpleMeterRegistry();
+        fichier = dossier.resolve("codes-postaux.json");
+        Files.writeString(fichier, ReferentielCodesPostauxTest.JSON);
+        service = new ReferentielCodePostauxService(ign, fichier, Duration.ofHours(1), registry);
+    }
+
+    @AfterEach
+    public void close() {
+        service.destroy();
+    }
+
+    @Test
+    public void code_postal_in_referentiel_validateCodePostal_should_not_call_ign() {
+        // WHEN
+        boolean valid = service.validateCodePostal(new CodePostal("33800"), new Ville("BORDEAUX"));
+        boolean invalid = service.validateCodePostal(new CodePostal("33800"), new Ville("Pessac"));
+        // THEN
+        assertTrue(valid);
+        assertFalse(invalid);
+        verify(ign, never()).validateCodePostal(any(), any());
+    }
+
+    @Test
+    public void code_postal_not_in_referentiel_validateCodePostal_should_call_ign() {
+        // GIVEN
+        CodePostal codePostal = new CodePostal("75001");
+        Ville ville = new Ville("Paris");
+        when(ign.validateCodePostal(codePostal, ville)).thenReturn(true);
+        // WHEN
+        boolean result = service.validateCodePostal(codePostal, ville);
+        // THEN
+        assertTrue(result);
+        verify(ign).validateCodePostal(codePostal, ville);
+        assertEquals(1.0, registry.get("connaissance.client.code-postaux.referentiel.fallbacks").counter().count());
+    }
+
+    @Test
+    public void new_referentiel_file_recharger_should_swap_referentiel() throws IOException {
+        // GIVEN
+        Files.writeString(fichier, """
+            [{"codePostal":"75001","codeCommune":"75101","nomCommune":"Paris","libelleAcheminement":"PARIS"}]
+            """);
+        Files.setLastModifiedTime(fichier, FileTime.from(Instant.now().plusSeconds(60)));
+        // WHEN
+        service.recharger();
+        // THEN
+        assertTrue(service.validateCodePostal(new CodePostal("75001"), new Ville("Paris")));
+        assertEquals(1.0, registry.get("connaissance.client.code-postaux.referentiel.size").gauge().value());
+        verify(ign, never()).validateCodePostal(any(), any());
+    }
+
+    @Test
+    public void invalid_referentiel_file_recharger_should_keep_current_referentiel() throws IOException {
+        // GIVEN
+        Files.writeString(fichier, "[{\"codePostal\":");
+        Files.setLastModifiedTime(fichier, FileTime.from(Instant.now().plusSeconds(60)));
+        // WHEN
+        service.recharger();
+        // THEN
+        assertTrue(service.validateCodePostal(new CodePostal("33800"), new Ville("Bordeaux")));
+        assertEquals(3.0, registry.get("connaissance.client.code-postaux.referentiel.size").gauge().value());
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.sqli.workshop.ddd.connaissance.client.cpostal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class ReferentielCodesPostauxTest {
+
+    static final String JSON = """
+        [
+          {"codePostal":"33800","codeCommune":"33063","nomCommune":"Bordeaux","libelleAcheminement":"BORDEAUX"},
+          {"codePostal":"01000","codeCommune":"01053","nomCommune":"Bourg-en-Bresse","libelleAcheminement":"BOURG EN BRESSE"},
+          {"codePostal":"33600","codeCommune":"33318","nomCommune":"Pessac","libelleAcheminement":"PESSAC"},
+          {"codePostal":"33800","codeCommune":"33999","nomCommune":"Autre","libelleAcheminement":"AUTRE"},
+          {"codePostal":"2A000","codeCommune":"2A004","nomCommune":"Ajaccio","libelleAcheminement":"AJACCIO"}
+        ]
+        """;
+
+    @Test
+    public void given_json_charger_should_index_communes_by_code_postal() throws IOException {
+        // WHEN
+        ReferentielCodesPostaux referentiel = ReferentielCodesPostaux.charger(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+        // THEN
+        assertEquals(3, referentiel.taille());
+        assertEquals(Optional.of(List.of("Bordeaux", "Autre")), referentiel.communes("33800"));
+        assertEquals(Optional.of(List.of("Bourg-en-Bresse")), referentiel.communes("01000"));
+        assertEquals(Optional.of(List.of("Pessac")), referentiel.communes("33600"));
+    }
+
+    @Test
+    public void given_unknown_code_postal_communes_should_return_empty() throws IOException {
+        // GIVEN
+        ReferentielCodesPostaux referentiel = ReferentielCodesPostaux.charger(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+        // THEN
+        assertTrue(referentiel.communes("75001").isEmpty());
+        assertTrue(referentiel.communes("2A000").isEmpty());
+        assertTrue(referentiel.communes("1000").isEmpty());
+    }
+
+    @Test
+    public void given_known_code_postal_communes_should_not_allow_changing_referential() throws IOException {
+        // GIVEN
+        ReferentielCodesPostaux referentiel = ReferentielCodesPostaux.charger(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+        List<String> communes = referentiel.communes("33800").orElseThrow();
+        // WHEN & THEN
+        assertThrows(UnsupportedOperationException.class, () -> communes.set(0, "Pessac"));
+        assertThrows(UnsupportedOperationException.class, () -> communes.sort(null));
+        assertEquals(Optional.of(List.of("Bordeaux", "Autre")), referentiel.communes("33800"));
+    }
+
+    @Test
+    public void given_invalid_json_charger_should_throw() {
+        assertThrows(IOException.class, () -> ReferentielCodesPostaux.charger(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+}
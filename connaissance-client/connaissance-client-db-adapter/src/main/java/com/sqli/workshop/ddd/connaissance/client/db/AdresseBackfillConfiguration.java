@@ -0,0 +1,44 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Backfill des événements d'adresse, lancé au démarrage avec
+ * {@code connaissance-client.backfill.enabled=true} (une seule instance à la fois).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "connaissance-client.backfill", name = "enabled", havingValue = "true")
+public class AdresseBackfillConfiguration {
+
+    /**
+     * Le job est démarré après le client MongoDB (cycle de vie géré par l'application)
+     * et arrêté avant lui.
+     */
+    @Bean
+    @DependsOn("mongoClient")
+    AdresseBackfillJob adresseBackfillJob(
+            MongoOperations mongoOperations,
+            AdresseEventService adresseEventService,
+            ClientDbMapper mapper,
+            @Value("${connaissance-client.db.format-identifiant:TEXTE}") FormatIdentifiant formatIdentifiant,
+            @Value("${connaissance-client.backfill.job-id:adresses}") String jobId,
+            @Value("${connaissance-client.backfill.rate:200}") int debit,
+            @Value("${connaissance-client.backfill.parallelism:4}") int parallelisme,
+            @Value("${connaissance-client.backfill.checkpoint-interval:5s}") Duration intervalleCheckpoint,
+            MeterRegistry registry) {
+        return new AdresseBackfillJob(mongoOperations, adresseEventService, mapper, formatIdentifiant, jobId, debit, parallelisme,
+                intervalleCheckpoint, registry);
+    }
+
+}
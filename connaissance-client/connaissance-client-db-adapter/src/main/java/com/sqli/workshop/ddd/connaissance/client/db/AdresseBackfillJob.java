@@ -0,0 +1,326 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Republication de l'adresse de tous les clients de la collection connaissanceclient, pour
+ * reconstruire un système aval.
+ * <p>
+ * La collection est parcourue par un curseur dans l'ordre des {@code _id} ; chaque adresse est
+ * publiée via {@link AdresseEventService#sendEventAsync}. Pour ne pas pénaliser le trafic
+ * courant de l'instance :
+ * <ul>
+ *   <li>le débit est limité à {@code rate} événements par seconde</li>
+ *   <li>au plus {@code parallelism} publications sont en cours à un instant donné</li>
+ *   <li>le curseur est lu par un thread de priorité minimale</li>
+ * </ul>
+ * Le dernier {@code _id} dont la publication (et celle de tous les précédents) est confirmée
+ * est enregistré périodiquement dans la collection {@value ClientChangeStreamListener#CHECKPOINTS_COLLECTION} :
+ * après un arrêt ou un échec de publication, le job reprend après ce client. Une autre erreur
+ * (lecture du curseur, erreur inattendue) est suivie d'une reprise après ce client, au bout de
+ * {@code checkpoint-interval}. Un job terminé n'est pas relancé ; supprimer son checkpoint pour
+ * le rejouer.
+ * <p>
+ * <strong>Métriques :</strong> {@code connaissance.client.backfill.events} (adresses publiées),
+ * {@code connaissance.client.backfill.skipped} (fiches illisibles),
+ * {@code connaissance.client.backfill.failures} (échecs de publication),
+ * {@code connaissance.client.backfill.errors} (erreurs suivies d'une reprise),
+ * {@code connaissance.client.backfill.remaining} (clients restant à publier).
+ */
+@Slf4j
+public class AdresseBackfillJob implements SmartLifecycle {
+
+    private static final int TAILLE_LOT_CURSEUR = 500;
+
+    private record Envoi(String clientId, CompletableFuture<Boolean> confirmation) {}
+
+    private final MongoOperations mongoOperations;
+    private final AdresseEventService adresseEventService;
+    private final ClientDbMapper mapper;
+    private final FormatIdentifiant formatIdentifiant;
+    private final String jobId;
+    private final long intervalleEnvoi;
+    private final Semaphore envoisEnCours;
+    private final Duration intervalleCheckpoint;
+    private final Counter events;
+    private final Counter skipped;
+    private final Counter failures;
+    private final Counter errors;
+    private final AtomicLong restants = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private long prochainEnvoi;
+
+    public AdresseBackfillJob(MongoOperations mongoOperations, AdresseEventService adresseEventService,
+                              ClientDbMapper mapper, FormatIdentifiant formatIdentifiant, String jobId, int debit,
+                              int parallelisme, Duration intervalleCheckpoint, MeterRegistry registry) {
+        this.mongoOperations = mongoOperations;
+        this.adresseEventService = adresseEventService;
+        this.mapper = mapper;
+        this.formatIdentifiant = formatIdentifiant;
+        this.jobId = jobId;
+        this.intervalleEnvoi = TimeUnit.SECONDS.toNanos(1) / debit;
+        this.envoisEnCours = new Semaphore(parallelisme);
+        this.intervalleCheckpoint = intervalleCheckpoint;
+        this.events = Counter.builder("connaissance.client.backfill.events")
+                .description("Adresses republiées par le backfill")
+                .tag("job", jobId)
+                .register(registry);
+        this.skipped = Counter.builder("connaissance.client.backfill.skipped")
+                .description("Fiches client illisibles ignorées par le backfill")
+                .tag("job", jobId)
+                .register(registry);
+        this.failures = Counter.builder("connaissance.client.backfill.failures")
+                .description("Échecs de publication du backfill")
+                .tag("job", jobId)
+                .register(registry);
+        this.errors = Counter.builder("connaissance.client.backfill.errors")
+                .description("Erreurs du backfill, suivies d'une reprise après le dernier client confirmé")
+                .tag("job", jobId)
+                .register(registry);
+        Gauge.builder("connaissance.client.backfill.remaining", restants, AtomicLong::get)
+                .description("Clients restant à republier par le backfill")
+                .tag("job", jobId)
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = Thread.ofPlatform().daemon().priority(Thread.MIN_PRIORITY)
+                .name("cclient-backfill").start(this::executer);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread courant = thread;
+        thread = null;
+        if (courant != null) {
+            courant.interrupt();
+            try {
+                courant.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void executer() {
+        try {
+            while (running) {
+                try {
+                    Document checkpoint = checkpoints().find(Filters.eq("_id", checkpointId())).first();
+                    if (checkpoint != null && checkpoint.getBoolean("termine", false)) {
+                        log.info("Address backfill {} already completed, delete its checkpoint to run it again", jobId);
+                        return;
+                    }
+                    String dernierId = checkpoint != null ? checkpoint.getString("dernierId") : null;
+                    log.info("Address backfill {} starting after client {}", jobId, dernierId);
+                    boolean termine = publierApres(dernierId);
+                    log.info("Address backfill {} {}", jobId, termine ? "completed" : "interrupted");
+                    return;
+                } catch (RuntimeException e) {
+                    if (!running) return;
+                    errors.increment();
+                    log.error("Address backfill {} error, resuming from its checkpoint in {}", jobId, intervalleCheckpoint, e);
+                    attendre();
+                }
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Publie l'adresse des clients suivant {@code dernierId}, jusqu'à la fin de la collection,
+     * une interruption du thread ou un échec de publication.
+     *
+     * @return {@code true} si tous les clients ont été publiés
+     * @throws RuntimeException erreur de lecture des clients, après l'enregistrement du
+     *         checkpoint des publications confirmées
+     */
+    boolean publierApres(String dernierId) {
+        Query query = new Query();
+        if (dernierId != null) query.addCriteria(Criteria.where("id").gt(formatIdentifiant.valeur(dernierId)));
+        restants.set(mongoOperations.count(query, ClientDb.class));
+        query.with(Sort.by(Sort.Direction.ASC, "id")).cursorBatchSize(TAILLE_LOT_CURSEUR);
+
+        Deque<Envoi> envois = new ArrayDeque<>();
+        String confirme = dernierId;
+        long prochainCheckpoint = System.nanoTime() + intervalleCheckpoint.toNanos();
+        boolean complet = false;
+        boolean interrompu = false;
+        RuntimeException erreur = null;
+        prochainEnvoi = System.nanoTime();
+        try (Stream<ClientDb> clients = mongoOperations.stream(query, ClientDb.class)) {
+            Iterator<ClientDb> curseur = clients.iterator();
+            while (!Thread.currentThread().isInterrupted() && curseur.hasNext()) {
+                ClientDb client = curseur.next();
+                attendreDebit();
+                envoisEnCours.acquire();
+                envois.add(new Envoi(client.getId(), publier(client)));
+                confirme = confirmes(envois, confirme, false);
+                if (System.nanoTime() >= prochainCheckpoint) {
+                    enregistrer(confirme, false);
+                    prochainCheckpoint = System.nanoTime() + intervalleCheckpoint.toNanos();
+                }
+            }
+            complet = !Thread.currentThread().isInterrupted() && !curseur.hasNext();
+        } catch (InterruptedException e) {
+            interrompu = true;
+        } catch (EchecPublication e) {
+            confirme = e.confirme;
+        } catch (RuntimeException e) {
+            // Curseur en échec : les publications confirmées sont enregistrées avant la reprise
+            erreur = e;
+        }
+        // Le checkpoint final est écrit même après une interruption ou une erreur
+        interrompu |= Thread.interrupted();
+        try {
+            confirme = confirmes(envois, confirme, true);
+        } catch (EchecPublication e) {
+            confirme = e.confirme;
+            complet = false;
+        }
+        enregistrer(confirme, complet);
+        if (interrompu) Thread.currentThread().interrupt();
+        if (erreur != null) throw erreur;
+        return complet;
+    }
+
+    /**
+     * Retire les publications confirmées en tête de file.
+     *
+     * @param attendre attendre la fin de toutes les publications en cours
+     * @return le dernier client dont la publication et celles de tous les précédents sont confirmées
+     * @throws EchecPublication à la première publication en échec
+     */
+    private String confirmes(Deque<Envoi> envois, String confirme, boolean attendre) throws EchecPublication {
+        while (!envois.isEmpty() && (attendre || envois.peek().confirmation().isDone())) {
+            Envoi envoi = envois.poll();
+            if (!envoi.confirmation().join()) {
+                envois.forEach(suivant -> suivant.confirmation().join());
+                envois.clear();
+                throw new EchecPublication(confirme);
+            }
+            confirme = envoi.clientId();
+        }
+        return confirme;
+    }
+
+    private CompletableFuture<Boolean> publier(ClientDb clientDb) {
+        CompletableFuture<Boolean> envoi;
+        try {
+            Client client = mapper.mapToDomain(clientDb);
+            envoi = adresseEventService.sendEventAsync(client.getId(),
+                    new Destinataire(client.getNom(), client.getPrenom()), client.getAdresse());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // Fiche illisible : ignorée, elle ne bloque pas la reprise
+            skipped.increment();
+            restants.decrementAndGet();
+            log.warn("Address backfill {} skipping client {}: {}", jobId, clientDb.getId(), e.getMessage());
+            envoi = CompletableFuture.completedFuture(true);
+            envoisEnCours.release();
+            return envoi;
+        } catch (RuntimeException e) {
+            envoi = CompletableFuture.failedFuture(e);
+        }
+        return envoi.handle((publie, erreur) -> {
+            envoisEnCours.release();
+            if (erreur != null || !Boolean.TRUE.equals(publie)) {
+                failures.increment();
+                log.warn("Address backfill {} failed for client {}: {}", jobId, clientDb.getId(),
+                        erreur != null ? erreur.getMessage() : "not accepted by the broker");
+                return false;
+            }
+            events.increment();
+            restants.decrementAndGet();
+            return true;
+        });
+    }
+
+    /** Espace les publications de {@code 1s / rate} */
+    private void attendreDebit() throws InterruptedException {
+        long maintenant = System.nanoTime();
+        if (prochainEnvoi > maintenant) TimeUnit.NANOSECONDS.sleep(prochainEnvoi - maintenant);
+        prochainEnvoi = Math.max(prochainEnvoi, maintenant) + intervalleEnvoi;
+    }
+
+    private void attendre() {
+        try {
+            Thread.sleep(intervalleCheckpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enregistrer(String dernierId, boolean termine) {
+        if (dernierId == null && !termine) return;
+        try {
+            checkpoints().replaceOne(Filters.eq("_id", checkpointId()),
+                    new Document("_id", checkpointId())
+                            .append("dernierId", dernierId)
+                            .append("termine", termine)
+                            .append("misAJourLe", new Date()),
+                    new ReplaceOptions().upsert(true));
+        } catch (MongoException e) {
+            log.warn("Unable to save address backfill {} checkpoint: {}", jobId, e.getMessage());
+        }
+    }
+
+    private String checkpointId() {
+        return "backfill:" + jobId;
+    }
+
+    private MongoCollection<Document> checkpoints() {
+        return mongoOperations.getCollection(ClientChangeStreamListener.CHECKPOINTS_COLLECTION);
+    }
+
+    /** Publication en échec : le job s'arrête après le dernier client confirmé */
+    private static final class EchecPublication extends Exception {
+        private final transient String confirme;
+
+        private EchecPublication(String confirme) {
+            super(null, null, false, false);
+            this.confirme = confirme;
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Outbox des événements de changement d'adresse : écriture transactionnelle avec la fiche
+ * client et relais de publication vers le binding {@code event.adresse.v1}.
+ * <p>
+ * Les transactions MongoDB nécessitent un replica set (ou un cluster shardé), y compris en
+ * développement (replica set d'un seul membre) : sans transaction, un arrêt entre l'écriture de
+ * la fiche et celle de l'événement perdrait l'événement ou en publierait un fantôme. Le
+ * démarrage échoue donc si {@code connaissance-client.outbox.transaction.enabled} vaut
+ * {@code false}.
+ * <p>
+ * Le relais est démarré sur chaque nœud ({@code connaissance-client.outbox.relay.enabled}),
+ * un seul publie à un instant donné. Il ne regroupe les événements d'un même client que si
+ * {@code connaissance-client.events.coalescing.enabled} vaut {@code true}.
+ */
+@Configuration
+public class AdresseOutboxConfiguration {
+
+    @Bean
+    TransactionOperations adresseOutboxTransaction(
+            MongoDatabaseFactory databaseFactory,
+            @Value("${connaissance-client.outbox.transaction.enabled:true}") boolean transaction) {
+        if (!transaction) {
+            throw new IllegalStateException("The address outbox requires MongoDB transactions (replica set): "
+                    + "connaissance-client.outbox.transaction.enabled must not be false");
+        }
+        return new TransactionTemplate(new MongoTransactionManager(databaseFactory));
+    }
+
+    /**
+     * Le relais est démarré après le client MongoDB (cycle de vie géré par l'application)
+     * et arrêté avant lui.
+     */
+    @Bean
+    @DependsOn("mongoClient")
+    @ConditionalOnProperty(prefix = "connaissance-client.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+    AdresseOutboxRelay adresseOutboxRelay(
+            AdresseOutboxDbRepository outboxRepository,
+            MongoOperations mongoOperations,
+            AdresseEventService adresseEventService,
+            ClientDbMapper mapper,
+            @Value("${connaissance-client.outbox.relay.node-id:${HOSTNAME:local}}") String nodeId,
+            @Value("${connaissance-client.outbox.relay.batch-size:100}") int tailleLot,
+            @Value("${connaissance-client.outbox.relay.poll-interval:200ms}") Duration intervalle,
+            @Value("${connaissance-client.outbox.relay.lease-duration:10s}") Duration dureeBail,
+            @Value("${connaissance-client.events.coalescing.enabled:false}") boolean regroupement,
+            MeterRegistry registry) {
+        return new AdresseOutboxRelay(outboxRepository, mongoOperations, adresseEventService, mapper,
+                nodeId, tailleLot, intervalle, dureeBail, regroupement, registry);
+    }
+
+}
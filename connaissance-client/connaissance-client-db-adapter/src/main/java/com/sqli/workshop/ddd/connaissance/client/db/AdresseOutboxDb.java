@@ -0,0 +1,46 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Instant;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Événement de changement d'adresse en attente de publication (outbox), enregistré dans la
+ * même transaction que la fiche client.
+ * <p>
+ * L'identifiant est un ObjectId généré à l'insertion : l'ordre des identifiants est l'ordre
+ * de publication.
+ */
+@FieldDefaults(level= AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Getter
+@Setter
+@Document(collection = "connaissanceclient_outbox")
+public class AdresseOutboxDb {
+
+    @Id
+    private String id;
+
+    private String clientId;
+
+    private String nom;
+
+    private String prenom;
+
+    private String ligne1;
+
+    private String ligne2;
+
+    private String codePostal;
+
+    private String ville;
+
+    private Instant creeLe;
+
+}
@@ -0,0 +1,28 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Accès aux événements de changement d'adresse en attente de publication.
+ */
+@Repository
+public interface AdresseOutboxDbRepository extends MongoRepository<AdresseOutboxDb, String> {
+
+    /**
+     * @param limit la taille du lot
+     * @return les événements les plus anciens, dans l'ordre d'enregistrement
+     */
+    List<AdresseOutboxDb> findByOrderByIdAsc(Limit limit);
+
+    /**
+     * @param id identifiant du dernier événement lu
+     * @param limit la taille du lot
+     * @return les événements enregistrés après {@code id}, dans l'ordre d'enregistrement
+     */
+    List<AdresseOutboxDb> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+}
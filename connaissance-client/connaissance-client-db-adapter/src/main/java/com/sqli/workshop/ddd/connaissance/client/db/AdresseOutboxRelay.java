@@ -0,0 +1,381 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relais de publication des événements de changement d'adresse enregistrés dans la collection
+ * outbox {@value #COLLECTION}.
+ * <p>
+ * Les événements sont lus par lots dans l'ordre d'enregistrement, publiés via
+ * {@link AdresseEventService}, puis supprimés de l'outbox au fil des confirmations :
+ * <ul>
+ *   <li>Livraison au moins une fois : un arrêt entre la publication et la suppression entraîne
+ *   une nouvelle publication au redémarrage</li>
+ *   <li>Ordre par client conservé : un seul relais actif dans le cluster (bail renouvelé dans
+ *   la collection {@value #BAUX_COLLECTION}) ; les événements d'un même client sont publiés
+ *   l'un après l'autre et, en cas d'échec, les suivants restent dans l'outbox derrière
+ *   l'événement en échec, sauf s'ils l'ont remplacé (adresse plus récente publiée)</li>
+ * </ul>
+ * <strong>Métriques :</strong>
+ * <ul>
+ *   <li>{@code connaissance.client.outbox.relay.lag} : délai entre l'enregistrement de
+ *   l'événement et sa publication</li>
+ *   <li>{@code connaissance.client.outbox.relay.events} : événements publiés (débit)</li>
+ *   <li>{@code connaissance.client.outbox.relay.batch.size} : nombre d'événements supprimés de l'outbox par passage</li>
+ *   <li>{@code connaissance.client.outbox.relay.failures} : échecs de publication</li>
+ *   <li>{@code connaissance.client.outbox.relay.errors} : erreurs du relais (lecture ou
+ *   suppression dans l'outbox, erreur inattendue), suivies d'une nouvelle tentative après
+ *   {@code poll-interval}</li>
+ * </ul>
+ */
+@Slf4j
+public class AdresseOutboxRelay implements SmartLifecycle {
+
+    static final String COLLECTION = "connaissanceclient_outbox";
+    static final String BAUX_COLLECTION = "connaissanceclient_outbox_lease";
+    private static final String BAIL_ID = "relay";
+    /** Nombre maximal de lots en attente de confirmation */
+    static final int LOTS_EN_VOL = 20;
+
+    private final AdresseOutboxDbRepository outboxRepository;
+    private final MongoOperations mongoOperations;
+    private final AdresseEventService adresseEventService;
+    private final ClientDbMapper mapper;
+    private final String nodeId;
+    private final int tailleLot;
+    private final Duration intervalle;
+    private final Duration dureeBail;
+    /** Regroupement des événements d'un même client dans un lot ({@code connaissance-client.events.coalescing.enabled}) */
+    private final boolean regroupement;
+    private final Timer lag;
+    private final Counter events;
+    private final DistributionSummary lots;
+    private final Counter failures;
+    private final Counter errors;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    /** Identifiant du dernier événement lu, {@code null} pour lire depuis le début de l'outbox */
+    private String dernierLu;
+    /** Identifiants des événements lus et non supprimés, par client (accès synchronisé) */
+    private final Map<String, NavigableSet<String>> soumis = new HashMap<>();
+    /** Dernière confirmation attendue par client */
+    private final Map<String, CompletableFuture<Boolean>> derniers = new ConcurrentHashMap<>();
+    /** Événements publiés, à supprimer de l'outbox */
+    private final Queue<String> aSupprimer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enVol = new AtomicInteger();
+    private volatile boolean echec;
+    /** Clients dont un événement a échoué : leurs événements suivants ne sont soumis qu'à la reprise */
+    private final Set<String> clientsEnEchec = ConcurrentHashMap.newKeySet();
+
+    public AdresseOutboxRelay(AdresseOutboxDbRepository outboxRepository, MongoOperations mongoOperations,
+                              AdresseEventService adresseEventService, ClientDbMapper mapper, String nodeId,
+                              int tailleLot, Duration intervalle, Duration dureeBail, boolean regroupement,
+                              MeterRegistry registry) {
+        this.outboxRepository = outboxRepository;
+        this.mongoOperations = mongoOperations;
+        this.adresseEventService = adresseEventService;
+        this.mapper = mapper;
+        this.nodeId = nodeId;
+        this.tailleLot = tailleLot;
+        this.intervalle = intervalle;
+        this.dureeBail = dureeBail;
+        this.regroupement = regroupement;
+        this.lag = Timer.builder("connaissance.client.outbox.relay.lag")
+                .description("Délai entre l'enregistrement d'un événement d'adresse et sa publication")
+                .register(registry);
+        this.events = Counter.builder("connaissance.client.outbox.relay.events")
+                .description("Événements d'adresse publiés par le relais outbox")
+                .register(registry);
+        this.lots = DistributionSummary.builder("connaissance.client.outbox.relay.batch.size")
+                .description("Taille des lots d'événements publiés par le relais outbox")
+                .register(registry);
+        this.failures = Counter.builder("connaissance.client.outbox.relay.failures")
+                .description("Échecs de publication d'un événement d'adresse")
+                .register(registry);
+        this.errors = Counter.builder("connaissance.client.outbox.relay.errors")
+                .description("Erreurs du relais outbox, suivies d'une nouvelle tentative")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("cclient-outbox-relay").start(this::relayer);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread courant = thread;
+        thread = null;
+        if (courant != null) {
+            courant.interrupt();
+            try {
+                courant.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            supprimerPublies();
+        } catch (RuntimeException e) {
+            log.warn("Unable to delete published outbox events, they will be published again: {}", e.getMessage());
+        }
+        libererBail();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relayer() {
+        while (running) {
+            try {
+                if (!acquerirBail() || relayerLot() < tailleLot) {
+                    attendre();
+                }
+            } catch (RuntimeException e) {
+                // Toute erreur est suivie d'une nouvelle tentative : le thread du relais ne doit pas s'arrêter
+                if (running) {
+                    errors.increment();
+                    if (e instanceof MongoException || e instanceof DataAccessException) {
+                        log.warn("Outbox relay error, retrying: {}", e.getMessage());
+                    } else {
+                        log.error("Unexpected outbox relay error, retrying", e);
+                    }
+                    attendre();
+                }
+            }
+        }
+    }
+
+    /**
+     * Soumet le lot suivant d'événements, sans attendre leur confirmation.
+     * <p>
+     * Les événements sont lus après le dernier événement soumis tant que des confirmations sont
+     * en attente (au plus {@value #LOTS_EN_VOL} lots), et supprimés de l'outbox au fil des
+     * confirmations. Avec regroupement, seul le dernier événement d'un client dans le lot est
+     * soumis : sa publication supprime aussi les événements précédents du client, remplacés par
+     * ce nouvel instantané d'adresse. Sans regroupement (par défaut), chaque événement est publié.
+     * <p>
+     * Les événements d'un même client sont enchaînés : chacun n'est soumis qu'après la
+     * confirmation du précédent, et n'est pas soumis si le précédent a échoué.
+     * Si le service garantit lui-même l'ordre par client
+     * ({@link AdresseEventService#conserveOrdreParClient()}, regroupement des messages d'un
+     * client), ils sont soumis sans attendre : une correction lue pendant la fenêtre de
+     * regroupement est alors fusionnée avec l'événement en attente.
+     * <p>
+     * Après un échec, la lecture est suspendue jusqu'à la fin des envois en cours, puis reprend
+     * au début de l'outbox ; elle reprend aussi au début dès que l'outbox a été entièrement lue.
+     *
+     * @return le nombre d'événements lus ; inférieur à la taille du lot si l'outbox a été
+     *         entièrement lue, ou si la lecture est suspendue
+     */
+    int relayerLot() {
+        boolean auRepos = enVol.get() == 0;
+        supprimerPublies();
+        if (echec || enVol.get() >= tailleLot * LOTS_EN_VOL) {
+            if (echec && auRepos) reprendre();
+            return 0;
+        }
+        List<AdresseOutboxDb> lot = dernierLu == null
+                ? outboxRepository.findByOrderByIdAsc(Limit.of(tailleLot))
+                : outboxRepository.findByIdGreaterThanOrderByIdAsc(dernierLu, Limit.of(tailleLot));
+        if (lot.isEmpty()) {
+            if (auRepos) dernierLu = null;
+            return 0;
+        }
+        dernierLu = lot.get(lot.size() - 1).getId();
+        synchronized (this) {
+            for (AdresseOutboxDb evenement : lot) {
+                soumis.computeIfAbsent(evenement.getClientId(), clientId -> new TreeSet<>()).add(evenement.getId());
+            }
+        }
+        Collection<AdresseOutboxDb> aSoumettre = lot;
+        if (regroupement) {
+            Map<String, AdresseOutboxDb> derniersDuLot = new LinkedHashMap<>();
+            for (AdresseOutboxDb evenement : lot) derniersDuLot.put(evenement.getClientId(), evenement);
+            aSoumettre = derniersDuLot.values();
+        }
+        boolean ordreConserve = adresseEventService.conserveOrdreParClient();
+        for (AdresseOutboxDb evenement : aSoumettre) {
+            soumettre(evenement, ordreConserve);
+        }
+        supprimerPublies();
+        return lot.size();
+    }
+
+    private void soumettre(AdresseOutboxDb evenement, boolean ordreConserve) {
+        String clientId = evenement.getClientId();
+        if (clientsEnEchec.contains(clientId)) return;
+        CompletableFuture<Boolean> precedent = derniers.get(clientId);
+        CompletableFuture<Boolean> confirmation = ordreConserve || precedent == null
+                ? publier(evenement)
+                : precedent.thenCompose(precedentPublie -> precedentPublie ? publier(evenement) : CompletableFuture.completedFuture(false));
+        enVol.incrementAndGet();
+        derniers.put(clientId, confirmation);
+        confirmation.thenAccept(publie -> {
+            derniers.remove(clientId, confirmation);
+            confirmer(evenement, publie);
+        });
+    }
+
+    /**
+     * Enregistre la confirmation d'un événement : publié, il remplace les événements précédents
+     * du client, à supprimer de l'outbox ; en échec, la lecture est suspendue.
+     */
+    private void confirmer(AdresseOutboxDb evenement, boolean publie) {
+        if (publie) {
+            synchronized (this) {
+                NavigableSet<String> ids = soumis.get(evenement.getClientId());
+                if (ids != null) {
+                    SortedSet<String> remplaces = ids.headSet(evenement.getId(), true);
+                    aSupprimer.addAll(remplaces);
+                    remplaces.clear();
+                    if (ids.isEmpty()) soumis.remove(evenement.getClientId());
+                }
+            }
+        } else {
+            clientsEnEchec.add(evenement.getClientId());
+            echec = true;
+        }
+        enVol.decrementAndGet();
+    }
+
+    private void supprimerPublies() {
+        List<String> publies = new ArrayList<>();
+        for (String id = aSupprimer.poll(); id != null; id = aSupprimer.poll()) publies.add(id);
+        if (publies.isEmpty()) return;
+        try {
+            outboxRepository.deleteAllById(publies);
+        } catch (RuntimeException e) {
+            aSupprimer.addAll(publies);
+            throw e;
+        }
+        lots.record(publies.size());
+    }
+
+    /** Tous les envois sont terminés : les événements en échec et leurs suivants sont relus */
+    private synchronized void reprendre() {
+        echec = false;
+        dernierLu = null;
+        soumis.clear();
+        clientsEnEchec.clear();
+    }
+
+    private CompletableFuture<Boolean> publier(AdresseOutboxDb evenement) {
+        CompletableFuture<Boolean> envoi;
+        try {
+            envoi = adresseEventService.sendEventAsync(
+                    UUID.fromString(evenement.getClientId()),
+                    mapper.mapDestinataire(evenement),
+                    mapper.mapAdresse(evenement));
+        } catch (RuntimeException e) {
+            envoi = CompletableFuture.failedFuture(e);
+        }
+        return envoi.handle((publie, erreur) -> {
+            if (erreur != null || !Boolean.TRUE.equals(publie)) {
+                failures.increment();
+                log.warn("Unable to publish address event {} for client {}, will retry: {}",
+                        evenement.getId(), evenement.getClientId(),
+                        erreur != null ? erreur.getMessage() : "not accepted by the broker");
+                return false;
+            }
+            events.increment();
+            if (evenement.getCreeLe() != null) {
+                lag.record(Duration.between(evenement.getCreeLe(), Instant.now()).toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return true;
+        });
+    }
+
+    private MongoCollection<Document> baux() {
+        return mongoOperations.getCollection(BAUX_COLLECTION);
+    }
+
+    /**
+     * Prend ou renouvelle le bail du relais : un seul nœud publie à un instant donné.
+     *
+     * @return {@code true} si ce nœud détient le bail
+     */
+    private boolean acquerirBail() {
+        long maintenant = System.currentTimeMillis();
+        try {
+            baux().findOneAndUpdate(
+                    Filters.and(
+                            Filters.eq("_id", BAIL_ID),
+                            Filters.or(Filters.eq("owner", nodeId), Filters.lt("expiresAt", new Date(maintenant)))),
+                    Updates.combine(
+                            Updates.set("owner", nodeId),
+                            Updates.set("expiresAt", new Date(maintenant + dureeBail.toMillis()))),
+                    new FindOneAndUpdateOptions().upsert(true));
+            return true;
+        } catch (MongoException e) {
+            // Bail détenu par un autre nœud : l'upsert échoue sur la clé _id
+            if (ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY) return false;
+            throw e;
+        }
+    }
+
+    private void libererBail() {
+        try {
+            baux().updateOne(
+                    Filters.and(Filters.eq("_id", BAIL_ID), Filters.eq("owner", nodeId)),
+                    Updates.set("expiresAt", new Date(0)));
+        } catch (MongoException e) {
+            log.warn("Unable to release outbox relay lease: {}", e.getMessage());
+        }
+    }
+
+    private void attendre() {
+        try {
+            Thread.sleep(intervalle);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Décorateur de {@link ClientRepository} mettant en cache les fiches client lues par identifiant.
+ * <p>
+ * <ul>
+ *   <li>{@link #lire(UUID)} : lecture à travers le cache ; les lectures concurrentes d'un même
+ *   identifiant absent du cache ne déclenchent qu'un seul chargement en base</li>
+ *   <li>{@link #version(UUID)} : lecture de la seule version en base, jamais depuis le cache (une
+ *   version périmée validerait un {@code If-Match} ou un {@code If-None-Match} à tort)</li>
+ *   <li>{@link #enregistrer(Client)}, {@link #enregistrerAvecChangementAdresse(Client)} : la fiche
+ *   enregistrée remplace l'entrée du cache</li>
+ *   <li>{@link #modifier(Client)}, {@link #changerAdresse}, {@link #changerSituation} : la fiche
+ *   après modification remplace l'entrée du cache ; l'entrée est invalidée si le client
+ *   n'existe pas</li>
+ *   <li>{@link #supprimer(UUID)} : l'entrée du cache est invalidée</li>
+ *   <li>{@link #lister} / {@link #parcourir} : non mis en cache</li>
+ * </ul>
+ * Les fiches absentes de la base ne sont pas mises en cache. {@link Client} étant mutable,
+ * le cache conserve sa propre copie de chaque fiche et retourne une copie à chaque lecture.
+ */
+@AllArgsConstructor
+public class CachingClientRepository implements ClientRepository {
+
+    private final ClientRepository delegate;
+    private final Cache<UUID, Client> cache;
+
+    @Override
+    public PageClients lister(CriteresClient criteres, Pagination pagination) {
+        return delegate.lister(criteres, pagination);
+    }
+
+    @Override
+    public Stream<Client> parcourir(CriteresClient criteres) {
+        return delegate.parcourir(criteres);
+    }
+
+    @Override
+    public Optional<UUID> lister(CriteresClient criteres, Pagination pagination, LecteurFiche lecteur) {
+        return delegate.lister(criteres, pagination, lecteur);
+    }
+
+    @Override
+    public long parcourir(CriteresClient criteres, LecteurFiche lecteur) {
+        return delegate.parcourir(criteres, lecteur);
+    }
+
+    @Override
+    public Optional<Client> lire(UUID id) {
+        return Optional.ofNullable(cache.get(id, cle -> delegate.lire(cle).orElse(null)))
+                .map(CachingClientRepository::copie);
+    }
+
+    @Override
+    public Optional<Long> version(UUID id) {
+        return delegate.version(id);
+    }
+
+    @Override
+    public Client enregistrer(Client client) {
+        return enregistrer(client, delegate::enregistrer);
+    }
+
+    @Override
+    public Client enregistrerAvecChangementAdresse(Client client) {
+        return enregistrer(client, delegate::enregistrerAvecChangementAdresse);
+    }
+
+    private Client enregistrer(Client client, UnaryOperator<Client> enregistrement) {
+        Client result;
+        try {
+            result = enregistrement.apply(client);
+        } catch (RuntimeException e) {
+            cache.invalidate(client.getId());
+            throw e;
+        }
+        cache.put(result.getId(), copie(result));
+        return result;
+    }
+
+    @Override
+    public Optional<Client> modifier(Client client, Optional<Long> versionAttendue) throws ConflitVersionException {
+        return mettreAJour(client.getId(), () -> delegate.modifier(client, versionAttendue), avant -> copie(client));
+    }
+
+    @Override
+    public Optional<Client> changerAdresse(UUID id, Adresse adresse, Optional<Long> versionAttendue) throws ConflitVersionException {
+        return mettreAJour(id, () -> delegate.changerAdresse(id, adresse, versionAttendue), avant -> {
+            Client apres = copie(avant);
+            apres.setAdresse(adresse);
+            return apres;
+        });
+    }
+
+    @Override
+    public Optional<Client> changerSituation(UUID id, SituationFamiliale situationFamiliale, Integer nombreEnfants,
+                                             Optional<Long> versionAttendue) throws ConflitVersionException {
+        return mettreAJour(id, () -> delegate.changerSituation(id, situationFamiliale, nombreEnfants, versionAttendue), avant -> {
+            Client apres = copie(avant);
+            apres.setSituationFamiliale(situationFamiliale);
+            apres.setNombreEnfants(nombreEnfants);
+            return apres;
+        });
+    }
+
+    /** Mise à jour retournant la fiche avant modification */
+    @FunctionalInterface
+    private interface MiseAJour {
+        Optional<Client> executer() throws ConflitVersionException;
+    }
+
+    /**
+     * @param miseAJour la mise à jour, qui retourne la fiche avant modification
+     * @param modification calcul de la fiche après modification (hors version) à partir de la
+     *                     fiche avant modification
+     */
+    private Optional<Client> mettreAJour(UUID id, MiseAJour miseAJour, UnaryOperator<Client> modification) throws ConflitVersionException {
+        Optional<Client> avant;
+        try {
+            avant = miseAJour.executer();
+        } catch (RuntimeException | ConflitVersionException e) {
+            cache.invalidate(id);
+            throw e;
+        }
+        avant.ifPresentOrElse(
+                fiche -> {
+                    Client apres = modification.apply(fiche);
+                    apres.setVersion((fiche.getVersion() != null ? fiche.getVersion() : 0L) + 1);
+                    cache.put(id, apres);
+                },
+                () -> cache.invalidate(id));
+        return avant;
+    }
+
+    @Override
+    public void supprimer(UUID id) {
+        try {
+            delegate.supprimer(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    static Client copie(Client client) {
+        return Client.of(
+                client.getId(),
+                client.getNom(),
+                client.getPrenom(),
+                client.getAdresse(),
+                client.getSituationFamiliale(),
+                client.getNombreEnfants(),
+                client.getVersion());
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache des fiches client devant le repository MongoDB.
+ * <p>
+ * Désactivé par défaut, activé via {@code connaissance-client.cache.enabled=true}.
+ * Les métriques du cache (hits, misses, évictions, taille) sont publiées sous le nom
+ * {@code cache.*} avec le tag {@code cache=clients}.
+ * <p>
+ * Sans {@code connaissance-client.cache.change-stream.enabled=true} (invalidation croisée par
+ * change stream MongoDB), une instance sert jusqu'à {@code expire-after-write} les fiches
+ * modifiées par une autre instance : à n'activer seul qu'avec une instance unique.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "connaissance-client.cache", name = "enabled", havingValue = "true")
+public class ClientCacheConfiguration {
+
+    static final String CACHE_NAME = "clients";
+
+    @Bean
+    Cache<UUID, Client> clientCache(
+            @Value("${connaissance-client.cache.maximum-size:10000}") long maximumSize,
+            @Value("${connaissance-client.cache.expire-after-write:5m}") Duration expireAfterWrite,
+            MeterRegistry registry) {
+        Cache<UUID, Client> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    @Bean
+    @Primary
+    ClientRepository cachingClientRepository(ClientRepositoryImpl clientRepositoryImpl, Cache<UUID, Client> clientCache) {
+        return new CachingClientRepository(clientRepositoryImpl, clientCache);
+    }
+
+    /**
+     * Le change stream est démarré après le client MongoDB (cycle de vie géré par l'application)
+     * et arrêté avant lui.
+     */
+    @Bean
+    @DependsOn("mongoClient")
+    @ConditionalOnProperty(prefix = "connaissance-client.cache.change-stream", name = "enabled", havingValue = "true")
+    ClientChangeStreamListener clientChangeStreamListener(
+            MongoOperations mongoOperations,
+            Cache<UUID, Client> clientCache,
+            @Value("${connaissance-client.cache.change-stream.node-id:${HOSTNAME:local}}") String nodeId,
+            @Value("${connaissance-client.cache.change-stream.checkpoint-interval:10s}") Duration checkpointInterval,
+            MeterRegistry registry) {
+        return new ClientChangeStreamListener(mongoOperations, clientCache, nodeId, checkpointInterval, registry);
+    }
+
+}
@@ -0,0 +1,261 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Invalidation du cache local des fiches client à partir du change stream MongoDB de la
+ * collection connaissanceclient : chaque écriture, quel que soit le nœud qui l'a faite,
+ * retire la fiche concernée du cache de tous les nœuds.
+ * <p>
+ * Le resume token du dernier événement traité est conservé en mémoire et persisté
+ * périodiquement dans la collection {@value #CHECKPOINTS_COLLECTION} : après un arrêt
+ * (checkpoint CRaC, perte de connexion) le flux reprend là où il s'était arrêté au lieu
+ * de vider tout le cache. Si la reprise est impossible (historique de l'oplog perdu,
+ * collection supprimée), le cache est entièrement invalidé.
+ * <p>
+ * <strong>Métriques :</strong>
+ * <ul>
+ *   <li>{@code connaissance.client.cache.change.stream.lag} : délai entre l'écriture en base
+ *   et son traitement par ce nœud</li>
+ *   <li>{@code connaissance.client.cache.change.stream.events} : événements traités</li>
+ *   <li>{@code connaissance.client.cache.change.stream.flushes} : invalidations complètes</li>
+ *   <li>{@code connaissance.client.cache.change.stream.errors} : erreurs inattendues du flux,
+ *   suivies d'une invalidation complète et d'une reconnexion</li>
+ * </ul>
+ * Le change stream nécessite un replica set MongoDB.
+ */
+@Slf4j
+public class ClientChangeStreamListener implements SmartLifecycle {
+
+    static final String COLLECTION = "connaissanceclient";
+    static final String CHECKPOINTS_COLLECTION = "connaissanceclient_checkpoints";
+
+    /** Codes d'erreur MongoDB indiquant que le resume token n'est plus exploitable */
+    private static final List<Integer> REPRISE_IMPOSSIBLE = List.of(
+            136,    // CappedPositionLost
+            260,    // InvalidResumeToken
+            280,    // ChangeStreamFatalError
+            286     // ChangeStreamHistoryLost
+    );
+    private static final Duration ATTENTE_RECONNEXION = Duration.ofSeconds(1);
+
+    private final MongoOperations mongoOperations;
+    private final Cache<UUID, Client> cache;
+    private final String nodeId;
+    private final Duration intervalleCheckpoint;
+    private final Timer lag;
+    private final Counter events;
+    private final Counter flushes;
+    private final Counter errors;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile BsonDocument resumeToken;
+    private long dernierCheckpoint;
+    private volatile BsonDocument dernierTokenPersiste;
+
+    public ClientChangeStreamListener(MongoOperations mongoOperations, Cache<UUID, Client> cache, String nodeId,
+                                      Duration intervalleCheckpoint, MeterRegistry registry) {
+        this.mongoOperations = mongoOperations;
+        this.cache = cache;
+        this.nodeId = nodeId;
+        this.intervalleCheckpoint = intervalleCheckpoint;
+        this.lag = Timer.builder("connaissance.client.cache.change.stream.lag")
+                .description("Délai entre une écriture en base et l'invalidation du cache local")
+                .register(registry);
+        this.events = Counter.builder("connaissance.client.cache.change.stream.events")
+                .description("Événements du change stream traités")
+                .register(registry);
+        this.flushes = Counter.builder("connaissance.client.cache.change.stream.flushes")
+                .description("Invalidations complètes du cache (reprise impossible)")
+                .register(registry);
+        this.errors = Counter.builder("connaissance.client.cache.change.stream.errors")
+                .description("Erreurs inattendues du change stream, suivies d'une reconnexion")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        if (resumeToken == null && cache.estimatedSize() > 0) {
+            resumeToken = lireCheckpoint();
+        }
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("cclient-change-stream").start(this::ecouter);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread courant = thread;
+        thread = null;
+        if (courant != null) {
+            courant.interrupt();
+            try {
+                courant.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ecrireCheckpoint();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void ecouter() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = ouvrir().cursor()) {
+                log.info("Change stream on {} opened (resume: {})", COLLECTION, resumeToken != null);
+                while (running) {
+                    ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event != null) {
+                        traiter(event);
+                    } else if (cursor.getResumeToken() != null) {
+                        // Post-batch resume token : avance même sans écriture sur la collection
+                        resumeToken = cursor.getResumeToken();
+                    }
+                    checkpointPeriodique();
+                }
+            } catch (MongoCommandException e) {
+                if (REPRISE_IMPOSSIBLE.contains(e.getErrorCode())) {
+                    log.warn("Change stream cannot be resumed ({}), flushing client cache", e.getErrorCodeName());
+                    toutInvalider();
+                } else if (running) {
+                    log.warn("Change stream error, reconnecting: {}", e.getMessage());
+                    attendre();
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    log.warn("Change stream error, reconnecting: {}", e.getMessage());
+                    attendre();
+                }
+            } catch (RuntimeException e) {
+                // Événement peut-être perdu : le cache n'est plus fiable, le flux reprend à partir de maintenant
+                if (running) {
+                    errors.increment();
+                    log.error("Unexpected change stream error, flushing client cache and reconnecting", e);
+                    toutInvalider();
+                    attendre();
+                }
+            }
+        }
+    }
+
+    private ChangeStreamIterable<Document> ouvrir() {
+        ChangeStreamIterable<Document> iterable = mongoOperations.getCollection(COLLECTION)
+                .watch(List.of(Aggregates.match(Filters.in("operationType",
+                        List.of("insert", "update", "replace", "delete", "invalidate")))));
+        return resumeToken != null ? iterable.resumeAfter(resumeToken) : iterable;
+    }
+
+    void traiter(ChangeStreamDocument<Document> event) {
+        events.increment();
+        if (event.getOperationType() == OperationType.INVALIDATE) {
+            log.warn("Change stream invalidated on {}, flushing client cache", COLLECTION);
+            toutInvalider();
+            return;
+        }
+        BsonDocument documentKey = event.getDocumentKey();
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        // identifiant en texte ou en binaire (FormatIdentifiant)
+        String texte = FormatIdentifiant.texte(id);
+        if (texte != null) {
+            try {
+                cache.invalidate(UUID.fromString(texte));
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring change on non-UUID id {}", id);
+            }
+        }
+        if (event.getWallTime() != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - event.getWallTime().getValue()), TimeUnit.MILLISECONDS);
+        } else if (event.getClusterTime() != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - event.getClusterTime().getTime() * 1000L), TimeUnit.MILLISECONDS);
+        }
+        resumeToken = event.getResumeToken();
+    }
+
+    private void toutInvalider() {
+        cache.invalidateAll();
+        flushes.increment();
+        resumeToken = null;
+    }
+
+    private void checkpointPeriodique() {
+        long maintenant = System.nanoTime();
+        if (maintenant - dernierCheckpoint >= intervalleCheckpoint.toNanos()) {
+            ecrireCheckpoint();
+            dernierCheckpoint = maintenant;
+        }
+    }
+
+    private MongoCollection<BsonDocument> checkpoints() {
+        return mongoOperations.getCollection(CHECKPOINTS_COLLECTION).withDocumentClass(BsonDocument.class);
+    }
+
+    private void ecrireCheckpoint() {
+        BsonDocument token = resumeToken;
+        if (token == null || token.equals(dernierTokenPersiste)) return;
+        try {
+            checkpoints().replaceOne(
+                    Filters.eq("_id", nodeId),
+                    new BsonDocument("_id", new BsonString(nodeId))
+                            .append("resumeToken", token)
+                            .append("updatedAt", new BsonDateTime(System.currentTimeMillis())),
+                    new ReplaceOptions().upsert(true));
+            dernierTokenPersiste = token;
+        } catch (MongoException e) {
+            log.warn("Unable to persist change stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private BsonDocument lireCheckpoint() {
+        try {
+            BsonDocument checkpoint = checkpoints().find(Filters.eq("_id", nodeId)).first();
+            return checkpoint != null && checkpoint.isDocument("resumeToken") ? checkpoint.getDocument("resumeToken") : null;
+        } catch (MongoException e) {
+            log.warn("Unable to read change stream resume token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void attendre() {
+        try {
+            Thread.sleep(ATTENTE_RECONNEXION);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.UUID;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+/**
+ * Codec BSON de la fiche client : le document de la collection connaissanceclient est lu et
+ * écrit directement depuis le modèle métier, sans {@link ClientDb} intermédiaire ni conversion
+ * par réflexion.
+ * <p>
+ * Le format est celui de {@link ClientDb} : {@code ligne2} absente si l'adresse n'en a pas,
+ * {@code version} absente tant que la fiche n'est pas versionnée (lue comme version 0).
+ * L'identifiant est écrit au {@link FormatIdentifiant} configuré et lu dans l'un ou l'autre format.
+ * Les champs inconnus (dont {@code _class}) sont ignorés à la lecture.
+ * <p>
+ * {@link #lire(BsonReader, LecteurFiche)} lit les mêmes documents champ par champ, pour les
+ * lectures en masse écrites directement en JSON.
+ */
+public class ClientCodec implements Codec<Client> {
+
+    private final FormatIdentifiant formatIdentifiant;
+
+    /** Codec écrivant l'identifiant en texte (format historique) */
+    public ClientCodec() {
+        this(FormatIdentifiant.TEXTE);
+    }
+
+    /**
+     * @param formatIdentifiant format d'écriture de {@code _id} ; les deux formats sont lus
+     */
+    public ClientCodec(FormatIdentifiant formatIdentifiant) {
+        this.formatIdentifiant = formatIdentifiant;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Client client, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        formatIdentifiant.ecrire(writer, client.getId());
+        writer.writeString("nom", client.getNom().value());
+        writer.writeString("prenom", client.getPrenom().value());
+        writer.writeString("ligne1", client.getAdresse().ligne1().value());
+        if (client.getAdresse().ligne2().isPresent()) {
+            writer.writeString("ligne2", client.getAdresse().ligne2().get().value());
+        }
+        writer.writeString("codePostal", client.getAdresse().codePostal().value());
+        writer.writeString("ville", client.getAdresse().ville().value());
+        writer.writeString("situationFamiliale", client.getSituationFamiliale().name());
+        writer.writeInt32("nombreEnfants", client.getNombreEnfants());
+        if (client.getVersion() != null) {
+            writer.writeInt64("version", client.getVersion());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Client decode(BsonReader reader, DecoderContext decoderContext) {
+        Client[] client = new Client[1];
+        lire(reader, (id, nom, prenom, ligne1, ligne2, codePostal, ville, situationFamiliale, nombreEnfants, version) ->
+                client[0] = Client.of(
+                        UUID.fromString(id),
+                        new Nom(nom),
+                        new Prenom(prenom),
+                        (ligne2 != null ?
+                            new Adresse(new LigneAdresse(ligne1), new LigneAdresse(ligne2), new CodePostal(codePostal), new Ville(ville)) :
+                            new Adresse(new LigneAdresse(ligne1), new CodePostal(codePostal), new Ville(ville))),
+                        SituationFamiliale.valueOf(situationFamiliale),
+                        nombreEnfants,
+                        version));
+        return client[0];
+    }
+
+    /**
+     * Lecture des champs d'un document sans construire de {@link Client} : les valeurs sont
+     * transmises telles qu'enregistrées au lecteur.
+     *
+     * @param reader le document à lire
+     * @param lecteur reçoit les champs de la fiche
+     */
+    public static void lire(BsonReader reader, LecteurFiche lecteur) {
+        String id = null;
+        String nom = null;
+        String prenom = null;
+        String ligne1 = null;
+        String ligne2 = null;
+        String codePostal = null;
+        String ville = null;
+        String situationFamiliale = null;
+        int nombreEnfants = 0;
+        long version = 0L;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String champ = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (champ) {
+                case "_id" -> id = FormatIdentifiant.lire(reader);
+                case "nom" -> nom = reader.readString();
+                case "prenom" -> prenom = reader.readString();
+                case "ligne1" -> ligne1 = reader.readString();
+                case "ligne2" -> ligne2 = reader.readString();
+                case "codePostal" -> codePostal = reader.readString();
+                case "ville" -> ville = reader.readString();
+                case "situationFamiliale" -> situationFamiliale = reader.readString();
+                case "nombreEnfants" -> nombreEnfants = (int) entier(reader);
+                case "version" -> version = entier(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        lecteur.fiche(id, nom, prenom, ligne1, ligne2, codePostal, ville, situationFamiliale, nombreEnfants, version);
+    }
+
+    @Override
+    public Class<Client> getEncoderClass() {
+        return Client.class;
+    }
+
+    /**
+     * Entier enregistré en int32 ou en int64 : un {@code $inc} sur un champ absent crée un
+     * int32, une écriture de {@link ClientDb} un int64.
+     */
+    private static long entier(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            default -> (long) reader.readDouble();
+        };
+    }
+
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -37,4 +38,8 @@ public class ClientDb {
 
     private Integer nombreEnfants;
 
+    /** Incrémentée à chaque écriture ; absente des fiches antérieures au versionnement (version 0) */
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,113 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index secondaires de la collection connaissanceclient, créés et vérifiés au démarrage.
+ * <p>
+ * Chaque index commence par un champ de recherche ({@link FiltreClient}) et se termine par
+ * {@code _id} : une égalité sur le champ rend la page déjà triée par identifiant (pagination par
+ * curseur sans tri en mémoire), un préfixe est borné dans l'index. Une recherche sans critère
+ * utilise l'index {@code _id}.
+ * <p>
+ * La création est idempotente. Le démarrage échoue si un index de même nom existe avec une autre
+ * définition, ou si un index attendu est absent après création. Sur une collection volumineuse,
+ * la première création construit les index avant que l'application ne serve des requêtes.
+ * Désactivable avec {@code connaissance-client.db.index.enabled=false} (index gérés hors de
+ * l'application).
+ */
+@Component
+@ConditionalOnProperty(prefix = "connaissance-client.db.index", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ClientDbIndexes implements InitializingBean {
+
+    /** Code postal exact et département (début du code postal) */
+    public static final String CODE_POSTAL = "codePostal_id";
+    /** Nom exact, début du nom, nom et prénom */
+    public static final String NOM = "nom_prenom_id";
+    /** Début du prénom */
+    public static final String PRENOM = "prenom_id";
+    /** Situation familiale */
+    public static final String SITUATION_FAMILIALE = "situationFamiliale_id";
+
+    static final List<IndexModel> INDEX = List.of(
+            index(CODE_POSTAL, Indexes.ascending("codePostal", "_id")),
+            index(NOM, Indexes.ascending("nom", "prenom", "_id")),
+            index(PRENOM, Indexes.ascending("prenom", "_id")),
+            index(SITUATION_FAMILIALE, Indexes.ascending("situationFamiliale", "_id")));
+
+    private final MongoOperations mongoOperations;
+
+    public ClientDbIndexes(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        creer();
+        verifier();
+    }
+
+    /**
+     * Création des index absents (sans effet sur un index identique existant).
+     *
+     * @throws IllegalStateException si un index existe sous le même nom avec une autre définition
+     */
+    void creer() {
+        try {
+            List<String> crees = mongoOperations.execute(ClientDb.class, collection -> collection.createIndexes(INDEX));
+            log.info("Client indexes ensured: {}", crees);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Index de la collection connaissanceclient incompatibles : "
+                    + e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    /**
+     * Vérification que chaque index attendu existe, avec les mêmes clés.
+     *
+     * @throws IllegalStateException si un index attendu est absent ou différent
+     */
+    void verifier() {
+        List<Document> existants = mongoOperations.execute(ClientDb.class,
+                collection -> collection.listIndexes().into(new ArrayList<>()));
+        for (IndexModel attendu : INDEX) {
+            String nom = attendu.getOptions().getName();
+            BsonDocument cles = attendu.getKeys().toBsonDocument();
+            boolean present = existants.stream()
+                    .anyMatch(index -> nom.equals(index.getString("name")) && memesCles(cles, index.get("key", Document.class)));
+            if (!present) {
+                throw new IllegalStateException("Index " + nom + " " + cles.toJson() + " absent de la collection connaissanceclient");
+            }
+        }
+    }
+
+    /** Mêmes champs dans le même ordre et même sens (1 ou 1.0 selon l'outil qui a créé l'index) */
+    private static boolean memesCles(BsonDocument attendues, Document cles) {
+        return cles != null
+                && List.copyOf(attendues.keySet()).equals(List.copyOf(cles.keySet()))
+                && attendues.entrySet().stream().allMatch(cle -> cles.get(cle.getKey()) instanceof Number sens
+                        && sens.intValue() == cle.getValue().asNumber().intValue());
+    }
+
+    private static IndexModel index(String nom, Bson cles) {
+        return new IndexModel(cles, new IndexOptions().name(nom));
+    }
+
+}
@@ -4,6 +4,7 @@ import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
@@ -11,6 +12,7 @@ import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
 
 import org.mapstruct.*;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -73,8 +75,42 @@ public interface ClientDbMapper {
                     ) 
                 ),
                 SituationFamiliale.valueOf(ClientDb.getSituationFamiliale()),
-                ClientDb.getNombreEnfants()
+                ClientDb.getNombreEnfants(),
+                ClientDb.getVersion() != null ? ClientDb.getVersion() : 0L
         );
     }
 
-}
\ No newline at end of file
+    default AdresseOutboxDb mapToOutbox(Client client) {
+        AdresseOutboxDb evenement = new AdresseOutboxDb();
+        evenement.setClientId(client.getId().toString());
+        evenement.setNom(client.getNom().value());
+        evenement.setPrenom(client.getPrenom().value());
+        evenement.setLigne1(client.getAdresse().ligne1().value());
+        evenement.setLigne2(map(client.getAdresse().ligne2()));
+        evenement.setCodePostal(client.getAdresse().codePostal().value());
+        evenement.setVille(client.getAdresse().ville().value());
+        evenement.setCreeLe(Instant.now());
+        return evenement;
+    }
+
+    default Destinataire mapDestinataire(AdresseOutboxDb evenement) {
+        return new Destinataire(new Nom(evenement.getNom()), new Prenom(evenement.getPrenom()));
+    }
+
+    default Adresse mapAdresse(AdresseOutboxDb evenement) {
+        return (evenement.getLigne2() != null ?
+            new Adresse(
+                new LigneAdresse(evenement.getLigne1()),
+                new LigneAdresse(evenement.getLigne2()),
+                new CodePostal(evenement.getCodePostal()),
+                new Ville(evenement.getVille())
+            ) :
+            new Adresse(
+                new LigneAdresse(evenement.getLigne1()),
+                new CodePostal(evenement.getCodePostal()),
+                new Ville(evenement.getVille())
+            )
+        );
+    }
+
+}
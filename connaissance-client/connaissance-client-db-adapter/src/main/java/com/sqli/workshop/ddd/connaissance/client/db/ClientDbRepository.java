@@ -9,5 +9,5 @@ import org.springframework.stereotype.Repository;
  *
  * @author TODO
  */
-public interface ClientDbRepository extends MongoRepository<ClientDb, String> {
+public interface ClientDbRepository extends MongoRepository<ClientDb, String>, ClientDbRepositoryCustom {
 }
\ No newline at end of file
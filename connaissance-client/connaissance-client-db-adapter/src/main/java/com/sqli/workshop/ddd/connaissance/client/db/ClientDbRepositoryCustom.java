@@ -0,0 +1,133 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.lang.Nullable;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+
+/**
+ * Requêtes spécifiques sur la collection connaissanceclient (fragment Spring Data)
+ * <p>
+ * Les fiches sont lues et écrites directement en {@link Client} par le {@link ClientCodec}
+ * enregistré dans le client MongoDB.
+ */
+public interface ClientDbRepositoryCustom {
+
+    /**
+     * Lecture d'une fiche par identifiant.
+     *
+     * @param id identifiant du document
+     * @return la fiche ; vide si aucun document ne correspond
+     */
+    Optional<Client> findClient(String id);
+
+    /**
+     * Lecture d'une page par curseur (keyset) : documents triés par {@code _id},
+     * strictement après {@code apres}, filtrés sur les critères présents ({@link FiltreClient}).
+     *
+     * @param criteres les critères de recherche
+     * @param apres identifiant du dernier document de la page précédente (optionnel)
+     * @param limite nombre maximum de documents retournés
+     * @return les fiches de la page, dans l'ordre des identifiants
+     */
+    List<Client> findPage(CriteresClient criteres,
+                          @Nullable String apres,
+                          int limite);
+
+    /**
+     * Parcours de tous les documents filtrés sur les critères présents, triés par {@code _id},
+     * au travers d'un curseur serveur lu par lots : le flux doit être fermé par l'appelant.
+     *
+     * @param criteres les critères de recherche
+     * @return le flux des fiches
+     */
+    Stream<Client> streamAll(CriteresClient criteres);
+
+    /**
+     * Lecture d'une page par curseur comme {@link #findPage}, champ par champ : seuls les champs
+     * de la fiche sont projetés et les documents bruts ({@link org.bson.RawBsonDocument}) sont lus
+     * par {@link ClientCodec#lire}, sans construire de {@link Client}.
+     *
+     * @param criteres les critères de recherche
+     * @param apres identifiant du dernier document de la page précédente (optionnel)
+     * @param taille nombre maximum de documents transmis au lecteur
+     * @param lecteur reçoit les fiches de la page, dans l'ordre des identifiants
+     * @return l'identifiant du dernier document transmis s'il existe une page suivante
+     */
+    Optional<String> readPage(CriteresClient criteres,
+                              @Nullable String apres,
+                              int taille,
+                              LecteurFiche lecteur);
+
+    /**
+     * Parcours de tous les documents comme {@link #streamAll}, champ par champ : seuls les champs
+     * de la fiche sont projetés, sans construire de {@link Client}.
+     *
+     * @param criteres les critères de recherche
+     * @param lecteur reçoit les fiches, dans l'ordre des identifiants
+     * @return le nombre de documents lus
+     */
+    long readAll(CriteresClient criteres,
+                 LecteurFiche lecteur);
+
+    /**
+     * Enregistrement de la fiche entière, conditionné à sa version comme un {@code save} de
+     * {@link ClientDb} : insertion en version 0 d'une fiche non versionnée, sinon remplacement
+     * du document s'il est toujours à la version de la fiche, qui est incrémentée.
+     *
+     * @param client la fiche à enregistrer
+     * @return la fiche enregistrée, avec sa nouvelle version
+     * @throws org.springframework.dao.OptimisticLockingFailureException si le document n'est
+     *         plus à la version de la fiche
+     */
+    Client saveClient(Client client);
+
+    /**
+     * Lecture de la seule version d'un document (projection sur {@code version}).
+     *
+     * @param id identifiant du document
+     * @return la version du document, 0 si le champ est absent ; vide si aucun document ne correspond
+     */
+    Optional<Long> findVersion(String id);
+
+    /**
+     * Existence d'un document, l'identifiant étant filtré au format configuré (à utiliser à la
+     * place de {@link org.springframework.data.repository.CrudRepository#existsById}).
+     *
+     * @param id identifiant du document
+     * @return {@code true} si le document existe
+     */
+    boolean existeParId(String id);
+
+    /**
+     * Suppression d'un document, l'identifiant étant filtré au format configuré (à utiliser à la
+     * place de {@link org.springframework.data.repository.CrudRepository#deleteById}).
+     *
+     * @param id identifiant du document
+     */
+    void supprimerParId(String id);
+
+    /**
+     * Mise à jour atomique d'un document en un seul aller-retour ({@code findOneAndUpdate}) :
+     * seuls les champs fournis sont écrits ({@code $set}, ou {@code $unset} pour une valeur nulle)
+     * et la version est incrémentée.
+     *
+     * @param id identifiant du document
+     * @param version version que doit avoir le document pour être mis à jour (optionnelle)
+     * @param attendus valeurs que le document doit avoir pour être mis à jour (une valeur nulle
+     *                 correspond à un champ absent) ; vide pour ne pas conditionner la mise à jour
+     * @param champs champs à écrire
+     * @return la fiche avant modification ; vide si aucun document ne correspond
+     */
+    Optional<Client> findAndSet(String id,
+                                @Nullable Long version,
+                                Map<String, Object> attendus,
+                                Map<String, Object> champs);
+
+}
@@ -0,0 +1,203 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.bson.BsonReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+
+/**
+ * Implémentation MongoDB des requêtes spécifiques sur la collection connaissanceclient
+ * <p>
+ * Les fiches passent par la collection typée {@code MongoCollection<Client>} ({@link ClientCodec}),
+ * obtenue via {@link MongoOperations#execute(Class, CollectionCallback)} : la session de la
+ * transaction en cours et la traduction des exceptions Spring sont conservées.
+ * <p>
+ * Les identifiants sont filtrés au {@link FormatIdentifiant} configuré par
+ * {@code connaissance-client.db.format-identifiant} ({@code TEXTE} par défaut), les critères de
+ * recherche par {@link FiltreClient}.
+ */
+public class ClientDbRepositoryCustomImpl implements ClientDbRepositoryCustom {
+
+    /** Nombre de documents ramenés par aller-retour sur le curseur d'export */
+    static final int TAILLE_LOT_CURSEUR = 500;
+
+    /** Champs d'une fiche ({@code _id} compris) : {@code _class} et les champs techniques ne sont pas transférés */
+    static final Bson CHAMPS_FICHE = Projections.include(
+            "nom", "prenom", "ligne1", "ligne2", "codePostal", "ville", "situationFamiliale", "nombreEnfants", "version");
+
+    private final MongoOperations mongoOperations;
+    private final FormatIdentifiant formatIdentifiant;
+
+    public ClientDbRepositoryCustomImpl(MongoOperations mongoOperations,
+            @Value("${connaissance-client.db.format-identifiant:TEXTE}") FormatIdentifiant formatIdentifiant) {
+        this.mongoOperations = mongoOperations;
+        this.formatIdentifiant = formatIdentifiant;
+    }
+
+    @Override
+    public Optional<Client> findClient(String id) {
+        return Optional.ofNullable(clients(collection -> collection.find(id(id)).first()));
+    }
+
+    @Override
+    public List<Client> findPage(CriteresClient criteres, String apres, int limite) {
+        List<Bson> filtres = FiltreClient.filtres(criteres);
+        if (apres != null) filtres.add(Filters.gt("_id", formatIdentifiant.valeur(apres)));
+        return clients(collection -> collection.find(FiltreClient.filtre(filtres))
+                .sort(Sorts.ascending("_id"))
+                .limit(limite)
+                .into(new ArrayList<>(limite)));
+    }
+
+    @Override
+    public Stream<Client> streamAll(CriteresClient criteres) {
+        MongoCursor<Client> curseur = clients(collection -> collection.find(FiltreClient.de(criteres))
+                .sort(Sorts.ascending("_id"))
+                .batchSize(TAILLE_LOT_CURSEUR)
+                .cursor());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(curseur, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(curseur::close);
+    }
+
+    @Override
+    public Optional<String> readPage(CriteresClient criteres, String apres, int taille, LecteurFiche lecteur) {
+        List<Bson> filtres = FiltreClient.filtres(criteres);
+        if (apres != null) filtres.add(Filters.gt("_id", formatIdentifiant.valeur(apres)));
+        return mongoOperations.execute(ClientDb.class, collection -> {
+            // une fiche de plus pour savoir s'il existe une page suivante : elle n'est pas lue
+            try (MongoCursor<RawBsonDocument> curseur = documents(collection, FiltreClient.filtre(filtres)).limit(taille + 1).cursor()) {
+                RawBsonDocument dernier = null;
+                for (int lus = 0; lus < taille && curseur.hasNext(); lus++) {
+                    dernier = curseur.next();
+                    lire(dernier, lecteur);
+                }
+                return curseur.hasNext() ? Optional.of(FormatIdentifiant.texte(dernier.get("_id"))) : Optional.<String>empty();
+            }
+        });
+    }
+
+    @Override
+    public long readAll(CriteresClient criteres, LecteurFiche lecteur) {
+        return mongoOperations.execute(ClientDb.class, collection -> {
+            long lus = 0;
+            try (MongoCursor<RawBsonDocument> curseur = documents(collection, FiltreClient.de(criteres))
+                    .batchSize(TAILLE_LOT_CURSEUR).cursor()) {
+                while (curseur.hasNext()) {
+                    lire(curseur.next(), lecteur);
+                    lus++;
+                }
+            }
+            return lus;
+        });
+    }
+
+    @Override
+    public Client saveClient(Client client) {
+        Long version = client.getVersion();
+        Client enregistre = Client.of(client.getId(), client.getNom(), client.getPrenom(), client.getAdresse(),
+                client.getSituationFamiliale(), client.getNombreEnfants(), version == null ? 0L : version + 1);
+        return clients(collection -> {
+            if (version == null) {
+                collection.insertOne(enregistre);
+            } else if (collection.replaceOne(Filters.and(id(client.getId().toString()), version(version)), enregistre)
+                    .getMatchedCount() == 0) {
+                throw new OptimisticLockingFailureException(
+                        "Fiche client " + client.getId() + " absente ou modifiée depuis la version " + version);
+            }
+            return enregistre;
+        });
+    }
+
+    @Override
+    public Optional<Long> findVersion(String id) {
+        return Optional.ofNullable(mongoOperations.execute(ClientDb.class, collection -> collection
+                        .find(id(id)).projection(Projections.include("version")).first()))
+                .map(document -> document.get("version") instanceof Number version ? version.longValue() : 0L);
+    }
+
+    @Override
+    public boolean existeParId(String id) {
+        return mongoOperations.execute(ClientDb.class, collection ->
+                collection.countDocuments(id(id), new CountOptions().limit(1)) > 0);
+    }
+
+    @Override
+    public void supprimerParId(String id) {
+        mongoOperations.execute(ClientDb.class, collection -> collection.deleteOne(id(id)));
+    }
+
+    @Override
+    public Optional<Client> findAndSet(String id, Long version, Map<String, Object> attendus, Map<String, Object> champs) {
+        List<Bson> filtres = new ArrayList<>();
+        filtres.add(id(id));
+        if (version != null) filtres.add(version(version));
+        attendus.forEach((champ, valeur) -> filtres.add(Filters.eq(champ, valeur)));
+        List<Bson> modifications = new ArrayList<>();
+        modifications.add(Updates.inc("version", 1L));
+        champs.forEach((champ, valeur) -> modifications.add(valeur != null ? Updates.set(champ, valeur) : Updates.unset(champ)));
+        return Optional.ofNullable(clients(collection -> collection.findOneAndUpdate(
+                Filters.and(filtres), Updates.combine(modifications),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE))));
+    }
+
+    /** Opération sur la collection typée en {@link Client} */
+    private <T> T clients(Function<MongoCollection<Client>, T> operation) {
+        return mongoOperations.execute(ClientDb.class, collection -> operation.apply(collection.withDocumentClass(Client.class)));
+    }
+
+    /** Documents bruts triés par identifiant, projetés sur les champs de la fiche */
+    private static FindIterable<RawBsonDocument> documents(MongoCollection<Document> collection, Bson filtre) {
+        return collection.withDocumentClass(RawBsonDocument.class)
+                .find(filtre)
+                .projection(CHAMPS_FICHE)
+                .sort(Sorts.ascending("_id"));
+    }
+
+    private static void lire(RawBsonDocument document, LecteurFiche lecteur) {
+        try (BsonReader reader = document.asBsonReader()) {
+            ClientCodec.lire(reader, lecteur);
+        }
+    }
+
+    /** Filtre sur l'identifiant, au format configuré */
+    private Bson id(String id) {
+        return Filters.eq("_id", formatIdentifiant.valeur(id));
+    }
+
+    private static Bson version(long version) {
+        return version == 0
+                // fiche antérieure au versionnement : champ absent
+                ? Filters.in("version", Arrays.asList(0L, null))
+                : Filters.eq("version", version);
+    }
+
+}
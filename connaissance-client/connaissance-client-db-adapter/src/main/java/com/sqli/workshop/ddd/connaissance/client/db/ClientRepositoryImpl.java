@@ -1,13 +1,23 @@
 package com.sqli.workshop.ddd.connaissance.client.db;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
 
 import lombok.AllArgsConstructor;
@@ -23,6 +33,8 @@ public class ClientRepositoryImpl implements ClientRepository {
 
     private final ClientDbRepository dbRepository;
     private final ClientDbMapper mapper;
+    private final AdresseOutboxDbRepository outboxRepository;
+    private final TransactionOperations adresseOutboxTransaction;
 
     @Override
 /**
@@ -34,10 +46,148 @@ public class ClientRepositoryImpl implements ClientRepository {
     public Client enregistrer(Client Client) {
         System.out.println("Saving client: " + Client);
         if ("Error".equals(Client.getNom().value())) throw new RuntimeException("Simulated database error for testing purposes.");
-        var ClientDb = mapper.mapFromDomain(Client);
-        System.out.println("Mapped ClientDb: " + ClientDb);
-        ClientDb = dbRepository.save(ClientDb);
-        return mapper.mapToDomain(ClientDb);
+        return dbRepository.saveClient(Client);
+    }
+
+    /**
+     * Enregistrement de la fiche et de l'événement de changement d'adresse dans la collection
+     * outbox, au sein d'une même transaction MongoDB (voir {@link AdresseOutboxConfiguration}).
+     *
+     * @param client la fiche client dont l'adresse a changé
+     * @return la fiche enregistrée
+     */
+    @Override
+    public Client enregistrerAvecChangementAdresse(Client client) {
+        return adresseOutboxTransaction.execute(status -> {
+            Client result = enregistrer(client);
+            outboxRepository.insert(mapper.mapToOutbox(result));
+            return result;
+        });
+    }
+
+    /**
+     * Mise à jour de la fiche par {@code findOneAndUpdate}, sans lecture préalable.
+     * <p>
+     * Cas courant, l'adresse ne change pas : la mise à jour est conditionnée à l'adresse
+     * enregistrée et se fait en un aller-retour, hors transaction. Sinon (adresse modifiée,
+     * client inconnu ou version différente), la fiche et l'événement de changement d'adresse
+     * sont écrits dans la transaction outbox.
+     *
+     * @param client la fiche client modifiée
+     * @param versionAttendue la version que doit avoir la fiche enregistrée (optionnelle)
+     * @return la fiche avant modification ; vide si le client n'existe pas
+     * @throws ConflitVersionException si la fiche n'est pas à la version attendue
+     */
+    @Override
+    public Optional<Client> modifier(Client client, Optional<Long> versionAttendue) throws ConflitVersionException {
+        ClientDb clientDb = mapper.mapFromDomain(client);
+        Long version = versionAttendue.orElse(null);
+        Map<String, Object> champs = identite(clientDb);
+        champs.putAll(situation(clientDb));
+        Optional<Client> avant = dbRepository.findAndSet(clientDb.getId(), version, adresse(clientDb), champs);
+        if (avant.isPresent()) return avant;
+        champs.putAll(adresse(clientDb));
+        avant = adresseOutboxTransaction.execute(status -> {
+            Optional<Client> precedent = dbRepository.findAndSet(clientDb.getId(), version, Map.of(), champs);
+            precedent.filter(fiche -> !fiche.getAdresse().equals(client.getAdresse()))
+                    .ifPresent(fiche -> outboxRepository.insert(mapper.mapToOutbox(client)));
+            return precedent;
+        });
+        return verifierVersion(clientDb.getId(), versionAttendue, avant);
+    }
+
+    /**
+     * Mise à jour de l'adresse seule ({@code findOneAndUpdate}) et enregistrement de l'événement
+     * de changement d'adresse, dans la transaction outbox.
+     *
+     * @param id l'identifiant du client
+     * @param adresse la nouvelle adresse
+     * @param versionAttendue la version que doit avoir la fiche enregistrée (optionnelle)
+     * @return la fiche avant modification ; vide si le client n'existe pas
+     * @throws ConflitVersionException si la fiche n'est pas à la version attendue
+     */
+    @Override
+    public Optional<Client> changerAdresse(UUID id, Adresse adresse, Optional<Long> versionAttendue) throws ConflitVersionException {
+        ClientDb clientDb = new ClientDb();
+        clientDb.setLigne1(adresse.ligne1().value());
+        clientDb.setLigne2(mapper.map(adresse.ligne2()));
+        clientDb.setCodePostal(adresse.codePostal().value());
+        clientDb.setVille(adresse.ville().value());
+        Optional<Client> avant = adresseOutboxTransaction.execute(status -> {
+            Optional<Client> precedent = dbRepository.findAndSet(id.toString(), versionAttendue.orElse(null), Map.of(), adresse(clientDb));
+            precedent.ifPresent(fiche -> outboxRepository.insert(mapper.mapToOutbox(Client.of(
+                    id, fiche.getNom(), fiche.getPrenom(), adresse,
+                    fiche.getSituationFamiliale(), fiche.getNombreEnfants()))));
+            return precedent;
+        });
+        return verifierVersion(id.toString(), versionAttendue, avant);
+    }
+
+    /**
+     * Mise à jour de la situation familiale et du nombre d'enfants seuls ({@code findOneAndUpdate}).
+     *
+     * @param id l'identifiant du client
+     * @param situationFamiliale la nouvelle situation familiale
+     * @param nombreEnfants le nouveau nombre d'enfants
+     * @param versionAttendue la version que doit avoir la fiche enregistrée (optionnelle)
+     * @return la fiche avant modification ; vide si le client n'existe pas
+     * @throws ConflitVersionException si la fiche n'est pas à la version attendue
+     */
+    @Override
+    public Optional<Client> changerSituation(UUID id, SituationFamiliale situationFamiliale, Integer nombreEnfants,
+                                             Optional<Long> versionAttendue) throws ConflitVersionException {
+        ClientDb clientDb = new ClientDb();
+        clientDb.setSituationFamiliale(situationFamiliale.name());
+        clientDb.setNombreEnfants(nombreEnfants);
+        Optional<Client> avant = dbRepository.findAndSet(id.toString(), versionAttendue.orElse(null), Map.of(), situation(clientDb));
+        return verifierVersion(id.toString(), versionAttendue, avant);
+    }
+
+    /**
+     * Une mise à jour conditionnée à une version qui ne trouve pas de fiche est un conflit si
+     * la fiche existe : seul ce cas d'échec paie une lecture supplémentaire.
+     */
+    private Optional<Client> verifierVersion(String id, Optional<Long> versionAttendue, Optional<Client> avant) throws ConflitVersionException {
+        if (avant.isEmpty() && versionAttendue.isPresent() && dbRepository.existeParId(id)) {
+            throw new ConflitVersionException();
+        }
+        return avant;
+    }
+
+    private static Map<String, Object> identite(ClientDb clientDb) {
+        Map<String, Object> champs = new LinkedHashMap<>();
+        champs.put("nom", clientDb.getNom());
+        champs.put("prenom", clientDb.getPrenom());
+        return champs;
+    }
+
+    /** Champs d'adresse ; {@code ligne2} nulle correspond à un champ absent */
+    private static Map<String, Object> adresse(ClientDb clientDb) {
+        Map<String, Object> champs = new LinkedHashMap<>();
+        champs.put("ligne1", clientDb.getLigne1());
+        champs.put("ligne2", clientDb.getLigne2());
+        champs.put("codePostal", clientDb.getCodePostal());
+        champs.put("ville", clientDb.getVille());
+        return champs;
+    }
+
+    private static Map<String, Object> situation(ClientDb clientDb) {
+        Map<String, Object> champs = new LinkedHashMap<>();
+        champs.put("situationFamiliale", clientDb.getSituationFamiliale());
+        champs.put("nombreEnfants", clientDb.getNombreEnfants());
+        return champs;
+    }
+
+    /**
+     * Parcours en flux des fiches client au travers d'un curseur MongoDB : seules les
+     * fiches du lot courant sont en mémoire. Le flux doit être fermé par l'appelant.
+     *
+     * @param criteres les filtres optionnels
+     * @return le flux des fiches client
+     */
+    @Override
+    public Stream<Client> parcourir(CriteresClient criteres) {
+        return dbRepository.streamAll(criteres);
     }
 
     @Override
@@ -48,19 +198,72 @@ public class ClientRepositoryImpl implements ClientRepository {
  * @return TODO
  */
     public Optional<Client> lire(UUID id) {
-        Optional<ClientDb> ClientDb = dbRepository.findById(id.toString());
-        return ClientDb.map(mapper::mapToDomain);
+        return dbRepository.findClient(id.toString());
     }
 
+    /**
+     * Version courante de la fiche client : seul le champ {@code version} est lu.
+     *
+     * @param id l'identifiant du client
+     * @return la version de la fiche ; vide si le client n'existe pas
+     */
     @Override
-/**
- * lister - TODO: description
- *
- * @return TODO
- */
-    public List<Client> lister() {
-        List<ClientDb> ClientDbs = dbRepository.findAll();
-        return ClientDbs.stream().map(mapper::mapToDomain).collect(Collectors.toList());
+    public Optional<Long> version(UUID id) {
+        return dbRepository.findVersion(id.toString());
+    }
+
+    /**
+     * Lecture d'une page de fiches client par curseur.
+     * <p>
+     * Une fiche de plus que la taille demandée est lue pour savoir s'il existe une page
+     * suivante sans requête de comptage ; le curseur suivant est l'identifiant de la
+     * dernière fiche retournée.
+     *
+     * @param criteres les filtres optionnels
+     * @param pagination la taille de page et le curseur de départ
+     * @return la page de fiches client
+     */
+    @Override
+    public PageClients lister(CriteresClient criteres, Pagination pagination) {
+        List<Client> fiches = dbRepository.findPage(
+                criteres,
+                pagination.apres().map(UUID::toString).orElse(null),
+                pagination.taille() + 1);
+        boolean pageSuivante = fiches.size() > pagination.taille();
+        List<Client> clients = pageSuivante ? fiches.subList(0, pagination.taille()) : fiches;
+        return new PageClients(
+                clients,
+                pageSuivante ? Optional.of(clients.getLast().getId()) : Optional.empty());
+    }
+
+    /**
+     * Lecture d'une page de fiches client champ par champ, au curseur comme
+     * {@link #lister(CriteresClient, Pagination)}.
+     *
+     * @param criteres les filtres optionnels
+     * @param pagination la taille de page et le curseur de départ
+     * @param lecteur reçoit les fiches de la page
+     * @return le curseur de la page suivante ; vide sur la dernière page
+     */
+    @Override
+    public Optional<UUID> lister(CriteresClient criteres, Pagination pagination, LecteurFiche lecteur) {
+        return dbRepository.readPage(
+                criteres,
+                pagination.apres().map(UUID::toString).orElse(null),
+                pagination.taille(),
+                lecteur).map(UUID::fromString);
+    }
+
+    /**
+     * Parcours des fiches client champ par champ au travers d'un curseur MongoDB.
+     *
+     * @param criteres les filtres optionnels
+     * @param lecteur reçoit les fiches
+     * @return le nombre de fiches lues
+     */
+    @Override
+    public long parcourir(CriteresClient criteres, LecteurFiche lecteur) {
+        return dbRepository.readAll(criteres, lecteur);
     }
 
     @Override
@@ -70,6 +273,6 @@ public class ClientRepositoryImpl implements ClientRepository {
  * @param id TODO
  */
     public void supprimer(UUID id) {
-        dbRepository.deleteById(id.toString());
+        dbRepository.supprimerParId(id.toString());
     }
 }
\ No newline at end of file
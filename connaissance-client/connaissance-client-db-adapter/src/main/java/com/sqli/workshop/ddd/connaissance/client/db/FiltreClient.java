@@ -0,0 +1,57 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import com.mongodb.client.model.Filters;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+
+/**
+ * Traduction des {@link CriteresClient} en filtre MongoDB sur la collection connaissanceclient.
+ * <p>
+ * Chaque critère porte sur le premier champ d'un des index de {@link ClientDbIndexes} : égalité,
+ * ou préfixe ancré ({@code ^...}) sans métacaractère, que MongoDB borne dans l'index comme un
+ * intervalle.
+ */
+public final class FiltreClient {
+
+    private FiltreClient() {
+    }
+
+    /**
+     * @param criteres les critères de recherche
+     * @return le filtre combinant les critères présents ; document vide sans critère
+     */
+    public static Bson de(CriteresClient criteres) {
+        return filtre(filtres(criteres));
+    }
+
+    static List<Bson> filtres(CriteresClient criteres) {
+        List<Bson> filtres = new ArrayList<>();
+        criteres.codePostal().ifPresent(codePostal -> filtres.add(Filters.eq("codePostal", codePostal.value())));
+        criteres.departement().ifPresent(departement -> filtres.add(prefixe("codePostal", departement.value())));
+        criteres.nom().ifPresent(nom -> filtres.add(Filters.eq("nom", nom.value())));
+        criteres.debutNom().ifPresent(debut -> filtres.add(prefixe("nom", debut)));
+        criteres.debutPrenom().ifPresent(debut -> filtres.add(prefixe("prenom", debut)));
+        criteres.situationFamiliale().ifPresent(situation -> filtres.add(Filters.eq("situationFamiliale", situation.name())));
+        return filtres;
+    }
+
+    static Bson filtre(List<Bson> filtres) {
+        return filtres.isEmpty() ? new Document() : Filters.and(filtres);
+    }
+
+    /** Les caractères autres que lettres et chiffres sont échappés : l'expression reste un simple préfixe */
+    static Bson prefixe(String champ, String debut) {
+        StringBuilder regex = new StringBuilder(debut.length() * 2 + 1).append('^');
+        debut.codePoints().forEach(c -> {
+            if (!Character.isLetterOrDigit(c)) regex.append('\\');
+            regex.appendCodePoint(c);
+        });
+        return Filters.regex(champ, regex.toString());
+    }
+
+}
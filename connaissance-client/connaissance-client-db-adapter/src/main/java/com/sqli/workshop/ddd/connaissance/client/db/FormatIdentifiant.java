@@ -0,0 +1,70 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.UUID;
+
+import org.bson.BsonBinary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.UuidRepresentation;
+
+/**
+ * Représentation de l'identifiant ({@code _id}) des documents de la collection connaissanceclient,
+ * choisie par {@code connaissance-client.db.format-identifiant}.
+ * <p>
+ * Les deux formats sont acceptés à la lecture, quel que soit le format configuré : une collection
+ * en cours de migration ({@link MigrationIdentifiantsJob}) reste lisible. Les filtres et les
+ * écritures utilisent le format configuré.
+ */
+public enum FormatIdentifiant {
+
+    /** Chaîne de 36 caractères (format historique) */
+    TEXTE,
+
+    /**
+     * Binaire BSON de sous-type 4 (UUID standard, 16 octets) : clé et index {@code _id} plus
+     * compacts. L'ordre des identifiants est le même qu'en texte.
+     */
+    BINAIRE;
+
+    /**
+     * @param id identifiant canonique (texte) de la fiche
+     * @return la valeur de {@code _id} pour les filtres et les écritures : {@link String} ou
+     *         {@link UUID} (encodé en binaire de sous-type 4 par le client MongoDB)
+     */
+    public Object valeur(String id) {
+        return this == BINAIRE ? UUID.fromString(id) : id;
+    }
+
+    void ecrire(BsonWriter writer, UUID id) {
+        if (this == BINAIRE) {
+            writer.writeBinaryData("_id", new BsonBinary(id, UuidRepresentation.STANDARD));
+        } else {
+            writer.writeString("_id", id.toString());
+        }
+    }
+
+    /**
+     * Lecture de l'identifiant courant du lecteur, dans l'un ou l'autre format.
+     *
+     * @return l'identifiant canonique (texte)
+     */
+    static String lire(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.BINARY
+                ? reader.readBinaryData().asUuid().toString()
+                : reader.readString();
+    }
+
+    /**
+     * @param id valeur de {@code _id}, dans l'un ou l'autre format
+     * @return l'identifiant canonique (texte) ; {@code null} si la valeur n'est pas un identifiant de fiche
+     */
+    static String texte(BsonValue id) {
+        if (id == null) return null;
+        if (id.isString()) return id.asString().getValue();
+        if (id.isBinary() && id.asBinary().getType() == 4) return id.asBinary().asUuid().toString();
+        return null;
+    }
+
+}
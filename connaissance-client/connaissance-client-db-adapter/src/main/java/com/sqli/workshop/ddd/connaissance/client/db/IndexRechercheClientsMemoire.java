@@ -0,0 +1,151 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.IndexRechercheClients;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recherche approchée des fiches client sur un {@link IndexTrigrammes} en mémoire, construit à
+ * partir de la collection connaissanceclient.
+ * <p>
+ * Activée avec {@code connaissance-client.recherche.enabled=true}. L'index est chargé au
+ * démarrage (si ce chargement échoue, la recherche ne retourne rien jusqu'à la reconstruction
+ * suivante), puis reconstruit en arrière-plan toutes les {@code reconstruction}. Les écritures
+ * de ce nœud sont appliquées immédiatement ; celles faites pendant une reconstruction sont
+ * rejouées sur le nouvel index avant sa substitution. Les écritures des autres nœuds ne sont visibles qu'après la
+ * reconstruction suivante. En cas d'échec de reconstruction, l'index courant est conservé.
+ * <p>
+ * <strong>Métriques :</strong>
+ * <ul>
+ *   <li>{@code connaissance.client.recherche.duration} : durée des recherches (percentiles 50, 95, 99)</li>
+ *   <li>{@code connaissance.client.recherche.index.documents} : fiches indexées</li>
+ *   <li>{@code connaissance.client.recherche.index.memory} : mémoire estimée de l'index, en octets</li>
+ *   <li>{@code connaissance.client.recherche.index.reconstruction} : durée des reconstructions</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "connaissance-client.recherche", name = "enabled", havingValue = "true")
+@Slf4j
+public class IndexRechercheClientsMemoire implements IndexRechercheClients, DisposableBean {
+
+    private final ClientDbRepository repository;
+    private final double seuil;
+    private final AtomicReference<IndexTrigrammes> index = new AtomicReference<>(new IndexTrigrammes());
+    private final Timer recherches;
+    private final Timer reconstructions;
+    private final ScheduledExecutorService reconstruction;
+    private volatile boolean pret;
+    /** Écritures reçues pendant une reconstruction, à rejouer sur le nouvel index */
+    private List<Consumer<IndexTrigrammes>> journal;
+
+    public IndexRechercheClientsMemoire(
+            ClientDbRepository repository,
+            @Value("${connaissance-client.recherche.seuil:0.5}") double seuil,
+            @Value("${connaissance-client.recherche.reconstruction:10m}") Duration intervalleReconstruction,
+            MeterRegistry registry) {
+        this.repository = repository;
+        this.seuil = seuil;
+        this.recherches = Timer.builder("connaissance.client.recherche.duration")
+                .description("Durée des recherches approchées de fiches client")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.reconstructions = Timer.builder("connaissance.client.recherche.index.reconstruction")
+                .description("Durée de reconstruction de l'index de recherche")
+                .register(registry);
+        Gauge.builder("connaissance.client.recherche.index.documents", index, i -> i.get().taille())
+                .description("Nombre de fiches de l'index de recherche")
+                .register(registry);
+        Gauge.builder("connaissance.client.recherche.index.memory", index, i -> i.get().memoire())
+                .description("Mémoire estimée de l'index de recherche")
+                .baseUnit("bytes")
+                .register(registry);
+        reconstruire();
+        this.reconstruction = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("cclient-index-recherche").factory());
+        long intervalle = intervalleReconstruction.toMillis();
+        reconstruction.scheduleWithFixedDelay(this::reconstruire, intervalle, intervalle, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<UUID> rechercher(String texte, int limite) {
+        if (!pret) return List.of();
+        return recherches.record(() -> index.get().rechercher(texte, seuil, limite));
+    }
+
+    @Override
+    public void indexer(Client client) {
+        String texte = texte(client.getNom().value(), client.getPrenom().value(), client.getAdresse().ville().value());
+        ecrire(i -> i.ajouter(client.getId(), texte));
+    }
+
+    @Override
+    public void retirer(UUID id) {
+        ecrire(i -> i.retirer(id));
+    }
+
+    /**
+     * Construit un nouvel index à partir de la collection puis le substitue au courant.
+     */
+    void reconstruire() {
+        synchronized (this) {
+            journal = new ArrayList<>();
+        }
+        try {
+            IndexTrigrammes nouveau = new IndexTrigrammes();
+            long debut = System.nanoTime();
+            long fiches = repository.readAll(CriteresClient.aucun(),
+                    (id, nom, prenom, ligne1, ligne2, codePostal, ville, situationFamiliale, nombreEnfants, version) ->
+                            nouveau.ajouter(UUID.fromString(id), texte(nom, prenom, ville)));
+            nouveau.compacter();
+            synchronized (this) {
+                journal.forEach(ecriture -> ecriture.accept(nouveau));
+                index.set(nouveau);
+                journal = null;
+            }
+            reconstructions.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+            pret = true;
+            log.info("Client search index built: {} clients, ~{} MB", fiches, nouveau.memoire() / (1024 * 1024));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                journal = null;
+            }
+            log.error("Unable to build client search index, keeping current one ({} clients): {}",
+                    index.get().taille(), e.getMessage());
+        }
+    }
+
+    private synchronized void ecrire(Consumer<IndexTrigrammes> ecriture) {
+        ecriture.accept(index.get());
+        if (journal != null) journal.add(ecriture);
+    }
+
+    private static String texte(String nom, String prenom, String ville) {
+        return nom + " " + prenom + " " + ville;
+    }
+
+    @Override
+    public void destroy() {
+        reconstruction.shutdownNow();
+    }
+
+}
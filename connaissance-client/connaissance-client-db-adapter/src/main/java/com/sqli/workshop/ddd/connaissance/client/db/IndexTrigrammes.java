@@ -0,0 +1,350 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé de trigrammes sur un texte par fiche (nom, prénom, ville), en mémoire.
+ * <p>
+ * Le texte est normalisé (minuscules, sans accents, ponctuation remplacée par des espaces) puis
+ * découpé en trigrammes par mot, complétés d'espaces comme pg_trgm ({@code "  bo"}, {@code " bo"},
+ * {@code "bou"}, ..., {@code "et "}) : une faute de frappe ne fait perdre que les trois trigrammes
+ * qui la contiennent. Le dernier mot recherché n'est pas complété à droite (saisie progressive).
+ * <p>
+ * Le score d'une fiche est la part des trigrammes de la recherche qu'elle contient ; une fiche
+ * n'est retenue qu'au-delà du seuil. Les candidates sont prises dans les listes les plus courtes
+ * (une fiche qui atteint le seuil figure forcément dans l'une d'elles), les autres listes ne
+ * servent qu'à compléter leur score par recherche dichotomique.
+ * <p>
+ * Les fiches sont numérotées dans l'ordre d'ajout, chaque liste reste donc triée. Une
+ * modification ajoute une nouvelle fiche et marque l'ancienne comme supprimée : l'espace des
+ * fiches supprimées n'est récupéré qu'en reconstruisant l'index.
+ * <p>
+ * Lectures concurrentes, écritures exclusives.
+ */
+final class IndexTrigrammes {
+
+    /** Espace, lettres a-z, chiffres 0-9 */
+    private static final int ALPHABET = 37;
+    private static final int TRIGRAMMES = ALPHABET * ALPHABET * ALPHABET;
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final int LIBRE = -1;
+    private static final int RETIRE = -2;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final int[][] listes = new int[TRIGRAMMES][];
+    private final int[] tailles = new int[TRIGRAMMES];
+    private long[] poidsForts = new long[1024];
+    private long[] poidsFaibles = new long[1024];
+    private short[] longueurs = new short[1024];
+    private final BitSet supprimees = new BitSet();
+    private int fiches;
+    private int actives;
+    /** Adressage ouvert identifiant → numéro de fiche */
+    private int[] table = vide(2048);
+    private int occupees;
+
+    /**
+     * Ajout de la fiche, ou remplacement de son texte si elle est déjà indexée.
+     */
+    void ajouter(UUID id, String texte) {
+        int[] trigrammes = trigrammes(normaliser(texte), false);
+        verrou.writeLock().lock();
+        try {
+            int emplacement = emplacement(id);
+            if (table[emplacement] >= 0) {
+                supprimees.set(table[emplacement]);
+            } else {
+                if (table[emplacement] == LIBRE) occupees++;
+                actives++;
+            }
+            int fiche = nouvelleFiche(id, trigrammes.length);
+            for (int trigramme : trigrammes) {
+                ajouterALaListe(trigramme, fiche);
+            }
+            table[emplacement] = fiche;
+            if (occupees * 2 > table.length) redimensionner();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    void retirer(UUID id) {
+        verrou.writeLock().lock();
+        try {
+            int emplacement = emplacement(id);
+            if (table[emplacement] >= 0) {
+                supprimees.set(table[emplacement]);
+                table[emplacement] = RETIRE;
+                actives--;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche par niveaux : fiches contenant tous les trigrammes de la recherche, sinon tous
+     * sauf trois (une faute de frappe), sinon au moins le seuil. Seul le premier niveau qui trouve
+     * des fiches est retourné : une recherche précise ne parcourt que les listes les plus courtes
+     * et les correspondances lointaines ne masquent pas les proches.
+     *
+     * @param texte le texte saisi, dernier mot éventuellement incomplet
+     * @param seuil part minimale (0 à 1) des trigrammes de la recherche présents dans une fiche
+     * @param limite nombre maximum d'identifiants retournés
+     * @return les identifiants par score décroissant puis texte le plus court ; au score maximal,
+     *         les {@code limite} premières fiches trouvées
+     */
+    List<UUID> rechercher(String texte, double seuil, int limite) {
+        int[] recherche = trigrammes(normaliser(texte), true);
+        if (recherche.length == 0 || limite <= 0) return List.of();
+        int plancher = Math.max(1, (int) Math.ceil(seuil * recherche.length));
+        verrou.readLock().lock();
+        try {
+            Integer[] ordre = new Integer[recherche.length];
+            for (int i = 0; i < ordre.length; i++) ordre[i] = recherche[i];
+            Arrays.sort(ordre, (a, b) -> Integer.compare(tailles[a], tailles[b]));
+            // toute la recherche, une faute de frappe (trois trigrammes), puis le seuil
+            PriorityQueue<long[]> meilleures = parcourir(ordre, recherche.length, limite);
+            if (meilleures.isEmpty() && recherche.length - 3 > plancher) {
+                meilleures = parcourir(ordre, recherche.length - 3, limite);
+            }
+            if (meilleures.isEmpty() && recherche.length > plancher) {
+                meilleures = parcourir(ordre, plancher, limite);
+            }
+            UUID[] resultat = new UUID[meilleures.size()];
+            for (int i = resultat.length - 1; i >= 0; i--) {
+                int fiche = (int) meilleures.poll()[0];
+                resultat[i] = new UUID(poidsForts[fiche], poidsFaibles[fiche]);
+            }
+            return List.of(resultat);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Meilleures fiches ayant au moins {@code minimum} trigrammes de la recherche.
+     *
+     * @param ordre les trigrammes de la recherche, de la liste la plus courte à la plus longue
+     * @return file de {@code {fiche, score, longueur}}, la moins bonne en tête
+     */
+    private PriorityQueue<long[]> parcourir(Integer[] ordre, int minimum, int limite) {
+        PriorityQueue<long[]> meilleures = new PriorityQueue<>(limite + 1,
+                (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[2], a[2]));
+        // une fiche qui a au moins minimum trigrammes figure dans l'une de ces listes
+        int candidates = ordre.length - minimum + 1;
+        int[][] sources = new int[ordre.length][];
+        int[] positions = new int[ordre.length];
+        int[] fins = new int[ordre.length];
+        for (int i = 0; i < ordre.length; i++) {
+            sources[i] = listes[ordre[i]];
+            fins[i] = tailles[ordre[i]];
+        }
+        while (true) {
+            int fiche = Integer.MAX_VALUE;
+            for (int i = 0; i < candidates; i++) {
+                if (positions[i] < fins[i]) fiche = Math.min(fiche, sources[i][positions[i]]);
+            }
+            if (fiche == Integer.MAX_VALUE) break;
+            int score = 0;
+            for (int i = 0; i < candidates; i++) {
+                if (positions[i] < fins[i] && sources[i][positions[i]] == fiche) {
+                    score++;
+                    positions[i]++;
+                }
+            }
+            if (supprimees.get(fiche)) continue;
+            for (int i = candidates; i < ordre.length && score + ordre.length - i >= minimum; i++) {
+                positions[i] = avancer(sources[i], positions[i], fins[i], fiche);
+                if (positions[i] < fins[i] && sources[i][positions[i]] == fiche) score++;
+            }
+            if (score < minimum) continue;
+            meilleures.add(new long[] {fiche, score, longueurs[fiche]});
+            if (meilleures.size() > limite) {
+                meilleures.poll();
+                // plus aucune fiche ne peut avoir un meilleur score
+                if (meilleures.peek()[1] == ordre.length) break;
+            }
+        }
+        return meilleures;
+    }
+
+    /**
+     * Position de la première fiche supérieure ou égale dans la liste, à partir de la position
+     * courante : les fiches candidates sont croissantes, la recherche exponentielle ne revient
+     * jamais en arrière.
+     */
+    private static int avancer(int[] liste, int debut, int fin, int fiche) {
+        if (debut >= fin) return fin;
+        int pas = 1;
+        int borne = debut;
+        while (borne < fin && liste[borne] < fiche) {
+            debut = borne + 1;
+            borne += pas;
+            pas <<= 1;
+        }
+        int position = Arrays.binarySearch(liste, debut, Math.min(borne, fin), fiche);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /** Nombre de fiches indexées (hors versions remplacées ou retirées) */
+    int taille() {
+        verrou.readLock().lock();
+        try {
+            return actives;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /** Estimation de la mémoire occupée par les tableaux de l'index, en octets */
+    long memoire() {
+        verrou.readLock().lock();
+        try {
+            long octets = 16L + TRIGRAMMES * (4L + 4L);
+            for (int[] liste : listes) {
+                if (liste != null) octets += 16L + liste.length * 4L;
+            }
+            octets += poidsForts.length * 8L + poidsFaibles.length * 8L + longueurs.length * 2L;
+            octets += table.length * 4L + supprimees.size() / 8;
+            return octets;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /** Ajuste les listes à leur taille, après un chargement complet */
+    void compacter() {
+        verrou.writeLock().lock();
+        try {
+            for (int i = 0; i < TRIGRAMMES; i++) {
+                if (listes[i] != null && listes[i].length > tailles[i]) listes[i] = Arrays.copyOf(listes[i], tailles[i]);
+            }
+            poidsForts = Arrays.copyOf(poidsForts, fiches);
+            poidsFaibles = Arrays.copyOf(poidsFaibles, fiches);
+            longueurs = Arrays.copyOf(longueurs, fiches);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Minuscules sans accents ni ligatures, tout autre caractère que lettre ou chiffre devenant
+     * un espace.
+     */
+    static String normaliser(String texte) {
+        if (texte == null) return "";
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(texte.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder normalise = new StringBuilder(sansAccents.length());
+        for (int i = 0; i < sansAccents.length(); i++) {
+            char c = sansAccents.charAt(i);
+            switch (c) {
+                case 'œ' -> normalise.append("oe");
+                case 'æ' -> normalise.append("ae");
+                case 'ß' -> normalise.append("ss");
+                default -> normalise.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') ? c : ' ');
+            }
+        }
+        return normalise.toString().trim();
+    }
+
+    /**
+     * Trigrammes distincts et triés d'un texte normalisé.
+     *
+     * @param saisie le dernier mot est en cours de saisie : pas de complément à droite
+     */
+    static int[] trigrammes(String normalise, boolean saisie) {
+        String[] mots = normalise.isEmpty() ? new String[0] : normalise.split(" +");
+        int[] trigrammes = new int[normalise.length() + mots.length * 3];
+        int nombre = 0;
+        for (int m = 0; m < mots.length; m++) {
+            String mot = "  " + mots[m] + (saisie && m == mots.length - 1 ? "" : " ");
+            for (int i = 0; i + 3 <= mot.length(); i++) {
+                trigrammes[nombre++] = (code(mot.charAt(i)) * ALPHABET + code(mot.charAt(i + 1))) * ALPHABET + code(mot.charAt(i + 2));
+            }
+        }
+        return Arrays.stream(trigrammes, 0, nombre).sorted().distinct().toArray();
+    }
+
+    private static int code(char c) {
+        if (c == ' ') return 0;
+        if (c <= '9') return 27 + c - '0';
+        return 1 + c - 'a';
+    }
+
+    private int nouvelleFiche(UUID id, int trigrammes) {
+        if (fiches == poidsForts.length) {
+            int capacite = Math.max(1024, fiches + (fiches >> 1));
+            poidsForts = Arrays.copyOf(poidsForts, capacite);
+            poidsFaibles = Arrays.copyOf(poidsFaibles, capacite);
+            longueurs = Arrays.copyOf(longueurs, capacite);
+        }
+        poidsForts[fiches] = id.getMostSignificantBits();
+        poidsFaibles[fiches] = id.getLeastSignificantBits();
+        longueurs[fiches] = (short) Math.min(trigrammes, Short.MAX_VALUE);
+        return fiches++;
+    }
+
+    private void ajouterALaListe(int trigramme, int fiche) {
+        int[] liste = listes[trigramme];
+        if (liste == null) {
+            liste = listes[trigramme] = new int[4];
+        } else if (tailles[trigramme] == liste.length) {
+            liste = listes[trigramme] = Arrays.copyOf(liste, Math.max(4, liste.length + (liste.length >> 1)));
+        }
+        liste[tailles[trigramme]++] = fiche;
+    }
+
+    /** Emplacement de l'identifiant, ou premier emplacement libre de sa séquence de sondage */
+    private int emplacement(UUID id) {
+        long forts = id.getMostSignificantBits();
+        long faibles = id.getLeastSignificantBits();
+        int masque = table.length - 1;
+        int i = hachage(forts, faibles) & masque;
+        int retire = -1;
+        while (table[i] != LIBRE) {
+            int fiche = table[i];
+            if (fiche == RETIRE) {
+                if (retire < 0) retire = i;
+            } else if (poidsForts[fiche] == forts && poidsFaibles[fiche] == faibles) {
+                return i;
+            }
+            i = (i + 1) & masque;
+        }
+        return retire >= 0 ? retire : i;
+    }
+
+    private void redimensionner() {
+        int[] ancienne = table;
+        table = vide(ancienne.length * 2);
+        occupees = 0;
+        int masque = table.length - 1;
+        for (int fiche : ancienne) {
+            if (fiche < 0) continue;
+            int i = hachage(poidsForts[fiche], poidsFaibles[fiche]) & masque;
+            while (table[i] != LIBRE) i = (i + 1) & masque;
+            table[i] = fiche;
+            occupees++;
+        }
+    }
+
+    private static int hachage(long forts, long faibles) {
+        long h = (forts ^ faibles) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int[] vide(int capacite) {
+        int[] table = new int[capacite];
+        Arrays.fill(table, LIBRE);
+        return table;
+    }
+
+}
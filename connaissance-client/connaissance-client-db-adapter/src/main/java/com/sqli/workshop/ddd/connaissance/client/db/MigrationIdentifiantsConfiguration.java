@@ -0,0 +1,28 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Migration des identifiants en binaire, lancée au démarrage avec
+ * {@code connaissance-client.db.migration-identifiants.enabled=true} (une seule instance, voir
+ * {@link MigrationIdentifiantsJob} pour la procédure).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "connaissance-client.db.migration-identifiants", name = "enabled", havingValue = "true")
+public class MigrationIdentifiantsConfiguration {
+
+    @Bean
+    MigrationIdentifiantsJob migrationIdentifiantsJob(
+            MongoOperations mongoOperations,
+            @Value("${connaissance-client.db.migration-identifiants.taille-lot:500}") int tailleLot,
+            MeterRegistry registry) {
+        return new MigrationIdentifiantsJob(mongoOperations, tailleLot, registry);
+    }
+
+}
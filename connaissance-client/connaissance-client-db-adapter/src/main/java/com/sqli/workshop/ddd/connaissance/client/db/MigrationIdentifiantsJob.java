@@ -0,0 +1,135 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.UuidRepresentation;
+import org.bson.conversions.Bson;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Sorts;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migration des identifiants de la collection connaissanceclient du format texte vers le format
+ * binaire ({@link FormatIdentifiant#BINAIRE}), lancée au démarrage avec
+ * {@code connaissance-client.db.migration-identifiants.enabled=true}.
+ * <p>
+ * {@code _id} ne pouvant pas être modifié, chaque document est recopié sous son identifiant
+ * binaire, puis l'original est supprimé, par lots de {@code taille-lot} documents dans l'ordre
+ * des identifiants. La migration peut être interrompue et relancée : une copie déjà insérée lors
+ * d'une exécution précédente est ignorée. Les documents dont l'identifiant n'est pas un UUID
+ * sont laissés en place.
+ * <p>
+ * <strong>Procédure :</strong> les lectures acceptent les deux formats, mais les filtres par
+ * identifiant et la pagination utilisent le format configuré. Les instances sont donc arrêtées
+ * pendant la migration, exécutée par une seule instance configurée en
+ * {@code format-identifiant: BINAIRE}, puis redémarrées dans ce format.
+ * <p>
+ * <strong>Métriques :</strong> {@code connaissance.client.migration.identifiants} (documents
+ * migrés), {@code connaissance.client.migration.identifiants.skipped} (identifiants non UUID).
+ */
+@Slf4j
+public class MigrationIdentifiantsJob implements ApplicationRunner {
+
+    private final MongoOperations mongoOperations;
+    private final int tailleLot;
+    private final Counter migres;
+    private final Counter ignores;
+
+    public MigrationIdentifiantsJob(MongoOperations mongoOperations, int tailleLot, MeterRegistry registry) {
+        this.mongoOperations = mongoOperations;
+        this.tailleLot = tailleLot;
+        this.migres = Counter.builder("connaissance.client.migration.identifiants")
+                .description("Fiches client dont l'identifiant a été migré en binaire")
+                .register(registry);
+        this.ignores = Counter.builder("connaissance.client.migration.identifiants.skipped")
+                .description("Fiches client dont l'identifiant n'est pas un UUID")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Client id migration starting");
+        long total = migrer();
+        log.info("Client id migration completed: {} documents", total);
+    }
+
+    /**
+     * Migre tous les documents dont l'identifiant est encore au format texte.
+     *
+     * @return le nombre de documents migrés
+     */
+    long migrer() {
+        return mongoOperations.execute(ClientDb.class, documents -> {
+            MongoCollection<BsonDocument> collection = documents.withDocumentClass(BsonDocument.class);
+            long total = 0;
+            String dernierId = null;
+            List<BsonDocument> lot;
+            do {
+                Bson filtre = dernierId == null
+                        ? Filters.type("_id", BsonType.STRING)
+                        : Filters.and(Filters.type("_id", BsonType.STRING), Filters.gt("_id", dernierId));
+                lot = collection.find(filtre).sort(Sorts.ascending("_id")).limit(tailleLot).into(new ArrayList<>(tailleLot));
+                if (!lot.isEmpty()) {
+                    dernierId = lot.getLast().getString("_id").getValue();
+                    total += migrer(collection, lot);
+                }
+            } while (lot.size() == tailleLot);
+            return total;
+        });
+    }
+
+    /** Recopie du lot sous les identifiants binaires, puis suppression des originaux */
+    private long migrer(MongoCollection<BsonDocument> collection, List<BsonDocument> lot) {
+        List<BsonDocument> copies = new ArrayList<>(lot.size());
+        List<BsonValue> originaux = new ArrayList<>(lot.size());
+        for (BsonDocument document : lot) {
+            BsonString id = document.getString("_id");
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(id.getValue());
+            } catch (IllegalArgumentException e) {
+                ignores.increment();
+                log.warn("Client id migration skipping non-UUID id {}", id.getValue());
+                continue;
+            }
+            BsonDocument copie = new BsonDocument("_id", new BsonBinary(uuid, UuidRepresentation.STANDARD));
+            for (Map.Entry<String, BsonValue> champ : document.entrySet()) {
+                if (!"_id".equals(champ.getKey())) copie.append(champ.getKey(), champ.getValue());
+            }
+            copies.add(copie);
+            originaux.add(id);
+        }
+        if (copies.isEmpty()) return 0;
+        try {
+            collection.insertMany(copies, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // copies insérées par une exécution interrompue avant la suppression des originaux
+            boolean doublonsSeulement = e.getWriteErrors().stream()
+                    .allMatch(erreur -> ErrorCategory.fromErrorCode(erreur.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!doublonsSeulement || e.getWriteConcernError() != null) throw e;
+        }
+        collection.deleteMany(Filters.in("_id", originaux));
+        migres.increment(copies.size());
+        return copies.size();
+    }
+
+}
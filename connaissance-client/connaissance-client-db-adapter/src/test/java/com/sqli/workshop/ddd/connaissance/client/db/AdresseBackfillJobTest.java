@@ -0,0 +1,163 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AdresseBackfillJobTest {
+
+    private MongoOperations mongoOperations;
+    private MongoCollection<Document> checkpoints;
+    private AdresseEventService adresseEventService;
+    private SimpleMeterRegistry registry;
+    private AdresseBackfillJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        mongoOperations = mock(MongoOperations.class);
+        checkpoints = mock(MongoCollection.class);
+        when(mongoOperations.getCollection(ClientChangeStreamListener.CHECKPOINTS_COLLECTION)).thenReturn(checkpoints);
+        adresseEventService = mock(AdresseEventService.class);
+        registry = new SimpleMeterRegistry();
+        job = new AdresseBackfillJob(mongoOperations, adresseEventService, new ClientDbMapperImpl(), FormatIdentifiant.TEXTE, "test",
+                10_000, 1, Duration.ofMinutes(1), registry);
+    }
+
+    @Test
+    public void given_clients_publierApres_should_publish_all_and_save_completed_checkpoint() {
+        // GIVEN
+        List<ClientDb> clients = List.of(client("33800"), client("33000"), client("75001"));
+        when(mongoOperations.count(any(Query.class), eq(ClientDb.class))).thenReturn(3L);
+        when(mongoOperations.stream(any(Query.class), eq(ClientDb.class))).thenReturn(clients.stream());
+        when(adresseEventService.sendEventAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        // WHEN
+        boolean termine = job.publierApres(null);
+        // THEN
+        assertTrue(termine);
+        verify(adresseEventService, times(3)).sendEventAsync(any(), any(), any());
+        Document checkpoint = checkpoint();
+        assertEquals(clients.get(2).getId(), checkpoint.getString("dernierId"));
+        assertTrue(checkpoint.getBoolean("termine"));
+        assertEquals(3.0, registry.get("connaissance.client.backfill.events").counter().count());
+        assertEquals(0.0, registry.get("connaissance.client.backfill.remaining").gauge().value());
+    }
+
+    @Test
+    public void given_publication_failure_publierApres_should_stop_and_checkpoint_last_confirmed_client() {
+        // GIVEN
+        List<ClientDb> clients = List.of(client("33800"), client("33000"), client("75001"));
+        when(mongoOperations.count(any(Query.class), eq(ClientDb.class))).thenReturn(3L);
+        when(mongoOperations.stream(any(Query.class), eq(ClientDb.class))).thenReturn(clients.stream());
+        when(adresseEventService.sendEventAsync(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(true))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Simulated broker error")));
+        // WHEN
+        boolean termine = job.publierApres(null);
+        // THEN
+        assertFalse(termine);
+        verify(adresseEventService, times(2)).sendEventAsync(any(), any(), any());
+        Document checkpoint = checkpoint();
+        assertEquals(clients.get(0).getId(), checkpoint.getString("dernierId"));
+        assertFalse(checkpoint.getBoolean("termine"));
+        assertEquals(1.0, registry.get("connaissance.client.backfill.failures").counter().count());
+    }
+
+    @Test
+    public void given_unreadable_client_publierApres_should_skip_it() {
+        // GIVEN
+        ClientDb illisible = client("33800");
+        illisible.setSituationFamiliale("INCONNUE");
+        when(mongoOperations.stream(any(Query.class), eq(ClientDb.class))).thenReturn(List.of(illisible, client("33000")).stream());
+        when(adresseEventService.sendEventAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        // WHEN
+        boolean termine = job.publierApres(null);
+        // THEN
+        assertTrue(termine);
+        verify(adresseEventService, times(1)).sendEventAsync(any(), any(), any());
+        assertEquals(1.0, registry.get("connaissance.client.backfill.skipped").counter().count());
+    }
+
+    @Test
+    public void given_cursor_error_publierApres_should_checkpoint_confirmed_clients_and_rethrow() {
+        // GIVEN
+        ClientDb premier = client("33800");
+        when(mongoOperations.stream(any(Query.class), eq(ClientDb.class))).thenReturn(Stream.concat(
+                Stream.of(premier),
+                Stream.generate(() -> { throw new DataAccessResourceFailureException("Simulated cursor error"); })));
+        when(adresseEventService.sendEventAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        // WHEN
+        assertThrows(DataAccessResourceFailureException.class, () -> job.publierApres(null));
+        // THEN
+        Document checkpoint = checkpoint();
+        assertEquals(premier.getId(), checkpoint.getString("dernierId"));
+        assertFalse(checkpoint.getBoolean("termine"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void given_unexpected_error_job_should_log_back_off_and_resume() {
+        // GIVEN
+        job = new AdresseBackfillJob(mongoOperations, adresseEventService, new ClientDbMapperImpl(), FormatIdentifiant.TEXTE, "test",
+                10_000, 1, Duration.ofMillis(10), registry);
+        FindIterable<Document> aucun = mock(FindIterable.class);
+        when(checkpoints.find(any(Bson.class))).thenReturn(aucun);
+        when(mongoOperations.count(any(Query.class), eq(ClientDb.class)))
+                .thenThrow(new IllegalStateException("Simulated conversion error"))
+                .thenReturn(1L);
+        when(mongoOperations.stream(any(Query.class), eq(ClientDb.class))).thenReturn(Stream.of(client("33800")));
+        when(adresseEventService.sendEventAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        // WHEN
+        job.start();
+        try {
+            // THEN
+            verify(adresseEventService, timeout(1000)).sendEventAsync(any(), any(), any());
+            assertEquals(1.0, registry.get("connaissance.client.backfill.errors").counter().count());
+        } finally {
+            job.stop();
+        }
+    }
+
+    private Document checkpoint() {
+        ArgumentCaptor<Document> checkpoint = ArgumentCaptor.forClass(Document.class);
+        verify(checkpoints, atLeastOnce()).replaceOne(any(Bson.class), checkpoint.capture(), any(ReplaceOptions.class));
+        return checkpoint.getValue();
+    }
+
+    private static ClientDb client(String codePostal) {
+        ClientDb client = new ClientDb();
+        client.setId(UUID.randomUUID().toString());
+        client.setNom("Bousquet");
+        client.setPrenom("Philippe");
+        client.setLigne1("48 rue bauducheu");
+        client.setCodePostal(codePostal);
+        client.setVille("Bordeaux");
+        client.setSituationFamiliale("CELIBATAIRE");
+        client.setNombreEnfants(0);
+        return client;
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
+
+import com.mongodb.client.MongoCollection;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AdresseOutboxRelayTest {
+
+    private AdresseOutboxDbRepository outboxRepository;
+    private AdresseEventService adresseEventService;
+    private SimpleMeterRegistry registry;
+    private AdresseOutboxRelay relay;
+
+    @BeforeEach
+    public void init() {
+        outboxRepository = mock(AdresseOutboxDbRepository.class);
+        adresseEventService = mock(AdresseEventService.class, CALLS_REAL_METHODS);
+        registry = new SimpleMeterRegistry();
+        relay = relay(false);
+    }
+
+    private AdresseOutboxRelay relay(boolean regroupement) {
+        return new AdresseOutboxRelay(outboxRepository, mock(MongoOperations.class), adresseEventService,
+                new ClientDbMapperImpl(), "test", 10, Duration.ofMillis(100), Duration.ofSeconds(10), regroupement, registry);
+    }
+
+    @Test
+    public void given_pending_events_relayerLot_should_publish_every_event_in_order_then_delete() {
+        // GIVEN
+        UUID client = UUID.randomUUID();
+        UUID autre = UUID.randomUUID();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(
+                evenement("1", client, "33800"),
+                evenement("2", client, "33000"),
+                evenement("3", autre, "75001")));
+        when(adresseEventService.sendEvent(any(), any(), any())).thenReturn(true);
+        // WHEN
+        int lus = relay.relayerLot();
+        // THEN
+        assertEquals(3, lus);
+        InOrder ordre = inOrder(adresseEventService);
+        ordre.verify(adresseEventService).sendEvent(eq(client), any(Destinataire.class), argThat((Adresse a) -> "33800".equals(a.codePostal().value())));
+        ordre.verify(adresseEventService).sendEvent(eq(client), any(Destinataire.class), argThat((Adresse a) -> "33000".equals(a.codePostal().value())));
+        verify(adresseEventService).sendEvent(eq(autre), any(Destinataire.class), argThat((Adresse a) -> "75001".equals(a.codePostal().value())));
+        verify(adresseEventService, times(3)).sendEvent(any(), any(), any());
+        verify(outboxRepository).deleteAllById(List.of("1", "2", "3"));
+        assertEquals(3.0, registry.get("connaissance.client.outbox.relay.events").counter().count());
+    }
+
+    @Test
+    public void given_coalescing_enabled_relayerLot_should_publish_latest_event_per_client_then_delete() {
+        // GIVEN
+        relay = relay(true);
+        UUID client = UUID.randomUUID();
+        UUID autre = UUID.randomUUID();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(
+                evenement("1", client, "33800"),
+                evenement("2", client, "33000"),
+                evenement("3", autre, "75001")));
+        when(adresseEventService.sendEvent(any(), any(), any())).thenReturn(true);
+        // WHEN
+        int lus = relay.relayerLot();
+        // THEN
+        assertEquals(3, lus);
+        verify(adresseEventService).sendEvent(eq(client), any(Destinataire.class), argThat((Adresse a) -> "33000".equals(a.codePostal().value())));
+        verify(adresseEventService).sendEvent(eq(autre), any(Destinataire.class), argThat((Adresse a) -> "75001".equals(a.codePostal().value())));
+        verify(adresseEventService, times(2)).sendEvent(any(), any(), any());
+        verify(outboxRepository).deleteAllById(List.of("1", "2", "3"));
+        assertEquals(2.0, registry.get("connaissance.client.outbox.relay.events").counter().count());
+        assertEquals(2, registry.get("connaissance.client.outbox.relay.lag").timer().count());
+        assertEquals(1, registry.get("connaissance.client.outbox.relay.batch.size").summary().count());
+    }
+
+    @Test
+    public void given_publication_failure_relayerLot_should_keep_event_and_read_again_from_start() {
+        // GIVEN
+        UUID client = UUID.randomUUID();
+        UUID enEchec = UUID.randomUUID();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(
+                evenement("1", client, "33800"),
+                evenement("2", enEchec, "33000")))
+                .thenReturn(List.of(evenement("2", enEchec, "33000")));
+        when(adresseEventService.sendEvent(eq(client), any(), any())).thenReturn(true);
+        when(adresseEventService.sendEvent(eq(enEchec), any(), any())).thenThrow(new RuntimeException("Simulated broker error"));
+        // WHEN
+        relay.relayerLot();
+        int suspendu = relay.relayerLot();
+        relay.relayerLot();
+        // THEN
+        assertEquals(0, suspendu);
+        verify(outboxRepository).deleteAllById(List.of("1"));
+        verify(outboxRepository, never()).deleteAllById(List.of("2"));
+        verify(outboxRepository, times(2)).findByOrderByIdAsc(Limit.of(10));
+        verify(outboxRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+        verify(adresseEventService, times(2)).sendEvent(eq(enEchec), any(), any());
+        assertEquals(2.0, registry.get("connaissance.client.outbox.relay.failures").counter().count());
+    }
+
+    @Test
+    public void given_publication_failure_for_one_client_relayerLot_should_publish_other_clients() {
+        // GIVEN
+        UUID enEchec = UUID.randomUUID();
+        UUID autre = UUID.randomUUID();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(
+                evenement("1", enEchec, "33800"),
+                evenement("2", autre, "33000"),
+                evenement("3", enEchec, "75001")));
+        when(adresseEventService.sendEvent(eq(enEchec), any(), any())).thenReturn(false);
+        when(adresseEventService.sendEvent(eq(autre), any(), any())).thenReturn(true);
+        // WHEN
+        relay.relayerLot();
+        // THEN
+        verify(adresseEventService, times(1)).sendEvent(eq(enEchec), any(), any());
+        verify(outboxRepository).deleteAllById(List.of("2"));
+    }
+
+    @Test
+    public void given_pending_confirmation_relayerLot_should_read_next_events_and_chain_them_per_client() {
+        // GIVEN
+        UUID client = UUID.randomUUID();
+        CompletableFuture<Boolean> confirmation = new CompletableFuture<>();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(evenement("1", client, "33800")));
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc("1", Limit.of(10))).thenReturn(List.of(evenement("2", client, "33000")));
+        doReturn(confirmation, CompletableFuture.completedFuture(true))
+                .when(adresseEventService).sendEventAsync(any(), any(), any());
+        // WHEN
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            relay.relayerLot();
+            relay.relayerLot();
+        });
+        // THEN
+        verify(adresseEventService, times(1)).sendEventAsync(any(), any(), any());
+        confirmation.complete(true);
+        verify(adresseEventService, times(2)).sendEventAsync(any(), any(), any());
+        relay.relayerLot();
+        verify(outboxRepository).deleteAllById(List.of("1", "2"));
+    }
+
+    @Test
+    public void given_event_service_preserving_client_order_relayerLot_should_merge_corrections_read_while_pending() {
+        // GIVEN
+        UUID client = UUID.randomUUID();
+        CompletableFuture<Boolean> fenetre = new CompletableFuture<>();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(evenement("1", client, "33800")));
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc("1", Limit.of(10))).thenReturn(List.of(evenement("2", client, "33000")));
+        when(adresseEventService.conserveOrdreParClient()).thenReturn(true);
+        when(adresseEventService.sendEventAsync(any(), any(), any())).thenReturn(fenetre);
+        // WHEN
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            relay.relayerLot();
+            relay.relayerLot();
+        });
+        // THEN
+        verify(adresseEventService, times(2)).sendEventAsync(eq(client), any(), any());
+        verify(outboxRepository, never()).deleteAllById(any());
+        fenetre.complete(true);
+        relay.relayerLot();
+        verify(outboxRepository).deleteAllById(List.of("1", "2"));
+    }
+
+    @Test
+    public void given_failed_event_replaced_by_published_one_relayerLot_should_delete_both() {
+        // GIVEN
+        UUID client = UUID.randomUUID();
+        CompletableFuture<Boolean> premier = new CompletableFuture<>();
+        CompletableFuture<Boolean> second = new CompletableFuture<>();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(evenement("1", client, "33800")));
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc("1", Limit.of(10))).thenReturn(List.of(evenement("2", client, "33000")));
+        when(adresseEventService.conserveOrdreParClient()).thenReturn(true);
+        doReturn(premier, second).when(adresseEventService).sendEventAsync(any(), any(), any());
+        relay.relayerLot();
+        relay.relayerLot();
+        // WHEN
+        premier.complete(false);
+        second.complete(true);
+        relay.relayerLot();
+        // THEN
+        verify(outboxRepository).deleteAllById(List.of("1", "2"));
+        assertEquals(1.0, registry.get("connaissance.client.outbox.relay.failures").counter().count());
+    }
+
+    @Test
+    public void given_empty_outbox_relayerLot_should_not_delete() {
+        // GIVEN
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10))).thenReturn(List.of());
+        // WHEN
+        int lus = relay.relayerLot();
+        // THEN
+        assertEquals(0, lus);
+        verify(adresseEventService, never()).sendEventAsync(any(), any(), any());
+        verify(outboxRepository, never()).deleteAllById(any());
+    }
+
+    @Test
+    public void given_unexpected_error_relay_should_log_back_off_and_keep_running() {
+        // GIVEN
+        MongoOperations mongoOperations = mock(MongoOperations.class);
+        when(mongoOperations.getCollection(AdresseOutboxRelay.BAUX_COLLECTION)).thenReturn(mock(MongoCollection.class));
+        relay = new AdresseOutboxRelay(outboxRepository, mongoOperations, adresseEventService,
+                new ClientDbMapperImpl(), "test", 10, Duration.ofMillis(10), Duration.ofSeconds(10), false, registry);
+        UUID client = UUID.randomUUID();
+        when(outboxRepository.findByOrderByIdAsc(Limit.of(10)))
+                .thenThrow(new IllegalStateException("Simulated conversion error"))
+                .thenReturn(List.of(evenement("1", client, "33800")))
+                .thenReturn(List.of());
+        when(adresseEventService.sendEvent(any(), any(), any())).thenReturn(true);
+        // WHEN
+        relay.start();
+        try {
+            // THEN
+            verify(outboxRepository, timeout(1000)).deleteAllById(List.of("1"));
+            assertTrue(relay.isRunning());
+            assertEquals(1.0, registry.get("connaissance.client.outbox.relay.errors").counter().count());
+        } finally {
+            relay.stop();
+        }
+    }
+
+    private static AdresseOutboxDb evenement(String id, UUID client, String codePostal) {
+        AdresseOutboxDb evenement = new AdresseOutboxDb();
+        evenement.setId(id);
+        evenement.setClientId(client.toString());
+        evenement.setNom("Bousquet");
+        evenement.setPrenom("Philippe");
+        evenement.setLigne1("48 rue bauducheu");
+        evenement.setCodePostal(codePostal);
+        evenement.setVille("Bordeaux");
+        evenement.setCreeLe(Instant.now().minusMillis(50));
+        return evenement;
+    }
+
+}
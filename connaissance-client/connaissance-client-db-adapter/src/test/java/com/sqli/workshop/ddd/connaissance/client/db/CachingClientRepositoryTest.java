@@ -0,0 +1,260 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingClientRepositoryTest {
+
+    private ClientRepository delegate;
+    private Cache<UUID, Client> cache;
+    private ClientRepository repository;
+
+    @BeforeEach
+    public void init() {
+        delegate = mock(ClientRepository.class);
+        cache = Caffeine.newBuilder().maximumSize(100).build();
+        repository = new CachingClientRepository(delegate, cache);
+    }
+
+    @Test
+    public void given_client_lire_twice_should_load_once() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        when(delegate.lire(id)).thenReturn(Optional.of(client(id)));
+        // WHEN
+        var premier = repository.lire(id);
+        var second = repository.lire(id);
+        // THEN
+        assertTrue(premier.isPresent());
+        assertEquals(premier, second);
+        verify(delegate, times(1)).lire(id);
+    }
+
+    @Test
+    public void given_unknown_client_lire_should_not_cache_absence() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        when(delegate.lire(id)).thenReturn(Optional.empty());
+        // WHEN
+        repository.lire(id);
+        var result = repository.lire(id);
+        // THEN
+        assertTrue(result.isEmpty());
+        verify(delegate, times(2)).lire(id);
+    }
+
+    @Test
+    public void given_cached_client_mutation_should_not_alter_cache() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        when(delegate.lire(id)).thenReturn(Optional.of(client(id)));
+        // WHEN
+        repository.lire(id).get().setNombreEnfants(3);
+        var result = repository.lire(id);
+        // THEN
+        assertEquals(0, result.get().getNombreEnfants());
+    }
+
+    @Test
+    public void given_enregistrer_should_refresh_cache() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = client(id);
+        client.setSituationFamiliale(SituationFamiliale.MARIE);
+        when(delegate.enregistrer(client)).thenReturn(client);
+        // WHEN
+        repository.enregistrer(client);
+        var result = repository.lire(id);
+        // THEN
+        assertEquals(SituationFamiliale.MARIE, result.get().getSituationFamiliale());
+        verify(delegate, never()).lire(id);
+    }
+
+    @Test
+    public void given_enregistrerAvecChangementAdresse_should_refresh_cache() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        cache.put(id, client(id));
+        Client client = Client.of(id, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("1 place de la Bourse"), new CodePostal("33000"), new Ville("Bordeaux")),
+                SituationFamiliale.CELIBATAIRE, 0);
+        when(delegate.enregistrerAvecChangementAdresse(client)).thenReturn(client);
+        // WHEN
+        repository.enregistrerAvecChangementAdresse(client);
+        var result = repository.lire(id);
+        // THEN
+        assertEquals("33000", result.get().getAdresse().codePostal().value());
+        verify(delegate, never()).enregistrer(any());
+        verify(delegate, never()).lire(id);
+    }
+
+    @Test
+    public void given_enregistrer_error_should_invalidate_cache() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = client(id);
+        cache.put(id, client);
+        when(delegate.enregistrer(client)).thenThrow(new RuntimeException("Simulated database error"));
+        // WHEN
+        assertThrows(RuntimeException.class, () -> repository.enregistrer(client));
+        // THEN
+        assertNull(cache.getIfPresent(id));
+    }
+
+    @Test
+    public void given_changerSituation_should_cache_updated_client() throws Exception {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        when(delegate.changerSituation(id, SituationFamiliale.MARIE, 2, Optional.empty())).thenReturn(Optional.of(client(id)));
+        // WHEN
+        var avant = repository.changerSituation(id, SituationFamiliale.MARIE, 2, Optional.empty());
+        var result = repository.lire(id);
+        // THEN
+        assertEquals(SituationFamiliale.CELIBATAIRE, avant.get().getSituationFamiliale());
+        assertEquals(SituationFamiliale.MARIE, result.get().getSituationFamiliale());
+        assertEquals(2, result.get().getNombreEnfants());
+        assertEquals(Long.valueOf(1), result.get().getVersion());
+        verify(delegate, never()).lire(id);
+    }
+
+    @Test
+    public void given_changerAdresse_should_cache_updated_client() throws Exception {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Adresse adresse = new Adresse(new LigneAdresse("1 place de la Bourse"), new CodePostal("33000"), new Ville("Bordeaux"));
+        when(delegate.changerAdresse(id, adresse, Optional.empty())).thenReturn(Optional.of(client(id)));
+        // WHEN
+        repository.changerAdresse(id, adresse, Optional.empty());
+        var result = repository.lire(id);
+        // THEN
+        assertEquals("33000", result.get().getAdresse().codePostal().value());
+        verify(delegate, never()).lire(id);
+    }
+
+    @Test
+    public void given_unknown_client_modifier_should_invalidate_cache() throws Exception {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = client(id);
+        cache.put(id, client);
+        when(delegate.modifier(client, Optional.empty())).thenReturn(Optional.empty());
+        // WHEN
+        var avant = repository.modifier(client, Optional.empty());
+        // THEN
+        assertTrue(avant.isEmpty());
+        assertNull(cache.getIfPresent(id));
+    }
+
+    @Test
+    public void given_version_conflict_modifier_should_invalidate_cache() throws Exception {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = client(id);
+        cache.put(id, client);
+        when(delegate.modifier(client, Optional.of(3L))).thenThrow(new ConflitVersionException());
+        // WHEN
+        assertThrows(ConflitVersionException.class, () -> repository.modifier(client, Optional.of(3L)));
+        // THEN
+        assertNull(cache.getIfPresent(id));
+    }
+
+    @Test
+    public void given_cached_client_version_should_read_version_from_database() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = client(id);
+        client.setVersion(5L);
+        cache.put(id, client);
+        when(delegate.version(id)).thenReturn(Optional.of(6L));
+        // WHEN
+        var version = repository.version(id);
+        // THEN
+        assertEquals(Optional.of(6L), version);
+        verify(delegate, never()).lire(any());
+    }
+
+    @Test
+    public void given_uncached_client_version_should_read_version_without_caching() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        when(delegate.version(id)).thenReturn(Optional.of(2L));
+        // WHEN
+        var version = repository.version(id);
+        // THEN
+        assertEquals(Optional.of(2L), version);
+        assertNull(cache.getIfPresent(id));
+        verify(delegate, never()).lire(any());
+    }
+
+    @Test
+    public void given_supprimer_should_invalidate_cache() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        cache.put(id, client(id));
+        // WHEN
+        repository.supprimer(id);
+        // THEN
+        assertNull(cache.getIfPresent(id));
+        verify(delegate).supprimer(id);
+    }
+
+    @Test
+    public void given_concurrent_misses_should_load_once() throws Exception {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        CountDownLatch chargementEnCours = new CountDownLatch(1);
+        CountDownLatch liberation = new CountDownLatch(1);
+        when(delegate.lire(id)).thenAnswer(invocation -> {
+            chargementEnCours.countDown();
+            liberation.await(5, TimeUnit.SECONDS);
+            return Optional.of(client(id));
+        });
+        // WHEN
+        var premier = CompletableFuture.supplyAsync(() -> repository.lire(id));
+        assertTrue(chargementEnCours.await(5, TimeUnit.SECONDS));
+        var second = CompletableFuture.supplyAsync(() -> repository.lire(id));
+        liberation.countDown();
+        // THEN
+        assertTrue(premier.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(second.get(5, TimeUnit.SECONDS).isPresent());
+        verify(delegate, times(1)).lire(id);
+    }
+
+    private static Client client(UUID id) {
+        return Client.of(
+            id,
+            new Nom("Bousquet"),
+            new Prenom("Philippe"),
+            new Adresse(
+                new LigneAdresse("48 rue bauducheu"),
+                new CodePostal("33800"),
+                new Ville("Bordeaux")
+            ),
+            SituationFamiliale.CELIBATAIRE,
+            0
+        );
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.bson.BsonBinary;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ClientChangeStreamListenerTest {
+
+    private Cache<UUID, Client> cache;
+    private SimpleMeterRegistry registry;
+    private ClientChangeStreamListener listener;
+
+    @BeforeEach
+    public void init() {
+        cache = Caffeine.newBuilder().maximumSize(100).build();
+        registry = new SimpleMeterRegistry();
+        listener = new ClientChangeStreamListener(mock(MongoOperations.class), cache, "test", Duration.ofSeconds(10), registry);
+    }
+
+    @Test
+    public void given_update_event_should_evict_client_and_record_lag() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        UUID autre = UUID.randomUUID();
+        cache.put(id, client(id));
+        cache.put(autre, client(autre));
+        // WHEN
+        listener.traiter(event(OperationType.UPDATE, id));
+        // THEN
+        assertNull(cache.getIfPresent(id));
+        assertNotNull(cache.getIfPresent(autre));
+        assertEquals(1.0, registry.get("connaissance.client.cache.change.stream.events").counter().count());
+        assertEquals(1, registry.get("connaissance.client.cache.change.stream.lag").timer().count());
+    }
+
+    @Test
+    public void given_event_on_binary_id_should_evict_client() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        cache.put(id, client(id));
+        ChangeStreamDocument<Document> event = event(OperationType.DELETE, id);
+        when(event.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonBinary(id, UuidRepresentation.STANDARD)));
+        // WHEN
+        listener.traiter(event);
+        // THEN
+        assertNull(cache.getIfPresent(id));
+    }
+
+    @Test
+    public void given_invalidate_event_should_flush_cache() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        cache.put(id, client(id));
+        @SuppressWarnings("unchecked")
+        ChangeStreamDocument<Document> event = mock(ChangeStreamDocument.class);
+        when(event.getOperationType()).thenReturn(OperationType.INVALIDATE);
+        // WHEN
+        listener.traiter(event);
+        // THEN
+        assertEquals(0, cache.estimatedSize());
+        assertEquals(1.0, registry.get("connaissance.client.cache.change.stream.flushes").counter().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void given_unexpected_error_listener_should_flush_cache_and_reconnect() {
+        // GIVEN
+        MongoOperations mongoOperations = mock(MongoOperations.class);
+        when(mongoOperations.getCollection(ClientChangeStreamListener.CHECKPOINTS_COLLECTION)).thenThrow(new MongoException("no checkpoint"));
+        when(mongoOperations.getCollection(ClientChangeStreamListener.COLLECTION)).thenThrow(new UnsupportedOperationException("Simulated error"));
+        listener = new ClientChangeStreamListener(mongoOperations, cache, "test", Duration.ofSeconds(10), registry);
+        UUID id = UUID.randomUUID();
+        cache.put(id, client(id));
+        // WHEN
+        listener.start();
+        try {
+            // THEN
+            verify(mongoOperations, timeout(3000).atLeast(2)).getCollection(ClientChangeStreamListener.COLLECTION);
+            assertTrue(listener.isRunning());
+            assertNull(cache.getIfPresent(id));
+            assertTrue(registry.get("connaissance.client.cache.change.stream.errors").counter().count() >= 1);
+        } finally {
+            listener.stop();
+        }
+    }
+
+    private static ChangeStreamDocument<Document> event(OperationType type, UUID id) {
+        ChangeStreamDocument<Document> event = mock(ChangeStreamDocument.class);
+        when(event.getOperationType()).thenReturn(type);
+        when(event.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString(id.toString())));
+        when(event.getWallTime()).thenReturn(new BsonDateTime(System.currentTimeMillis()));
+        when(event.getResumeToken()).thenReturn(new BsonDocument("_data", new BsonString("token")));
+        return event;
+    }
+
+    private static Client client(UUID id) {
+        return Client.of(
+            id,
+            new Nom("Bousquet"),
+            new Prenom("Philippe"),
+            new Adresse(
+                new LigneAdresse("48 rue bauducheu"),
+                new CodePostal("33800"),
+                new Ville("Bordeaux")
+            ),
+            SituationFamiliale.CELIBATAIRE,
+            0
+        );
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ClientCodecTest {
+
+    private final ClientCodec codec = new ClientCodec();
+
+    @Test
+    public void given_client_encode_should_write_ClientDb_document() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = Client.of(id, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.MARIE, 2, 4L);
+        BsonDocument document = new BsonDocument();
+        // WHEN
+        codec.encode(new BsonDocumentWriter(document), client, EncoderContext.builder().build());
+        // THEN
+        assertEquals(new BsonString(id.toString()), document.get("_id"));
+        assertEquals(new BsonString("33800"), document.get("codePostal"));
+        assertEquals(new BsonString("MARIE"), document.get("situationFamiliale"));
+        assertEquals(new BsonInt32(2), document.get("nombreEnfants"));
+        assertEquals(new BsonInt64(4L), document.get("version"));
+        assertFalse(document.containsKey("ligne2"));
+    }
+
+    @Test
+    public void given_encoded_client_decode_should_return_same_client() {
+        // GIVEN
+        Client client = Client.of(UUID.randomUUID(), new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new LigneAdresse("appartement 3"),
+                        new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.CELIBATAIRE, 0, 1L);
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), client, EncoderContext.builder().build());
+        // WHEN
+        Client result = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        // THEN
+        assertEquals(client, result);
+        assertEquals(1L, result.getVersion());
+    }
+
+    @Test
+    public void given_legacy_document_decode_should_ignore_unknown_fields_and_default_version() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        BsonDocument document = new BsonDocument("_id", new BsonString(id.toString()))
+                .append("nom", new BsonString("Bousquet"))
+                .append("prenom", new BsonString("Philippe"))
+                .append("ligne1", new BsonString("48 rue bauducheu"))
+                .append("ligne2", BsonNull.VALUE)
+                .append("codePostal", new BsonString("33800"))
+                .append("ville", new BsonString("Bordeaux"))
+                .append("situationFamiliale", new BsonString("CELIBATAIRE"))
+                .append("nombreEnfants", new BsonInt32(0))
+                .append("_class", new BsonString(ClientDb.class.getName()));
+        // WHEN
+        Client result = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        // THEN
+        assertEquals(id, result.getId());
+        assertTrue(result.getAdresse().ligne2().isEmpty());
+        assertEquals(0L, result.getVersion());
+    }
+
+    @Test
+    public void given_int32_version_decode_should_read_it() {
+        // GIVEN
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), Client.of(UUID.randomUUID(), new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.CELIBATAIRE, 0), EncoderContext.builder().build());
+        document.put("version", new BsonInt32(3));
+        // WHEN
+        Client result = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        // THEN
+        assertEquals(3L, result.getVersion());
+    }
+
+    @Test
+    public void given_document_lire_should_pass_stored_fields_without_building_client() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        BsonDocument document = new BsonDocument("_id", new BsonString(id.toString()))
+                .append("nom", new BsonString("Bousquet"))
+                .append("prenom", new BsonString("Philippe"))
+                .append("ligne1", new BsonString("48 rue bauducheu"))
+                .append("codePostal", new BsonString("33800"))
+                .append("ville", new BsonString("Bordeaux"))
+                .append("situationFamiliale", new BsonString("MARIE"))
+                .append("nombreEnfants", new BsonInt32(2))
+                .append("version", new BsonInt64(5L));
+        LecteurFiche lecteur = mock(LecteurFiche.class);
+        // WHEN
+        ClientCodec.lire(new BsonDocumentReader(document), lecteur);
+        // THEN
+        verify(lecteur).fiche(id.toString(), "Bousquet", "Philippe", "48 rue bauducheu", null, "33800", "Bordeaux", "MARIE", 2, 5L);
+    }
+
+    @Test
+    public void given_binary_format_encode_should_write_uuid_subtype_4_id() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        Client client = Client.of(id, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.MARIE, 2, 4L);
+        BsonDocument document = new BsonDocument();
+        // WHEN
+        new ClientCodec(FormatIdentifiant.BINAIRE).encode(new BsonDocumentWriter(document), client, EncoderContext.builder().build());
+        // THEN
+        assertEquals(new BsonBinary(id, UuidRepresentation.STANDARD), document.get("_id"));
+        assertEquals(new BsonString("Bousquet"), document.get("nom"));
+    }
+
+    @Test
+    public void given_binary_id_document_decode_and_lire_should_return_text_id() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        BsonDocument document = new BsonDocument("_id", new BsonBinary(id, UuidRepresentation.STANDARD))
+                .append("nom", new BsonString("Bousquet"))
+                .append("prenom", new BsonString("Philippe"))
+                .append("ligne1", new BsonString("48 rue bauducheu"))
+                .append("codePostal", new BsonString("33800"))
+                .append("ville", new BsonString("Bordeaux"))
+                .append("situationFamiliale", new BsonString("MARIE"))
+                .append("nombreEnfants", new BsonInt32(2))
+                .append("version", new BsonInt64(5L));
+        LecteurFiche lecteur = mock(LecteurFiche.class);
+        // WHEN
+        Client result = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        ClientCodec.lire(new BsonDocumentReader(document), lecteur);
+        // THEN
+        assertEquals(id, result.getId());
+        verify(lecteur).fiche(id.toString(), "Bousquet", "Philippe", "48 rue bauducheu", null, "33800", "Bordeaux", "MARIE", 2, 5L);
+    }
+
+}
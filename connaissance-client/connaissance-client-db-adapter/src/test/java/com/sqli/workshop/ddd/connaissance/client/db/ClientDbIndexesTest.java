@@ -0,0 +1,100 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ClientDbIndexesTest {
+
+    private MongoCollection<Document> collection;
+    private ListIndexesIterable<Document> index;
+    private ClientDbIndexes indexes;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        MongoOperations mongoOperations = mock(MongoOperations.class);
+        collection = mock(MongoCollection.class);
+        index = mock(ListIndexesIterable.class);
+        when(collection.listIndexes()).thenReturn(index);
+        when(mongoOperations.execute(eq(ClientDb.class), any(CollectionCallback.class)))
+            .thenAnswer(invocation -> invocation.getArgument(1, CollectionCallback.class).doInCollection(collection));
+        indexes = new ClientDbIndexes(mongoOperations);
+    }
+
+    @Test
+    public void given_created_indexes_afterPropertiesSet_should_create_and_verify_them() {
+        // GIVEN
+        existants(
+            new Document("name", "_id_").append("key", new Document("_id", 1)),
+            new Document("name", ClientDbIndexes.CODE_POSTAL).append("key", new Document("codePostal", 1).append("_id", 1)),
+            new Document("name", ClientDbIndexes.NOM).append("key", new Document("nom", 1).append("prenom", 1).append("_id", 1)),
+            new Document("name", ClientDbIndexes.PRENOM).append("key", new Document("prenom", 1.0).append("_id", 1.0)),
+            new Document("name", ClientDbIndexes.SITUATION_FAMILIALE).append("key", new Document("situationFamiliale", 1).append("_id", 1)));
+        // WHEN
+        indexes.afterPropertiesSet();
+        // THEN
+        verify(collection).createIndexes(ClientDbIndexes.INDEX);
+    }
+
+    @Test
+    public void given_missing_index_afterPropertiesSet_should_throw() {
+        // GIVEN
+        existants(
+            new Document("name", "_id_").append("key", new Document("_id", 1)),
+            new Document("name", ClientDbIndexes.CODE_POSTAL).append("key", new Document("codePostal", 1).append("_id", 1)));
+        // WHEN
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> indexes.afterPropertiesSet());
+        // THEN
+        assertTrue(e.getMessage().contains(ClientDbIndexes.NOM));
+    }
+
+    @Test
+    public void given_index_with_other_keys_afterPropertiesSet_should_throw() {
+        // GIVEN
+        existants(
+            new Document("name", ClientDbIndexes.CODE_POSTAL).append("key", new Document("codePostal", 1)),
+            new Document("name", ClientDbIndexes.NOM).append("key", new Document("nom", 1).append("prenom", 1).append("_id", 1)),
+            new Document("name", ClientDbIndexes.PRENOM).append("key", new Document("prenom", 1).append("_id", 1)),
+            new Document("name", ClientDbIndexes.SITUATION_FAMILIALE).append("key", new Document("situationFamiliale", 1).append("_id", 1)));
+        // WHEN
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> indexes.afterPropertiesSet());
+        // THEN
+        assertTrue(e.getMessage().contains(ClientDbIndexes.CODE_POSTAL));
+    }
+
+    @Test
+    public void given_conflicting_index_afterPropertiesSet_should_throw() {
+        // GIVEN
+        when(collection.createIndexes(anyList())).thenThrow(new DataIntegrityViolationException("Index with name: codePostal_id already exists with different options"));
+        // WHEN
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> indexes.afterPropertiesSet());
+        // THEN
+        assertTrue(e.getMessage().contains("codePostal_id"));
+        verify(collection, never()).listIndexes();
+    }
+
+    private void existants(Document... documents) {
+        when(index.into(any())).thenAnswer(invocation -> {
+            Collection<Document> existants = invocation.getArgument(0);
+            existants.addAll(List.of(documents));
+            return existants;
+        });
+    }
+
+}
@@ -1,9 +1,15 @@
 package com.sqli.workshop.ddd.connaissance.client.db;
 
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
@@ -12,15 +18,23 @@ import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -31,6 +45,7 @@ import static org.mockito.Mockito.*;
 public class ClientRepositoryImplTest {
 
     private ClientDbRepository repository;
+    private AdresseOutboxDbRepository outboxRepository;
     private ClientRepository service;
 
   private static Object answer(InvocationOnMock invocationOnMock) {
@@ -44,107 +59,113 @@ public class ClientRepositoryImplTest {
  */
     public void init() {
         repository = mock(ClientDbRepository.class);
+        outboxRepository = mock(AdresseOutboxDbRepository.class);
         service = new ClientRepositoryImpl(
             repository,
-            new ClientDbMapperImpl()
+            new ClientDbMapperImpl(),
+            outboxRepository,
+            TransactionOperations.withoutTransaction()
         );
     }
 
     @Test
-/**
- * given_repository_findById_return_data_should_return_data - TODO: description
- *
- */
-    public void given_repository_findById_return_data_should_return_data() {
+    public void given_repository_findClient_return_data_should_return_data() {
         // GIVEN
         UUID ccUuid = UUID.randomUUID();
-        ClientDb ccdb = new ClientDb();
-        ccdb.setId(ccUuid.toString());
-        ccdb.setNom("Bousquet");
-        ccdb.setPrenom("Philippe");
-        ccdb.setLigne1("48 rue bauducheu");
-        ccdb.setCodePostal("33800");
-        ccdb.setVille("Bordeaux");
-        ccdb.setSituationFamiliale("CELIBATAIRE");
-        ccdb.setNombreEnfants(0);
+        Client fiche = client(ccUuid);
         String id = ccUuid.toString();
-        when(repository.findById(id)).thenReturn(Optional.of(ccdb));
+        when(repository.findClient(id)).thenReturn(Optional.of(fiche));
         // WHEN
         Optional<Client> ccOpt = service.lire(ccUuid);
         // THEN
-        assertTrue(ccOpt.isPresent());
-        var cc = ccOpt.get();
-        assertEquals(ccdb.getId(), cc.getId().toString());
-        assertEquals(ccdb.getNom(), cc.getNom().value());
-        assertEquals(ccdb.getPrenom(), cc.getPrenom().value());
-        assertEquals(ccdb.getLigne1(), cc.getAdresse().ligne1().value());
-        assertTrue(cc.getAdresse().ligne2().isEmpty());
-        assertEquals(ccdb.getCodePostal(), cc.getAdresse().codePostal().value());
-        assertEquals(ccdb.getVille(), cc.getAdresse().ville().value());
-        assertEquals(ccdb.getSituationFamiliale(), cc.getSituationFamiliale().toString());
-        assertEquals(ccdb.getNombreEnfants(), cc.getNombreEnfants());
-        verify(repository).findById(id);
+        assertEquals(Optional.of(fiche), ccOpt);
+        verify(repository).findClient(id);
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
 /**
- * given_repository_findById_return_empty_should_return_empty - TODO: description
+ * given_repository_findClient_return_empty_should_return_empty - TODO: description
  *
  */
-    public void given_repository_findById_return_empty_should_return_empty() {
+    public void given_repository_findClient_return_empty_should_return_empty() {
         // GIVEN
         UUID ccUuid = UUID.randomUUID();
         String id = ccUuid.toString();
-        when(repository.findById(id)).thenReturn(Optional.empty());
+        when(repository.findClient(id)).thenReturn(Optional.empty());
         // WHEN
         Optional<Client> ccOpt = service.lire(ccUuid);
         // THEN
         assertTrue(ccOpt.isEmpty());
-        verify(repository).findById(id);
+        verify(repository).findClient(id);
     }
 
     @Test
-    public void given_repository_findAll_return_data_should_return_data() {
+    public void given_repository_findPage_return_data_should_return_data() {
         // GIVEN
         UUID ccUuid = UUID.randomUUID();
-        ClientDb ccdb = new ClientDb();
-        ccdb.setId(ccUuid.toString());
-        ccdb.setNom("Bousquet");
-        ccdb.setPrenom("Philippe");
-        ccdb.setLigne1("48 rue bauducheu");
-        ccdb.setCodePostal("33800");
-        ccdb.setVille("Bordeaux");
-        ccdb.setSituationFamiliale("CELIBATAIRE");
-        ccdb.setNombreEnfants(0);
-        List<ClientDb> ccdbList = new ArrayList<>();
-        ccdbList.add(ccdb);
-        when(repository.findAll()).thenReturn(ccdbList);
+        Client fiche = client(ccUuid);
+        List<Client> fiches = new ArrayList<>();
+        fiches.add(fiche);
+        when(repository.findPage(CriteresClient.aucun(), null, 11)).thenReturn(fiches);
+        // WHEN
+        PageClients page = service.lister(CriteresClient.aucun(), new Pagination(10, Optional.empty()));
+        // THEN
+        assertEquals(List.of(fiche), page.clients());
+        assertTrue(page.suivant().isEmpty());
+        verify(repository).findPage(CriteresClient.aucun(), null, 11);
+    }
+
+    @Test
+    public void given_repository_findPage_return_more_than_size_should_return_next_cursor() {
+        // GIVEN
+        UUID apres = UUID.randomUUID();
+        UUID premier = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        CriteresClient criteres = new CriteresClient(
+            Optional.of(new CodePostal("33800")),
+            Optional.of(new Nom("Bousquet")),
+            Optional.of(SituationFamiliale.CELIBATAIRE),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.of("Phil")
+        );
+        when(repository.findPage(criteres, apres.toString(), 2))
+            .thenReturn(List.of(client(premier), client(second)));
+        // WHEN
+        PageClients page = service.lister(criteres, new Pagination(1, Optional.of(apres)));
+        // THEN
+        assertEquals(1, page.clients().size());
+        assertEquals(premier, page.clients().getFirst().getId());
+        assertEquals(Optional.of(premier), page.suivant());
+    }
+
+    @Test
+    public void given_repository_findPage_return_empty_should_return_empty() {
+        // GIVEN
+        when(repository.findPage(CriteresClient.aucun(), null, Pagination.TAILLE_PAR_DEFAUT + 1)).thenReturn(new ArrayList<>());
         // WHEN
-        List<Client> ccList = service.lister();
+        var page = service.lister(CriteresClient.aucun(), Pagination.premiere());
         // THEN
-        assertEquals(1, ccList.size());
-        var cc = ccList.getFirst();
-        assertEquals(ccdb.getId(), cc.getId().toString());
-        assertEquals(ccdb.getNom(), cc.getNom().value());
-        assertEquals(ccdb.getPrenom(), cc.getPrenom().value());
-        assertEquals(ccdb.getLigne1(), cc.getAdresse().ligne1().value());
-        assertTrue(cc.getAdresse().ligne2().isEmpty());
-        assertEquals(ccdb.getCodePostal(), cc.getAdresse().codePostal().value());
-        assertEquals(ccdb.getVille(), cc.getAdresse().ville().value());
-        assertEquals(ccdb.getSituationFamiliale(), cc.getSituationFamiliale().toString());
-        assertEquals(ccdb.getNombreEnfants(), cc.getNombreEnfants());
-        verify(repository).findAll();
+        assertTrue(page.clients().isEmpty());
+        assertTrue(page.suivant().isEmpty());
+        verify(repository).findPage(CriteresClient.aucun(), null, Pagination.TAILLE_PAR_DEFAUT + 1);
     }
 
     @Test
-    public void given_repository_findAll_return_empty_should_return_empty() {
+    public void given_repository_readPage_return_next_id_lister_lecteur_should_return_next_cursor() {
         // GIVEN
-        when(repository.findAll()).thenReturn(new ArrayList<>());
+        UUID apres = UUID.randomUUID();
+        UUID dernier = UUID.randomUUID();
+        LecteurFiche lecteur = mock(LecteurFiche.class);
+        CriteresClient criteres = new CriteresClient(Optional.empty(), Optional.empty(), Optional.empty(),
+            Optional.of(new Departement("33")), Optional.empty(), Optional.empty());
+        when(repository.readPage(criteres, apres.toString(), 10, lecteur)).thenReturn(Optional.of(dernier.toString()));
         // WHEN
-        var ccList = service.lister();
+        Optional<UUID> suivant = service.lister(criteres, new Pagination(10, Optional.of(apres)), lecteur);
         // THEN
-        assertTrue(ccList.isEmpty());
-        verify(repository).findAll();
+        assertEquals(Optional.of(dernier), suivant);
+        verify(repository).readPage(criteres, apres.toString(), 10, lecteur);
     }
 
     @Test
@@ -161,12 +182,225 @@ public class ClientRepositoryImplTest {
                 SituationFamiliale.CELIBATAIRE,
                 0
         );
-        when(repository.save(any())).thenAnswer(ClientRepositoryImplTest::answer);
+        when(repository.saveClient(any())).thenAnswer(ClientRepositoryImplTest::answer);
         // WHEN
         var cc2 = service.enregistrer(cc);
         // THEN
         assertEquals(cc.getId(),cc2.getId());
-        verify(repository).save(any());
+        verify(repository).saveClient(cc);
+    }
+
+    @Test
+    public void given_adresse_change_enregistrer_should_write_outbox_event() {
+        // GIVEN
+        Client cc = Client.of(
+                new Nom("Bousquet"),
+                new Prenom("Philippe"),
+                new Adresse(
+                    new LigneAdresse("48 rue bauducheu"),
+                    new LigneAdresse("appartement 3"),
+                    new CodePostal("33800"),
+                    new Ville("Bordeaux")
+                ),
+                SituationFamiliale.CELIBATAIRE,
+                0
+        );
+        when(repository.saveClient(any())).thenAnswer(ClientRepositoryImplTest::answer);
+        ArgumentCaptor<AdresseOutboxDb> evenement = ArgumentCaptor.forClass(AdresseOutboxDb.class);
+        // WHEN
+        var cc2 = service.enregistrerAvecChangementAdresse(cc);
+        // THEN
+        assertEquals(cc.getId(), cc2.getId());
+        verify(repository).saveClient(cc);
+        verify(outboxRepository).insert(evenement.capture());
+        assertEquals(cc.getId().toString(), evenement.getValue().getClientId());
+        assertEquals("Bousquet", evenement.getValue().getNom());
+        assertEquals("appartement 3", evenement.getValue().getLigne2());
+        assertEquals("33800", evenement.getValue().getCodePostal());
+        assertNotNull(evenement.getValue().getCreeLe());
+    }
+
+    @Test
+    public void given_save_error_enregistrerAvecChangementAdresse_should_not_write_outbox_event() {
+        // GIVEN
+        Client cc = Client.of(
+                new Nom("Bousquet"),
+                new Prenom("Philippe"),
+                new Adresse(
+                    new LigneAdresse("48 rue bauducheu"),
+                    new CodePostal("33800"),
+                    new Ville("Bordeaux")
+                ),
+                SituationFamiliale.CELIBATAIRE,
+                0
+        );
+        when(repository.saveClient(any())).thenThrow(new RuntimeException("Simulated database error"));
+        // WHEN
+        assertThrows(RuntimeException.class, () -> service.enregistrerAvecChangementAdresse(cc));
+        // THEN
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    public void given_update_error_modifier_should_propagate_without_outbox_event() {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        Client cc = Client.of(ccUuid, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("1 place de la Bourse"), new CodePostal("33000"), new Ville("Bordeaux")),
+                SituationFamiliale.MARIE, 2);
+        when(repository.findAndSet(eq(ccUuid.toString()), any(), anyMap(), anyMap()))
+                .thenThrow(new RuntimeException("Simulated database error"));
+        // WHEN
+        assertThrows(RuntimeException.class, () -> service.modifier(cc, Optional.empty()));
+        // THEN
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    public void given_same_adresse_modifier_should_update_once_without_outbox_event() throws Exception {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        Client cc = Client.of(ccUuid, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.MARIE, 2);
+        when(repository.findAndSet(eq(ccUuid.toString()), any(), anyMap(), anyMap())).thenReturn(Optional.of(client(ccUuid)));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> attendus = ArgumentCaptor.forClass(Map.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> champs = ArgumentCaptor.forClass(Map.class);
+        // WHEN
+        Optional<Client> avant = service.modifier(cc, Optional.empty());
+        // THEN
+        assertEquals(SituationFamiliale.CELIBATAIRE, avant.get().getSituationFamiliale());
+        verify(repository).findAndSet(eq(ccUuid.toString()), isNull(), attendus.capture(), champs.capture());
+        assertEquals("33800", attendus.getValue().get("codePostal"));
+        assertTrue(attendus.getValue().containsKey("ligne2"));
+        assertNull(attendus.getValue().get("ligne2"));
+        assertEquals("MARIE", champs.getValue().get("situationFamiliale"));
+        assertFalse(champs.getValue().containsKey("codePostal"));
+        verifyNoInteractions(outboxRepository);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    public void given_adresse_change_modifier_should_update_and_write_outbox_event() throws Exception {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        Client cc = Client.of(ccUuid, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("1 place de la Bourse"), new CodePostal("33000"), new Ville("Bordeaux")),
+                SituationFamiliale.CELIBATAIRE, 0);
+        when(repository.findAndSet(eq(ccUuid.toString()), any(), anyMap(), anyMap())).thenReturn(Optional.empty());
+        when(repository.findAndSet(ccUuid.toString(), null, Map.of(), champs(cc))).thenReturn(Optional.of(client(ccUuid)));
+        ArgumentCaptor<AdresseOutboxDb> evenement = ArgumentCaptor.forClass(AdresseOutboxDb.class);
+        // WHEN
+        Optional<Client> avant = service.modifier(cc, Optional.empty());
+        // THEN
+        assertEquals("33800", avant.get().getAdresse().codePostal().value());
+        verify(outboxRepository).insert(evenement.capture());
+        assertEquals("33000", evenement.getValue().getCodePostal());
+        verify(repository, times(2)).findAndSet(eq(ccUuid.toString()), any(), anyMap(), anyMap());
+    }
+
+    @Test
+    public void given_unknown_client_modifier_should_return_empty_without_outbox_event() throws Exception {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        Client cc = Client.of(ccUuid, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.CELIBATAIRE, 0);
+        when(repository.findAndSet(eq(ccUuid.toString()), any(), anyMap(), anyMap())).thenReturn(Optional.empty());
+        // WHEN
+        Optional<Client> avant = service.modifier(cc, Optional.empty());
+        // THEN
+        assertTrue(avant.isEmpty());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    public void given_changerAdresse_should_set_adresse_only_and_write_outbox_event() throws Exception {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        Adresse adresse = new Adresse(new LigneAdresse("1 place de la Bourse"), new LigneAdresse("appartement 3"),
+                new CodePostal("33000"), new Ville("Bordeaux"));
+        when(repository.findAndSet(eq(ccUuid.toString()), isNull(), eq(Map.of()), anyMap())).thenReturn(Optional.of(client(ccUuid)));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> champs = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<AdresseOutboxDb> evenement = ArgumentCaptor.forClass(AdresseOutboxDb.class);
+        // WHEN
+        Optional<Client> avant = service.changerAdresse(ccUuid, adresse, Optional.empty());
+        // THEN
+        assertEquals("33800", avant.get().getAdresse().codePostal().value());
+        verify(repository).findAndSet(eq(ccUuid.toString()), isNull(), eq(Map.of()), champs.capture());
+        assertEquals(List.of("ligne1", "ligne2", "codePostal", "ville"), List.copyOf(champs.getValue().keySet()));
+        verify(outboxRepository).insert(evenement.capture());
+        assertEquals("Bousquet", evenement.getValue().getNom());
+        assertEquals("appartement 3", evenement.getValue().getLigne2());
+        assertEquals("33000", evenement.getValue().getCodePostal());
+    }
+
+    @Test
+    public void given_changerSituation_should_set_situation_only() throws Exception {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        when(repository.findAndSet(eq(ccUuid.toString()), isNull(), eq(Map.of()), anyMap())).thenReturn(Optional.of(client(ccUuid)));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> champs = ArgumentCaptor.forClass(Map.class);
+        // WHEN
+        Optional<Client> avant = service.changerSituation(ccUuid, SituationFamiliale.MARIE, 1, Optional.empty());
+        // THEN
+        assertEquals(SituationFamiliale.CELIBATAIRE, avant.get().getSituationFamiliale());
+        verify(repository).findAndSet(eq(ccUuid.toString()), isNull(), eq(Map.of()), champs.capture());
+        assertEquals(Map.of("situationFamiliale", "MARIE", "nombreEnfants", 1), champs.getValue());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    public void given_stale_version_changerSituation_should_throw_ConflitVersionException() {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        when(repository.findAndSet(eq(ccUuid.toString()), eq(3L), eq(Map.of()), anyMap())).thenReturn(Optional.empty());
+        when(repository.existeParId(ccUuid.toString())).thenReturn(true);
+        // WHEN / THEN
+        assertThrows(ConflitVersionException.class,
+                () -> service.changerSituation(ccUuid, SituationFamiliale.MARIE, 1, Optional.of(3L)));
+    }
+
+    @Test
+    public void given_stale_version_modifier_should_throw_ConflitVersionException_without_outbox_event() {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        Client cc = Client.of(ccUuid, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.MARIE, 2);
+        when(repository.findAndSet(eq(ccUuid.toString()), eq(3L), anyMap(), anyMap())).thenReturn(Optional.empty());
+        when(repository.existeParId(ccUuid.toString())).thenReturn(true);
+        // WHEN / THEN
+        assertThrows(ConflitVersionException.class, () -> service.modifier(cc, Optional.of(3L)));
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    public void given_expected_version_unknown_client_changerSituation_should_return_empty() throws Exception {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        when(repository.findAndSet(eq(ccUuid.toString()), eq(3L), eq(Map.of()), anyMap())).thenReturn(Optional.empty());
+        when(repository.existeParId(ccUuid.toString())).thenReturn(false);
+        // WHEN
+        Optional<Client> avant = service.changerSituation(ccUuid, SituationFamiliale.MARIE, 1, Optional.of(3L));
+        // THEN
+        assertTrue(avant.isEmpty());
+    }
+
+    @Test
+    public void given_repository_findVersion_version_should_not_read_document() {
+        // GIVEN
+        UUID ccUuid = UUID.randomUUID();
+        when(repository.findVersion(ccUuid.toString())).thenReturn(Optional.of(2L));
+        // WHEN
+        Optional<Long> version = service.version(ccUuid);
+        // THEN
+        assertEquals(Optional.of(2L), version);
+        verify(repository, never()).findClient(any());
     }
 
     @Test
@@ -174,7 +408,50 @@ public class ClientRepositoryImplTest {
         // WHEN
         service.supprimer(UUID.randomUUID());
         // THEN
-        verify(repository).deleteById(any());
+        verify(repository).supprimerParId(any());
+    }
+
+    @Test
+    public void given_repository_streamAll_return_data_should_return_stream() {
+        // GIVEN
+        UUID premier = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        CriteresClient criteres = new CriteresClient(
+            Optional.of(new CodePostal("33800")),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty()
+        );
+        when(repository.streamAll(criteres)).thenReturn(Stream.of(client(premier), client(second)));
+        // WHEN
+        List<UUID> ids;
+        try (Stream<Client> clients = service.parcourir(criteres)) {
+            ids = clients.map(Client::getId).toList();
+        }
+        // THEN
+        assertEquals(List.of(premier, second), ids);
+        verify(repository).streamAll(criteres);
+    }
+
+    private static Map<String, Object> champs(Client client) {
+        Map<String, Object> champs = new LinkedHashMap<>();
+        champs.put("nom", client.getNom().value());
+        champs.put("prenom", client.getPrenom().value());
+        champs.put("situationFamiliale", client.getSituationFamiliale().name());
+        champs.put("nombreEnfants", client.getNombreEnfants());
+        champs.put("ligne1", client.getAdresse().ligne1().value());
+        champs.put("ligne2", null);
+        champs.put("codePostal", client.getAdresse().codePostal().value());
+        champs.put("ville", client.getAdresse().ville().value());
+        return champs;
+    }
+
+    private static Client client(UUID id) {
+        return Client.of(id, new Nom("Bousquet"), new Prenom("Philippe"),
+                new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                SituationFamiliale.CELIBATAIRE, 0, 0L);
     }
 
 }
\ No newline at end of file
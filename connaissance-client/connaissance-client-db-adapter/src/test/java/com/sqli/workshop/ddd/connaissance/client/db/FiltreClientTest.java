@@ -0,0 +1,58 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.mongodb.client.model.Filters;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltreClientTest {
+
+    @Test
+    public void given_no_criteria_de_should_return_empty_filter() {
+        // WHEN
+        Bson filtre = FiltreClient.de(CriteresClient.aucun());
+        // THEN
+        assertEquals(new BsonDocument(), filtre.toBsonDocument());
+    }
+
+    @Test
+    public void given_all_criteria_de_should_combine_equalities_and_prefixes() {
+        // GIVEN
+        CriteresClient criteres = new CriteresClient(
+                Optional.of(new CodePostal("33800")),
+                Optional.of(new Nom("Bousquet")),
+                Optional.of(SituationFamiliale.MARIE),
+                Optional.of(new Departement("33")),
+                Optional.of("Bous"),
+                Optional.of("Phil"));
+        // WHEN
+        Bson filtre = FiltreClient.de(criteres);
+        // THEN
+        assertEquals(Filters.and(
+                Filters.eq("codePostal", "33800"),
+                Filters.regex("codePostal", "^33"),
+                Filters.eq("nom", "Bousquet"),
+                Filters.regex("nom", "^Bous"),
+                Filters.regex("prenom", "^Phil"),
+                Filters.eq("situationFamiliale", "MARIE")).toBsonDocument(), filtre.toBsonDocument());
+    }
+
+    @Test
+    public void given_prefix_with_special_characters_prefixe_should_escape_them() {
+        // WHEN
+        Bson filtre = FiltreClient.prefixe("nom", "O'Ne.i-l (");
+        // THEN
+        assertEquals(Filters.regex("nom", "^O\\'Ne\\.i\\-l\\ \\(").toBsonDocument(), filtre.toBsonDocument());
+    }
+
+}
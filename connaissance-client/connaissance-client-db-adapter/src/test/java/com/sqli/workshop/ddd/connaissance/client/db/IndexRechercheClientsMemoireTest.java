@@ -0,0 +1,132 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class IndexRechercheClientsMemoireTest {
+
+    private static final UUID BOUSQUET = UUID.fromString("0190a8e2-5c3b-7d4e-8f60-000000000001");
+    private static final UUID MARTIN = UUID.fromString("0190a8e2-5c3b-7d4e-8f60-000000000002");
+
+    private ClientDbRepository repository;
+    private SimpleMeterRegistry registry;
+    private IndexRechercheClientsMemoire index;
+
+    @BeforeEach
+    public void init() {
+        repository = mock(ClientDbRepository.class);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void fermer() {
+        if (index != null) index.destroy();
+    }
+
+    @Test
+    public void given_collection_constructor_should_load_index() {
+        // GIVEN
+        collection();
+        // WHEN
+        index = new IndexRechercheClientsMemoire(repository, 0.5, Duration.ofHours(1), registry);
+        // THEN
+        assertEquals(List.of(BOUSQUET), index.rechercher("bousqet bordeaux", 10));
+        assertEquals(List.of(MARTIN), index.rechercher("merignac", 10));
+        assertEquals(2.0, registry.get("connaissance.client.recherche.index.documents").gauge().value());
+        assertTrue(registry.get("connaissance.client.recherche.index.memory").gauge().value() > 0);
+        assertEquals(2, registry.get("connaissance.client.recherche.duration").timer().count());
+        verify(repository).readAll(eq(CriteresClient.aucun()), any());
+    }
+
+    @Test
+    public void given_writes_indexer_and_retirer_should_update_index() {
+        // GIVEN
+        collection();
+        index = new IndexRechercheClientsMemoire(repository, 0.5, Duration.ofHours(1), registry);
+        Client nouveau = client("Lefèvre", "Amélie", "Pessac");
+        // WHEN
+        index.indexer(nouveau);
+        index.retirer(MARTIN);
+        // THEN
+        assertEquals(List.of(nouveau.getId()), index.rechercher("lefevre", 10));
+        assertTrue(index.rechercher("martin", 10).isEmpty());
+    }
+
+    @Test
+    public void given_writes_during_rebuild_reconstruire_should_replay_them() {
+        // GIVEN
+        collection();
+        index = new IndexRechercheClientsMemoire(repository, 0.5, Duration.ofHours(1), registry);
+        Client nouveau = client("Lefèvre", "Amélie", "Pessac");
+        doAnswer(invocation -> {
+            LecteurFiche lecteur = invocation.getArgument(1);
+            lecteur.fiche(BOUSQUET.toString(), "Bousquet", "Philippe", "48 rue Bauducheu", null, "33800", "Bordeaux", "CELIBATAIRE", 0, 1L);
+            index.indexer(nouveau);
+            index.retirer(BOUSQUET);
+            lecteur.fiche(MARTIN.toString(), "Martin", "Jean", "1 place de la Bourse", null, "33700", "Mérignac", "MARIE", 2, 1L);
+            return 2L;
+        }).when(repository).readAll(any(), any());
+        // WHEN
+        index.reconstruire();
+        // THEN
+        assertEquals(List.of(nouveau.getId()), index.rechercher("lefevre amelie", 10));
+        assertTrue(index.rechercher("bousquet", 10).isEmpty());
+        assertEquals(List.of(MARTIN), index.rechercher("martin", 10));
+    }
+
+    @Test
+    public void given_load_failure_rechercher_should_return_empty_until_rebuild() {
+        // GIVEN
+        doThrow(new DataAccessResourceFailureException("MongoDB indisponible")).when(repository).readAll(any(), any());
+        index = new IndexRechercheClientsMemoire(repository, 0.5, Duration.ofHours(1), registry);
+        assertTrue(index.rechercher("bousquet", 10).isEmpty());
+        reset(repository);
+        collection();
+        // WHEN
+        index.reconstruire();
+        // THEN
+        assertEquals(List.of(BOUSQUET), index.rechercher("bousquet", 10));
+    }
+
+    private void collection() {
+        doAnswer(invocation -> {
+            LecteurFiche lecteur = invocation.getArgument(1);
+            lecteur.fiche(BOUSQUET.toString(), "Bousquet", "Philippe", "48 rue Bauducheu", null, "33800", "Bordeaux", "CELIBATAIRE", 0, 1L);
+            lecteur.fiche(MARTIN.toString(), "Martin", "Jean", "1 place de la Bourse", null, "33700", "Mérignac", "MARIE", 2, 1L);
+            return 2L;
+        }).when(repository).readAll(any(), any());
+    }
+
+    private static Client client(String nom, String prenom, String ville) {
+        return Client.of(
+                new Nom(nom),
+                new Prenom(prenom),
+                new Adresse(new LigneAdresse("48 rue Bauducheu"), new CodePostal("33600"), new Ville(ville)),
+                SituationFamiliale.CELIBATAIRE,
+                0);
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexTrigrammesTest {
+
+    private static final double SEUIL = 0.5;
+
+    private IndexTrigrammes index;
+    private UUID bousquet;
+    private UUID boussard;
+    private UUID martin;
+
+    @BeforeEach
+    public void init() {
+        index = new IndexTrigrammes();
+        bousquet = UUID.randomUUID();
+        boussard = UUID.randomUUID();
+        martin = UUID.randomUUID();
+        index.ajouter(bousquet, "Bousquet Philippe Bordeaux");
+        index.ajouter(boussard, "Boussard Hélène Saint-Émilion");
+        index.ajouter(martin, "Martin Jean Mérignac");
+    }
+
+    @Test
+    public void given_accents_and_punctuation_normaliser_should_keep_lowercase_letters_and_digits() {
+        // WHEN
+        String normalise = IndexTrigrammes.normaliser("  Œuvré-SAINT  Émilion, 33330 ");
+        // THEN
+        assertEquals("oeuvre saint  emilion  33330", normalise);
+    }
+
+    @Test
+    public void given_typing_trigrammes_should_not_pad_last_word() {
+        // WHEN
+        int[] complet = IndexTrigrammes.trigrammes("bo", false);
+        int[] saisie = IndexTrigrammes.trigrammes("bo", true);
+        // THEN
+        assertEquals(3, complet.length);
+        assertEquals(2, saisie.length);
+    }
+
+    @Test
+    public void given_exact_name_rechercher_should_rank_it_first() {
+        // WHEN
+        List<UUID> result = index.rechercher("bousquet", SEUIL, 10);
+        // THEN
+        assertEquals(bousquet, result.get(0));
+        assertFalse(result.contains(martin));
+    }
+
+    @Test
+    public void given_typo_and_missing_accent_rechercher_should_find_client() {
+        // WHEN
+        List<UUID> typo = index.rechercher("bousqet", SEUIL, 10);
+        List<UUID> accent = index.rechercher("helene saint emilion", SEUIL, 10);
+        List<UUID> ville = index.rechercher("MERIGNAC", SEUIL, 10);
+        // THEN
+        assertEquals(bousquet, typo.get(0));
+        assertEquals(List.of(boussard), accent);
+        assertEquals(List.of(martin), ville);
+    }
+
+    @Test
+    public void given_incomplete_last_word_rechercher_should_match_prefix() {
+        // WHEN
+        List<UUID> result = index.rechercher("phil", SEUIL, 10);
+        // THEN
+        assertEquals(List.of(bousquet), result);
+    }
+
+    @Test
+    public void given_limit_rechercher_should_return_best_results_only() {
+        // WHEN
+        List<UUID> result = index.rechercher("bous", SEUIL, 1);
+        // THEN
+        assertEquals(1, result.size());
+        assertTrue(List.of(bousquet, boussard).contains(result.get(0)));
+    }
+
+    @Test
+    public void given_blank_text_rechercher_should_return_empty_list() {
+        // WHEN & THEN
+        assertTrue(index.rechercher(" - ", SEUIL, 10).isEmpty());
+        assertTrue(index.rechercher("bousquet", SEUIL, 0).isEmpty());
+    }
+
+    @Test
+    public void given_updated_client_ajouter_should_replace_indexed_text() {
+        // WHEN
+        index.ajouter(martin, "Martin Jean Pessac");
+        // THEN
+        assertEquals(List.of(martin), index.rechercher("pessac", SEUIL, 10));
+        assertTrue(index.rechercher("merignac", SEUIL, 10).isEmpty());
+        assertEquals(3, index.taille());
+    }
+
+    @Test
+    public void given_removed_client_rechercher_should_not_return_it() {
+        // WHEN
+        index.retirer(bousquet);
+        index.retirer(UUID.randomUUID());
+        // THEN
+        assertTrue(index.rechercher("bousquet philippe", SEUIL, 10).isEmpty());
+        assertEquals(2, index.taille());
+    }
+
+    @Test
+    public void given_compacted_index_ajouter_should_grow_trimmed_lists() {
+        // GIVEN
+        index.compacter();
+        UUID bousquetPessac = UUID.randomUUID();
+        UUID boussardPessac = UUID.randomUUID();
+        // WHEN
+        index.ajouter(bousquetPessac, "Bousquet Amélie Pessac");
+        index.ajouter(boussardPessac, "Boussard Hélène Pessac");
+        // THEN
+        assertEquals(5, index.taille());
+        assertEquals(bousquetPessac, index.rechercher("bousquet amelie pessac", SEUIL, 10).get(0));
+        assertEquals(2, index.rechercher("pessac", SEUIL, 10).size());
+    }
+
+    @Test
+    public void given_many_clients_rechercher_should_find_each_one() {
+        // GIVEN
+        IndexTrigrammes grand = new IndexTrigrammes();
+        UUID[] ids = new UUID[5000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            grand.ajouter(ids[i], "Client" + i + " Prenom Ville" + (i % 50));
+        }
+        grand.retirer(ids[10]);
+        grand.compacter();
+        // WHEN & THEN
+        assertEquals(ids.length - 1, grand.taille());
+        assertEquals(ids[4321], grand.rechercher("client4321 ville21", SEUIL, 5).get(0));
+        assertFalse(grand.rechercher("client10 ville10", SEUIL, 5).contains(ids[10]));
+        assertTrue(grand.memoire() > 0);
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.sqli.workshop.ddd.connaissance.client.db;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MigrationIdentifiantsJobTest {
+
+    private MongoCollection<BsonDocument> collection;
+    private FindIterable<BsonDocument> documents;
+    private SimpleMeterRegistry registry;
+    private MigrationIdentifiantsJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        MongoOperations mongoOperations = mock(MongoOperations.class);
+        MongoCollection<Document> typee = mock(MongoCollection.class);
+        collection = mock(MongoCollection.class);
+        documents = mock(FindIterable.class);
+        when(typee.withDocumentClass(BsonDocument.class)).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(documents);
+        when(documents.sort(any())).thenReturn(documents);
+        when(documents.limit(anyInt())).thenReturn(documents);
+        when(mongoOperations.execute(eq(ClientDb.class), any(CollectionCallback.class)))
+            .thenAnswer(invocation -> invocation.getArgument(1, CollectionCallback.class).doInCollection(typee));
+        registry = new SimpleMeterRegistry();
+        job = new MigrationIdentifiantsJob(mongoOperations, 10, registry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void given_text_ids_migrer_should_copy_documents_with_binary_ids_and_delete_originals() {
+        // GIVEN
+        UUID id = UUID.randomUUID();
+        BsonDocument document = new BsonDocument("_id", new BsonString(id.toString()))
+            .append("nom", new BsonString("Bousquet"))
+            .append("version", new BsonInt64(2L));
+        BsonDocument illisible = new BsonDocument("_id", new BsonString("pas-un-uuid"))
+            .append("nom", new BsonString("Bousquet"));
+        when(documents.into(any())).thenAnswer(invocation -> {
+            Collection<BsonDocument> lot = invocation.getArgument(0);
+            lot.addAll(List.of(document, illisible));
+            return lot;
+        });
+        // WHEN
+        long migres = job.migrer();
+        // THEN
+        assertEquals(1, migres);
+        ArgumentCaptor<List<BsonDocument>> copies = ArgumentCaptor.forClass(List.class);
+        verify(collection).insertMany(copies.capture(), any(InsertManyOptions.class));
+        BsonDocument copie = copies.getValue().getFirst();
+        assertEquals(new BsonBinary(id, UuidRepresentation.STANDARD), copie.get("_id"));
+        assertEquals("_id", copie.getFirstKey());
+        assertEquals(new BsonString("Bousquet"), copie.get("nom"));
+        assertEquals(new BsonInt64(2L), copie.get("version"));
+        verify(collection).deleteMany(any(Bson.class));
+        assertEquals(1.0, registry.get("connaissance.client.migration.identifiants").counter().count());
+        assertEquals(1.0, registry.get("connaissance.client.migration.identifiants.skipped").counter().count());
+    }
+
+    @Test
+    public void given_no_text_id_migrer_should_write_nothing() {
+        // GIVEN
+        when(documents.into(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        // WHEN
+        long migres = job.migrer();
+        // THEN
+        assertEquals(0, migres);
+        verify(collection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+        verify(collection, never()).deleteMany(any(Bson.class));
+    }
+
+}
@@ -3,14 +3,20 @@ package com.sqli.workshop.ddd.connaissance.client.domain;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.springframework.lang.NonNull;
 
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.AdresseInvalideException;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ClientInconnuException;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 
 /**
  * Uses Cases métier de la fiche Connaissance Client
@@ -21,7 +27,61 @@ public interface ConnaissanceClientService {
         return null;
     }
 
-    default List<Client> listerClients() {
+    /**
+     * Liste paginée (par curseur) et filtrée des fiches client.
+     *
+     * @param criteres les filtres optionnels (code postal, nom, situation familiale)
+     * @param pagination la taille de page et le curseur de départ
+     * @return la page de fiches client et le curseur de la page suivante
+     */
+    default PageClients listerClients(@NonNull CriteresClient criteres, @NonNull Pagination pagination) {
+        return PageClients.vide();
+    }
+
+    /**
+     * Export de toutes les fiches client correspondant aux critères.
+     * Le flux est adossé à un curseur de base de données : il doit être fermé par l'appelant.
+     *
+     * @param criteres les filtres optionnels (code postal, nom, situation familiale)
+     * @return le flux des fiches client
+     */
+    default Stream<Client> exporterClients(@NonNull CriteresClient criteres) {
+        return Stream.empty();
+    }
+
+    /**
+     * Liste paginée des fiches client, lue champ par champ sans construire de {@link Client}.
+     *
+     * @param criteres les filtres optionnels (code postal, nom, situation familiale)
+     * @param pagination la taille de page et le curseur de départ
+     * @param lecteur reçoit les fiches de la page
+     * @return le curseur de la page suivante ; vide sur la dernière page
+     */
+    default Optional<UUID> listerClients(@NonNull CriteresClient criteres, @NonNull Pagination pagination, @NonNull LecteurFiche lecteur) {
+        return Optional.empty();
+    }
+
+    /**
+     * Export de toutes les fiches client correspondant aux critères, lues champ par champ sans
+     * construire de {@link Client}.
+     *
+     * @param criteres les filtres optionnels (code postal, nom, situation familiale)
+     * @param lecteur reçoit les fiches
+     * @return le nombre de fiches exportées
+     */
+    default long exporterClients(@NonNull CriteresClient criteres, @NonNull LecteurFiche lecteur) {
+        return 0L;
+    }
+
+    /**
+     * Recherche approchée des fiches client par saisie progressive sur le nom, le prénom et la
+     * ville (fautes de frappe et accents tolérés).
+     *
+     * @param texte le texte saisi
+     * @param limite nombre maximum d'identifiants retournés
+     * @return les identifiants des fiches, de la plus proche à la moins proche
+     */
+    default List<UUID> rechercherClients(@NonNull String texte, int limite) {
         return List.of();
     }
 
@@ -29,11 +89,36 @@ public interface ConnaissanceClientService {
         return Optional.empty();
     }
 
-    default Client changementAdresse(@NonNull UUID id, @NonNull Adresse adresse) throws AdresseInvalideException, ClientInconnuException {
+    /**
+     * Version courante de la fiche client, pour les lectures conditionnelles : la fiche n'est
+     * pas lue.
+     *
+     * @param id l'identifiant du client
+     * @return la version de la fiche ; vide si le client n'existe pas
+     */
+    default Optional<Long> versionClient(@NonNull UUID id) {
+        return Optional.empty();
+    }
+
+    /**
+     * Changement d'adresse d'un client existant.
+     *
+     * @param versionAttendue la version de la fiche sur laquelle porte la modification ; vide
+     *                        pour modifier la fiche quelle que soit sa version
+     * @throws ConflitVersionException si la fiche n'est plus à la version attendue
+     */
+    default Client changementAdresse(@NonNull UUID id, @NonNull Adresse adresse, @NonNull Optional<Long> versionAttendue) throws AdresseInvalideException, ClientInconnuException, ConflitVersionException {
         return null;
     }
 
-    default Client changementSituation(@NonNull UUID id, @NonNull SituationFamiliale situationFamiliale, @NonNull Integer nombreEnfants) throws ClientInconnuException {
+    /**
+     * Changement de situation familiale d'un client existant.
+     *
+     * @param versionAttendue la version de la fiche sur laquelle porte la modification ; vide
+     *                        pour modifier la fiche quelle que soit sa version
+     * @throws ConflitVersionException si la fiche n'est plus à la version attendue
+     */
+    default Client changementSituation(@NonNull UUID id, @NonNull SituationFamiliale situationFamiliale, @NonNull Integer nombreEnfants, @NonNull Optional<Long> versionAttendue) throws ClientInconnuException, ConflitVersionException {
         return null;
     }
 
@@ -47,11 +132,14 @@ public interface ConnaissanceClientService {
      * 
      * @param id l'identifiant unique du client à modifier
      * @param clientModifie les nouvelles données complètes du client
+     * @param versionAttendue la version de la fiche sur laquelle porte la modification ; vide
+     *                        pour modifier la fiche quelle que soit sa version
      * @return le client modifié
      * @throws ClientInconnuException si le client n'existe pas
      * @throws AdresseInvalideException si l'adresse est invalide (vérification API IGN)
+     * @throws ConflitVersionException si la fiche n'est plus à la version attendue
      */
-    default Client modifierClient(@NonNull UUID id, @NonNull Client clientModifie) throws ClientInconnuException, AdresseInvalideException {
+    default Client modifierClient(@NonNull UUID id, @NonNull Client clientModifie, @NonNull Optional<Long> versionAttendue) throws ClientInconnuException, AdresseInvalideException, ConflitVersionException {
         return null;
     }
 }
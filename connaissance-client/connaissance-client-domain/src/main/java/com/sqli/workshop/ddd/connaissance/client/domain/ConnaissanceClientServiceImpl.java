@@ -3,6 +3,7 @@ package com.sqli.workshop.ddd.connaissance.client.domain;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
@@ -10,12 +11,16 @@ import org.springframework.lang.NonNull;
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.AdresseInvalideException;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ClientInconnuException;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
-import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
-import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.IndexRechercheClients;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,19 +31,94 @@ public class ConnaissanceClientServiceImpl implements ConnaissanceClientService
 
     private final ClientRepository repository;
     private final CodePostauxService codePostauxService;
-    private final AdresseEventService adresseEventService;
+    private final IndexRechercheClients indexRecherche;
 
-    private void sendAdresseEvent(Client client) {
-        adresseEventService.sendEvent(
-            client.getId(), 
-            new Destinataire(client.getNom(), client.getPrenom()), 
-            client.getAdresse()
-        );
+    /**
+     * Service sans index de recherche : {@link #rechercherClients} ne retourne rien.
+     */
+    public ConnaissanceClientServiceImpl(ClientRepository repository, CodePostauxService codePostauxService) {
+        this(repository, codePostauxService, new IndexRechercheClients() { });
+    }
+
+    /**
+     * Valide l'adresse via l'API IGN (avec circuit breaker).
+     *
+     * @param id l'identifiant du client
+     * @param adresse l'adresse à valider
+     * @throws AdresseInvalideException si l'adresse est invalide
+     */
+    private void validerAdresse(UUID id, Adresse adresse) throws AdresseInvalideException {
+        if (!codePostauxService.validateCodePostal(adresse.codePostal(), adresse.ville())) {
+            log.warn("Invalid address for client {}: {} {}", id, adresse.codePostal(), adresse.ville());
+            throw new AdresseInvalideException();
+        }
+    }
+
+    /**
+     * Valide la nouvelle adresse avant la mise à jour, sans vérifier l'existence du client :
+     * la mise à jour conditionnelle ({@code findOneAndUpdate}) en est seule juge, en un unique
+     * aller-retour MongoDB.
+     * <p>
+     * Précédence des erreurs, identique quel que soit l'ordre des réponses : client inconnu
+     * ({@link ClientInconnuException}), puis adresse invalide ({@link AdresseInvalideException}),
+     * puis conflit de version. Seul le rejet de l'adresse paie une lecture de la version, pour
+     * distinguer un client inconnu.
+     *
+     * @param id l'identifiant du client
+     * @param adresse l'adresse à valider
+     * @throws ClientInconnuException si l'adresse est invalide et qu'aucun client ne correspond à l'identifiant
+     * @throws AdresseInvalideException si l'adresse est invalide
+     */
+    private void validerAdresseClient(UUID id, Adresse adresse) throws ClientInconnuException, AdresseInvalideException {
+        try {
+            validerAdresse(id, adresse);
+        } catch (AdresseInvalideException e) {
+            if (repository.version(id).isEmpty()) {
+                log.warn("Client not found with id: {}", id);
+                throw new ClientInconnuException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Met à jour l'index de recherche après une écriture enregistrée : un échec de l'index est
+     * journalisé sans faire échouer l'écriture (la fiche est reprise à sa reconstruction suivante).
+     *
+     * @param id l'identifiant du client
+     * @param ecriture la mise à jour de l'index
+     */
+    private void mettreAJourIndex(UUID id, Runnable ecriture) {
+        try {
+            ecriture.run();
+        } catch (RuntimeException e) {
+            log.warn("Unable to update search index for client {}: {}", id, e.getMessage());
+        }
     }
 
     @Override
-    public List<Client> listerClients() {
-        return repository.lister();
+    public PageClients listerClients(@NonNull CriteresClient criteres, @NonNull Pagination pagination) {
+        return repository.lister(criteres, pagination);
+    }
+
+    @Override
+    public Stream<Client> exporterClients(@NonNull CriteresClient criteres) {
+        return repository.parcourir(criteres);
+    }
+
+    @Override
+    public Optional<UUID> listerClients(@NonNull CriteresClient criteres, @NonNull Pagination pagination, @NonNull LecteurFiche lecteur) {
+        return repository.lister(criteres, pagination, lecteur);
+    }
+
+    @Override
+    public long exporterClients(@NonNull CriteresClient criteres, @NonNull LecteurFiche lecteur) {
+        return repository.parcourir(criteres, lecteur);
+    }
+
+    @Override
+    public List<UUID> rechercherClients(@NonNull String texte, int limite) {
+        return indexRecherche.rechercher(texte, limite);
     }
 
     @Override
@@ -46,39 +126,54 @@ public class ConnaissanceClientServiceImpl implements ConnaissanceClientService
         return repository.lire(id);
     }
 
+    @Override
+    public Optional<Long> versionClient(@NonNull UUID id) {
+        return repository.version(id);
+    }
+
     @Override
     public Client nouveauClient(@NonNull Client client) throws AdresseInvalideException {
         System.out.println("Validating address for new client: " + client);
         if (!codePostauxService.validateCodePostal(client.getAdresse().codePostal(), client.getAdresse().ville())) throw new AdresseInvalideException();
         System.out.println("Address validated successfully.");
-        var result = repository.enregistrer(client);
+        var result = repository.enregistrerAvecChangementAdresse(client);
         System.out.println("Client saved successfully: " + result);
-        sendAdresseEvent(result);
-        System.out.println("Adresse event sent for client: " + result);
+        mettreAJourIndex(result.getId(), () -> indexRecherche.indexer(result));
         return result;
     }
 
     @Override
-    public Client changementAdresse(@NonNull UUID id, @NonNull Adresse adresse) throws AdresseInvalideException, ClientInconnuException {
-        Client client = informationsClient(id).orElseThrow(ClientInconnuException::new);
-        if (!codePostauxService.validateCodePostal(adresse.codePostal(), adresse.ville())) throw new AdresseInvalideException();
+    public Client changementAdresse(@NonNull UUID id, @NonNull Adresse adresse, @NonNull Optional<Long> versionAttendue) throws AdresseInvalideException, ClientInconnuException, ConflitVersionException {
+        validerAdresseClient(id, adresse);
+        Client client = repository.changerAdresse(id, adresse, versionAttendue).orElseThrow(() -> {
+            log.warn("Client not found with id: {}", id);
+            return new ClientInconnuException();
+        });
         client.setAdresse(adresse);
-        var result = repository.enregistrer(client);
-        sendAdresseEvent(result);
-        return result;
+        client.setVersion(versionSuivante(client));
+        mettreAJourIndex(id, () -> indexRecherche.indexer(client));
+        return client;
     }
 
     @Override
-    public Client changementSituation(@NonNull UUID id, @NonNull SituationFamiliale situationFamiliale, @NonNull Integer nombreEnfants) throws ClientInconnuException {
-        Client client = informationsClient(id).orElseThrow(ClientInconnuException::new);
+    public Client changementSituation(@NonNull UUID id, @NonNull SituationFamiliale situationFamiliale, @NonNull Integer nombreEnfants, @NonNull Optional<Long> versionAttendue) throws ClientInconnuException, ConflitVersionException {
+        Client client = repository.changerSituation(id, situationFamiliale, nombreEnfants, versionAttendue)
+                .orElseThrow(ClientInconnuException::new);
         client.setSituationFamiliale(situationFamiliale);
         client.setNombreEnfants(nombreEnfants);
-        return repository.enregistrer(client);
+        client.setVersion(versionSuivante(client));
+        return client;
+    }
+
+    /** Version de la fiche après une modification, à partir de la fiche avant modification */
+    private static Long versionSuivante(Client avant) {
+        return (avant.getVersion() != null ? avant.getVersion() : 0L) + 1;
     }
 
     @Override
     public void supprimerClient(@NonNull UUID id) {
         repository.supprimer(id);
+        mettreAJourIndex(id, () -> indexRecherche.retirer(id));
     }
 
     /**
@@ -86,33 +181,41 @@ public class ConnaissanceClientServiceImpl implements ConnaissanceClientService
      * <p>
      * Cette méthode implémente les règles métier suivantes :
      * <ul>
-     *   <li>Vérification de l'existence du client (sinon {@link ClientInconnuException})</li>
+     *   <li>Vérification de l'existence du client (sinon {@link ClientInconnuException}), prioritaire
+     *   sur la validation de l'adresse</li>
      *   <li>Validation externe de l'adresse via API IGN avec circuit breaker (sinon {@link AdresseInvalideException})</li>
-     *   <li>Détection des changements d'adresse pour publication événementielle</li>
-     *   <li>Publication d'un événement Kafka si et seulement si l'adresse a changé</li>
+     *   <li>Contrôle de concurrence optimiste : si une version est attendue, la fiche n'est
+     *   modifiée que si elle est à cette version (sinon {@link ConflitVersionException})</li>
+     *   <li>Détection des changements d'adresse pour publication événementielle, par comparaison
+     *   avec la fiche avant modification</li>
+     *   <li>Publication d'un événement Kafka si et seulement si l'adresse a changé, enregistré
+     *   avec la fiche (outbox) et publié hors requête</li>
      *   <li>Traçabilité complète via MDC (operation, clientId)</li>
      * </ul>
      * 
      * <p><strong>Résilience :</strong> La validation d'adresse utilise un circuit breaker Resilience4j.
      * En cas d'indisponibilité de l'API IGN (circuit ouvert), la validation est ignorée (fallback).
      * 
-     * <p><strong>Performance :</strong> Temps de réponse typique &lt; 100ms (sans changement d'adresse),
-     * &lt; 2s avec validation externe.
+     * <p><strong>Performance :</strong> La fiche n'est pas lue au préalable : après la validation
+     * externe, la mise à jour conditionnelle est un unique aller-retour MongoDB qui vérifie
+     * l'existence et la version de la fiche et retourne la fiche avant modification. Temps de
+     * réponse typique &lt; 100ms (sans changement d'adresse), &lt; 2s avec validation externe.
      * 
      * <p><strong>Transactionalité :</strong> Opération atomique garantie par le repository.
      * 
      * @param id l'identifiant unique du client à modifier (non null)
      * @param clientModifie les nouvelles données complètes du client (non null)
+     * @param versionAttendue la version de la fiche sur laquelle porte la modification (optionnelle)
      * @return le client modifié avec toutes les informations à jour
      * @throws ClientInconnuException si aucun client ne correspond à l'identifiant fourni
      * @throws AdresseInvalideException si l'adresse est invalide selon l'API IGN (code postal/ville incompatibles)
+     * @throws ConflitVersionException si la fiche a été modifiée depuis la version attendue
      * 
-     * @see #informationsClient(UUID)
      * @see CodePostauxService#validateCodePostal(String, String)
-     * @see #sendAdresseEvent(Client)
+     * @see ClientRepository#modifier(Client, Optional)
      */
     @Override
-    public Client modifierClient(@NonNull UUID id, @NonNull Client clientModifie) throws ClientInconnuException, AdresseInvalideException {
+    public Client modifierClient(@NonNull UUID id, @NonNull Client clientModifie, @NonNull Optional<Long> versionAttendue) throws ClientInconnuException, AdresseInvalideException, ConflitVersionException {
         try {
             // Setup MDC audit trail
             MDC.put("operation", "modifierClient");
@@ -120,30 +223,12 @@ public class ConnaissanceClientServiceImpl implements ConnaissanceClientService
             
             log.info("Starting client modification for id: {}", id);
             
-            // Vérifier que le client existe
-            Client clientExistant = informationsClient(id).orElseThrow(() -> {
-                log.warn("Client not found with id: {}", id);
-                return new ClientInconnuException();
-            });
-            
-            log.debug("Client found, validating new address");
-            
-            // Valider la nouvelle adresse via API IGN (avec circuit breaker)
-            if (!codePostauxService.validateCodePostal(
-                    clientModifie.getAdresse().codePostal(), 
-                    clientModifie.getAdresse().ville())) {
-                log.warn("Invalid address for client {}: {} {}", 
-                        id, 
-                        clientModifie.getAdresse().codePostal(), 
-                        clientModifie.getAdresse().ville());
-                throw new AdresseInvalideException();
-            }
+            // Valider la nouvelle adresse via API IGN (avec circuit breaker) ; l'existence du client est vérifiée par la mise à jour
+            log.debug("Validating new address");
+            validerAdresseClient(id, clientModifie.getAdresse());
             
             log.debug("Address validated successfully");
             
-            // Détecter si l'adresse a changé
-            boolean adresseChanged = !clientExistant.getAdresse().equals(clientModifie.getAdresse());
-            
             // Créer le client modifié en conservant l'ID (immutable)
             Client clientAEnregistrer = Client.of(
                 id,
@@ -154,20 +239,20 @@ public class ConnaissanceClientServiceImpl implements ConnaissanceClientService
                 clientModifie.getNombreEnfants()
             );
             
-            // Sauvegarder les modifications
-            Client result = repository.enregistrer(clientAEnregistrer);
+            // Sauvegarder les modifications ; le repository enregistre l'événement Kafka si l'adresse a changé
+            Client clientExistant = repository.modifier(clientAEnregistrer, versionAttendue).orElseThrow(() -> {
+                log.warn("Client not found with id: {}", id);
+                return new ClientInconnuException();
+            });
+            
+            // Détecter si l'adresse a changé
+            boolean adresseChanged = !clientExistant.getAdresse().equals(clientModifie.getAdresse());
             
+            clientAEnregistrer.setVersion(versionSuivante(clientExistant));
+            mettreAJourIndex(id, () -> indexRecherche.indexer(clientAEnregistrer));
             log.info("Client {} updated successfully. Address changed: {}", id, adresseChanged);
             
-            // Publier événement Kafka uniquement si l'adresse a changé
-            if (adresseChanged) {
-                log.debug("Publishing address change event for client: {}", id);
-                sendAdresseEvent(result);
-            } else {
-                log.debug("No address change detected, skipping event publication");
-            }
-            
-            return result;
+            return clientAEnregistrer;
             
         } finally {
             // Clean up MDC
@@ -0,0 +1,11 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.exceptions;
+
+/**
+ * ConflitVersionException : la fiche client a été modifiée depuis la version attendue
+ */
+public class ConflitVersionException extends Exception {
+
+    public ConflitVersionException() {
+        super("Conflit de version");
+    }
+}
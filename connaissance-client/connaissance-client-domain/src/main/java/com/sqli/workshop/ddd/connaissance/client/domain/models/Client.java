@@ -29,10 +29,23 @@ public class Client implements Serializable, Comparable<Client> {
     @NonNull @Setter Integer            nombreEnfants;
 
     /**
-     * Constructeur sans UUID
+     * Version de la fiche enregistrée, incrémentée à chaque modification ; nulle pour une
+     * fiche pas encore enregistrée. Jeton technique de concurrence, hors égalité métier.
+     */
+    @Setter @EqualsAndHashCode.Exclude Long version;
+
+    /**
+     * Constructeur sans UUID : identifiant v7 ordonné dans le temps ({@link UuidV7})
      */
     public static Client of(Nom nom, Prenom prenom, Adresse adresse, SituationFamiliale situationFamiliale, Integer nombreEnfants) {
-        return new Client(UUID.randomUUID(), nom, prenom, adresse, situationFamiliale, nombreEnfants);
+        return new Client(UuidV7.generer(), nom, prenom, adresse, situationFamiliale, nombreEnfants, null);
+    }
+
+    /**
+     * Constructeur sans version
+     */
+    public static Client of(UUID id, Nom nom, Prenom prenom, Adresse adresse, SituationFamiliale situationFamiliale, Integer nombreEnfants) {
+        return new Client(id, nom, prenom, adresse, situationFamiliale, nombreEnfants, null);
     }
 
     @Override
@@ -0,0 +1,37 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+import java.util.Optional;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Departement;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+
+/**
+ * Critères optionnels de filtrage de la liste des fiches client, combinés entre eux.
+ * Les comparaisons sont sensibles à la casse.
+ *
+ * @param codePostal code postal exact
+ * @param nom nom exact
+ * @param situationFamiliale situation familiale exacte
+ * @param departement début du code postal
+ * @param debutNom début du nom
+ * @param debutPrenom début du prénom
+ */
+public record CriteresClient(
+        Optional<CodePostal>          codePostal,
+        Optional<Nom>                 nom,
+        Optional<SituationFamiliale>  situationFamiliale,
+        Optional<Departement>         departement,
+        Optional<String>              debutNom,
+        Optional<String>              debutPrenom
+) {
+
+    /**
+     * Aucun filtre : toutes les fiches client
+     */
+    public static CriteresClient aucun() {
+        return new CriteresClient(Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty());
+    }
+}
@@ -0,0 +1,19 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+/**
+ * Réception des champs d'une fiche client lue en masse, sans construction de {@link Client} ni
+ * des types valeur : les valeurs sont celles enregistrées, déjà validées à l'écriture.
+ */
+@FunctionalInterface
+public interface LecteurFiche {
+
+    /**
+     * @param ligne2 complément d'adresse ; {@code null} si l'adresse n'en a pas
+     * @param situationFamiliale nom de la situation familiale
+     *                           ({@link com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale})
+     * @param version version de la fiche, 0 si elle n'est pas versionnée
+     */
+    void fiche(String id, String nom, String prenom, String ligne1, String ligne2, String codePostal,
+               String ville, String situationFamiliale, int nombreEnfants, long version);
+
+}
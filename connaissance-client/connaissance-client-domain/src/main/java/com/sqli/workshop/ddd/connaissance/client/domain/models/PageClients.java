@@ -0,0 +1,18 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Page de fiches client et curseur de la page suivante (vide sur la dernière page)
+ */
+public record PageClients(
+        List<Client>    clients,
+        Optional<UUID>  suivant
+) {
+
+    public static PageClients vide() {
+        return new PageClients(List.of(), Optional.empty());
+    }
+}
@@ -0,0 +1,31 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Demande de page par curseur (keyset) : les fiches sont ordonnées par identifiant,
+ * la page commence strictement après le curseur {@code apres}.
+ * <p>
+ * La taille est bornée à {@link #TAILLE_MAX} pour que la mémoire consommée par une
+ * requête reste constante quelle que soit la taille de la collection.
+ */
+public record Pagination(
+        int             taille,
+        Optional<UUID>  apres
+) {
+
+    public static final int TAILLE_PAR_DEFAUT = 50;
+    public static final int TAILLE_MAX = 500;
+
+    public Pagination {
+        taille = Math.clamp(taille, 1, TAILLE_MAX);
+    }
+
+    /**
+     * Première page de taille par défaut
+     */
+    public static Pagination premiere() {
+        return new Pagination(TAILLE_PAR_DEFAUT, Optional.empty());
+    }
+}
@@ -0,0 +1,48 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Générateur d'identifiants UUID version 7 (RFC 9562) : les 48 premiers bits portent l'instant
+ * de création en millisecondes, les 74 bits suivants (hors version et variante) sont aléatoires.
+ * <p>
+ * Les identifiants successifs sont ordonnés dans le temps : les insertions se font en fin d'index
+ * au lieu d'être dispersées dans tout l'arbre B de {@code _id}, comme avec des UUID v4 aléatoires.
+ * <p>
+ * Sans verrou : la partie aléatoire est tirée de {@link ThreadLocalRandom}, propre à chaque thread,
+ * et non d'un {@link java.security.SecureRandom} partagé. L'unicité repose sur les 74 bits aléatoires
+ * par milliseconde ; ces identifiants ne sont pas des secrets (ils révèlent leur date de création
+ * et ne sont pas imprévisibles).
+ */
+public final class UuidV7 {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANTE = 0x8000000000000000L;
+
+    private UuidV7() {
+    }
+
+    /**
+     * @return un nouvel identifiant horodaté à l'instant courant
+     */
+    public static UUID generer() {
+        return generer(System.currentTimeMillis(), ThreadLocalRandom.current());
+    }
+
+    static UUID generer(long millis, RandomGenerator aleatoire) {
+        long poidsFort = (millis << 16) | VERSION | (aleatoire.nextLong() & 0x0FFFL);
+        long poidsFaible = VARIANTE | (aleatoire.nextLong() & 0x3FFFFFFFFFFFFFFFL);
+        return new UUID(poidsFort, poidsFaible);
+    }
+
+    /**
+     * @param uuid un identifiant version 7
+     * @return l'instant de création de l'identifiant, en millisecondes depuis l'epoch
+     */
+    public static long horodatage(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+}
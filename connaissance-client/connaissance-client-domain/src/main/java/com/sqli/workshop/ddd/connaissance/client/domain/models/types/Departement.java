@@ -0,0 +1,15 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models.types;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Département, identifié par le début des codes postaux de ses communes
+ * (2 chiffres, 3 pour l'outre-mer)
+ */
+public record Departement(
+                @NotNull
+                @Pattern(regexp = "^[0-9]{2,3}$")
+                String value
+            ) {
+}
@@ -1,6 +1,7 @@
 package com.sqli.workshop.ddd.connaissance.client.domain.ports;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
@@ -10,5 +11,40 @@ public interface AdresseEventService {
     default boolean sendEvent(UUID id, Destinataire destinataire, Adresse adresse) {
         return true;
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * Variante asynchrone de {@link #sendEvent(UUID, Destinataire, Adresse)} : l'appelant n'attend
+     * pas l'acquittement du broker.
+     * <p>
+     * Par défaut, l'événement est publié dans le thread appelant.
+     *
+     * @param id l'identifiant du client
+     * @param destinataire le destinataire
+     * @param adresse la nouvelle adresse
+     * @return {@code true} à l'acquittement du broker, {@code false} ou une exception si l'événement
+     *         n'a pas été publié
+     */
+    default CompletableFuture<Boolean> sendEventAsync(UUID id, Destinataire destinataire, Adresse adresse) {
+        try {
+            return CompletableFuture.completedFuture(sendEvent(id, destinataire, adresse));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Indique si les événements d'un même client soumis via
+     * {@link #sendEventAsync(UUID, Destinataire, Adresse)} sans attendre la confirmation du
+     * précédent sont publiés dans l'ordre de soumission, chacun n'étant confirmé que si les
+     * précédents l'ont été.
+     * <p>
+     * Sinon, l'appelant qui tient à l'ordre attend la confirmation d'un événement avant de
+     * soumettre le suivant.
+     *
+     * @return {@code true} si l'ordre par client est garanti par l'implémentation
+     */
+    default boolean conserveOrdreParClient() {
+        return false;
+    }
+
+}
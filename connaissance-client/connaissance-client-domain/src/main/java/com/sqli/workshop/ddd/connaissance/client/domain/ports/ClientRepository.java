@@ -1,19 +1,124 @@
 package com.sqli.workshop.ddd.connaissance.client.domain.ports;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 
 /**
  * Port pour la sauvegarde de l'objet métier ConnaissanceClient
+ * <p>
+ * Chaque modification incrémente la version de la fiche. Les mises à jour acceptent une
+ * version attendue : la vérification est faite par l'opération d'écriture elle-même (ni
+ * lecture préalable, ni verrou).
  */
 public interface ClientRepository {
 
-    List<Client>     lister();
+    /**
+     * Recherche paginée des fiches client, triée par identifiant. Chaque critère de
+     * {@link CriteresClient} (valeur exacte ou début de valeur) est servi par un index.
+     *
+     * @param criteres les filtres optionnels
+     * @param pagination la taille de page et le curseur de départ
+     * @return la page de fiches client
+     */
+    PageClients      lister(CriteresClient criteres, Pagination pagination);
     Optional<Client> lire(UUID id);
     Client           enregistrer(Client client);
     void             supprimer(UUID id);
 
+    /**
+     * Version courante de la fiche client, sans lire la fiche elle-même.
+     *
+     * @param id l'identifiant du client
+     * @return la version de la fiche ; vide si le client n'existe pas
+     */
+    Optional<Long>   version(UUID id);
+
+    /**
+     * Parcours de toutes les fiches correspondant aux critères, sans les charger en mémoire.
+     * Le flux est adossé à un curseur serveur : il doit être fermé par l'appelant.
+     *
+     * @param criteres les filtres optionnels
+     * @return le flux des fiches client, trié par identifiant
+     */
+    Stream<Client>   parcourir(CriteresClient criteres);
+
+    /**
+     * Lecture d'une page de fiches client champ par champ, sans construire de {@link Client} :
+     * chemin de lecture en masse des réponses JSON.
+     *
+     * @param criteres les filtres optionnels
+     * @param pagination la taille de page et le curseur de départ
+     * @param lecteur reçoit les fiches de la page, dans l'ordre des identifiants
+     * @return le curseur de la page suivante ; vide sur la dernière page
+     */
+    Optional<UUID>   lister(CriteresClient criteres, Pagination pagination, LecteurFiche lecteur);
+
+    /**
+     * Parcours de toutes les fiches correspondant aux critères champ par champ, sans construire
+     * de {@link Client}.
+     *
+     * @param criteres les filtres optionnels
+     * @param lecteur reçoit les fiches, dans l'ordre des identifiants
+     * @return le nombre de fiches lues
+     */
+    long             parcourir(CriteresClient criteres, LecteurFiche lecteur);
+
+    /**
+     * Enregistre la fiche client et, dans la même transaction, l'événement de changement
+     * d'adresse (outbox). L'événement est publié ensuite, hors de la requête, par un relais :
+     * il ne peut pas être perdu une fois la fiche enregistrée.
+     *
+     * @param client la fiche client dont l'adresse a changé
+     * @return la fiche enregistrée
+     */
+    Client           enregistrerAvecChangementAdresse(Client client);
+
+    /**
+     * Met à jour la fiche client existante en une seule opération atomique, sans lecture
+     * préalable. Si l'adresse change, l'événement de changement d'adresse est enregistré dans
+     * la même transaction (outbox).
+     *
+     * @param client la fiche client modifiée
+     * @param versionAttendue la version que doit avoir la fiche enregistrée (optionnelle)
+     * @return la fiche avant modification ; vide si le client n'existe pas
+     * @throws ConflitVersionException si la fiche n'est pas à la version attendue
+     */
+    Optional<Client> modifier(Client client, Optional<Long> versionAttendue) throws ConflitVersionException;
+
+    /**
+     * Remplace l'adresse du client en une seule opération atomique et enregistre, dans la même
+     * transaction, l'événement de changement d'adresse (outbox).
+     *
+     * @param id l'identifiant du client
+     * @param adresse la nouvelle adresse
+     * @param versionAttendue la version que doit avoir la fiche enregistrée (optionnelle)
+     * @return la fiche avant modification ; vide si le client n'existe pas
+     * @throws ConflitVersionException si la fiche n'est pas à la version attendue
+     */
+    Optional<Client> changerAdresse(UUID id, Adresse adresse, Optional<Long> versionAttendue) throws ConflitVersionException;
+
+    /**
+     * Remplace la situation familiale et le nombre d'enfants du client en une seule opération
+     * atomique.
+     *
+     * @param id l'identifiant du client
+     * @param situationFamiliale la nouvelle situation familiale
+     * @param nombreEnfants le nouveau nombre d'enfants
+     * @param versionAttendue la version que doit avoir la fiche enregistrée (optionnelle)
+     * @return la fiche avant modification ; vide si le client n'existe pas
+     * @throws ConflitVersionException si la fiche n'est pas à la version attendue
+     */
+    Optional<Client> changerSituation(UUID id, SituationFamiliale situationFamiliale, Integer nombreEnfants,
+                                      Optional<Long> versionAttendue) throws ConflitVersionException;
+
 }
@@ -9,4 +9,4 @@ public interface CodePostauxService {
         return true;
     }
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.ports;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+
+/**
+ * Index de recherche approchée des fiches client sur le nom, le prénom et la ville, tolérant
+ * les fautes de frappe et les accents. Tenu à jour par les écritures des cas d'usage.
+ * <p>
+ * Par défaut, aucun index : la recherche ne retourne rien.
+ */
+public interface IndexRechercheClients {
+
+    /**
+     * Recherche par saisie progressive : le dernier mot du texte peut être incomplet.
+     *
+     * @param texte le texte saisi (nom, prénom, ville, dans n'importe quel ordre)
+     * @param limite nombre maximum d'identifiants retournés
+     * @return les identifiants des fiches les plus proches, de la plus proche à la moins proche
+     */
+    default List<UUID> rechercher(String texte, int limite) {
+        return List.of();
+    }
+
+    /**
+     * Ajout de la fiche, ou remplacement de sa version indexée.
+     *
+     * @param client la fiche enregistrée
+     */
+    default void indexer(Client client) {
+    }
+
+    /**
+     * Retrait de la fiche.
+     *
+     * @param id l'identifiant du client supprimé
+     */
+    default void retirer(UUID id) {
+    }
+
+}
@@ -4,10 +4,15 @@ package com.sqli.workshop.ddd.connaissance.client.domain;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -16,26 +21,32 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.assertj.core.util.Arrays;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 
 import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.AdresseInvalideException;
 import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ClientInconnuException;
+import com.sqli.workshop.ddd.connaissance.client.domain.exceptions.ConflitVersionException;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
-import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
 import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
-import com.sqli.workshop.ddd.connaissance.client.domain.ports.AdresseEventService;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.ClientRepository;
 import com.sqli.workshop.ddd.connaissance.client.domain.ports.CodePostauxService;
+import com.sqli.workshop.ddd.connaissance.client.domain.ports.IndexRechercheClients;
 
 public class ConnaissanceClientServiceImplTest {
 
@@ -43,7 +54,6 @@ public class ConnaissanceClientServiceImplTest {
 
   private ClientRepository repository;
   private CodePostauxService codePostauxService;
-  private AdresseEventService adresseEventService;
   
   private static Object answer(InvocationOnMock invocationOnMock) {
     return invocationOnMock.getArgument(0);
@@ -53,11 +63,9 @@ public class ConnaissanceClientServiceImplTest {
  public void init() {
     this.repository = mock(ClientRepository.class);
     this.codePostauxService = mock(CodePostauxService.class);
-    this.adresseEventService = mock(AdresseEventService.class);   
     this.service = new ConnaissanceClientServiceImpl(
       repository,
-      codePostauxService,
-      adresseEventService
+      codePostauxService
     );
  }
 
@@ -99,6 +107,18 @@ public class ConnaissanceClientServiceImplTest {
     verify(repository).lire(id);
   }
 
+  @Test
+  public void given_connaissance_client_versionClient_should_return_version_without_reading_client() {
+    // GIVEN
+    UUID id = UUID.randomUUID();
+    when(repository.version(id)).thenReturn(Optional.of(4L));
+    // WHEN
+    Optional<Long> result = service.versionClient(id);
+    // THEN
+    assertEquals(Optional.of(4L), result);
+    verify(repository, never()).lire(any());
+  }
+
 
   @Test
   public void given_connaissance_client_save_return_id() {
@@ -115,7 +135,7 @@ public class ConnaissanceClientServiceImplTest {
       0
   );
     when(codePostauxService.validateCodePostal(any(),any())).thenReturn(true);
-    when(repository.enregistrer(any())).thenReturn(ccToSave);
+    when(repository.enregistrerAvecChangementAdresse(any())).thenReturn(ccToSave);
     // WHEN
     Client result = null;
     try {
@@ -124,7 +144,7 @@ public class ConnaissanceClientServiceImplTest {
       fail();
     }
     // THEN
-    verify(repository).enregistrer(any(Client.class));
+    verify(repository).enregistrerAvecChangementAdresse(any(Client.class));
     assertNotNull(result.getId());
     assertEquals("Bousquet", result.getNom().value());
     assertEquals("Philippe", result.getPrenom().value());
@@ -136,7 +156,7 @@ public class ConnaissanceClientServiceImplTest {
   }
 
   @Test
-  public void given_adresse_save_return_ok() {
+  public void given_adresse_save_return_ok() throws Exception {
     // GIVEN
     Adresse adresse = new Adresse(
       new LigneAdresse("lg1"), 
@@ -157,12 +177,11 @@ public class ConnaissanceClientServiceImplTest {
     );
     UUID id = cc.getId();
     when(codePostauxService.validateCodePostal(any(),any())).thenReturn(true);
-    when(repository.lire(id)).thenReturn(Optional.of(cc));
-    when(repository.enregistrer(any())).thenAnswer(ConnaissanceClientServiceImplTest::answer);
+    when(repository.changerAdresse(id, adresse, Optional.empty())).thenReturn(Optional.of(cc));
     // WHEN
     Client result = null;
     try {
-      result = service.changementAdresse(id, adresse);
+      result = service.changementAdresse(id, adresse, Optional.empty());
     } catch (AdresseInvalideException e) {
       fail();
     } catch (ClientInconnuException e) {
@@ -170,12 +189,13 @@ public class ConnaissanceClientServiceImplTest {
     }
     // THEN
     assertEquals("lg1", result.getAdresse().ligne1().value());
-    verify(repository).lire(id);
-    verify(repository).enregistrer(any(Client.class));
+    assertEquals("Bousquet", result.getNom().value());
+    verify(repository).changerAdresse(id, adresse, Optional.empty()); // Existence checked by the update itself
+    verifyNoMoreInteractions(repository);
   }
 
   @Test
-  public void given_situation_save_return_ok() {
+  public void given_situation_save_return_ok() throws Exception {
     // GIVEN
     Client cc = Client.of(
       new Nom("Bousquet"),
@@ -189,12 +209,11 @@ public class ConnaissanceClientServiceImplTest {
       0
     );
     UUID id = cc.getId();
-    when(repository.lire(any())).thenReturn(Optional.of(cc));
-    when(repository.enregistrer(any())).thenAnswer(ConnaissanceClientServiceImplTest::answer);
+    when(repository.changerSituation(id, SituationFamiliale.MARIE, 1, Optional.empty())).thenReturn(Optional.of(cc));
     // WHEN
     Client result = null;
     try {
-      result = service.changementSituation(id, SituationFamiliale.MARIE, 1);
+      result = service.changementSituation(id, SituationFamiliale.MARIE, 1, Optional.empty());
     }
     catch (Exception e) {
       fail(e);
@@ -202,24 +221,24 @@ public class ConnaissanceClientServiceImplTest {
     // THEN
     assertEquals(SituationFamiliale.MARIE, result.getSituationFamiliale());
     assertEquals(Integer.valueOf(1), result.getNombreEnfants());
-    verify(repository).lire(any());
-    verify(repository).enregistrer(any(Client.class));
+    verify(repository).changerSituation(id, SituationFamiliale.MARIE, 1, Optional.empty());
+    verifyNoMoreInteractions(repository);
   }
 
   @Test
-  public void given_situation_no_client_save_return_ok() {
+  public void given_situation_no_client_save_return_ok() throws Exception {
     // GIVEN
-    when(repository.lire(any())).thenReturn(Optional.empty());
+    when(repository.changerSituation(any(), any(), any(), any())).thenReturn(Optional.empty());
     // WHEN
     try {
-      service.changementSituation(UUID.randomUUID(), SituationFamiliale.MARIE, 0);
+      service.changementSituation(UUID.randomUUID(), SituationFamiliale.MARIE, 0, Optional.empty());
       fail(ClientInconnuException.class.getName() + " Excpeted");
     }
     catch (Exception e) {
       assertTrue(e instanceof ClientInconnuException);
     }
     // THEN
-    verify(repository).lire(any());
+    verify(repository).changerSituation(any(), any(), any(), any());
     verifyNoMoreInteractions(repository);
   }
 
@@ -239,12 +258,53 @@ public class ConnaissanceClientServiceImplTest {
     );
     List<Client> list = new ArrayList<>();
     list.add(cc);
-    when(repository.lister()).thenReturn(list);
+    Pagination pagination = Pagination.premiere();
+    when(repository.lister(CriteresClient.aucun(), pagination)).thenReturn(new PageClients(list, Optional.empty()));
+    // WHEN
+    PageClients result = service.listerClients(CriteresClient.aucun(), pagination);
+    // THEN
+    assertEquals(1, result.clients().size());
+    assertTrue(result.suivant().isEmpty());
+    verify(repository).lister(CriteresClient.aucun(), pagination);
+  }
+
+  @Test
+  public void given_Client_exporter_return_stream() {
+    // GIVEN
+    Client cc = Client.of(
+      new Nom("Bousquet"),
+      new Prenom("Philippe"),
+      new Adresse(
+        new LigneAdresse("48 rue Bauducheu"),
+        new CodePostal("33800"), 
+        new Ville("Bordeaux")
+      ),
+      SituationFamiliale.CELIBATAIRE,
+      0
+    );
+    when(repository.parcourir(CriteresClient.aucun())).thenReturn(Stream.of(cc));
     // WHEN
-    List<Client> result = service.listerClients();
+    List<Client> result;
+    try (Stream<Client> stream = service.exporterClients(CriteresClient.aucun())) {
+      result = stream.toList();
+    }
     // THEN
-    assertEquals(1, result.size());
-    verify(repository).lister();
+    assertEquals(List.of(cc), result);
+    verify(repository).parcourir(CriteresClient.aucun());
+  }
+
+  @Test
+  public void given_lecteur_lister_should_delegate_to_repository() {
+    // GIVEN
+    UUID suivant = UUID.randomUUID();
+    LecteurFiche lecteur = mock(LecteurFiche.class);
+    Pagination pagination = Pagination.premiere();
+    when(repository.lister(CriteresClient.aucun(), pagination, lecteur)).thenReturn(Optional.of(suivant));
+    // WHEN
+    Optional<UUID> result = service.listerClients(CriteresClient.aucun(), pagination, lecteur);
+    // THEN
+    assertEquals(Optional.of(suivant), result);
+    verify(repository).lister(CriteresClient.aucun(), pagination, lecteur);
   }
 
     @Test
@@ -285,12 +345,11 @@ public class ConnaissanceClientServiceImplTest {
           2
       );
 
-      when(repository.lire(clientId)).thenReturn(Optional.of(existingClient));
       when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(true);
-      when(repository.enregistrer(any(Client.class))).thenAnswer(ConnaissanceClientServiceImplTest::answer);
+      when(repository.modifier(any(Client.class), any())).thenReturn(Optional.of(existingClient));
 
       // WHEN
-      Client result = service.modifierClient(clientId, modifiedClient);
+      Client result = service.modifierClient(clientId, modifiedClient, Optional.empty());
 
       // THEN
       assertNotNull(result);
@@ -303,14 +362,16 @@ public class ConnaissanceClientServiceImplTest {
       assertEquals(SituationFamiliale.MARIE, result.getSituationFamiliale());
       assertEquals(Integer.valueOf(2), result.getNombreEnfants());
 
-      verify(repository).lire(clientId);
+      ArgumentCaptor<Client> enregistre = ArgumentCaptor.forClass(Client.class);
       verify(codePostauxService).validateCodePostal(any(CodePostal.class), any(Ville.class));
-      verify(repository).enregistrer(any(Client.class));
-      verify(adresseEventService).sendEvent(any(UUID.class), any(Destinataire.class), any(Adresse.class)); // Address changed
+      verify(repository).modifier(enregistre.capture(), any()); // Single atomic update checking existence, event recorded by the repository
+      assertEquals(clientId, enregistre.getValue().getId());
+      verify(repository, never()).lire(any()); // No read before the update
+      verifyNoMoreInteractions(repository);
     }
 
     @Test
-    void given_unknown_client_modifierClient_should_throw_ClientInconnuException() {
+    void given_unknown_client_modifierClient_should_throw_ClientInconnuException() throws Exception {
       // GIVEN - T011: Client not found → 404
       UUID unknownId = UUID.randomUUID();
       Client modifiedClient = Client.of(
@@ -325,11 +386,12 @@ public class ConnaissanceClientServiceImplTest {
           2
       );
 
-      when(repository.lire(unknownId)).thenReturn(Optional.empty());
+      when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(true);
+      when(repository.modifier(any(Client.class), any())).thenReturn(Optional.empty());
 
       // WHEN & THEN
       try {
-        service.modifierClient(unknownId, modifiedClient);
+        service.modifierClient(unknownId, modifiedClient, Optional.empty());
         fail("ClientInconnuException expected");
       } catch (ClientInconnuException e) {
         assertTrue(e instanceof ClientInconnuException);
@@ -337,14 +399,14 @@ public class ConnaissanceClientServiceImplTest {
         fail("ClientInconnuException expected, got AdresseInvalideException");
       }
 
-      verify(repository).lire(unknownId);
-      verifyNoMoreInteractions(repository);
+      verify(repository).modifier(any(Client.class), any()); // The conditional update finds no client
+      verifyNoMoreInteractions(repository); // No separate existence check
+      verify(codePostauxService).validateCodePostal(any(CodePostal.class), any(Ville.class));
       verifyNoMoreInteractions(codePostauxService);
-      verifyNoMoreInteractions(adresseEventService);
     }
 
     @Test
-    void given_invalid_address_modifierClient_should_throw_AdresseInvalideException() {
+    void given_invalid_address_modifierClient_should_throw_AdresseInvalideException() throws Exception {
       // GIVEN - T012: Invalid postal code → 422
       Client existingClient = Client.of(
           new Nom("Bousquet"),
@@ -371,12 +433,12 @@ public class ConnaissanceClientServiceImplTest {
           2
       );
 
-      when(repository.lire(clientId)).thenReturn(Optional.of(existingClient));
+      when(repository.version(clientId)).thenReturn(Optional.of(0L));
       when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(false);
 
       // WHEN & THEN
       try {
-        service.modifierClient(clientId, modifiedClient);
+        service.modifierClient(clientId, modifiedClient, Optional.empty());
         fail("AdresseInvalideException expected");
       } catch (AdresseInvalideException e) {
         assertTrue(e instanceof AdresseInvalideException);
@@ -384,10 +446,11 @@ public class ConnaissanceClientServiceImplTest {
         fail("AdresseInvalideException expected, got ClientInconnuException");
       }
 
-      verify(repository).lire(clientId);
       verify(codePostauxService).validateCodePostal(any(CodePostal.class), any(Ville.class));
-      verifyNoMoreInteractions(repository); // Should NOT save invalid data
-      verifyNoMoreInteractions(adresseEventService); // Should NOT publish event
+      verify(repository).version(clientId); // Existence read only once the address is rejected
+      verify(repository, never()).modifier(any(Client.class), any()); // Should NOT save invalid data nor publish event
+      verifyNoMoreInteractions(repository);
+      verifyNoMoreInteractions(codePostauxService);
     }
 
     @Test
@@ -418,21 +481,239 @@ public class ConnaissanceClientServiceImplTest {
           2
       );
 
-      when(repository.lire(clientId)).thenReturn(Optional.of(existingClient));
       when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(true);
-      when(repository.enregistrer(any(Client.class))).thenAnswer(ConnaissanceClientServiceImplTest::answer);
+      when(repository.modifier(any(Client.class), any())).thenReturn(Optional.of(existingClient));
 
       // WHEN
-      Client result = service.modifierClient(clientId, modifiedClient);
+      Client result = service.modifierClient(clientId, modifiedClient, Optional.empty());
 
       // THEN
       assertNotNull(result);
       assertEquals(SituationFamiliale.MARIE, result.getSituationFamiliale());
       assertEquals(Integer.valueOf(2), result.getNombreEnfants());
 
-      verify(repository).lire(clientId);
       verify(codePostauxService).validateCodePostal(any(CodePostal.class), any(Ville.class));
-      verify(repository).enregistrer(any(Client.class));
-      verifyNoMoreInteractions(adresseEventService); // No event published
+      verify(repository).modifier(any(Client.class), any()); // Event decision left to the repository (pre-image comparison)
+      verify(repository, never()).enregistrerAvecChangementAdresse(any(Client.class)); // No explicit event
+      verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void given_expected_version_modifierClient_should_pass_it_and_return_next_version() throws Exception {
+      // GIVEN
+      Client existingClient = Client.of(
+          UUID.randomUUID(),
+          new Nom("Bousquet"),
+          new Prenom("Philippe"),
+          new Adresse(
+              new LigneAdresse("48 rue Bauducheu"),
+              new CodePostal("33800"),
+              new Ville("Bordeaux")
+          ),
+          SituationFamiliale.CELIBATAIRE,
+          0,
+          3L
+      );
+      UUID clientId = existingClient.getId();
+      when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(true);
+      when(repository.modifier(any(Client.class), any())).thenReturn(Optional.of(existingClient));
+
+      // WHEN
+      Client result = service.modifierClient(clientId, existingClient, Optional.of(3L));
+
+      // THEN
+      assertEquals(Long.valueOf(4), result.getVersion());
+      verify(repository).modifier(any(Client.class), eq(Optional.of(3L)));
+    }
+
+    @Test
+    void given_stale_version_changementSituation_should_throw_ConflitVersionException() throws Exception {
+      // GIVEN
+      UUID clientId = UUID.randomUUID();
+      when(repository.changerSituation(clientId, SituationFamiliale.MARIE, 1, Optional.of(2L)))
+          .thenThrow(new ConflitVersionException());
+
+      // WHEN & THEN
+      assertThrows(ConflitVersionException.class,
+          () -> service.changementSituation(clientId, SituationFamiliale.MARIE, 1, Optional.of(2L)));
+    }
+
+    @Test
+    void given_unknown_client_and_invalid_address_modifierClient_should_throw_ClientInconnuException() throws Exception {
+      // GIVEN - unknown client takes precedence over invalid address (404 before 422)
+      UUID unknownId = UUID.randomUUID();
+      Client modifiedClient = Client.of(
+          new Nom("Dupont"),
+          new Prenom("Marie"),
+          new Adresse(
+              new LigneAdresse("25 avenue de la Republique"),
+              new CodePostal("99999"),
+              new Ville("VilleInconnue")
+          ),
+          SituationFamiliale.MARIE,
+          2
+      );
+      when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(false);
+      when(repository.version(unknownId)).thenReturn(Optional.empty());
+
+      // WHEN & THEN
+      assertThrows(ClientInconnuException.class,
+          () -> service.modifierClient(unknownId, modifiedClient, Optional.empty()));
+      verify(repository).version(unknownId);
+      verify(repository, never()).modifier(any(Client.class), any());
+      verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void given_unknown_client_changementAdresse_should_throw_ClientInconnuException_in_one_round_trip() throws Exception {
+      // GIVEN
+      UUID unknownId = UUID.randomUUID();
+      Adresse adresse = new Adresse(
+          new LigneAdresse("25 avenue de la Republique"),
+          new CodePostal("75011"),
+          new Ville("Paris")
+      );
+      when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(true);
+      when(repository.changerAdresse(unknownId, adresse, Optional.empty())).thenReturn(Optional.empty());
+
+      // WHEN & THEN
+      assertThrows(ClientInconnuException.class,
+          () -> service.changementAdresse(unknownId, adresse, Optional.empty()));
+      verify(repository).changerAdresse(unknownId, adresse, Optional.empty());
+      verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void given_unknown_client_and_invalid_address_changementAdresse_should_throw_ClientInconnuException() throws Exception {
+      // GIVEN - unknown client takes precedence over invalid address (404 before 422)
+      UUID unknownId = UUID.randomUUID();
+      Adresse adresse = new Adresse(
+          new LigneAdresse("25 avenue de la Republique"),
+          new CodePostal("99999"),
+          new Ville("VilleInconnue")
+      );
+      when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(false);
+      when(repository.version(unknownId)).thenReturn(Optional.empty());
+
+      // WHEN & THEN
+      assertThrows(ClientInconnuException.class,
+          () -> service.changementAdresse(unknownId, adresse, Optional.empty()));
+      verify(repository).version(unknownId);
+      verifyNoMoreInteractions(repository); // Should NOT save invalid data nor publish event
+    }
+
+    @Test
+    void given_invalid_address_and_stale_version_changementAdresse_should_throw_AdresseInvalideException() throws Exception {
+      // GIVEN - invalid address takes precedence over a version conflict (422 before 409)
+      UUID clientId = UUID.randomUUID();
+      Adresse adresse = new Adresse(
+          new LigneAdresse("25 avenue de la Republique"),
+          new CodePostal("99999"),
+          new Ville("VilleInconnue")
+      );
+      when(codePostauxService.validateCodePostal(any(CodePostal.class), any(Ville.class))).thenReturn(false);
+      when(repository.version(clientId)).thenReturn(Optional.of(5L));
+
+      // WHEN & THEN
+      assertThrows(AdresseInvalideException.class,
+          () -> service.changementAdresse(clientId, adresse, Optional.of(2L)));
+      verify(repository).version(clientId);
+      verifyNoMoreInteractions(repository);
+    }
+
+    // =========================================================================
+    // Tests for rechercherClients and search index maintenance
+    // =========================================================================
+
+    @Test
+    void given_no_search_index_rechercherClients_should_return_empty_list() {
+      // WHEN
+      List<UUID> result = service.rechercherClients("bousquet", 10);
+      // THEN
+      assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void given_search_index_rechercherClients_should_delegate_to_index() {
+      // GIVEN
+      IndexRechercheClients index = mock(IndexRechercheClients.class);
+      service = new ConnaissanceClientServiceImpl(repository, codePostauxService, index);
+      UUID id = UUID.randomUUID();
+      when(index.rechercher("bousqet bord", 5)).thenReturn(List.of(id));
+      // WHEN
+      List<UUID> result = service.rechercherClients("bousqet bord", 5);
+      // THEN
+      assertEquals(List.of(id), result);
+      verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void given_search_index_writes_should_update_index() throws Exception {
+      // GIVEN
+      IndexRechercheClients index = mock(IndexRechercheClients.class);
+      service = new ConnaissanceClientServiceImpl(repository, codePostauxService, index);
+      Client client = Client.of(
+          new Nom("Bousquet"),
+          new Prenom("Philippe"),
+          new Adresse(new LigneAdresse("48 rue Bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+          SituationFamiliale.CELIBATAIRE,
+          0
+      );
+      Adresse adresse = new Adresse(new LigneAdresse("1 place de la Bourse"), new CodePostal("33000"), new Ville("Bordeaux"));
+      when(codePostauxService.validateCodePostal(any(), any())).thenReturn(true);
+      when(repository.enregistrerAvecChangementAdresse(any())).thenReturn(client);
+      when(repository.changerAdresse(client.getId(), adresse, Optional.empty())).thenReturn(Optional.of(client));
+      // WHEN
+      service.nouveauClient(client);
+      service.changementAdresse(client.getId(), adresse, Optional.empty());
+      service.supprimerClient(client.getId());
+      // THEN
+      verify(index, times(2)).indexer(client);
+      verify(index).retirer(client.getId());
+    }
+
+    @Test
+    void given_search_index_failure_writes_should_still_succeed() throws Exception {
+      // GIVEN
+      IndexRechercheClients index = mock(IndexRechercheClients.class);
+      service = new ConnaissanceClientServiceImpl(repository, codePostauxService, index);
+      Client client = Client.of(
+          new Nom("Bousquet"),
+          new Prenom("Philippe"),
+          new Adresse(new LigneAdresse("48 rue Bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+          SituationFamiliale.CELIBATAIRE,
+          0
+      );
+      when(codePostauxService.validateCodePostal(any(), any())).thenReturn(true);
+      when(repository.enregistrerAvecChangementAdresse(any())).thenReturn(client);
+      when(repository.modifier(any(), eq(Optional.empty()))).thenReturn(Optional.of(client));
+      doThrow(new IllegalStateException("index indisponible")).when(index).indexer(any());
+      doThrow(new IllegalStateException("index indisponible")).when(index).retirer(any());
+      // WHEN
+      Client cree = service.nouveauClient(client);
+      Client modifie = service.modifierClient(client.getId(), client, Optional.empty());
+      service.supprimerClient(client.getId());
+      // THEN
+      assertEquals(client, cree);
+      assertEquals(client.getId(), modifie.getId());
+      verify(repository).supprimer(client.getId());
+    }
+
+    @Test
+    void given_address_rejected_nouveauClient_should_not_update_index() {
+      // GIVEN
+      IndexRechercheClients index = mock(IndexRechercheClients.class);
+      service = new ConnaissanceClientServiceImpl(repository, codePostauxService, index);
+      Client client = Client.of(
+          new Nom("Bousquet"),
+          new Prenom("Philippe"),
+          new Adresse(new LigneAdresse("48 rue Bauducheu"), new CodePostal("33800"), new Ville("Paris")),
+          SituationFamiliale.CELIBATAIRE,
+          0
+      );
+      when(codePostauxService.validateCodePostal(any(), any())).thenReturn(false);
+      // WHEN & THEN
+      assertThrows(AdresseInvalideException.class, () -> service.nouveauClient(client));
+      verify(index, never()).indexer(any());
     }
 }
@@ -18,6 +18,18 @@ import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
 
 public class ClientTest {
 
+  @Test
+  public void of_without_id_will_generate_uuid_v7() {
+    Client cc = Client.of(
+            new Nom("Bousquet"),
+            new Prenom("Philippe"),
+            new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+            SituationFamiliale.CELIBATAIRE,
+            0
+    );
+    assertEquals(7, cc.getId().version());
+  }
+
   @Test
   public void allargsconstructor_will_return_ok() {
     Client cc = Client.of(
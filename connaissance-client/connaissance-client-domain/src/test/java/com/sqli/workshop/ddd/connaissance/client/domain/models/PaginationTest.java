@@ -0,0 +1,33 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe de test de la pagination par curseur
+ */
+class PaginationTest {
+
+  @Test
+  void premiere_will_return_default_size_without_cursor() {
+    Pagination pagination = Pagination.premiere();
+    assertEquals(Pagination.TAILLE_PAR_DEFAUT, pagination.taille());
+    assertTrue(pagination.apres().isEmpty());
+  }
+
+  @Test
+  void constructor_with_size_too_large_will_be_bounded() {
+    Pagination pagination = new Pagination(100_000, Optional.of(UUID.randomUUID()));
+    assertEquals(Pagination.TAILLE_MAX, pagination.taille());
+  }
+
+  @Test
+  void constructor_with_size_zero_will_be_bounded() {
+    Pagination pagination = new Pagination(0, Optional.empty());
+    assertEquals(1, pagination.taille());
+  }
+}
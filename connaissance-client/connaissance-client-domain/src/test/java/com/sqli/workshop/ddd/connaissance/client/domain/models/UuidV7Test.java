@@ -0,0 +1,50 @@
+package com.sqli.workshop.ddd.connaissance.client.domain.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classe de test du générateur d'UUID v7
+ */
+class UuidV7Test {
+
+  @Test
+  void generer_will_return_version_7_ietf_variant() {
+    UUID uuid = UuidV7.generer();
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+  }
+
+  @Test
+  void generer_will_embed_timestamp_in_most_significant_bits() {
+    long millis = 1_700_000_000_123L;
+    UUID uuid = UuidV7.generer(millis, new SplittableRandom(42));
+    assertEquals(millis, UuidV7.horodatage(uuid));
+    assertTrue(uuid.toString().startsWith("018bcfe5-687b-7"));
+  }
+
+  @Test
+  void generer_at_later_millisecond_will_sort_after_in_binary_and_text() {
+    SplittableRandom aleatoire = new SplittableRandom(42);
+    UUID avant = UuidV7.generer(1_700_000_000_123L, aleatoire);
+    UUID apres = UuidV7.generer(1_700_000_000_124L, aleatoire);
+    assertTrue(Long.compareUnsigned(avant.getMostSignificantBits(), apres.getMostSignificantBits()) < 0);
+    assertTrue(avant.toString().compareTo(apres.toString()) < 0);
+  }
+
+  @Test
+  void generer_many_will_return_distinct_ids() {
+    Set<UUID> uuids = new HashSet<>();
+    for (int i = 0; i < 100_000; i++) {
+      uuids.add(UuidV7.generer());
+    }
+    assertEquals(100_000, uuids.size());
+  }
+
+}
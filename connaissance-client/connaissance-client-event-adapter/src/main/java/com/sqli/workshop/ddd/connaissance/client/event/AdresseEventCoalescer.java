@@ -0,0 +1,188 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.springframework.context.SmartLifecycle;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Regroupement des messages d'adresse successifs d'un même client.
+ * <p>
+ * Le premier message d'un client ouvre une fenêtre de {@code window} ; les messages du même
+ * client reçus pendant la fenêtre remplacent le message en attente. À la fin de la fenêtre, seule
+ * la dernière adresse est publiée et sa confirmation est reportée sur tous les messages regroupés.
+ * Le contrat AsyncAPI est inchangé : le message publié est le dernier message reçu.
+ * <p>
+ * Les publications d'un même client sont enchaînées : une fenêtre n'est publiée qu'après la
+ * confirmation de la précédente, et n'est pas publiée si la précédente a échoué.
+ * <p>
+ * <strong>Métriques :</strong> {@code connaissance.client.events.coalescing.window} (durée de la
+ * fenêtre), {@code connaissance.client.events.coalescing.received} et
+ * {@code connaissance.client.events.coalescing.published} (messages reçus et publiés),
+ * {@code connaissance.client.events.coalescing.merged} (messages regroupés par publication,
+ * dont la moyenne est le taux de regroupement), {@code connaissance.client.events.coalescing.pending}
+ * (clients en attente de publication).
+ */
+@Slf4j
+public class AdresseEventCoalescer implements SmartLifecycle {
+
+    private static final Duration ATTENTE_ARRET = Duration.ofSeconds(5);
+
+    /** Messages d'un client en attente de la fin de la fenêtre */
+    private static final class Fenetre {
+        private AdresseMessagePayload payload;
+        private final List<CompletableFuture<Boolean>> confirmations = new ArrayList<>();
+    }
+
+    private final Function<AdresseMessagePayload, CompletableFuture<Boolean>> envoi;
+    private final Duration fenetre;
+    private final Map<String, Fenetre> enAttente = new HashMap<>();
+    private final Map<String, CompletableFuture<Boolean>> derniersEnvois = new HashMap<>();
+    private final ExecutorService threadsEnvoi = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cclient-event-coalesce-", 0).factory());
+    private final Counter recus;
+    private final Counter publies;
+    private final DistributionSummary regroupes;
+
+    private volatile ScheduledExecutorService planificateur;
+
+    public AdresseEventCoalescer(Function<AdresseMessagePayload, CompletableFuture<Boolean>> envoi,
+                                 Duration fenetre, MeterRegistry registry) {
+        this.envoi = envoi;
+        this.fenetre = fenetre;
+        Gauge.builder("connaissance.client.events.coalescing.window", fenetre, Duration::toMillis)
+                .description("Durée de la fenêtre de regroupement des messages d'adresse")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("connaissance.client.events.coalescing.pending", this, AdresseEventCoalescer::clientsEnAttente)
+                .description("Clients dont un message d'adresse attend la fin de la fenêtre")
+                .register(registry);
+        this.recus = Counter.builder("connaissance.client.events.coalescing.received")
+                .description("Messages d'adresse reçus par le regroupement")
+                .register(registry);
+        this.publies = Counter.builder("connaissance.client.events.coalescing.published")
+                .description("Messages d'adresse publiés après regroupement")
+                .register(registry);
+        this.regroupes = DistributionSummary.builder("connaissance.client.events.coalescing.merged")
+                .description("Messages d'adresse regroupés par message publié")
+                .register(registry);
+    }
+
+    /**
+     * Dépose un message : il remplace le message du même client en attente, s'il y en a un.
+     *
+     * @param payload le message
+     * @return la confirmation de publication du dernier message du client dans la fenêtre
+     */
+    public CompletableFuture<Boolean> soumettre(AdresseMessagePayload payload) {
+        CompletableFuture<Boolean> confirmation = new CompletableFuture<>();
+        String clientId = payload.getClientId();
+        synchronized (this) {
+            ScheduledExecutorService courant = planificateur;
+            if (courant == null) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Address event coalescer stopped"));
+            }
+            recus.increment();
+            Fenetre ouverte = enAttente.get(clientId);
+            if (ouverte == null) {
+                ouverte = new Fenetre();
+                enAttente.put(clientId, ouverte);
+                courant.schedule(() -> publier(clientId), fenetre.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            ouverte.payload = payload;
+            ouverte.confirmations.add(confirmation);
+        }
+        return confirmation;
+    }
+
+    private void publier(String clientId) {
+        Fenetre fermee;
+        CompletableFuture<Boolean> envoye;
+        synchronized (this) {
+            fermee = enAttente.remove(clientId);
+            if (fermee == null) return;
+            CompletableFuture<Boolean> precedent = derniersEnvois.getOrDefault(clientId, CompletableFuture.completedFuture(true));
+            envoye = precedent
+                    .handle((publie, erreur) -> erreur == null && Boolean.TRUE.equals(publie))
+                    .thenComposeAsync(precedentPublie -> precedentPublie
+                            ? envoi.apply(fermee.payload)
+                            : CompletableFuture.completedFuture(false), threadsEnvoi);
+            derniersEnvois.put(clientId, envoye);
+        }
+        publies.increment();
+        regroupes.record(fermee.confirmations.size());
+        envoye.whenComplete((publie, erreur) -> {
+            synchronized (this) {
+                derniersEnvois.remove(clientId, envoye);
+            }
+            for (CompletableFuture<Boolean> confirmation : fermee.confirmations) {
+                if (erreur != null) confirmation.completeExceptionally(erreur);
+                else confirmation.complete(publie);
+            }
+        });
+    }
+
+    private synchronized int clientsEnAttente() {
+        return enAttente.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (planificateur != null) return;
+        planificateur = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("cclient-event-coalescer").factory());
+    }
+
+    /**
+     * Arrêt : les fenêtres ouvertes sont publiées sans attendre leur fin (au plus 5s).
+     */
+    @Override
+    public void stop() {
+        List<String> clients;
+        synchronized (this) {
+            ScheduledExecutorService courant = planificateur;
+            if (courant == null) return;
+            planificateur = null;
+            courant.shutdownNow();
+            clients = new ArrayList<>(enAttente.keySet());
+        }
+        clients.forEach(this::publier);
+        CompletableFuture<?>[] envois;
+        synchronized (this) {
+            envois = derniersEnvois.values().toArray(CompletableFuture<?>[]::new);
+        }
+        try {
+            CompletableFuture.allOf(envois).get(ATTENTE_ARRET.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Address events still pending after coalescer shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return planificateur != null;
+    }
+
+}
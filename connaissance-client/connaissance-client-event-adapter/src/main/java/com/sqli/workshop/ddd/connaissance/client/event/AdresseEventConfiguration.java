@@ -0,0 +1,121 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.producer.IDefaultServiceEventsProducer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Options de publication des messages d'adresse :
+ * <ul>
+ *   <li>publication asynchrone par lots, activée par {@code connaissance-client.events.async.enabled=true} ;
+ *   sinon, chaque message est publié dans le thread appelant</li>
+ *   <li>regroupement des messages successifs d'un même client, activé par
+ *   {@code connaissance-client.events.coalescing.enabled=true}</li>
+ *   <li>encodage des messages, choisi par {@code connaissance-client.events.encoding} :
+ *   {@code json} (par défaut) ou {@code avro} ({@link AdresseMessageAvroConverter#AVRO})</li>
+ * </ul>
+ */
+@Configuration
+public class AdresseEventConfiguration {
+
+    /** Binding de sortie des messages d'adresse ({@code event.adresse.v1}) */
+    static final String BINDING = "send-adresse-message-out-0";
+
+    public enum Encodage {
+        JSON(MimeTypeUtils.APPLICATION_JSON),
+        AVRO(AdresseMessageAvroConverter.AVRO);
+
+        private final MimeType contentType;
+
+        Encodage(MimeType contentType) {
+            this.contentType = contentType;
+        }
+
+        public MimeType contentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Applique l'encodage choisi au content-type du binding {@value #BINDING}, transmis aux
+     * consommateurs dans l'en-tête {@code contentType} de chaque message : la propriété
+     * remplace tout {@code content-type} déclaré sur le binding.
+     */
+    @Bean
+    static BeanPostProcessor adresseMessageEncodage(
+            @Value("${connaissance-client.events.encoding:json}") String encodage) {
+        Encodage choisi = Encodage.valueOf(encodage.toUpperCase());
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof BindingServiceProperties proprietes) {
+                    proprietes.getBindings()
+                            .computeIfAbsent(BINDING, binding -> new BindingProperties())
+                            .setContentType(choisi.contentType().toString());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    AdresseMessageAvroConverter adresseMessageAvroConverter() {
+        return new AdresseMessageAvroConverter(new AdresseMessageAvroCodec());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "connaissance-client.events.async", name = "enabled", havingValue = "true")
+    AdresseEventPublisher adresseEventPublisher(
+            IDefaultServiceEventsProducer producer,
+            @Value("${connaissance-client.events.async.queue-capacity:10000}") int capacite,
+            @Value("${connaissance-client.events.async.batch-size:100}") int tailleLot,
+            @Value("${connaissance-client.events.async.linger:20ms}") Duration linger,
+            @Value("${connaissance-client.events.async.overflow:block}") String saturation,
+            @Value("${connaissance-client.events.async.enqueue-timeout:500ms}") Duration attenteDepot,
+            MeterRegistry registry) {
+        return new AdresseEventPublisher(
+                producer::sendAdresseMessage,
+                capacite, tailleLot, linger,
+                AdresseEventPublisher.Saturation.valueOf(saturation.toUpperCase()),
+                attenteDepot, registry);
+    }
+
+    /**
+     * Le regroupement publie via la file asynchrone si elle est activée, sinon directement.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "connaissance-client.events.coalescing", name = "enabled", havingValue = "true")
+    AdresseEventCoalescer adresseEventCoalescer(
+            IDefaultServiceEventsProducer producer,
+            Optional<AdresseEventPublisher> publisher,
+            @Value("${connaissance-client.events.coalescing.window:2s}") Duration fenetre,
+            MeterRegistry registry) {
+        Function<AdresseMessagePayload, CompletableFuture<Boolean>> envoi = publisher
+                .<Function<AdresseMessagePayload, CompletableFuture<Boolean>>>map(file -> file::soumettre)
+                .orElse(payload -> {
+                    try {
+                        return CompletableFuture.completedFuture(producer.sendAdresseMessage(payload));
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+        return new AdresseEventCoalescer(envoi, fenetre, registry);
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.springframework.context.SmartLifecycle;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publication asynchrone et par lots des messages d'adresse.
+ * <p>
+ * Les messages sont déposés dans une file bornée ; un thread dédié les regroupe en lots
+ * (au plus {@code batch-size} messages, ou ceux arrivés pendant {@code linger} après le premier)
+ * puis les envoie en parallèle. L'envoi est synchrone côté binder ({@code producer.sync=true}) :
+ * chaque message est confirmé à l'acquittement du broker, et le producteur Kafka regroupe les
+ * envois concurrents d'un même lot en une seule requête.
+ * <p>
+ * <strong>File pleine</strong> ({@code overflow}) :
+ * <ul>
+ *   <li>{@link Saturation#BLOCK} : l'appelant attend une place au plus {@code enqueue-timeout},
+ *   puis le message est rejeté en échec</li>
+ *   <li>{@link Saturation#DROP} : le message est abandonné, la confirmation vaut {@code false}</li>
+ *   <li>{@link Saturation#FAIL} : le message est rejeté immédiatement en échec</li>
+ * </ul>
+ * <strong>Métriques :</strong> {@code connaissance.client.events.queue.depth} (messages en attente),
+ * {@code connaissance.client.events.batch.size} (taille des lots),
+ * {@code connaissance.client.events.confirm.latency} (délai entre le dépôt et l'acquittement),
+ * {@code connaissance.client.events.rejected} (messages rejetés ou abandonnés, file pleine).
+ */
+@Slf4j
+public class AdresseEventPublisher implements SmartLifecycle {
+
+    /** Politique appliquée quand la file est pleine */
+    public enum Saturation { BLOCK, DROP, FAIL }
+
+    private record Envoi(AdresseMessagePayload payload, CompletableFuture<Boolean> confirmation, long depose) {}
+
+    private static final Duration ATTENTE_FILE = Duration.ofMillis(100);
+    private static final Duration ATTENTE_ARRET = Duration.ofSeconds(5);
+
+    private final Predicate<AdresseMessagePayload> envoi;
+    private final BlockingQueue<Envoi> file;
+    private final int tailleLot;
+    private final Duration linger;
+    private final Saturation saturation;
+    private final Duration attenteDepot;
+    private final ExecutorService threadsEnvoi = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cclient-event-send-", 0).factory());
+    private final DistributionSummary lots;
+    private final Timer confirmation;
+    private final Counter rejets;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public AdresseEventPublisher(Predicate<AdresseMessagePayload> envoi, int capacite, int tailleLot, Duration linger,
+                                 Saturation saturation, Duration attenteDepot, MeterRegistry registry) {
+        this.envoi = envoi;
+        this.file = new ArrayBlockingQueue<>(capacite);
+        this.tailleLot = tailleLot;
+        this.linger = linger;
+        this.saturation = saturation;
+        this.attenteDepot = attenteDepot;
+        Gauge.builder("connaissance.client.events.queue.depth", file, BlockingQueue::size)
+                .description("Messages d'adresse en attente de publication")
+                .register(registry);
+        this.lots = DistributionSummary.builder("connaissance.client.events.batch.size")
+                .description("Taille des lots de messages d'adresse publiés")
+                .register(registry);
+        this.confirmation = Timer.builder("connaissance.client.events.confirm.latency")
+                .description("Délai entre le dépôt d'un message d'adresse et son acquittement par le broker")
+                .register(registry);
+        this.rejets = Counter.builder("connaissance.client.events.rejected")
+                .description("Messages d'adresse rejetés ou abandonnés (file pleine)")
+                .tag("overflow", saturation.name().toLowerCase())
+                .register(registry);
+    }
+
+    /**
+     * Dépose un message dans la file de publication.
+     *
+     * @param payload le message
+     * @return la confirmation de publication : {@code true} à l'acquittement du broker,
+     *         {@code false} si le message n'a pas été publié ; en échec si le message est rejeté
+     */
+    public CompletableFuture<Boolean> soumettre(AdresseMessagePayload payload) {
+        Envoi depot = new Envoi(payload, new CompletableFuture<>(), System.nanoTime());
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Address event publisher stopped"));
+        }
+        if (deposer(depot)) return depot.confirmation();
+        rejets.increment();
+        if (saturation == Saturation.DROP) {
+            log.warn("Address event queue full, dropping event for client {}", payload.getClientId());
+            return CompletableFuture.completedFuture(false);
+        }
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Address event queue full"));
+    }
+
+    private boolean deposer(Envoi depot) {
+        if (saturation != Saturation.BLOCK) return file.offer(depot);
+        try {
+            return file.offer(depot, attenteDepot.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("cclient-event-publisher").start(this::publierEnContinu);
+    }
+
+    /**
+     * Arrêt après publication des messages déjà déposés (au plus 5s) ; les messages restants
+     * sont confirmés à {@code false}.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread courant = thread;
+        thread = null;
+        if (courant != null) {
+            try {
+                courant.join(ATTENTE_ARRET.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            courant.interrupt();
+        }
+        List<Envoi> restants = new ArrayList<>();
+        file.drainTo(restants);
+        restants.forEach(depot -> depot.confirmation().complete(false));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void publierEnContinu() {
+        while (running || !file.isEmpty()) {
+            try {
+                List<Envoi> lot = prochainLot();
+                if (!lot.isEmpty()) publierLot(lot);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return le prochain lot : au plus {@code tailleLot} messages, arrivés au plus {@code linger}
+     *         après le premier ; vide si aucun message n'est arrivé
+     */
+    private List<Envoi> prochainLot() throws InterruptedException {
+        Envoi premier = file.poll(ATTENTE_FILE.toNanos(), TimeUnit.NANOSECONDS);
+        if (premier == null) return List.of();
+        List<Envoi> lot = new ArrayList<>(tailleLot);
+        lot.add(premier);
+        long limite = System.nanoTime() + linger.toNanos();
+        while (lot.size() < tailleLot) {
+            if (file.drainTo(lot, tailleLot - lot.size()) > 0) continue;
+            long reste = limite - System.nanoTime();
+            if (reste <= 0) break;
+            Envoi suivant = file.poll(reste, TimeUnit.NANOSECONDS);
+            if (suivant == null) break;
+            lot.add(suivant);
+        }
+        return lot;
+    }
+
+    private void publierLot(List<Envoi> lot) {
+        lots.record(lot.size());
+        CompletableFuture<?>[] envois = new CompletableFuture<?>[lot.size()];
+        for (int i = 0; i < lot.size(); i++) {
+            Envoi depot = lot.get(i);
+            envois[i] = CompletableFuture.supplyAsync(() -> envoi.test(depot.payload()), threadsEnvoi)
+                    .whenComplete((publie, erreur) -> {
+                        confirmation.record(System.nanoTime() - depot.depose(), TimeUnit.NANOSECONDS);
+                        if (erreur != null) depot.confirmation().completeExceptionally(erreur);
+                        else depot.confirmation().complete(publie);
+                    });
+        }
+        // Un seul lot en cours d'envoi : le suivant se remplit pendant ce temps
+        CompletableFuture.allOf(envois).exceptionally(erreur -> null).join();
+    }
+
+}
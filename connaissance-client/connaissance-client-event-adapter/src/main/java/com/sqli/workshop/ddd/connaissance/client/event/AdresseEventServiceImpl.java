@@ -6,7 +6,9 @@ import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
 import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
 import com.sqli.workshop.ddd.connaissance.client.generated.event.producer.IDefaultServiceEventsProducer;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import lombok.AllArgsConstructor;
 
@@ -17,11 +19,55 @@ import org.springframework.stereotype.Component;
 public class AdresseEventServiceImpl implements AdresseEventService {
     
     IDefaultServiceEventsProducer adresseEventService;
+    /** Présent si la publication asynchrone est activée ({@code connaissance-client.events.async.enabled}) */
+    Optional<AdresseEventPublisher> publisher;
+    /** Présent si le regroupement par client est activé ({@code connaissance-client.events.coalescing.enabled}) */
+    Optional<AdresseEventCoalescer> coalescer;
 
+    /**
+     * Publie le message d'adresse ; en mode asynchrone ou avec regroupement, rend la main dès
+     * le message déposé.
+     *
+     * @return {@code true} si le message est publié (ou déposé), {@code false} si le producteur
+     *         refuse l'envoi ou si le message est abandonné
+     */
     @Override
     public boolean sendEvent(UUID id, Destinataire destinataire,
             com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse adresse) {
-                System.out.println("AdresseEventService : create Payload");
+                AdresseMessagePayload payload = payload(id, destinataire, adresse);
+                if (coalescer.isPresent() || publisher.isPresent()) {
+                    CompletableFuture<Boolean> confirmation = deposer(payload);
+                    return !confirmation.isCompletedExceptionally() && confirmation.getNow(true);
+                }
+                System.out.println("AdresseEventService : send Payload");
+                boolean envoye = adresseEventService.sendAdresseMessage(payload);
+                System.out.println("AdresseEventService : Payload sent");
+                return envoye;
+            }
+
+    @Override
+    public CompletableFuture<Boolean> sendEventAsync(UUID id, Destinataire destinataire,
+            com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse adresse) {
+        if (coalescer.isEmpty() && publisher.isEmpty()) return AdresseEventService.super.sendEventAsync(id, destinataire, adresse);
+        return deposer(payload(id, destinataire, adresse));
+    }
+
+    /**
+     * Avec regroupement, les messages d'un même client sont publiés dans l'ordre et une fenêtre
+     * n'est pas publiée si la précédente a échoué.
+     */
+    @Override
+    public boolean conserveOrdreParClient() {
+        return coalescer.isPresent();
+    }
+
+    private CompletableFuture<Boolean> deposer(AdresseMessagePayload payload) {
+        if (coalescer.isPresent()) return coalescer.get().soumettre(payload);
+        return publisher.get().soumettre(payload);
+    }
+
+    private static AdresseMessagePayload payload(UUID id, Destinataire destinataire,
+            com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse adresse) {
                 AdresseMessagePayload payload = new AdresseMessagePayload();
                 payload.setClientId(id.toString());
                 Adresse adresseMsg = new Adresse();
@@ -33,10 +79,7 @@ public class AdresseEventServiceImpl implements AdresseEventService {
                 }
                 adresseMsg.setVille(adresse.ville().value());
                 payload.setAdresse(adresseMsg);
-                System.out.println("AdresseEventService : send Payload");
-                adresseEventService.sendAdresseMessage(payload);
-                System.out.println("AdresseEventService : Payload sent");
-                return true;
+                return payload;
             }
 
 }
@@ -0,0 +1,98 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+/**
+ * Encodage binaire Avro de {@link AdresseMessagePayload}, selon le schéma
+ * {@value #SCHEMA} dérivé de {@code adresse-asyncapi-3.yaml}.
+ * <p>
+ * Le schéma n'est pas transmis avec le message : producteur et consommateurs partagent la
+ * version désignée par le content-type {@link AdresseMessageAvroConverter#AVRO}. Les instances
+ * sont thread-safe.
+ */
+public class AdresseMessageAvroCodec {
+
+    static final String SCHEMA = "/avro/adresse-message-payload.avsc";
+
+    private final Schema schema;
+    private final Schema schemaAdresse;
+    private final GenericDatumWriter<GenericRecord> writer;
+    private final GenericDatumReader<GenericRecord> reader;
+
+    public AdresseMessageAvroCodec() {
+        try (InputStream source = AdresseMessageAvroCodec.class.getResourceAsStream(SCHEMA)) {
+            if (source == null) throw new IllegalStateException("Avro schema not found: " + SCHEMA);
+            this.schema = new Schema.Parser().parse(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read Avro schema " + SCHEMA, e);
+        }
+        this.schemaAdresse = schema.getField("adresse").schema();
+        this.writer = new GenericDatumWriter<>(schema);
+        this.reader = new GenericDatumReader<>(schema);
+    }
+
+    public byte[] encoder(AdresseMessagePayload payload) {
+        Adresse adresse = payload.getAdresse();
+        GenericRecord enregistrementAdresse = new GenericData.Record(schemaAdresse);
+        enregistrementAdresse.put("destinataire", adresse.getDestinataire());
+        enregistrementAdresse.put("ligne1", adresse.getLigne1());
+        enregistrementAdresse.put("ligne2", adresse.getLigne2());
+        enregistrementAdresse.put("codePostal", adresse.getCodePostal());
+        enregistrementAdresse.put("ville", adresse.getVille());
+        GenericRecord enregistrement = new GenericData.Record(schema);
+        enregistrement.put("clientId", payload.getClientId());
+        enregistrement.put("adresse", enregistrementAdresse);
+
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream(128);
+        BinaryEncoder encodeur = EncoderFactory.get().directBinaryEncoder(sortie, null);
+        try {
+            writer.write(enregistrement, encodeur);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode address message", e);
+        }
+        return sortie.toByteArray();
+    }
+
+    public AdresseMessagePayload decoder(byte[] octets) {
+        BinaryDecoder decodeur = DecoderFactory.get().binaryDecoder(octets, null);
+        GenericRecord enregistrement;
+        try {
+            enregistrement = reader.read(null, decodeur);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode address message", e);
+        }
+        GenericRecord enregistrementAdresse = (GenericRecord) enregistrement.get("adresse");
+        Adresse adresse = new Adresse();
+        adresse.setDestinataire(texte(enregistrementAdresse.get("destinataire")));
+        adresse.setLigne1(texte(enregistrementAdresse.get("ligne1")));
+        adresse.setLigne2(texte(enregistrementAdresse.get("ligne2")));
+        adresse.setCodePostal(texte(enregistrementAdresse.get("codePostal")));
+        adresse.setVille(texte(enregistrementAdresse.get("ville")));
+        AdresseMessagePayload payload = new AdresseMessagePayload();
+        payload.setClientId(texte(enregistrement.get("clientId")));
+        payload.setAdresse(adresse);
+        return payload;
+    }
+
+    /** Les chaînes Avro sont décodées en {@link org.apache.avro.util.Utf8} */
+    private static String texte(Object valeur) {
+        return valeur == null ? null : valeur.toString();
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+/**
+ * Conversion des messages d'adresse au format Avro ({@link AdresseMessageAvroCodec}).
+ * <p>
+ * Le format est choisi par {@code connaissance-client.events.encoding}
+ * ({@link AdresseEventConfiguration.Encodage}), appliqué au content-type du binding et transmis
+ * dans l'en-tête {@code contentType} de chaque message : les consommateurs JSON existants
+ * continuent de recevoir {@code application/json} tant que l'encodage n'est pas basculé, et
+ * chaque consommateur choisit son convertisseur d'après l'en-tête.
+ */
+public class AdresseMessageAvroConverter extends AbstractMessageConverter {
+
+    public static final MimeType AVRO = MimeType.valueOf("application/vnd.adresse-message.v1+avro");
+
+    private final AdresseMessageAvroCodec codec;
+
+    public AdresseMessageAvroConverter(AdresseMessageAvroCodec codec) {
+        super(AVRO);
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AdresseMessagePayload.class.equals(clazz);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        try {
+            return codec.encoder((AdresseMessagePayload) payload);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Unable to encode address message as Avro", e);
+        }
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] octets)) return null;
+        try {
+            return codec.decoder(octets);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException(message, "Unable to decode Avro address message", e);
+        }
+    }
+
+}
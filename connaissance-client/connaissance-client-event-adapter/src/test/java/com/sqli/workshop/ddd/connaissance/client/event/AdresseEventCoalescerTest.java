@@ -0,0 +1,98 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdresseEventCoalescerTest {
+
+    private List<AdresseMessagePayload> publies;
+    private SimpleMeterRegistry registry;
+    private AdresseEventCoalescer coalescer;
+
+    @BeforeEach
+    public void init() {
+        publies = new CopyOnWriteArrayList<>();
+        registry = new SimpleMeterRegistry();
+        coalescer = new AdresseEventCoalescer(payload -> {
+            publies.add(payload);
+            return CompletableFuture.completedFuture(!"refuse".equals(payload.getAdresse().getCodePostal()));
+        }, Duration.ofMillis(200), registry);
+        coalescer.start();
+    }
+
+    @AfterEach
+    public void close() {
+        coalescer.stop();
+    }
+
+    @Test
+    public void given_successive_events_for_same_client_soumettre_should_publish_last_only() throws Exception {
+        // GIVEN
+        CompletableFuture<Boolean> premier = coalescer.soumettre(payload("client-1", "33800"));
+        CompletableFuture<Boolean> second = coalescer.soumettre(payload("client-1", "33000"));
+        CompletableFuture<Boolean> autreClient = coalescer.soumettre(payload("client-2", "75001"));
+        // WHEN
+        CompletableFuture<Boolean> dernier = coalescer.soumettre(payload("client-1", "33400"));
+        // THEN
+        assertTrue(premier.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(dernier.get(5, TimeUnit.SECONDS));
+        assertTrue(autreClient.get(5, TimeUnit.SECONDS));
+        assertEquals(2, publies.size());
+        assertEquals("33400", publies.stream()
+                .filter(payload -> "client-1".equals(payload.getClientId()))
+                .findFirst().orElseThrow().getAdresse().getCodePostal());
+        assertEquals(4.0, registry.get("connaissance.client.events.coalescing.received").counter().count());
+        assertEquals(2.0, registry.get("connaissance.client.events.coalescing.published").counter().count());
+        assertEquals(2.0, registry.get("connaissance.client.events.coalescing.merged").summary().mean());
+        assertEquals(200.0, registry.get("connaissance.client.events.coalescing.window").gauge().value());
+    }
+
+    @Test
+    public void given_refused_window_soumettre_should_confirm_false_then_publish_next_window() throws Exception {
+        // GIVEN
+        CompletableFuture<Boolean> refuse = coalescer.soumettre(payload("client-1", "refuse"));
+        assertFalse(refuse.get(5, TimeUnit.SECONDS));
+        // WHEN
+        CompletableFuture<Boolean> suivant = coalescer.soumettre(payload("client-1", "33000"));
+        // THEN
+        assertTrue(suivant.get(5, TimeUnit.SECONDS));
+        assertEquals(2, publies.size());
+    }
+
+    @Test
+    public void given_stop_with_open_window_stop_should_publish_immediately() throws Exception {
+        // GIVEN
+        CompletableFuture<Boolean> confirmation = coalescer.soumettre(payload("client-1", "33800"));
+        // WHEN
+        coalescer.stop();
+        // THEN
+        assertTrue(confirmation.get(1, TimeUnit.SECONDS));
+        assertEquals(1, publies.size());
+        assertTrue(coalescer.soumettre(payload("client-1", "33000")).isCompletedExceptionally());
+    }
+
+    private static AdresseMessagePayload payload(String clientId, String codePostal) {
+        Adresse adresse = new Adresse();
+        adresse.setCodePostal(codePostal);
+        AdresseMessagePayload payload = new AdresseMessagePayload();
+        payload.setClientId(clientId);
+        payload.setAdresse(adresse);
+        return payload;
+    }
+
+}
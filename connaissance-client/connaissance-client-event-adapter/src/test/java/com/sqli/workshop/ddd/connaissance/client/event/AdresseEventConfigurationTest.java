@@ -0,0 +1,46 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdresseEventConfigurationTest {
+
+    @Test
+    public void given_avro_encoding_binding_properties_should_use_avro_content_type() {
+        // GIVEN
+        BindingServiceProperties proprietes = new BindingServiceProperties();
+        BindingProperties binding = new BindingProperties();
+        binding.setDestination("event.adresse.v1");
+        binding.setContentType("application/json");
+        proprietes.getBindings().put(AdresseEventConfiguration.BINDING, binding);
+        BeanPostProcessor encodage = AdresseEventConfiguration.adresseMessageEncodage("avro");
+        // WHEN
+        encodage.postProcessAfterInitialization(proprietes, "bindingServiceProperties");
+        // THEN
+        assertEquals(AdresseMessageAvroConverter.AVRO.toString(),
+                proprietes.getBindings().get(AdresseEventConfiguration.BINDING).getContentType());
+        assertEquals("event.adresse.v1", proprietes.getBindings().get(AdresseEventConfiguration.BINDING).getDestination());
+    }
+
+    @Test
+    public void given_json_encoding_binding_properties_should_use_json_content_type() {
+        // GIVEN
+        BindingServiceProperties proprietes = new BindingServiceProperties();
+        BeanPostProcessor encodage = AdresseEventConfiguration.adresseMessageEncodage("json");
+        // WHEN
+        encodage.postProcessAfterInitialization(proprietes, "bindingServiceProperties");
+        // THEN
+        assertEquals("application/json", proprietes.getBindings().get(AdresseEventConfiguration.BINDING).getContentType());
+    }
+
+    @Test
+    public void given_unknown_encoding_configuration_should_fail_fast() {
+        // WHEN / THEN
+        assertThrows(IllegalArgumentException.class, () -> AdresseEventConfiguration.adresseMessageEncodage("protobuf"));
+    }
+
+}
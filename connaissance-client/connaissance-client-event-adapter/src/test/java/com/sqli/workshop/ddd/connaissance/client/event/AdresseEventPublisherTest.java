@@ -0,0 +1,137 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdresseEventPublisherTest {
+
+    private SimpleMeterRegistry registry;
+    private AdresseEventPublisher publisher;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void close() {
+        if (publisher != null) publisher.stop();
+    }
+
+    @Test
+    public void given_events_within_linger_soumettre_should_publish_them_in_one_batch() throws Exception {
+        // GIVEN
+        List<String> publies = new ArrayList<>();
+        publisher = new AdresseEventPublisher(payload -> {
+            synchronized (publies) {
+                publies.add(payload.getClientId());
+            }
+            return true;
+        }, 100, 10, Duration.ofMillis(500), AdresseEventPublisher.Saturation.FAIL, Duration.ZERO, registry);
+        publisher.start();
+        // WHEN
+        List<CompletableFuture<Boolean>> confirmations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            confirmations.add(publisher.soumettre(payload("client-" + i)));
+        }
+        // THEN
+        for (CompletableFuture<Boolean> confirmation : confirmations) {
+            assertTrue(confirmation.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(3, publies.size());
+        assertEquals(1, registry.get("connaissance.client.events.batch.size").summary().count());
+        assertEquals(3.0, registry.get("connaissance.client.events.batch.size").summary().totalAmount());
+        assertEquals(3, registry.get("connaissance.client.events.confirm.latency").timer().count());
+    }
+
+    @Test
+    public void given_full_queue_and_drop_policy_soumettre_should_confirm_false() throws Exception {
+        // GIVEN
+        CountDownLatch debloque = new CountDownLatch(1);
+        publisher = new AdresseEventPublisher(bloquant(debloque), 1, 1, Duration.ZERO,
+                AdresseEventPublisher.Saturation.DROP, Duration.ZERO, registry);
+        publisher.start();
+        remplir();
+        // WHEN
+        CompletableFuture<Boolean> confirmation = publisher.soumettre(payload("abandonne"));
+        // THEN
+        assertFalse(confirmation.get(1, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get("connaissance.client.events.rejected").tag("overflow", "drop").counter().count());
+        debloque.countDown();
+    }
+
+    @Test
+    public void given_full_queue_and_fail_policy_soumettre_should_fail() throws Exception {
+        // GIVEN
+        CountDownLatch debloque = new CountDownLatch(1);
+        publisher = new AdresseEventPublisher(bloquant(debloque), 1, 1, Duration.ZERO,
+                AdresseEventPublisher.Saturation.FAIL, Duration.ZERO, registry);
+        publisher.start();
+        remplir();
+        // WHEN
+        CompletableFuture<Boolean> confirmation = publisher.soumettre(payload("rejete"));
+        // THEN
+        ExecutionException erreur = assertThrows(ExecutionException.class, () -> confirmation.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, erreur.getCause());
+        assertEquals(1.0, registry.get("connaissance.client.events.rejected").tag("overflow", "fail").counter().count());
+        debloque.countDown();
+    }
+
+    @Test
+    public void given_stopped_publisher_soumettre_should_fail() {
+        // GIVEN
+        publisher = new AdresseEventPublisher(payload -> true, 10, 10, Duration.ZERO,
+                AdresseEventPublisher.Saturation.BLOCK, Duration.ZERO, registry);
+        // WHEN
+        CompletableFuture<Boolean> confirmation = publisher.soumettre(payload("arrete"));
+        // THEN
+        assertTrue(confirmation.isCompletedExceptionally());
+    }
+
+    /**
+     * Un message en cours d'envoi (bloqué) et un message en file : la file de capacité 1 est pleine.
+     */
+    private void remplir() throws InterruptedException {
+        publisher.soumettre(payload("en-cours"));
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("connaissance.client.events.queue.depth").gauge().value() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        publisher.soumettre(payload("en-attente"));
+    }
+
+    private static Predicate<AdresseMessagePayload> bloquant(CountDownLatch debloque) {
+        return payload -> {
+            try {
+                return debloque.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+    }
+
+    private static AdresseMessagePayload payload(String clientId) {
+        AdresseMessagePayload payload = new AdresseMessagePayload();
+        payload.setClientId(clientId);
+        return payload;
+    }
+
+}
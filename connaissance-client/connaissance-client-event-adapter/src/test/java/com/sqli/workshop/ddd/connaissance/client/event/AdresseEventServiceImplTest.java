@@ -0,0 +1,122 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Destinataire;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.producer.IDefaultServiceEventsProducer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AdresseEventServiceImplTest {
+
+    private static final Destinataire DESTINATAIRE = new Destinataire(new Nom("Bousquet"), new Prenom("Philippe"));
+    private static final Adresse ADRESSE = new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux"));
+
+    private IDefaultServiceEventsProducer producer;
+    private SimpleMeterRegistry registry;
+    private AdresseEventConfiguration configuration;
+
+    @BeforeEach
+    public void init() {
+        producer = mock(IDefaultServiceEventsProducer.class);
+        registry = new SimpleMeterRegistry();
+        configuration = new AdresseEventConfiguration();
+    }
+
+    @Test
+    public void given_producer_accepting_message_sendEvent_should_return_true() {
+        // GIVEN
+        when(producer.sendAdresseMessage(any(AdresseMessagePayload.class))).thenReturn(true);
+        AdresseEventServiceImpl service = new AdresseEventServiceImpl(producer, Optional.empty(), Optional.empty());
+        // WHEN
+        boolean envoye = service.sendEvent(UUID.randomUUID(), DESTINATAIRE, ADRESSE);
+        // THEN
+        assertTrue(envoye);
+        verify(producer).sendAdresseMessage(any(AdresseMessagePayload.class));
+    }
+
+    @Test
+    public void given_producer_refusing_message_sendEvent_and_sendEventAsync_should_return_false() throws Exception {
+        // GIVEN
+        when(producer.sendAdresseMessage(any(AdresseMessagePayload.class))).thenReturn(false);
+        AdresseEventServiceImpl service = new AdresseEventServiceImpl(producer, Optional.empty(), Optional.empty());
+        // WHEN
+        boolean envoye = service.sendEvent(UUID.randomUUID(), DESTINATAIRE, ADRESSE);
+        boolean envoyeAsync = service.sendEventAsync(UUID.randomUUID(), DESTINATAIRE, ADRESSE).get(5, TimeUnit.SECONDS);
+        // THEN
+        assertFalse(envoye);
+        assertFalse(envoyeAsync);
+    }
+
+    @Test
+    public void given_producer_refusing_message_async_publisher_should_confirm_false() throws Exception {
+        // GIVEN
+        when(producer.sendAdresseMessage(any(AdresseMessagePayload.class))).thenReturn(false);
+        AdresseEventPublisher publisher = configuration.adresseEventPublisher(producer, 100, 10,
+                Duration.ofMillis(5), "block", Duration.ofMillis(500), registry);
+        publisher.start();
+        try {
+            AdresseEventServiceImpl service = new AdresseEventServiceImpl(producer, Optional.of(publisher), Optional.empty());
+            // WHEN
+            boolean envoye = service.sendEventAsync(UUID.randomUUID(), DESTINATAIRE, ADRESSE).get(5, TimeUnit.SECONDS);
+            // THEN
+            assertFalse(envoye);
+        } finally {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    public void given_producer_refusing_message_coalescer_without_publisher_should_confirm_false() throws Exception {
+        // GIVEN
+        when(producer.sendAdresseMessage(any(AdresseMessagePayload.class))).thenReturn(false);
+        AdresseEventCoalescer coalescer = configuration.adresseEventCoalescer(producer, Optional.empty(),
+                Duration.ofMillis(10), registry);
+        coalescer.start();
+        try {
+            AdresseEventServiceImpl service = new AdresseEventServiceImpl(producer, Optional.empty(), Optional.of(coalescer));
+            // WHEN
+            boolean envoye = service.sendEventAsync(UUID.randomUUID(), DESTINATAIRE, ADRESSE).get(5, TimeUnit.SECONDS);
+            // THEN
+            assertFalse(envoye);
+        } finally {
+            coalescer.stop();
+        }
+    }
+
+    @Test
+    public void given_producer_error_coalescer_without_publisher_should_confirm_exceptionally() {
+        // GIVEN
+        when(producer.sendAdresseMessage(any(AdresseMessagePayload.class))).thenThrow(new IllegalStateException("Simulated broker error"));
+        AdresseEventCoalescer coalescer = configuration.adresseEventCoalescer(producer, Optional.empty(),
+                Duration.ofMillis(10), registry);
+        coalescer.start();
+        try {
+            AdresseEventServiceImpl service = new AdresseEventServiceImpl(producer, Optional.empty(), Optional.of(coalescer));
+            // WHEN
+            var confirmation = service.sendEventAsync(UUID.randomUUID(), DESTINATAIRE, ADRESSE);
+            // THEN
+            assertThrows(Exception.class, () -> confirmation.get(5, TimeUnit.SECONDS));
+        } finally {
+            coalescer.stop();
+        }
+    }
+
+}
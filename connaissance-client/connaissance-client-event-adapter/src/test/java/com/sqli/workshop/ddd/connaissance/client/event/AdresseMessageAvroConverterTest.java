@@ -0,0 +1,73 @@
+package com.sqli.workshop.ddd.connaissance.client.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdresseMessageAvroConverterTest {
+
+    private final AdresseMessageAvroConverter converter = new AdresseMessageAvroConverter(new AdresseMessageAvroCodec());
+
+    @Test
+    public void given_avro_content_type_toMessage_should_encode_and_fromMessage_should_decode() {
+        // GIVEN
+        AdresseMessagePayload payload = payload();
+        MessageHeaders headers = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, AdresseMessageAvroConverter.AVRO));
+        // WHEN
+        Message<?> message = converter.toMessage(payload, headers);
+        AdresseMessagePayload decode = (AdresseMessagePayload) converter.fromMessage(message, AdresseMessagePayload.class);
+        // THEN
+        assertInstanceOf(byte[].class, message.getPayload());
+        assertEquals(AdresseMessageAvroConverter.AVRO, message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        assertEquals(payload.getClientId(), decode.getClientId());
+        assertEquals("Philippe Bousquet", decode.getAdresse().getDestinataire());
+        assertEquals("48 rue bauducheu", decode.getAdresse().getLigne1());
+        assertNull(decode.getAdresse().getLigne2());
+        assertEquals("33800", decode.getAdresse().getCodePostal());
+        assertEquals("Bordeaux", decode.getAdresse().getVille());
+    }
+
+    @Test
+    public void given_json_content_type_converter_should_not_apply() {
+        // GIVEN
+        Message<byte[]> json = MessageBuilder.withPayload("{}".getBytes())
+                .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                .build();
+        // WHEN / THEN
+        assertNull(converter.fromMessage(json, AdresseMessagePayload.class));
+        assertNull(converter.toMessage(payload(), new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, "application/json"))));
+    }
+
+    @Test
+    public void given_payload_avro_encoding_should_be_smaller_than_json() throws Exception {
+        // GIVEN
+        AdresseMessagePayload payload = payload();
+        // WHEN
+        byte[] avro = new AdresseMessageAvroCodec().encoder(payload);
+        byte[] json = new ObjectMapper().writeValueAsBytes(payload);
+        // THEN
+        assertTrue(avro.length < json.length, "avro=" + avro.length + " json=" + json.length);
+    }
+
+    private static AdresseMessagePayload payload() {
+        Adresse adresse = new Adresse();
+        adresse.setDestinataire("Philippe Bousquet");
+        adresse.setLigne1("48 rue bauducheu");
+        adresse.setCodePostal("33800");
+        adresse.setVille("Bordeaux");
+        AdresseMessagePayload payload = new AdresseMessagePayload();
+        payload.setClientId("8a9204f5-aa42-47bc-9f04-17caab5deeee");
+        payload.setAdresse(adresse);
+        return payload;
+    }
+
+}
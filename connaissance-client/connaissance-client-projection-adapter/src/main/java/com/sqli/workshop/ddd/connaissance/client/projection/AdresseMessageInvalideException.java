@@ -0,0 +1,16 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+/**
+ * Message d'adresse illisible ou incomplet : il n'est pas rejoué et part en DLQ.
+ */
+public class AdresseMessageInvalideException extends RuntimeException {
+
+    public AdresseMessageInvalideException(String message) {
+        super(message);
+    }
+
+    public AdresseMessageInvalideException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
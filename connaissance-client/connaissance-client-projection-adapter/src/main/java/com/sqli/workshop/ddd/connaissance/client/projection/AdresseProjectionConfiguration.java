@@ -0,0 +1,88 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.event.AdresseMessageAvroCodec;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Projection des adresses alimentée par {@code event.adresse.v1}, activée par
+ * {@code connaissance-client.projection.enabled=true}.
+ * <p>
+ * Le consommateur est lié au binding {@code receiveAdresseMessage-in-0} : mode batch et
+ * concurrence se règlent sur le binding ({@code consumer.batch-mode}, {@code consumer.concurrency}).
+ * Un message illisible part sans nouvel essai vers {@code connaissance-client.projection.dlq.topic} ;
+ * une erreur d'écriture de la projection est rejouée ({@code retry.attempts} fois, espacées de
+ * {@code retry.interval}) avant l'envoi en DLQ.
+ * <p>
+ * <strong>Métrique :</strong> {@code connaissance.client.projection.rejected} (messages envoyés en DLQ).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "connaissance-client.projection", name = "enabled", havingValue = "true")
+@Slf4j
+public class AdresseProjectionConfiguration {
+
+    static final String DESTINATION = "event.adresse.v1";
+
+    @Bean
+    AdresseProjectionRepository adresseProjectionRepository(MongoOperations mongoOperations) {
+        return new AdresseProjectionRepository(mongoOperations);
+    }
+
+    /** Nom du bean = nom de la fonction Spring Cloud Stream (binding receiveAdresseMessage-in-0) */
+    @Bean
+    AdresseProjectionConsumer receiveAdresseMessage(AdresseProjectionRepository repository, ObjectMapper objectMapper,
+                                                    MeterRegistry registry) {
+        return new AdresseProjectionConsumer(repository, objectMapper, new AdresseMessageAvroCodec(), registry);
+    }
+
+    @Bean
+    ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> adresseProjectionErrorHandler(
+            @Value("${spring.cloud.stream.kafka.binder.brokers:localhost:9092}") String brokers,
+            @Value("${connaissance-client.projection.dlq.topic:event.adresse.v1.dlq}") String dlq,
+            @Value("${connaissance-client.projection.retry.attempts:3}") long essais,
+            @Value("${connaissance-client.projection.retry.interval:1s}") Duration intervalle,
+            MeterRegistry registry) {
+        Counter rejets = Counter.builder("connaissance.client.projection.rejected")
+                .description("Messages d'adresse envoyés en DLQ par la projection")
+                .register(registry);
+        KafkaTemplate<byte[], byte[]> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers),
+                new ByteArraySerializer(), new ByteArraySerializer()));
+        DeadLetterPublishingRecoverer dlqPublisher = new DeadLetterPublishingRecoverer(template,
+                (enregistrement, erreur) -> new TopicPartition(dlq, -1));
+        return (container, destination, group) -> {
+            if (!DESTINATION.equals(destination)) return;
+            DefaultErrorHandler errorHandler = new DefaultErrorHandler((enregistrement, erreur) -> {
+                rejets.increment();
+                log.warn("Address message {}-{}@{} sent to {}: {}", enregistrement.topic(),
+                        enregistrement.partition(), enregistrement.offset(), dlq, erreur.getMessage());
+                dlqPublisher.accept(enregistrement, erreur);
+            }, new FixedBackOff(intervalle.toMillis(), essais));
+            errorHandler.addNotRetryableExceptions(AdresseMessageInvalideException.class);
+            container.setCommonErrorHandler(errorHandler);
+        };
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.event.AdresseMessageAvroCodec;
+import com.sqli.workshop.ddd.connaissance.client.event.AdresseMessageAvroConverter;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consommateur de l'opération {@code receiveAdresseMessage} : applique les lots de messages
+ * de {@code event.adresse.v1} à la projection des adresses.
+ * <p>
+ * Chaque message est décodé selon son en-tête {@code contentType} (JSON par défaut, ou
+ * {@link AdresseMessageAvroConverter#AVRO}). Seule la dernière adresse de chaque client est
+ * écrite, en une requête par lot. Un message illisible interrompt le lot : les messages
+ * précédents sont appliqués, et le message est signalé au gestionnaire d'erreurs
+ * ({@link BatchListenerFailedException}) qui l'envoie en DLQ puis reprend les suivants.
+ * <p>
+ * <strong>Métriques :</strong> {@code connaissance.client.projection.messages} (messages
+ * appliqués, débit), {@code connaissance.client.projection.batch.size},
+ * {@code connaissance.client.projection.latency} (délai entre la production du message et son
+ * application), {@code connaissance.client.projection.stale} (messages plus anciens que
+ * l'adresse projetée).
+ */
+@Slf4j
+public class AdresseProjectionConsumer implements Consumer<Message<List<byte[]>>> {
+
+    private final AdresseProjectionRepository repository;
+    private final ObjectMapper objectMapper;
+    private final AdresseMessageAvroCodec avro;
+    private final Counter messages;
+    private final DistributionSummary lots;
+    private final Timer latence;
+    private final Counter perimes;
+
+    public AdresseProjectionConsumer(AdresseProjectionRepository repository, ObjectMapper objectMapper,
+                                     AdresseMessageAvroCodec avro, MeterRegistry registry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.avro = avro;
+        this.messages = Counter.builder("connaissance.client.projection.messages")
+                .description("Messages d'adresse appliqués à la projection")
+                .register(registry);
+        this.lots = DistributionSummary.builder("connaissance.client.projection.batch.size")
+                .description("Taille des lots de messages d'adresse consommés")
+                .register(registry);
+        this.latence = Timer.builder("connaissance.client.projection.latency")
+                .description("Délai entre la production d'un message d'adresse et son application à la projection")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.perimes = Counter.builder("connaissance.client.projection.stale")
+                .description("Messages d'adresse ignorés, plus anciens que l'adresse projetée")
+                .register(registry);
+    }
+
+    @Override
+    public void accept(Message<List<byte[]>> lot) {
+        List<byte[]> contenus = lot.getPayload();
+        List<?> entetes = lot.getHeaders().get(KafkaHeaders.BATCH_CONVERTED_HEADERS, List.class);
+        List<?> horodatages = lot.getHeaders().get(KafkaHeaders.RECEIVED_TIMESTAMP, List.class);
+        lots.record(contenus.size());
+        Map<String, AdresseProjetee> dernieres = new LinkedHashMap<>();
+        for (int i = 0; i < contenus.size(); i++) {
+            AdresseProjetee adresse;
+            try {
+                adresse = decoder(contenus.get(i), contentType(entetes, i), horodatage(horodatages, i));
+            } catch (AdresseMessageInvalideException e) {
+                appliquer(dernieres, i);
+                throw new BatchListenerFailedException("Invalid address message at index " + i, e, i);
+            }
+            dernieres.merge(adresse.clientId(), adresse,
+                    (projetee, nouvelle) -> nouvelle.evenementLe().isBefore(projetee.evenementLe()) ? projetee : nouvelle);
+        }
+        appliquer(dernieres, contenus.size());
+    }
+
+    private void appliquer(Map<String, AdresseProjetee> dernieres, int recus) {
+        if (recus == 0) return;
+        perimes.increment(repository.appliquer(dernieres.values()));
+        messages.increment(recus);
+        Instant maintenant = Instant.now();
+        dernieres.values().forEach(adresse ->
+                latence.record(Duration.between(adresse.evenementLe(), maintenant)));
+    }
+
+    AdresseProjetee decoder(byte[] contenu, MimeType contentType, Instant horodatage) {
+        AdresseMessagePayload payload;
+        try {
+            payload = AdresseMessageAvroConverter.AVRO.equalsTypeAndSubtype(contentType)
+                    ? avro.decoder(contenu)
+                    : objectMapper.readValue(contenu, AdresseMessagePayload.class);
+        } catch (IOException | RuntimeException e) {
+            throw new AdresseMessageInvalideException("Unreadable address message: " + e.getMessage(), e);
+        }
+        Adresse adresse = payload.getAdresse();
+        if (payload.getClientId() == null || adresse == null || adresse.getLigne1() == null
+                || adresse.getCodePostal() == null || adresse.getVille() == null) {
+            throw new AdresseMessageInvalideException("Incomplete address message for client " + payload.getClientId());
+        }
+        try {
+            UUID.fromString(payload.getClientId());
+        } catch (IllegalArgumentException e) {
+            throw new AdresseMessageInvalideException("Invalid client id " + payload.getClientId(), e);
+        }
+        return new AdresseProjetee(payload.getClientId(), adresse.getDestinataire(), adresse.getLigne1(),
+                adresse.getLigne2(), adresse.getCodePostal(), adresse.getVille(), horodatage);
+    }
+
+    private static MimeType contentType(List<?> entetes, int index) {
+        if (entetes == null || index >= entetes.size() || !(entetes.get(index) instanceof Map<?, ?> enTete)) return null;
+        Object valeur = enTete.get(MessageHeaders.CONTENT_TYPE);
+        if (valeur == null) return null;
+        String texte = valeur instanceof byte[] octets ? new String(octets, StandardCharsets.UTF_8) : valeur.toString();
+        try {
+            return MimeType.valueOf(texte.replace("\"", ""));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring invalid contentType header {}", texte);
+            return null;
+        }
+    }
+
+    /** Horodatage Kafka du message (CreateTime du producteur), à défaut l'heure de réception */
+    private static Instant horodatage(List<?> horodatages, int index) {
+        if (horodatages != null && index < horodatages.size() && horodatages.get(index) instanceof Long millis) {
+            return Instant.ofEpochMilli(millis);
+        }
+        return Instant.now();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+
+/**
+ * Projection des adresses clients dans la collection {@value #COLLECTION} : un document par
+ * client ({@code _id} = clientId), lisible sans jointure.
+ * <p>
+ * Les écritures sont des upserts idempotents : rejouer un message réécrit la même adresse, et
+ * un message plus ancien que l'adresse projetée ({@code evenementLe}) est ignoré.
+ */
+public class AdresseProjectionRepository {
+
+    static final String COLLECTION = "connaissanceclient_adresses";
+
+    private final MongoOperations mongoOperations;
+
+    public AdresseProjectionRepository(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    /**
+     * Applique les adresses en une seule requête (au plus une adresse par client).
+     *
+     * @return le nombre d'adresses ignorées car plus anciennes que l'adresse projetée
+     */
+    public int appliquer(Collection<AdresseProjetee> adresses) {
+        if (adresses.isEmpty()) return 0;
+        List<UpdateOneModel<Document>> upserts = new ArrayList<>(adresses.size());
+        for (AdresseProjetee adresse : adresses) {
+            Date evenementLe = Date.from(adresse.evenementLe());
+            // Sur un document plus récent, le filtre échoue et l'upsert est rejeté sur la clé _id
+            Bson filtre = Filters.and(
+                    Filters.eq("_id", adresse.clientId()),
+                    Filters.or(Filters.exists("evenementLe", false), Filters.lte("evenementLe", evenementLe)));
+            Bson miseAJour = Updates.combine(
+                    Updates.set("destinataire", adresse.destinataire()),
+                    Updates.set("ligne1", adresse.ligne1()),
+                    Updates.set("ligne2", adresse.ligne2()),
+                    Updates.set("codePostal", adresse.codePostal()),
+                    Updates.set("ville", adresse.ville()),
+                    Updates.set("evenementLe", evenementLe),
+                    Updates.currentDate("projeteLe"));
+            upserts.add(new UpdateOneModel<>(filtre, miseAJour, new UpdateOptions().upsert(true)));
+        }
+        try {
+            collection().bulkWrite(upserts, new BulkWriteOptions().ordered(false));
+            return 0;
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) throw e;
+            int perimees = 0;
+            for (BulkWriteError erreur : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(erreur.getCode()) != ErrorCategory.DUPLICATE_KEY) throw e;
+                perimees++;
+            }
+            return perimees;
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoOperations.getCollection(COLLECTION);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+import java.time.Instant;
+
+/**
+ * Adresse d'un client dans la projection, telle que publiée sur {@code event.adresse.v1}.
+ *
+ * @param clientId l'identifiant du client (clé de la projection)
+ * @param evenementLe l'horodatage du message Kafka : un message plus ancien que l'adresse
+ *                    projetée est ignoré
+ */
+public record AdresseProjetee(String clientId, String destinataire, String ligne1, String ligne2,
+                              String codePostal, String ville, Instant evenementLe) {
+}
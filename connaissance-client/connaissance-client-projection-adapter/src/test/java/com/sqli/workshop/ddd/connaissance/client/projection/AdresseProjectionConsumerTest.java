@@ -0,0 +1,172 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.event.AdresseMessageAvroCodec;
+import com.sqli.workshop.ddd.connaissance.client.event.AdresseMessageAvroConverter;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AdresseProjectionConsumerTest {
+
+    private static final String CLIENT = UUID.randomUUID().toString();
+    private static final String AUTRE_CLIENT = UUID.randomUUID().toString();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AdresseMessageAvroCodec avro = new AdresseMessageAvroCodec();
+    private AdresseProjectionRepository repository;
+    private SimpleMeterRegistry registry;
+    private AdresseProjectionConsumer consumer;
+    private List<List<AdresseProjetee>> appliquees;
+
+    @BeforeEach
+    public void init() {
+        repository = mock(AdresseProjectionRepository.class);
+        registry = new SimpleMeterRegistry();
+        consumer = new AdresseProjectionConsumer(repository, objectMapper, avro, registry);
+        appliquees = new ArrayList<>();
+        when(repository.appliquer(any())).thenAnswer(invocation -> {
+            appliquees.add(new ArrayList<>(invocation.<Collection<AdresseProjetee>>getArgument(0)));
+            return 0;
+        });
+    }
+
+    @Test
+    public void given_batch_with_successive_addresses_accept_should_apply_latest_per_client() throws Exception {
+        // GIVEN
+        Message<List<byte[]>> lot = lot(
+                List.of(json(CLIENT, "33800"), json(AUTRE_CLIENT, "75001"), json(CLIENT, "33000")),
+                List.of(1_000L, 1_001L, 1_002L),
+                List.of(Map.of(), Map.of(), Map.of()));
+        // WHEN
+        consumer.accept(lot);
+        // THEN
+        assertEquals(1, appliquees.size());
+        List<AdresseProjetee> adresses = appliquees.get(0);
+        assertEquals(2, adresses.size());
+        assertEquals("33000", adresses.stream().filter(a -> CLIENT.equals(a.clientId())).findFirst().orElseThrow().codePostal());
+        assertEquals(3.0, registry.get("connaissance.client.projection.messages").counter().count());
+        assertEquals(1, registry.get("connaissance.client.projection.batch.size").summary().count());
+        assertEquals(2, registry.get("connaissance.client.projection.latency").timer().count());
+    }
+
+    @Test
+    public void given_avro_content_type_accept_should_decode_avro() throws Exception {
+        // GIVEN
+        Message<List<byte[]>> lot = lot(
+                List.of(avro.encoder(payload(CLIENT, "33800"))),
+                List.of(1_000L),
+                List.of(Map.of(MessageHeaders.CONTENT_TYPE, AdresseMessageAvroConverter.AVRO.toString())));
+        // WHEN
+        consumer.accept(lot);
+        // THEN
+        assertEquals("33800", appliquees.get(0).get(0).codePostal());
+    }
+
+    @Test
+    public void given_json_and_avro_messages_from_same_topic_accept_should_decode_both() throws Exception {
+        // GIVEN - topic en cours de bascule d'encodage : en-têtes tels que reçus de Kafka (texte ou octets JSON)
+        String troisiemeClient = UUID.randomUUID().toString();
+        Message<List<byte[]>> lot = lot(
+                List.of(json(CLIENT, "33800"), avro.encoder(payload(AUTRE_CLIENT, "75001")),
+                        json(troisiemeClient, "69001"), avro.encoder(payload(CLIENT, "33000"))),
+                List.of(1_000L, 1_001L, 1_002L, 1_003L),
+                List.of(Map.of(),
+                        Map.of(MessageHeaders.CONTENT_TYPE, AdresseMessageAvroConverter.AVRO.toString()),
+                        Map.of(MessageHeaders.CONTENT_TYPE, "\"application/json\"".getBytes(StandardCharsets.UTF_8)),
+                        Map.of(MessageHeaders.CONTENT_TYPE, ("\"" + AdresseMessageAvroConverter.AVRO + "\"").getBytes(StandardCharsets.UTF_8))));
+        // WHEN
+        consumer.accept(lot);
+        // THEN
+        List<AdresseProjetee> adresses = appliquees.get(0);
+        assertEquals(3, adresses.size());
+        assertEquals("33000", adresses.stream().filter(a -> CLIENT.equals(a.clientId())).findFirst().orElseThrow().codePostal());
+        assertEquals("75001", adresses.stream().filter(a -> AUTRE_CLIENT.equals(a.clientId())).findFirst().orElseThrow().codePostal());
+        assertEquals("69001", adresses.stream().filter(a -> troisiemeClient.equals(a.clientId())).findFirst().orElseThrow().codePostal());
+        assertEquals(4.0, registry.get("connaissance.client.projection.messages").counter().count());
+    }
+
+    @Test
+    public void given_poison_message_accept_should_apply_previous_and_report_index() throws Exception {
+        // GIVEN
+        Message<List<byte[]>> lot = lot(
+                List.of(json(CLIENT, "33800"), "not json".getBytes(StandardCharsets.UTF_8), json(AUTRE_CLIENT, "75001")),
+                List.of(1_000L, 1_001L, 1_002L),
+                List.of(Map.of(), Map.of(), Map.of()));
+        // WHEN
+        BatchListenerFailedException erreur = assertThrows(BatchListenerFailedException.class, () -> consumer.accept(lot));
+        // THEN
+        assertEquals(1, erreur.getIndex());
+        assertInstanceOf(AdresseMessageInvalideException.class, erreur.getCause());
+        assertEquals(1, appliquees.size());
+        assertEquals(CLIENT, appliquees.get(0).get(0).clientId());
+        assertEquals(1.0, registry.get("connaissance.client.projection.messages").counter().count());
+    }
+
+    @Test
+    public void given_message_without_client_id_decoder_should_reject() throws Exception {
+        // GIVEN
+        byte[] incomplet = objectMapper.writeValueAsBytes(payload(null, "33800"));
+        // WHEN / THEN
+        assertThrows(AdresseMessageInvalideException.class, () -> consumer.decoder(incomplet, null, Instant.now()));
+    }
+
+    @Test
+    public void given_stale_addresses_accept_should_count_them() throws Exception {
+        // GIVEN
+        when(repository.appliquer(any())).thenReturn(1);
+        // WHEN
+        consumer.accept(lot(List.of(json(CLIENT, "33800")), List.of(1_000L), List.of(Map.of())));
+        // THEN
+        ArgumentCaptor<Collection<AdresseProjetee>> adresses = ArgumentCaptor.captor();
+        verify(repository).appliquer(adresses.capture());
+        assertEquals(1, adresses.getValue().size());
+        assertEquals(1.0, registry.get("connaissance.client.projection.stale").counter().count());
+    }
+
+    private static Message<List<byte[]>> lot(List<byte[]> contenus, List<Long> horodatages, List<Map<String, Object>> entetes) {
+        return MessageBuilder.withPayload(contenus)
+                .setHeader(KafkaHeaders.RECEIVED_TIMESTAMP, horodatages)
+                .setHeader(KafkaHeaders.BATCH_CONVERTED_HEADERS, entetes)
+                .build();
+    }
+
+    private byte[] json(String clientId, String codePostal) throws Exception {
+        return objectMapper.writeValueAsBytes(payload(clientId, codePostal));
+    }
+
+    private static AdresseMessagePayload payload(String clientId, String codePostal) {
+        Adresse adresse = new Adresse();
+        adresse.setDestinataire("Philippe Bousquet");
+        adresse.setLigne1("48 rue bauducheu");
+        adresse.setCodePostal(codePostal);
+        adresse.setVille("Bordeaux");
+        AdresseMessagePayload payload = new AdresseMessagePayload();
+        payload.setClientId(clientId);
+        payload.setAdresse(adresse);
+        return payload;
+    }
+
+}
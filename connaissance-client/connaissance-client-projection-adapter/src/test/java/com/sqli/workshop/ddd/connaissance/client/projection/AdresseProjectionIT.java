@@ -0,0 +1,115 @@
+package com.sqli.workshop.ddd.connaissance.client.projection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Débit et latence de bout en bout (production → application à la projection) sur un broker
+ * Kafka embarqué ; nécessite une instance MongoDB locale.
+ */
+@SpringBootTest(properties = {
+    "connaissance-client.projection.enabled=true",
+    "spring.data.mongodb.database=test_connaissance_client",
+    "spring.cloud.stream.kafka.binder.brokers=${spring.embedded.kafka.brokers}",
+    "spring.cloud.stream.bindings.receiveAdresseMessage-in-0.destination=event.adresse.v1",
+    "spring.cloud.stream.bindings.receiveAdresseMessage-in-0.group=connaissance-client-projection-it",
+    "spring.cloud.stream.bindings.receiveAdresseMessage-in-0.consumer.batch-mode=true",
+    "spring.cloud.stream.bindings.receiveAdresseMessage-in-0.consumer.concurrency=3",
+    "spring.cloud.stream.kafka.bindings.receiveAdresseMessage-in-0.consumer.configuration.max.poll.records=500",
+    "spring.cloud.stream.kafka.bindings.receiveAdresseMessage-in-0.consumer.configuration.auto.offset.reset=earliest"
+})
+@EmbeddedKafka(partitions = 3, topics = {"event.adresse.v1", "event.adresse.v1.dlq"})
+class AdresseProjectionIT {
+
+    private static final int MESSAGES = 10_000;
+
+    @SpringBootApplication
+    static class ProjectionTestApplication {
+    }
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        mongoOperations.getCollection(AdresseProjectionRepository.COLLECTION).deleteMany(new Document());
+    }
+
+    @Test
+    void given_produced_messages_projection_should_apply_all_and_report_throughput_and_latency() throws Exception {
+        // GIVEN
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                       ProducerConfig.LINGER_MS_CONFIG, 5),
+                new StringSerializer(), new ByteArraySerializer()));
+        double avant = registry.get("connaissance.client.projection.messages").counter().count();
+        // WHEN
+        long debut = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            String clientId = UUID.randomUUID().toString();
+            template.send(new ProducerRecord<>("event.adresse.v1", clientId, objectMapper.writeValueAsBytes(payload(clientId))));
+        }
+        template.flush();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (registry.get("connaissance.client.projection.messages").counter().count() - avant < MESSAGES
+                && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        // THEN
+        assertEquals(MESSAGES, registry.get("connaissance.client.projection.messages").counter().count() - avant);
+        assertEquals(MESSAGES, mongoOperations.getCollection(AdresseProjectionRepository.COLLECTION).countDocuments());
+        Timer latence = registry.get("connaissance.client.projection.latency").timer();
+        System.out.printf("Projection: %d messages in %.2fs (%.0f msg/s), latency mean=%.1fms max=%.1fms%n",
+                MESSAGES, secondes, MESSAGES / secondes,
+                latence.mean(TimeUnit.MILLISECONDS), latence.max(TimeUnit.MILLISECONDS));
+    }
+
+    private static AdresseMessagePayload payload(String clientId) {
+        Adresse adresse = new Adresse();
+        adresse.setDestinataire("Philippe Bousquet");
+        adresse.setLigne1("48 rue bauducheu");
+        adresse.setCodePostal("33800");
+        adresse.setVille("Bordeaux");
+        AdresseMessagePayload payload = new AdresseMessagePayload();
+        payload.setClientId(clientId);
+        payload.setAdresse(adresse);
+        return payload;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.sqli.workshop.ddd.connaissance.client.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.event.AdresseMessageAvroCodec;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.generated.event.model.AdresseMessagePayload;
+
+/**
+ * Encodage d'un message d'adresse : JSON (Jackson, encodage par défaut du binding) et Avro
+ * ({@link AdresseMessageAvroCodec}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdresseMessageEncodingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private AdresseMessageAvroCodec avro;
+    private AdresseMessagePayload payload;
+
+    @Setup
+    public void init() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        avro = new AdresseMessageAvroCodec();
+        Adresse adresse = new Adresse();
+        adresse.setDestinataire("Philippe Bousquet");
+        adresse.setLigne1("48 rue bauducheu");
+        adresse.setLigne2("maison individuelle");
+        adresse.setCodePostal("33800");
+        adresse.setVille("Bordeaux");
+        payload = new AdresseMessagePayload();
+        payload.setClientId("8a9204f5-aa42-47bc-9f04-17caab5deeee");
+        payload.setAdresse(adresse);
+        System.out.printf("%nOctets/message : json=%d avro=%d%n",
+                objectMapper.writeValueAsBytes(payload).length, avro.encoder(payload).length);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] avro() {
+        return avro.encoder(payload);
+    }
+
+}
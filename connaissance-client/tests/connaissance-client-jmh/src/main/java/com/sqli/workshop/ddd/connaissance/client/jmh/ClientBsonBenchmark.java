@@ -0,0 +1,111 @@
+package com.sqli.workshop.ddd.connaissance.client.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.sqli.workshop.ddd.connaissance.client.db.ClientCodec;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientDb;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientDbMapper;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientDbMapperImpl;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+/**
+ * Conversion d'une fiche client en BSON et inverse : chaîne Spring Data ({@link ClientDbMapper},
+ * {@link ClientDb}, {@link MappingMongoConverter}, {@link Document}) ou {@link ClientCodec}.
+ * Les allocations (octets/op) sont mesurées avec le profiler {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientBsonBenchmark {
+
+    private ClientDbMapper mapper;
+    private MappingMongoConverter converter;
+    private DocumentCodec documentCodec;
+    private ClientCodec clientCodec;
+    private Client client;
+    private byte[] bson;
+
+    @Setup
+    public void init() {
+        mapper = new ClientDbMapperImpl();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        documentCodec = new DocumentCodec();
+        clientCodec = new ClientCodec();
+        client = Client.of(
+                UUID.fromString("8a9204f5-aa42-47bc-9f04-17caab5deeee"),
+                new Nom("Bousquet"),
+                new Prenom("Philippe"),
+                new Adresse(
+                        new LigneAdresse("48 rue bauducheu"),
+                        new LigneAdresse("maison individuelle"),
+                        new CodePostal("33800"),
+                        new Ville("Bordeaux")),
+                SituationFamiliale.MARIE,
+                2,
+                3L);
+        bson = springDataEncode();
+        System.out.printf("%nOctets/document : spring-data=%d codec=%d%n", bson.length, codecEncode().length);
+    }
+
+    @Benchmark
+    public byte[] springDataEncode() {
+        Document document = new Document();
+        converter.write(mapper.mapFromDomain(client), document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        clientCodec.encode(new BsonBinaryWriter(buffer), client, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public Client springDataDecode() {
+        Document document = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+        return mapper.mapToDomain(converter.read(ClientDb.class, document));
+    }
+
+    @Benchmark
+    public Client codecDecode() {
+        return clientCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.sqli.workshop.ddd.connaissance.client.jmh;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.api.FichesClientJson;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Corps de la réponse de {@code GET /v1/connaissance-clients/{id}} : mapping DTO et sérialisation
+ * Jackson à chaque requête, ou JSON pré-sérialisé lu dans {@link FichesClientJson}.
+ * Les allocations (octets/op) sont mesurées avec le profiler {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FicheClientJsonBenchmark {
+
+    private static final long VERSION = 3L;
+
+    private FichesClientJson fichesJson;
+    private Client client;
+
+    @Setup
+    public void init() {
+        fichesJson = new FichesClientJson(new ObjectMapper(), 100, new SimpleMeterRegistry());
+        client = Client.of(
+                UUID.fromString("8a9204f5-aa42-47bc-9f04-17caab5deeee"),
+                new Nom("Bousquet"),
+                new Prenom("Philippe"),
+                new Adresse(
+                        new LigneAdresse("48 rue bauducheu"),
+                        new LigneAdresse("maison individuelle"),
+                        new CodePostal("33800"),
+                        new Ville("Bordeaux")),
+                SituationFamiliale.MARIE,
+                2,
+                VERSION);
+        System.out.printf("%nOctets/fiche : %d%n", fichesJson.enregistrer(client).length);
+    }
+
+    @Benchmark
+    public byte[] dto() {
+        return fichesJson.serialiser(client);
+    }
+
+    @Benchmark
+    public byte[] cache() {
+        return fichesJson.lire(client.getId(), VERSION).orElseThrow();
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.sqli.workshop.ddd.connaissance.client.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientCodec;
+import com.sqli.workshop.ddd.connaissance.client.db.FormatIdentifiant;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.UuidV7;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+/**
+ * Identifiants des fiches client : génération concurrente ({@link UUID#randomUUID()}, qui tire
+ * d'un {@code SecureRandom} partagé, ou {@link UuidV7}) puis débit d'insertion (documents/s) et
+ * taille de l'index {@code _id} selon le type d'identifiant ({@code v4} ou {@code v7}) et son
+ * format ({@link FormatIdentifiant}).
+ * <p>
+ * Les insertions nécessitent un MongoDB ({@code -Dmongodb.uri}, par défaut
+ * {@code mongodb://localhost:27017}) ; la taille de l'index est affichée à la fin de chaque essai.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentifiantBenchmark {
+
+    private static final int TAILLE_LOT = 1000;
+
+    @Benchmark
+    @Threads(8)
+    public UUID generationV4() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID generationV7() {
+        return UuidV7.generer();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAILLE_LOT)
+    public void insertion(Insertion insertion) {
+        List<Client> lot = new ArrayList<>(TAILLE_LOT);
+        for (int i = 0; i < TAILLE_LOT; i++) {
+            lot.add(insertion.client());
+        }
+        insertion.collection.insertMany(lot);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Insertion {
+
+        @Param({"V4_TEXTE", "V7_TEXTE", "V7_BINAIRE"})
+        public String identifiant;
+
+        private MongoClient mongoClient;
+        private MongoDatabase database;
+        private MongoCollection<Client> collection;
+        private boolean v7;
+
+        @Setup(Level.Trial)
+        public void init() {
+            v7 = identifiant.startsWith("V7");
+            FormatIdentifiant format = identifiant.endsWith("BINAIRE") ? FormatIdentifiant.BINAIRE : FormatIdentifiant.TEXTE;
+            mongoClient = MongoClients.create(System.getProperty("mongodb.uri", "mongodb://localhost:27017"));
+            database = mongoClient.getDatabase("jmh");
+            collection = database.getCollection("identifiants_" + identifiant.toLowerCase(), Client.class)
+                    .withCodecRegistry(CodecRegistries.fromRegistries(
+                            CodecRegistries.fromCodecs(new ClientCodec(format)),
+                            MongoClientSettings.getDefaultCodecRegistry()));
+            collection.drop();
+        }
+
+        @TearDown(Level.Trial)
+        public void fin() {
+            Document stats = database.runCommand(new Document("collStats", collection.getNamespace().getCollectionName()));
+            long documents = ((Number) stats.get("count")).longValue();
+            long index = ((Number) stats.get("indexSizes", Document.class).get("_id_")).longValue();
+            System.out.printf("%nIndex _id (%s) : %d octets, %d documents, %.1f octets/document%n",
+                    identifiant, index, documents, documents == 0 ? 0.0 : (double) index / documents);
+            collection.drop();
+            mongoClient.close();
+        }
+
+        Client client() {
+            return Client.of(
+                    v7 ? UuidV7.generer() : UUID.randomUUID(),
+                    new Nom("Bousquet"),
+                    new Prenom("Philippe"),
+                    new Adresse(new LigneAdresse("48 rue bauducheu"), new CodePostal("33800"), new Ville("Bordeaux")),
+                    SituationFamiliale.MARIE,
+                    2);
+        }
+    }
+
+}
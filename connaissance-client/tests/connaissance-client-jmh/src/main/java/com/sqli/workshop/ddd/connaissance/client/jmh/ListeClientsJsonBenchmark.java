@@ -0,0 +1,119 @@
+package com.sqli.workshop.ddd.connaissance.client.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqli.workshop.ddd.connaissance.client.api.ConnaissanceClientDelegate;
+import com.sqli.workshop.ddd.connaissance.client.api.LectureJsonDirecte;
+import com.sqli.workshop.ddd.connaissance.client.db.ClientCodec;
+import com.sqli.workshop.ddd.connaissance.client.domain.ConnaissanceClientService;
+import com.sqli.workshop.ddd.connaissance.client.domain.enums.SituationFamiliale;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Client;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.CriteresClient;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.PageClients;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.Pagination;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Adresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.CodePostal;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.LigneAdresse;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Nom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Prenom;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.types.Ville;
+
+/**
+ * Corps de la réponse de {@code GET /v1/connaissance-clients} pour une page de 50 documents BSON
+ * bruts : décodage en {@link Client} par {@link ClientCodec}, mapping DTO et sérialisation Jackson
+ * ({@code mapping}), ou écriture des champs lus directement en JSON par {@link LectureJsonDirecte}
+ * ({@code direct}). Les allocations (octets/op) sont mesurées avec le profiler {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListeClientsJsonBenchmark {
+
+    private static final int TAILLE_PAGE = 50;
+
+    private ObjectMapper objectMapper;
+    private ConnaissanceClientDelegate delegate;
+    private LectureJsonDirecte lectureDirecte;
+
+    @Setup
+    public void init() {
+        ClientCodec codec = new ClientCodec();
+        List<RawBsonDocument> documents = new ArrayList<>(TAILLE_PAGE);
+        for (int i = 0; i < TAILLE_PAGE; i++) {
+            BsonDocument document = new BsonDocument();
+            codec.encode(new BsonDocumentWriter(document), Client.of(
+                    UUID.randomUUID(),
+                    new Nom("Bousquet"),
+                    new Prenom("Philippe"),
+                    new Adresse(
+                            new LigneAdresse("48 rue bauducheu"),
+                            new LigneAdresse("maison individuelle"),
+                            new CodePostal("33800"),
+                            new Ville("Bordeaux")),
+                    SituationFamiliale.MARIE,
+                    2,
+                    3L), EncoderContext.builder().build());
+            documents.add(new RawBsonDocument(document, new BsonDocumentCodec()));
+        }
+        // Page lue en base : les documents bruts ramenés par le curseur
+        ConnaissanceClientService service = new ConnaissanceClientService() {
+            @Override
+            public PageClients listerClients(CriteresClient criteres, Pagination pagination) {
+                List<Client> clients = new ArrayList<>(documents.size());
+                for (RawBsonDocument document : documents) {
+                    clients.add(codec.decode(document.asBsonReader(), DecoderContext.builder().build()));
+                }
+                return new PageClients(clients, Optional.empty());
+            }
+
+            @Override
+            public Optional<UUID> listerClients(CriteresClient criteres, Pagination pagination, LecteurFiche lecteur) {
+                for (RawBsonDocument document : documents) {
+                    ClientCodec.lire(document.asBsonReader(), lecteur);
+                }
+                return Optional.empty();
+            }
+        };
+        objectMapper = new ObjectMapper();
+        delegate = new ConnaissanceClientDelegate(service, Optional.empty(), Optional.empty(), Optional.empty());
+        lectureDirecte = new LectureJsonDirecte(service, objectMapper);
+    }
+
+    @Benchmark
+    public byte[] mapping() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(delegate.getConnaissanceClients(TAILLE_PAGE, null, null, null, null, null, null, null).getBody());
+    }
+
+    @Benchmark
+    public byte[] direct() {
+        return lectureDirecte.page(CriteresClient.aucun(), new Pagination(TAILLE_PAGE, Optional.empty())).json();
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.sqli.workshop.ddd.connaissance.client.jmh;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sqli.workshop.ddd.connaissance.client.db.ClientDbRepository;
+import com.sqli.workshop.ddd.connaissance.client.db.IndexRechercheClientsMemoire;
+import com.sqli.workshop.ddd.connaissance.client.domain.models.LecteurFiche;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Recherche approchée de {@code GET /v1/connaissance-clients/recherche} sur un index
+ * {@link IndexRechercheClientsMemoire} de {@code fiches} clients synthétiques (noms, prénoms et
+ * villes générés à partir de syllabes) : nom et ville exacts ({@code exacte}), avec une lettre
+ * oubliée ({@code fauteDeFrappe}), ou début de nom en cours de saisie ({@code debutSaisi}).
+ * <p>
+ * Le mode {@code SampleTime} donne les percentiles de latence (p50, p90, p99...). La mémoire de
+ * l'index (estimation de la métrique {@code connaissance.client.recherche.index.memory} et heap
+ * mesuré) est affichée après sa construction, ramenée à un million de fiches.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class RechercheClientsBenchmark {
+
+    private static final int LIMITE = 10;
+    private static final int RECHERCHES = 4096;
+    private static final String CONSONNES = "bcdfgjlmnprstvz";
+    private static final String VOYELLES = "aeiouy";
+    private static final String[] FINALES = {"", "", "n", "r", "s", "t", "l", "x", "nd", "rd"};
+
+    @Param({"1000000"})
+    public int fiches;
+
+    private IndexRechercheClientsMemoire index;
+    private String[] exactes;
+    private String[] fautes;
+    private String[] debuts;
+    private int suivante;
+
+    @Setup(Level.Trial)
+    public void init() {
+        Random aleatoire = new Random(42);
+        String[] prenoms = new String[300];
+        String[] villes = new String[5000];
+        for (int i = 0; i < prenoms.length; i++) prenoms[i] = mot(aleatoire, 2);
+        for (int i = 0; i < villes.length; i++) villes[i] = mot(aleatoire, 2 + aleatoire.nextInt(2));
+        String[][] collection = new String[fiches][];
+        for (int i = 0; i < fiches; i++) {
+            collection[i] = new String[] {
+                    mot(aleatoire, 2 + aleatoire.nextInt(2)),
+                    prenoms[aleatoire.nextInt(prenoms.length)],
+                    villes[aleatoire.nextInt(villes.length)]};
+        }
+        exactes = new String[RECHERCHES];
+        fautes = new String[RECHERCHES];
+        debuts = new String[RECHERCHES];
+        for (int i = 0; i < RECHERCHES; i++) {
+            String[] fiche = collection[aleatoire.nextInt(fiches)];
+            exactes[i] = fiche[0] + " " + fiche[2];
+            int oubli = 1 + aleatoire.nextInt(exactes[i].length() - 2);
+            fautes[i] = exactes[i].substring(0, oubli) + exactes[i].substring(oubli + 1);
+            debuts[i] = fiche[0].substring(0, Math.min(4, fiche[0].length()));
+        }
+
+        ClientDbRepository repository = (ClientDbRepository) Proxy.newProxyInstance(
+                ClientDbRepository.class.getClassLoader(), new Class<?>[] {ClientDbRepository.class},
+                (proxy, methode, arguments) -> {
+                    if (!methode.getName().equals("readAll")) throw new UnsupportedOperationException(methode.getName());
+                    LecteurFiche lecteur = (LecteurFiche) arguments[1];
+                    for (String[] fiche : collection) {
+                        lecteur.fiche(UUID.randomUUID().toString(), fiche[0], fiche[1], "48 rue Bauducheu", null,
+                                "33800", fiche[2], "MARIE", 0, 1L);
+                    }
+                    return (long) collection.length;
+                });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        long avant = heapUtilise();
+        index = new IndexRechercheClientsMemoire(repository, 0.5, Duration.ofDays(1), registry);
+        long mesure = heapUtilise() - avant;
+        double estimee = registry.get("connaissance.client.recherche.index.memory").gauge().value();
+        double parMillion = 1_000_000.0 / fiches / (1024 * 1024);
+        System.out.printf("%nIndex de recherche, %d fiches : estimation %.1f Mo, heap mesuré %.1f Mo"
+                        + " (%.1f Mo / %.1f Mo par million de fiches)%n",
+                fiches, estimee / (1024 * 1024), mesure / (1024.0 * 1024), estimee * parMillion, mesure * parMillion);
+    }
+
+    @TearDown(Level.Trial)
+    public void fin() {
+        index.destroy();
+    }
+
+    @Benchmark
+    public List<UUID> exacte() {
+        return index.rechercher(exactes[suivante++ & (RECHERCHES - 1)], LIMITE);
+    }
+
+    @Benchmark
+    public List<UUID> fauteDeFrappe() {
+        return index.rechercher(fautes[suivante++ & (RECHERCHES - 1)], LIMITE);
+    }
+
+    @Benchmark
+    public List<UUID> debutSaisi() {
+        return index.rechercher(debuts[suivante++ & (RECHERCHES - 1)], LIMITE);
+    }
+
+    /** Syllabes consonne-voyelle(-consonne), avec une finale éventuelle */
+    private static String mot(Random aleatoire, int syllabes) {
+        StringBuilder mot = new StringBuilder();
+        for (int i = 0; i < syllabes; i++) {
+            mot.append(CONSONNES.charAt(aleatoire.nextInt(CONSONNES.length())))
+                    .append(VOYELLES.charAt(aleatoire.nextInt(VOYELLES.length())));
+            if (aleatoire.nextInt(3) == 0) mot.append(CONSONNES.charAt(aleatoire.nextInt(CONSONNES.length())));
+        }
+        mot.append(FINALES[aleatoire.nextInt(FINALES.length)]);
+        mot.setCharAt(0, Character.toUpperCase(mot.charAt(0)));
+        return mot.toString();
+    }
+
+    private static long heapUtilise() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}